@@ -1,5 +1,8 @@
 package com.example;
 
+import com.example.connection.DatabaseConnection;
+import com.example.modules.retention.service.RetentionService;
+import com.example.repository.factory.RepositoryFactory;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -7,8 +10,13 @@ import javafx.stage.Stage;
 
 public class MainApp extends Application {
 
+    private final RetentionService retentionService =
+            new RetentionService(RepositoryFactory.getRetentionRepository());
+
     @Override
     public void start(Stage stage) {
+        retentionService.start();
+
         try {
             FXMLLoader loader = new FXMLLoader(
                     getClass().getResource("/fxml/main.fxml")
@@ -25,6 +33,13 @@ public class MainApp extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        retentionService.stop();
+        RepositoryFactory.shutdown();
+        DatabaseConnection.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,386 @@
+package com.example.connection;
+
+import com.example.util.MonitoringThreadFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ * <p>
+ * At most {@code maxSize} physical connections exist. Callers wait up to
+ * {@code connectionTimeoutMillis} for a free one. Idle connections are reused
+ * most-recently-used first and revalidated when they sat unused for a while.
+ * Connections idle longer than {@code idleTimeoutMillis} or older than
+ * {@code maxLifetimeMillis} are closed. {@link Connection#close()} on a borrowed
+ * connection returns it to the pool.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_SECONDS = 30;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long connectionTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper =
+            Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("db-pool-housekeeper"));
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger total = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long connectionTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper.scheduleWithFixedDelay(this::evictExpired,
+                HOUSEKEEPING_PERIOD_SECONDS, HOUSEKEEPING_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long started = System.nanoTime();
+
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("No free connection in the pool after " + connectionTimeoutMillis
+                        + " ms (active=" + active.get() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pc = borrow();
+            recordWait(System.nanoTime() - started);
+            active.incrementAndGet();
+            return pc.lease();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection borrow() throws SQLException {
+        while (true) {
+            PooledConnection pc;
+            synchronized (idle) {
+                pc = idle.pollFirst();
+            }
+
+            if (pc == null) {
+                return open();
+            }
+
+            long now = System.currentTimeMillis();
+            if (pc.isExpired(now)) {
+                discard(pc);
+                continue;
+            }
+
+            if (now - pc.lastUsed > VALIDATE_AFTER_IDLE_MILLIS && !isValid(pc.raw)) {
+                discard(pc);
+                continue;
+            }
+
+            return pc;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        created.increment();
+        return new PooledConnection(raw);
+    }
+
+    private boolean isValid(Connection raw) {
+        try {
+            return raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        active.decrementAndGet();
+
+        try {
+            boolean reusable = !closed && !pc.raw.isClosed() && !pc.isExpired(System.currentTimeMillis());
+
+            if (reusable && !pc.raw.getAutoCommit()) {
+                pc.raw.rollback();
+                pc.raw.setAutoCommit(true);
+            }
+
+            if (reusable) {
+                pc.raw.clearWarnings();
+                pc.lastUsed = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.offerFirst(pc);
+                }
+            } else {
+                discard(pc);
+            }
+
+        } catch (SQLException e) {
+            discard(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        total.decrementAndGet();
+        evicted.increment();
+        try {
+            pc.raw.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledConnection pc = it.next();
+                if (pc.isExpired(now)) {
+                    it.remove();
+                    discard(pc);
+                }
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        acquired.increment();
+        waitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Stats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+
+        long count = acquired.sum();
+        return new Stats(
+                active.get(),
+                idleCount,
+                total.get(),
+                maxSize,
+                permits.getQueueLength(),
+                count,
+                count == 0 ? 0 : waitNanos.sum() / count / 1_000_000.0,
+                maxWaitNanos.get() / 1_000_000.0,
+                created.sum(),
+                evicted.sum(),
+                timeouts.sum()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        synchronized (idle) {
+            for (PooledConnection pc : idle) discard(pc);
+            idle.clear();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool credentials are fixed");
+    }
+
+    @Override public PrintWriter getLogWriter() { return null; }
+    @Override public void setLogWriter(PrintWriter out) { }
+    @Override public void setLoginTimeout(int seconds) { }
+    @Override public int getLoginTimeout() { return (int) TimeUnit.MILLISECONDS.toSeconds(connectionTimeoutMillis); }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private final class PooledConnection {
+        final Connection raw;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsed = createdAt;
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > maxLifetimeMillis || now - lastUsed > idleTimeoutMillis;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    /** Handle given to callers; close() hands the physical connection back exactly once. */
+    private final class Lease implements InvocationHandler {
+        private PooledConnection pc;
+
+        Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    PooledConnection owned;
+                    synchronized (this) {
+                        owned = pc;
+                        pc = null;
+                    }
+                    if (owned != null) release(owned);
+                    return null;
+                }
+                case "isClosed" -> {
+                    PooledConnection current = pc;
+                    return current == null || current.raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+                }
+            }
+
+            PooledConnection current = pc;
+            if (current == null) throw new SQLException("Connection is closed");
+
+            try {
+                return method.invoke(current.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public static final class Stats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int maxSize;
+        private final int waitingThreads;
+        private final long acquired;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long created;
+        private final long evicted;
+        private final long timeouts;
+
+        Stats(int active, int idle, int total, int maxSize, int waitingThreads, long acquired,
+              double averageWaitMillis, double maxWaitMillis, long created, long evicted, long timeouts) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.waitingThreads = waitingThreads;
+            this.acquired = acquired;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.created = created;
+            this.evicted = evicted;
+            this.timeouts = timeouts;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public int getMaxSize() { return maxSize; }
+        public int getWaitingThreads() { return waitingThreads; }
+        public long getAcquired() { return acquired; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getCreated() { return created; }
+        public long getEvicted() { return evicted; }
+        public long getTimeouts() { return timeouts; }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d total=%d/%d waiting=%d acquired=%d avgWait=%.2fms maxWait=%.2fms created=%d evicted=%d timeouts=%d",
+                    active, idle, total, maxSize, waitingThreads, acquired, averageWaitMillis, maxWaitMillis,
+                    created, evicted, timeouts);
+        }
+    }
+}
@@ -1,26 +1,64 @@
 package com.example.connection;
 
+import javax.sql.DataSource;
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/system_activity_monitor?useSSL=false&serverTimezone=UTC";
-    private static final String USER = "root";
-    private static final String PASSWORD = "admin";
+    private static final StorageConfig CONFIG = StorageConfig.load();
+
+    public static final int MAX_POOL_SIZE = 4;
+    private static final long CONNECTION_TIMEOUT_MILLIS = 10_000;
+    private static final long IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+    private static final long MAX_LIFETIME_MILLIS = 30 * 60_000;
 
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("MySQL driver downloaded successfully!");
+            Class.forName(CONFIG.getBackend().getDriverClass());
+            System.out.println(CONFIG.getBackend() + " driver downloaded successfully!");
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL driver not found: " + e.getMessage());
+            System.err.println(CONFIG.getBackend() + " driver not found: " + e.getMessage());
+        }
+    }
+
+    private static final ConnectionPool POOL = new ConnectionPool(
+            CONFIG.getUrl(), CONFIG.getUser(), CONFIG.getPassword(),
+            MAX_POOL_SIZE, CONNECTION_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, MAX_LIFETIME_MILLIS
+    );
+
+    static {
+        if (CONFIG.getBackend().isEmbedded()) {
+            EmbeddedSchema.create(POOL);
         }
     }
 
+    public static StorageBackend getBackend() {
+        return CONFIG.getBackend();
+    }
+
+    /** Directory of the time-series stats files, used by {@link StorageBackend#FILES}. */
+    public static Path getStatsDir() {
+        return CONFIG.getStatsDir();
+    }
+
+    public static DataSource getDataSource() {
+        return POOL;
+    }
+
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return POOL.getConnection();
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    public static void shutdown() {
+        // Wait times and timeouts over the whole run show whether MAX_POOL_SIZE fits the workload.
+        System.out.println("[DatabaseConnection] Pool stats: " + getPoolStats());
+        POOL.close();
     }
 
     public static void closeConnection(Connection connection) {
@@ -0,0 +1,29 @@
+package com.example.connection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the tables of the embedded backend from {@code /db/embedded-schema.sql}.
+ * Every statement is {@code IF NOT EXISTS}, so this runs on each start.
+ */
+final class EmbeddedSchema {
+
+    // H2 parses the script itself, so literals and comments may contain ';'.
+    private static final String RUN_SCRIPT = "RUNSCRIPT FROM 'classpath:/db/embedded-schema.sql' CHARSET 'UTF-8'";
+
+    private EmbeddedSchema() {}
+
+    static void create(DataSource dataSource) {
+        try (Connection conn = dataSource.getConnection();
+             Statement st = conn.createStatement()) {
+
+            st.execute(RUN_SCRIPT);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка створення схеми бази: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.connection;
+
+/**
+ * Database the repositories run against, chosen at startup through {@link StorageConfig}.
+ * Both backends are driven by the same JDBC repositories; SQL that differs between
+ * them is limited to what {@link #supportsPartitions()} guards.
+ */
+public enum StorageBackend {
+
+    /** MySQL server with the schema from {@code system_activity_monitor.sql}. */
+    MYSQL("com.mysql.cj.jdbc.Driver"),
+
+    /** H2 in a single local file, in MySQL mode; the schema is created on first start. */
+    EMBEDDED("org.h2.Driver"),
+
+    /**
+     * Like {@link #EMBEDDED}, but stats rows go to the columnar files of
+     * {@code TimeSeriesStore} instead of {@code system_stats}. Reports then read raw
+     * rows, since the rollup tables are built from {@code system_stats}.
+     */
+    FILES("org.h2.Driver");
+
+    private final String driverClass;
+
+    StorageBackend(String driverClass) {
+        this.driverClass = driverClass;
+    }
+
+    public String getDriverClass() { return driverClass; }
+
+    public boolean supportsPartitions() { return this == MYSQL; }
+
+    public boolean isEmbedded() { return this != MYSQL; }
+
+    public boolean keepsStatsInFiles() { return this == FILES; }
+}
@@ -0,0 +1,79 @@
+package com.example.connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Storage settings read once at startup from {@code ~/.system-activity-monitor/storage.properties}
+ * ({@code backend}, {@code url}, {@code user}, {@code password}). System properties
+ * {@code monitor.storage.<key>} override the file. Anything missing, and a {@code backend}
+ * value that names no {@link StorageBackend}, falls back to the local MySQL server the
+ * application has always used.
+ */
+public final class StorageConfig {
+
+    private static final Path HOME = Path.of(System.getProperty("user.home"), ".system-activity-monitor");
+    private static final Path FILE = HOME.resolve("storage.properties");
+    private static final String PROPERTY_PREFIX = "monitor.storage.";
+    private static final Path STATS_DIR = HOME.resolve("stats");
+
+    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/system_activity_monitor?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true&useCursorFetch=true";
+    private static final String MYSQL_USER = "root";
+    private static final String MYSQL_PASSWORD = "admin";
+
+    private static final String EMBEDDED_URL = "jdbc:h2:file:" + HOME.resolve("db").resolve("monitor").toAbsolutePath()
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private final StorageBackend backend;
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private StorageConfig(StorageBackend backend, String url, String user, String password) {
+        this.backend = backend;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public static StorageConfig load() {
+        Properties file = new Properties();
+        if (Files.isRegularFile(FILE)) {
+            try (InputStream in = Files.newInputStream(FILE)) {
+                file.load(in);
+            } catch (IOException e) {
+                System.err.println("Storage settings could not be read, using defaults: " + e.getMessage());
+            }
+        }
+
+        StorageBackend backend = parseBackend(setting(file, "backend", "mysql"));
+
+        return backend.isEmbedded()
+                ? new StorageConfig(backend, setting(file, "url", EMBEDDED_URL), setting(file, "user", "sa"), setting(file, "password", ""))
+                : new StorageConfig(backend, setting(file, "url", MYSQL_URL), setting(file, "user", MYSQL_USER), setting(file, "password", MYSQL_PASSWORD));
+    }
+
+    static StorageBackend parseBackend(String value) {
+        try {
+            return StorageBackend.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown storage backend \"" + value + "\" in " + FILE + " or -D"
+                    + PROPERTY_PREFIX + "backend, expected mysql, embedded or files; using mysql.");
+            return StorageBackend.MYSQL;
+        }
+    }
+
+    private static String setting(Properties file, String key, String fallback) {
+        return System.getProperty(PROPERTY_PREFIX + key, file.getProperty(key, fallback));
+    }
+
+    public StorageBackend getBackend() { return backend; }
+    public Path getStatsDir() { return STATS_DIR; }
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+}
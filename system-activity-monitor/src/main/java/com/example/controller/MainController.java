@@ -4,6 +4,8 @@ import com.example.util.Session;
 import com.example.modules.idle.service.IdleService;
 import com.example.modules.monitoring.factory.EnvironmentFactoryProducer;
 import com.example.modules.monitoring.factory.SystemEnvironmentFactory;
+import com.example.modules.monitoring.metrics.MetricsSample;
+import com.example.modules.monitoring.sampling.MetricsSampler;
 import com.example.modules.monitoring.service.MonitoringService;
 import com.example.model.IdleTime;
 import com.example.model.User;
@@ -16,8 +18,6 @@ import javafx.stage.Stage;
 import javafx.stage.Window;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.*;
 
 public class MainController {
 
@@ -39,7 +39,7 @@ public class MainController {
     private final IdleService idleService = new IdleService();
     private MonitoringService monitoringService;
 
-    private ScheduledExecutorService uiUpdater;
+    private MetricsSampler.Subscription uiSubscription;
     private boolean isMonitoring = false;
     private User activeUser;
 
@@ -196,10 +196,11 @@ public class MainController {
 
         try {
             if (!Session.isGuest() && activeUser != null) {
-                monitoringService.saveNow(activeUser);
+                refreshStats(monitoringService.saveNow(activeUser));
                 statusLabel.setText("Updated manually.");
+            } else {
+                refreshStats(monitoringService.sampleNow());
             }
-            refreshStats();
 
         } catch (Exception e) {
             showAlert("Error " + e.getMessage());
@@ -207,38 +208,47 @@ public class MainController {
     }
 
     private void startAutoUpdate() {
-        uiUpdater = Executors.newSingleThreadScheduledExecutor();
-        uiUpdater.scheduleAtFixedRate(() ->
-                Platform.runLater(this::refreshStats), 0, 5, TimeUnit.SECONDS);
+        uiSubscription = monitoringService.subscribe(sample ->
+                Platform.runLater(() -> refreshStats(sample)), 1);
+
+        MetricsSample latest = monitoringService.getLatestSample();
+        if (latest != null) refreshStats(latest);
     }
 
     private void stopAutoUpdate() {
-        if (uiUpdater != null) {
-            uiUpdater.shutdownNow();
+        if (uiSubscription != null) {
+            monitoringService.unsubscribe(uiSubscription);
+            uiSubscription = null;
         }
     }
 
-    private void refreshStats() {
-
-        Map<String, Object> data = monitoringService.collectFormattedStats();
+    private void refreshStats(MetricsSample data) {
         if (data == null) return;
 
-        cpuLabel.setText(data.get("cpuLoad") + " %");
-        ramLabel.setText(data.get("ramUsed") + " / " + data.get("ramTotal") + " MB");
-        osLabel.setText((String) data.get("osName"));
-        windowLabel.setText((String) data.get("activeWindow"));
-        uptimeLabel.setText((String) data.get("uptime"));
+        cpuLabel.setText(String.format("%.2f %%", data.getCpuLoad()));
+        ramLabel.setText(String.format("%.2f / %.2f MB", data.getRamUsedMb(), data.getRamTotalMb()));
+        osLabel.setText(data.getOsName());
+        windowLabel.setText(data.getActiveWindow());
+        uptimeLabel.setText(formatUptime(data.getUptimeSeconds()));
 
         diskLabel.setText(
                 String.format("%.2f / %.2f GB (%s)",
-                        data.get("diskUsed"),
-                        data.get("diskTotal"),
-                        data.get("diskDetails"))
+                        data.getDiskUsedGb(),
+                        data.getDiskTotalGb(),
+                        data.getDiskDetails())
         );
 
-        keysLabel.setText("" + data.get("keys"));
-        clicksLabel.setText("" + data.get("clicks"));
-        movesLabel.setText("" + data.get("moves"));
+        keysLabel.setText("" + data.getKeyPresses());
+        clicksLabel.setText("" + data.getMouseClicks());
+        movesLabel.setText("" + data.getMouseMoves());
+    }
+
+    private String formatUptime(long sec) {
+        long d = sec / 86400;
+        long h = (sec % 86400) / 3600;
+        long m = (sec % 3600) / 60;
+
+        return d + " d " + h + " h " + m + " m";
     }
 
     @FXML
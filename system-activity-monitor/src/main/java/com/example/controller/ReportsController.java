@@ -6,12 +6,14 @@ import com.example.modules.reports.builder.ReportOptions;
 import com.example.modules.reports.command.*;
 import com.example.repository.factory.RepositoryFactory;
 import com.example.model.Report;
+import com.example.model.ReportSummary;
 import com.example.model.User;
 import com.example.modules.reports.service.ReportService;
 import com.example.util.Session;
 import javafx.scene.layout.VBox;
 import com.example.modules.reports.iterator.*;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -29,7 +31,7 @@ public class ReportsController {
     @FXML private DatePicker startDatePicker, endDatePicker;
     @FXML private Label messageLabel;
 
-    @FXML private ListView<Report> reportsList;
+    @FXML private ListView<ReportSummary> reportsList;
 
     @FXML private Label avgCpuLabel;
     @FXML private Label avgRamLabel;
@@ -44,14 +46,22 @@ public class ReportsController {
 
     @FXML private ListView<String> appUsageList;
 
+    private static final int REPORT_PAGE_SIZE = 50;
+
     private final ReportService reportService;
     private final Invoker commandManager = new Invoker();
 
+    private Report currentReport;
+    private boolean morePages;
+    private boolean loadingPage;
+
     public ReportsController() {
         this.reportService = new ReportService(
                 RepositoryFactory.getReportRepository(),
                 RepositoryFactory.getStatsRepository(),
-                RepositoryFactory.getIdleRepository()
+                RepositoryFactory.getIdleRepository(),
+                RepositoryFactory.getAppSegmentRepository(),
+                RepositoryFactory.getRollupRepository()
         );
     }
 
@@ -59,13 +69,17 @@ public class ReportsController {
     public void initialize() {
         reportsList.setCellFactory(listView -> new ListCell<>() {
             @Override
-            protected void updateItem(Report report, boolean empty) {
+            protected void updateItem(ReportSummary report, boolean empty) {
                 super.updateItem(report, empty);
 
                 if (empty || report == null) {
                     setText(null);
                     return;
                 }
+                // The next page is fetched once the last loaded row is scrolled into view.
+                if (morePages && getIndex() == listView.getItems().size() - 1) {
+                    Platform.runLater(() -> loadNextPage(Session.getCurrentUser()));
+                }
                 setText(String.format(
                         "%s\n %s → %s",
                         report.getReportName(),
@@ -77,7 +91,7 @@ public class ReportsController {
         reportsList.setPlaceholder(new Label("There are no reports yet."));
         reportsList.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
-                displayReportDetails(newVal);
+                showReport(newVal);
             }
         });
     }
@@ -127,7 +141,7 @@ public class ReportsController {
     @FXML
     private void deleteReport() {
 
-        Report selected = reportsList.getSelectionModel().getSelectedItem();
+        ReportSummary selected = reportsList.getSelectionModel().getSelectedItem();
 
         if (selected == null) {
             messageLabel.setText("Select a report.");
@@ -153,7 +167,7 @@ public class ReportsController {
 
     private void exportSelected(String format) {
 
-        Report selected = reportsList.getSelectionModel().getSelectedItem();
+        Report selected = currentReport;
 
         if (selected == null) {
             messageLabel.setText("Select a report.");
@@ -305,12 +319,13 @@ public class ReportsController {
             return;
         }
 
-        List<Report> filtered = reportService.getReportsInPeriod(user, start, end);
+        List<ReportSummary> filtered = reportService.getReportsInPeriod(user, start, end);
 
+        morePages = false;
         reportsList.getItems().setAll(filtered);
 
         if (!filtered.isEmpty()) {
-            displayReportDetails(filtered.get(0));
+            reportsList.getSelectionModel().select(0);
         }
 
         messageLabel.setText("Found: " + filtered.size());
@@ -405,18 +420,48 @@ public class ReportsController {
 
     private void refreshReports(User user) {
         try {
-            List<Report> list = reportService.getReportsByUser(user);
-            reportsList.getItems().setAll(list);
+            List<ReportSummary> page = reportService.getReportPage(user, null, REPORT_PAGE_SIZE);
+            morePages = page.size() == REPORT_PAGE_SIZE;
+            currentReport = null;
+            reportsList.getItems().setAll(page);
 
-            Report selected = reportsList.getSelectionModel().getSelectedItem();
-            if (selected != null) {
-                displayReportDetails(selected);
-            } else if (!list.isEmpty()) {
+            if (!page.isEmpty()) {
                 reportsList.getSelectionModel().select(0);
-                displayReportDetails(list.get(0));
             }
         } catch (Exception e) {
             messageLabel.setText(" " + e.getMessage());
         }
     }
+
+    private void loadNextPage(User user) {
+        if (!morePages || loadingPage || user == null || reportsList.getItems().isEmpty()) return;
+
+        loadingPage = true;
+        try {
+            List<ReportSummary> items = reportsList.getItems();
+            List<ReportSummary> page = reportService.getReportPage(user, items.get(items.size() - 1), REPORT_PAGE_SIZE);
+            morePages = page.size() == REPORT_PAGE_SIZE;
+            items.addAll(page);
+        } catch (Exception e) {
+            morePages = false;
+            messageLabel.setText(" " + e.getMessage());
+        } finally {
+            loadingPage = false;
+        }
+    }
+
+    // The list holds summaries only; the full report with its days is read when selected.
+    private void showReport(ReportSummary summary) {
+        try {
+            currentReport = reportService.findById(summary.getId());
+            if (currentReport != null) {
+                displayReportDetails(currentReport);
+            } else {
+                messageLabel.setText("The report no longer exists.");
+            }
+        } catch (Exception e) {
+            currentReport = null;
+            messageLabel.setText(" " + e.getMessage());
+        }
+    }
 }
@@ -33,7 +33,8 @@ public class UserController {
 
     public UserController() {
         this.userService = new UserService(
-                RepositoryFactory.getUserRepository()
+                RepositoryFactory.getUserRepository(),
+                RepositoryFactory.getStatsRepository()
         );
     }
 
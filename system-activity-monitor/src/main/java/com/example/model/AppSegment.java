@@ -0,0 +1,40 @@
+package com.example.model;
+
+import java.time.LocalDateTime;
+
+public class AppSegment {
+
+    private Integer id;
+    private User user;
+    private String appName;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer durationSeconds;
+
+    public AppSegment() {}
+
+    public AppSegment(User user, String appName, LocalDateTime startTime) {
+        this.user = user;
+        this.appName = appName;
+        this.startTime = startTime;
+        this.durationSeconds = 0;
+    }
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public String getAppName() { return appName; }
+    public void setAppName(String appName) { this.appName = appName; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+    public Integer getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(Integer durationSeconds) { this.durationSeconds = durationSeconds; }
+}
@@ -12,6 +12,8 @@ public class DaySummary {
     private BigDecimal uptimeHours;
     private BigDecimal cpuAvg;
     private BigDecimal ramAvg;
+    private Percentiles cpuPercentiles;
+    private Percentiles ramPercentiles;
     private Map<String, BigDecimal> appUsagePercentByDay;
 
     public DaySummary() {}
@@ -32,6 +34,10 @@ public class DaySummary {
     public void setCpuAvg(BigDecimal cpuAvg) { this.cpuAvg = cpuAvg; }
     public BigDecimal getRamAvg() { return ramAvg; }
     public void setRamAvg(BigDecimal ramAvg) { this.ramAvg = ramAvg; }
+    public Percentiles getCpuPercentiles() { return cpuPercentiles; }
+    public void setCpuPercentiles(Percentiles cpuPercentiles) { this.cpuPercentiles = cpuPercentiles; }
+    public Percentiles getRamPercentiles() { return ramPercentiles; }
+    public void setRamPercentiles(Percentiles ramPercentiles) { this.ramPercentiles = ramPercentiles; }
     public Map<String, BigDecimal> getAppUsagePercentByDay() { return appUsagePercentByDay; }
     public void setAppUsagePercentByDay(Map<String, BigDecimal> appUsagePercentByDay) {
         this.appUsagePercentByDay = appUsagePercentByDay;
@@ -7,6 +7,9 @@ public class HourStat {
     private int hour;
     private BigDecimal avgCpu;
     private BigDecimal avgRam;
+    private long inputEvents;
+    private Percentiles cpuPercentiles;
+    private Percentiles ramPercentiles;
     private transient DaySummary parentDay;
 
     public HourStat() {}
@@ -20,6 +23,12 @@ public class HourStat {
     public int getHour() { return hour; }
     public BigDecimal getAvgCpu() { return avgCpu; }
     public BigDecimal getAvgRam() { return avgRam; }
+    public long getInputEvents() { return inputEvents; }
+    public void setInputEvents(long inputEvents) { this.inputEvents = inputEvents; }
+    public Percentiles getCpuPercentiles() { return cpuPercentiles; }
+    public void setCpuPercentiles(Percentiles cpuPercentiles) { this.cpuPercentiles = cpuPercentiles; }
+    public Percentiles getRamPercentiles() { return ramPercentiles; }
+    public void setRamPercentiles(Percentiles ramPercentiles) { this.ramPercentiles = ramPercentiles; }
 
     public DaySummary getParentDay() {
         return parentDay;
@@ -0,0 +1,31 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+
+/** p50, p95, p99 and max of a metric over an hour, a day or a whole report. */
+public class Percentiles {
+
+    private BigDecimal p50;
+    private BigDecimal p95;
+    private BigDecimal p99;
+    private BigDecimal max;
+
+    public Percentiles() {}
+
+    public Percentiles(BigDecimal p50, BigDecimal p95, BigDecimal p99, BigDecimal max) {
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public BigDecimal getP50() { return p50; }
+    public BigDecimal getP95() { return p95; }
+    public BigDecimal getP99() { return p99; }
+    public BigDecimal getMax() { return max; }
+
+    @Override
+    public String toString() {
+        return "p50 " + p50 + " / p95 " + p95 + " / p99 " + p99 + " / max " + max;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.model;
+
+import com.example.util.Varints;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable histogram of non-negative two-decimal values, kept as {@code long} hundredths,
+ * for percentiles of CPU load and RAM use. Buckets are log-linear, as in HDR histograms:
+ * values below 2.56 are exact, and above that every power of two is split into 128
+ * buckets, so a percentile is within 0.4% of the true value. The maximum is exact.
+ * <p>
+ * Merging adds bucket counts, so the sketch of a day is the merge of its hours and gives
+ * the same percentiles as a sketch built from the raw samples of that day. Only non-empty
+ * buckets are stored, in index order.
+ */
+public final class QuantileSketch {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int EXACT_LIMIT = 2 * SUB_BUCKETS;
+
+    private int[] indexes;
+    private long[] counts;
+    private int size;
+    private long total;
+    private long max = Long.MIN_VALUE;
+
+    public QuantileSketch() {
+        this(8);
+    }
+
+    private QuantileSketch(int capacity) {
+        indexes = new int[capacity];
+        counts = new long[capacity];
+    }
+
+    /** Adds one value in hundredths; negative values count as zero. */
+    public void add(long hundredths) {
+        long v = Math.max(0, hundredths);
+        int index = indexOf(v);
+
+        int pos = Arrays.binarySearch(indexes, 0, size, index);
+        if (pos >= 0) {
+            counts[pos]++;
+        } else {
+            insert(-pos - 1, index, 1);
+        }
+
+        total++;
+        if (v > max) max = v;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other == null || other.total == 0) return;
+
+        int[] mergedIndexes = new int[size + other.size];
+        long[] mergedCounts = new long[size + other.size];
+        int i = 0, j = 0, n = 0;
+
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && indexes[i] < other.indexes[j])) {
+                mergedIndexes[n] = indexes[i];
+                mergedCounts[n++] = counts[i++];
+            } else if (i == size || other.indexes[j] < indexes[i]) {
+                mergedIndexes[n] = other.indexes[j];
+                mergedCounts[n++] = other.counts[j++];
+            } else {
+                mergedIndexes[n] = indexes[i];
+                mergedCounts[n++] = counts[i++] + other.counts[j++];
+            }
+        }
+
+        indexes = mergedIndexes;
+        counts = mergedCounts;
+        size = n;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() { return total; }
+    public boolean isEmpty() { return total == 0; }
+
+    /**
+     * Nearest-rank quantile, {@code 0 < q <= 1}, as the middle of the bucket holding
+     * that rank and never above the maximum; {@code null} when the sketch is empty.
+     */
+    public BigDecimal quantile(double q) {
+        if (total == 0) return null;
+        if (q >= 1) return BigDecimal.valueOf(max, 2);
+
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < size; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                int index = indexes[i];
+                long middle = lowerBound(index) + (width(index) - 1) / 2;
+                return BigDecimal.valueOf(Math.min(middle, max), 2);
+            }
+        }
+        return BigDecimal.valueOf(max, 2);
+    }
+
+    public BigDecimal max() { return total == 0 ? null : BigDecimal.valueOf(max, 2); }
+
+    /** p50, p95, p99 and max; {@code null} when the sketch is empty. */
+    public Percentiles percentiles() {
+        if (total == 0) return null;
+        return new Percentiles(quantile(0.50), quantile(0.95), quantile(0.99), max());
+    }
+
+    /** Bucket count, then each bucket as an index delta and a count, then the maximum. */
+    public void writeTo(ByteArrayOutputStream out) {
+        Varints.put(out, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            Varints.put(out, indexes[i] - previous);
+            Varints.put(out, counts[i]);
+            previous = indexes[i];
+        }
+        if (size > 0) Varints.put(out, max);
+    }
+
+    public static QuantileSketch readFrom(ByteBuffer in) {
+        int n = (int) Varints.get(in);
+        QuantileSketch sketch = new QuantileSketch(Math.max(n, 1));
+
+        int index = 0;
+        for (int i = 0; i < n; i++) {
+            index += (int) Varints.get(in);
+            sketch.indexes[i] = index;
+            sketch.counts[i] = Varints.get(in);
+            sketch.total += sketch.counts[i];
+        }
+        sketch.size = n;
+        if (n > 0) sketch.max = Varints.get(in);
+        return sketch;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + size * 3);
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+    /** {@code null} for {@code null} input, so nullable BLOB columns map directly. */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        return bytes != null ? readFrom(ByteBuffer.wrap(bytes)) : null;
+    }
+
+    private void insert(int pos, int index, long count) {
+        if (size == indexes.length) {
+            indexes = Arrays.copyOf(indexes, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(indexes, pos, indexes, pos + 1, size - pos);
+        System.arraycopy(counts, pos, counts, pos + 1, size - pos);
+        indexes[pos] = index;
+        counts[pos] = count;
+        size++;
+    }
+
+    static int indexOf(long v) {
+        if (v < EXACT_LIMIT) return (int) v;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < EXACT_LIMIT) return index;
+
+        int k = index - EXACT_LIMIT;
+        int exponent = k / SUB_BUCKETS + SUB_BITS + 1;
+        return (long) (SUB_BUCKETS + k % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+
+    static long width(int index) {
+        if (index < EXACT_LIMIT) return 1;
+        return 1L << ((index - EXACT_LIMIT) / SUB_BUCKETS + 1);
+    }
+}
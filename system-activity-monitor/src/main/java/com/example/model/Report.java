@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class Report {
 
@@ -15,12 +16,15 @@ public class Report {
     private LocalDate periodEnd;
     private BigDecimal cpuAvg;
     private BigDecimal ramAvg;
+    private QuantileSketch cpuSketch;
+    private QuantileSketch ramSketch;
     private BigDecimal idleTimeTotalSeconds;
     private BigDecimal avgUptimeHours;
     private Map<String, BigDecimal> appUsagePercent;
     private String filePath;
     private LocalDateTime createdAt;
     private List<DaySummary> days;
+    private transient Supplier<List<DaySummary>> daysLoader;
 
     public Report() {
         this.createdAt = LocalDateTime.now();
@@ -47,6 +51,16 @@ public class Report {
     public BigDecimal getRamAvg() { return ramAvg; }
     public void setRamAvg(BigDecimal ramAvg) { this.ramAvg = ramAvg; }
 
+    /** Sketches of every CPU/RAM sample in the period; {@code null} when none were kept. */
+    public QuantileSketch getCpuSketch() { return cpuSketch; }
+    public void setCpuSketch(QuantileSketch cpuSketch) { this.cpuSketch = cpuSketch; }
+
+    public QuantileSketch getRamSketch() { return ramSketch; }
+    public void setRamSketch(QuantileSketch ramSketch) { this.ramSketch = ramSketch; }
+
+    public Percentiles getCpuPercentiles() { return cpuSketch != null ? cpuSketch.percentiles() : null; }
+    public Percentiles getRamPercentiles() { return ramSketch != null ? ramSketch.percentiles() : null; }
+
     public BigDecimal getIdleTimeTotalSeconds() { return idleTimeTotalSeconds; }
     public void setIdleTimeTotalSeconds(BigDecimal idleTimeTotalSeconds) { this.idleTimeTotalSeconds = idleTimeTotalSeconds; }
 
@@ -64,6 +78,22 @@ public class Report {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
-    public List<DaySummary> getDays() { return days; }
-    public void setDays(List<DaySummary> days) { this.days = days; }
+    public List<DaySummary> getDays() {
+        if (days == null && daysLoader != null) {
+            days = daysLoader.get();
+            daysLoader = null;
+        }
+        return days;
+    }
+
+    public void setDays(List<DaySummary> days) {
+        this.days = days;
+        this.daysLoader = null;
+    }
+
+    /** Defers building the days until {@link #getDays()} is first called. */
+    public void setDaysLoader(Supplier<List<DaySummary>> daysLoader) {
+        this.days = null;
+        this.daysLoader = daysLoader;
+    }
 }
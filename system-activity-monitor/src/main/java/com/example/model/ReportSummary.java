@@ -0,0 +1,32 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * List entry for a saved report: only the columns the reports list shows.
+ * The full {@link Report} is loaded by id when an entry is selected.
+ */
+public class ReportSummary {
+
+    private Integer id;
+    private String reportName;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private LocalDateTime createdAt;
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getReportName() { return reportName; }
+    public void setReportName(String reportName) { this.reportName = reportName; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public LocalDate getPeriodEnd() { return periodEnd; }
+    public void setPeriodEnd(LocalDate periodEnd) { this.periodEnd = periodEnd; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
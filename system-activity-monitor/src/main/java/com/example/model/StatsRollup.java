@@ -0,0 +1,107 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-aggregated stats of one user for one minute, hour or day bucket.
+ * Gap fields sum the distances between consecutive samples of the same day
+ * that are at most five minutes apart; uptime is derived from them.
+ */
+public class StatsRollup {
+
+    public enum Resolution {
+        MINUTE("stats_1m", "1m"),
+        HOUR("stats_1h", "1h"),
+        DAY("stats_1d", "1d");
+
+        private final String table;
+        private final String code;
+
+        Resolution(String table, String code) {
+            this.table = table;
+            this.code = code;
+        }
+
+        public String getTable() { return table; }
+        public String getCode() { return code; }
+    }
+
+    private Integer userId;
+    private LocalDateTime bucketStart;
+    private long sampleCount;
+    private long cpuCount;
+    private BigDecimal cpuSum = BigDecimal.ZERO;
+    private BigDecimal cpuMin;
+    private BigDecimal cpuMax;
+    private long ramCount;
+    private BigDecimal ramSum = BigDecimal.ZERO;
+    private BigDecimal ramMin;
+    private BigDecimal ramMax;
+    private QuantileSketch cpuSketch;
+    private QuantileSketch ramSketch;
+    private long inputEvents;
+    private long gapSeconds;
+    private long gapCount;
+    private Map<String, Long> appCounts = new LinkedHashMap<>();
+    private Map<String, LocalDateTime> appFirstSeen = new HashMap<>();
+
+    public Integer getUserId() { return userId; }
+    public void setUserId(Integer userId) { this.userId = userId; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getSampleCount() { return sampleCount; }
+    public void setSampleCount(long sampleCount) { this.sampleCount = sampleCount; }
+
+    public long getCpuCount() { return cpuCount; }
+    public void setCpuCount(long cpuCount) { this.cpuCount = cpuCount; }
+
+    public BigDecimal getCpuSum() { return cpuSum; }
+    public void setCpuSum(BigDecimal cpuSum) { this.cpuSum = cpuSum; }
+
+    public BigDecimal getCpuMin() { return cpuMin; }
+    public void setCpuMin(BigDecimal cpuMin) { this.cpuMin = cpuMin; }
+
+    public BigDecimal getCpuMax() { return cpuMax; }
+    public void setCpuMax(BigDecimal cpuMax) { this.cpuMax = cpuMax; }
+
+    public long getRamCount() { return ramCount; }
+    public void setRamCount(long ramCount) { this.ramCount = ramCount; }
+
+    public BigDecimal getRamSum() { return ramSum; }
+    public void setRamSum(BigDecimal ramSum) { this.ramSum = ramSum; }
+
+    public BigDecimal getRamMin() { return ramMin; }
+    public void setRamMin(BigDecimal ramMin) { this.ramMin = ramMin; }
+
+    public BigDecimal getRamMax() { return ramMax; }
+    public void setRamMax(BigDecimal ramMax) { this.ramMax = ramMax; }
+
+    /** {@code null} for rollups aggregated on the fly by the database. */
+    public QuantileSketch getCpuSketch() { return cpuSketch; }
+    public void setCpuSketch(QuantileSketch cpuSketch) { this.cpuSketch = cpuSketch; }
+
+    public QuantileSketch getRamSketch() { return ramSketch; }
+    public void setRamSketch(QuantileSketch ramSketch) { this.ramSketch = ramSketch; }
+
+    public long getInputEvents() { return inputEvents; }
+    public void setInputEvents(long inputEvents) { this.inputEvents = inputEvents; }
+
+    public long getGapSeconds() { return gapSeconds; }
+    public void setGapSeconds(long gapSeconds) { this.gapSeconds = gapSeconds; }
+
+    public long getGapCount() { return gapCount; }
+    public void setGapCount(long gapCount) { this.gapCount = gapCount; }
+
+    public Map<String, Long> getAppCounts() { return appCounts; }
+    public void setAppCounts(Map<String, Long> appCounts) { this.appCounts = appCounts; }
+
+    /** First sample of each application in the bucket; stored app counts are read back in this order. */
+    public Map<String, LocalDateTime> getAppFirstSeen() { return appFirstSeen; }
+    public void setAppFirstSeen(Map<String, LocalDateTime> appFirstSeen) { this.appFirstSeen = appFirstSeen; }
+}
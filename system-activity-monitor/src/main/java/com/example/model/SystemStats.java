@@ -18,6 +18,8 @@ public class SystemStats {
     private Integer mouseClicks;
     private Long mouseMoves;
     private Long systemUptimeSeconds;
+    private Integer intervalSeconds;
+    private BigDecimal activityRate;
     private LocalDateTime recordedAt;
 
     public SystemStats() {}
@@ -90,6 +92,12 @@ public class SystemStats {
     public Long getSystemUptimeSeconds() { return systemUptimeSeconds; }
     public void setSystemUptimeSeconds(Long systemUptimeSeconds) { this.systemUptimeSeconds = systemUptimeSeconds; }
 
+    public Integer getIntervalSeconds() { return intervalSeconds; }
+    public void setIntervalSeconds(Integer intervalSeconds) { this.intervalSeconds = intervalSeconds; }
+
+    public BigDecimal getActivityRate() { return activityRate; }
+    public void setActivityRate(BigDecimal activityRate) { this.activityRate = activityRate; }
+
     public LocalDateTime getRecordedAt() { return recordedAt; }
     public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
 }
@@ -2,7 +2,20 @@ package com.example.modules.monitoring.factory;
 
 public class EnvironmentFactoryProducer {
 
+    private static final String OS_NAME = System.getProperty("os.name").toLowerCase();
+
     public static SystemEnvironmentFactory getFactory() {
+        if (OS_NAME.contains("win")) {
+            return new WindowsSystemFactory();
+        }
+
+        if (OS_NAME.contains("linux")) {
+            return new LinuxSystemFactory();
+        }
+
+        // Anything else keeps the Windows factory it always got.
+        System.err.println("[EnvironmentFactoryProducer] Unsupported operating system '" + OS_NAME
+                + "', falling back to the Windows provider.");
         return new WindowsSystemFactory();
     }
 }
@@ -0,0 +1,20 @@
+package com.example.modules.monitoring.factory;
+
+import com.example.modules.monitoring.metrics.MetricsProvider;
+import com.example.modules.monitoring.metrics.impl.LinuxMetricsProvider;
+import com.example.modules.monitoring.service.MonitoringService;
+
+public class LinuxSystemFactory implements SystemEnvironmentFactory {
+
+    private final MetricsProvider provider = new LinuxMetricsProvider();
+
+    @Override
+    public MetricsProvider createMetricsProvider() {
+        return provider;
+    }
+
+    @Override
+    public MonitoringService createMonitoringService() {
+        return new MonitoringService(provider);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.modules.monitoring.focus;
+
+import com.example.model.AppSegment;
+import com.example.model.User;
+import com.example.modules.monitoring.metrics.MetricsSample;
+import com.example.modules.monitoring.sampling.MetricsListener;
+import com.example.repository.interfaces.AppSegmentRepository;
+import com.example.util.AppNameNormalizer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+
+/**
+ * Turns the active window of every sample into application segments.
+ * A segment is opened when the foreground application changes and closed by the
+ * next change or by {@link #close(LocalDateTime)}; nothing is written while the
+ * user stays in the same application.
+ */
+public class FocusTracker implements MetricsListener {
+
+    private final AppSegmentRepository repository;
+    private final User user;
+    private final Executor writer;
+
+    private AppSegment current;
+
+    public FocusTracker(AppSegmentRepository repository, User user, Executor writer) {
+        this.repository = repository;
+        this.user = user;
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void onSample(MetricsSample sample) {
+        String title = sample.getActiveWindow();
+        String app = AppNameNormalizer.normalize(title == null || title.isBlank() ? null : title);
+
+        if (current != null && current.getAppName().equals(app)) return;
+
+        LocalDateTime now = sample.getSampledAt();
+        closeCurrent(now);
+
+        AppSegment opened = new AppSegment(user, app, now);
+        current = opened;
+        writer.execute(() -> save(opened));
+    }
+
+    public synchronized void close(LocalDateTime at) {
+        closeCurrent(at);
+        current = null;
+    }
+
+    private void closeCurrent(LocalDateTime at) {
+        if (current == null) return;
+
+        long seconds = Math.max(0, Duration.between(current.getStartTime(), at).getSeconds());
+
+        AppSegment closed = current;
+        closed.setEndTime(at);
+        closed.setDurationSeconds((int) seconds);
+        writer.execute(() -> save(closed));
+    }
+
+    private void save(AppSegment segment) {
+        try {
+            repository.save(segment);
+        } catch (Exception e) {
+            System.err.println("[FocusTracker] Error saving app segment: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.modules.monitoring.input;
+
+/**
+ * Input events counted over one interval. Immutable; intervals add up with {@link #plus}.
+ */
+public final class InputActivity {
+
+    public static final InputActivity NONE = new InputActivity(0, 0, 0, 0);
+
+    private final long keyPresses;
+    private final long mouseClicks;
+    private final long mouseMoves;
+    private final long intervalMillis;
+
+    public InputActivity(long keyPresses, long mouseClicks, long mouseMoves, long intervalMillis) {
+        this.keyPresses = keyPresses;
+        this.mouseClicks = mouseClicks;
+        this.mouseMoves = mouseMoves;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public InputActivity plus(InputActivity other) {
+        return new InputActivity(
+                keyPresses + other.keyPresses,
+                mouseClicks + other.mouseClicks,
+                mouseMoves + other.mouseMoves,
+                intervalMillis + other.intervalMillis
+        );
+    }
+
+    public long getKeyPresses() { return keyPresses; }
+    public long getMouseClicks() { return mouseClicks; }
+    public long getMouseMoves() { return mouseMoves; }
+    public long getIntervalMillis() { return intervalMillis; }
+
+    public long getTotalEvents() {
+        return keyPresses + mouseClicks + mouseMoves;
+    }
+
+    /** Events per minute over the interval. */
+    public double getRatePerMinute() {
+        return intervalMillis > 0 ? getTotalEvents() * 60_000.0 / intervalMillis : 0;
+    }
+}
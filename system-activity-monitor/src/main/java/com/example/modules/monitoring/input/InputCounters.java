@@ -0,0 +1,98 @@
+package com.example.modules.monitoring.input;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Activity counters fed by an {@link InputEventSource}. Increments go to striped
+ * {@link LongAdder}s so the hook thread never contends with the sampler, and
+ * {@link #drain()} moves everything counted since the previous drain into the
+ * per-interval deltas and running totals.
+ */
+public class InputCounters {
+
+    /** Cursor has to travel further than this (px) to count as a move. */
+    public static final int MOVE_THRESHOLD_PX = 3;
+    /** At most one move is counted per this window, like the old 80 ms poll. */
+    public static final long MOVE_WINDOW_MILLIS = 80;
+
+    private final LongAdder keyPresses = new LongAdder();
+    private final LongAdder mouseClicks = new LongAdder();
+    private final LongAdder mouseMoves = new LongAdder();
+
+    private int lastX = -1, lastY = -1;
+    private long lastMoveAt = Long.MIN_VALUE;
+
+    private long totalKeyPresses, totalMouseClicks, totalMouseMoves;
+    private long deltaKeyPresses, deltaMouseClicks, deltaMouseMoves;
+    private long deltaMillis;
+    private long lastDrainNanos = System.nanoTime();
+
+    public void keyPressed() {
+        keyPresses.increment();
+    }
+
+    public void mouseClicked() {
+        mouseClicks.increment();
+    }
+
+    /** Called from a single event thread; keeps the last counted cursor position. */
+    public void mouseMovedTo(int x, int y, long timeMillis) {
+        if (lastX == -1 && lastY == -1) {
+            lastX = x;
+            lastY = y;
+            lastMoveAt = timeMillis;
+            return;
+        }
+
+        if (timeMillis - lastMoveAt < MOVE_WINDOW_MILLIS) return;
+
+        if (Math.abs(x - lastX) > MOVE_THRESHOLD_PX || Math.abs(y - lastY) > MOVE_THRESHOLD_PX) {
+            mouseMoves.increment();
+            lastX = x;
+            lastY = y;
+            lastMoveAt = timeMillis;
+        }
+    }
+
+    /**
+     * Snapshot-and-reset of all three counters. Each increment lands in exactly one
+     * interval: {@link LongAdder#sumThenReset()} swaps every cell to zero atomically.
+     */
+    public synchronized void drain() {
+        long now = System.nanoTime();
+
+        deltaKeyPresses = keyPresses.sumThenReset();
+        deltaMouseClicks = mouseClicks.sumThenReset();
+        deltaMouseMoves = mouseMoves.sumThenReset();
+        deltaMillis = (now - lastDrainNanos) / 1_000_000;
+        lastDrainNanos = now;
+
+        totalKeyPresses += deltaKeyPresses;
+        totalMouseClicks += deltaMouseClicks;
+        totalMouseMoves += deltaMouseMoves;
+    }
+
+    // What the next drain() would take, without taking it. Hold the monitor across
+    // several calls to read them as one consistent peek.
+    public synchronized long getPendingKeyPresses() { return keyPresses.sum(); }
+    public synchronized long getPendingMouseClicks() { return mouseClicks.sum(); }
+    public synchronized long getPendingMouseMoves() { return mouseMoves.sum(); }
+    public synchronized long getPendingMillis() { return (System.nanoTime() - lastDrainNanos) / 1_000_000; }
+
+    /** Discards anything counted so far and starts a new interval. */
+    public synchronized void reset() {
+        drain();
+        totalKeyPresses = totalMouseClicks = totalMouseMoves = 0;
+        deltaKeyPresses = deltaMouseClicks = deltaMouseMoves = 0;
+        deltaMillis = 0;
+    }
+
+    public synchronized long getKeyPresses() { return totalKeyPresses; }
+    public synchronized long getMouseClicks() { return totalMouseClicks; }
+    public synchronized long getMouseMoves() { return totalMouseMoves; }
+
+    public synchronized long getKeyPressesDelta() { return deltaKeyPresses; }
+    public synchronized long getMouseClicksDelta() { return deltaMouseClicks; }
+    public synchronized long getMouseMovesDelta() { return deltaMouseMoves; }
+    public synchronized long getDeltaMillis() { return deltaMillis; }
+}
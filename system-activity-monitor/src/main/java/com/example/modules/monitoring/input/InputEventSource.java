@@ -0,0 +1,13 @@
+package com.example.modules.monitoring.input;
+
+/**
+ * Delivers keyboard and mouse activity into {@link InputCounters}.
+ */
+public interface InputEventSource {
+
+    void start(InputCounters counters);
+
+    void stop();
+
+    boolean isActive();
+}
@@ -0,0 +1,93 @@
+package com.example.modules.monitoring.input;
+
+import com.github.kwhat.jnativehook.GlobalScreen;
+import com.github.kwhat.jnativehook.NativeHookException;
+import com.github.kwhat.jnativehook.keyboard.NativeKeyEvent;
+import com.github.kwhat.jnativehook.keyboard.NativeKeyListener;
+import com.github.kwhat.jnativehook.mouse.NativeMouseEvent;
+import com.github.kwhat.jnativehook.mouse.NativeMouseListener;
+import com.github.kwhat.jnativehook.mouse.NativeMouseMotionListener;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Global keyboard/mouse hook based on jnativehook. The OS pushes events to us,
+ * so there is no key-state polling.
+ */
+public class NativeHookInputEventSource implements InputEventSource,
+        NativeKeyListener, NativeMouseListener, NativeMouseMotionListener {
+
+    private volatile InputCounters counters;
+    private volatile boolean active = false;
+
+    static {
+        Logger logger = Logger.getLogger(GlobalScreen.class.getPackage().getName());
+        logger.setLevel(Level.WARNING);
+        logger.setUseParentHandlers(false);
+    }
+
+    @Override
+    public synchronized void start(InputCounters counters) {
+        if (active) return;
+
+        this.counters = counters;
+
+        try {
+            if (!GlobalScreen.isNativeHookRegistered()) {
+                GlobalScreen.registerNativeHook();
+            }
+        } catch (NativeHookException | UnsatisfiedLinkError e) {
+            System.err.println("[NativeHookInputEventSource] Input hook is not available: " + e.getMessage());
+            return;
+        }
+
+        GlobalScreen.addNativeKeyListener(this);
+        GlobalScreen.addNativeMouseListener(this);
+        GlobalScreen.addNativeMouseMotionListener(this);
+        active = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!active) return;
+
+        active = false;
+        GlobalScreen.removeNativeKeyListener(this);
+        GlobalScreen.removeNativeMouseListener(this);
+        GlobalScreen.removeNativeMouseMotionListener(this);
+
+        try {
+            GlobalScreen.unregisterNativeHook();
+        } catch (NativeHookException e) {
+            System.err.println("[NativeHookInputEventSource] Error removing input hook: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void nativeKeyPressed(NativeKeyEvent e) {
+        counters.keyPressed();
+    }
+
+    @Override
+    public void nativeMousePressed(NativeMouseEvent e) {
+        if (e.getButton() == NativeMouseEvent.BUTTON1 || e.getButton() == NativeMouseEvent.BUTTON2) {
+            counters.mouseClicked();
+        }
+    }
+
+    @Override
+    public void nativeMouseMoved(NativeMouseEvent e) {
+        counters.mouseMovedTo(e.getX(), e.getY(), e.getWhen());
+    }
+
+    @Override
+    public void nativeMouseDragged(NativeMouseEvent e) {
+        counters.mouseMovedTo(e.getX(), e.getY(), e.getWhen());
+    }
+}
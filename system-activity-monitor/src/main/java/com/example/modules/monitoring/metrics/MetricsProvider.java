@@ -1,21 +1,31 @@
 package com.example.modules.monitoring.metrics;
 
-import java.math.BigDecimal;
-import java.util.Map;
-
 public interface MetricsProvider {
 
-    BigDecimal getCpuLoad();
-    BigDecimal getRamUsed();
-    BigDecimal getRamTotal();
+    double getCpuLoad();
+    double getRamUsed();
+    double getRamTotal();
     void updateDiskStats();
-    BigDecimal getDiskTotal();
-    BigDecimal getDiskFree();
-    BigDecimal getDiskUsed();
+    double getDiskTotal();
+    double getDiskFree();
+    double getDiskUsed();
     String getActiveWindowTitle();
     String getUptime();
+    long getUptimeSeconds();
+    /** Starts background sampling (CPU load, volume probes); a stopped provider can be started again. */
+    default void start() {}
+    /** Stops the threads {@link #start()} runs. */
+    default void stop() {}
     void startInputMonitoring();
     void stopInputMonitoring();
-    Map<String, Long> getInputStats();
-    Map<String, Object> collectAllMetrics();
+    /**
+     * Fills {@code snapshot}. With {@code drainInput} the input counted since the last
+     * drain becomes the snapshot's delta and starts a new interval; without it the
+     * delta is only peeked at and stays in the current interval.
+     */
+    void collectAllMetrics(MetricsSnapshot snapshot, boolean drainInput);
+
+    default void collectAllMetrics(MetricsSnapshot snapshot) {
+        collectAllMetrics(snapshot, true);
+    }
 }
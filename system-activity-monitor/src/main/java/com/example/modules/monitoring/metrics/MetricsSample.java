@@ -0,0 +1,65 @@
+package com.example.modules.monitoring.metrics;
+
+import com.example.modules.monitoring.input.InputActivity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a {@link MetricsSnapshot} taken at one sampling tick.
+ * Safe to hand to subscribers on other threads.
+ */
+public final class MetricsSample {
+
+    private final LocalDateTime sampledAt;
+    private final double cpuLoad;
+    private final double ramUsedMb;
+    private final double ramTotalMb;
+    private final double diskTotalGb;
+    private final double diskFreeGb;
+    private final String diskDetails;
+    private final long uptimeSeconds;
+    private final long keyPresses;
+    private final long mouseClicks;
+    private final long mouseMoves;
+    private final InputActivity inputDelta;
+    private final String activeWindow;
+    private final String osName;
+
+    public MetricsSample(MetricsSnapshot s, LocalDateTime sampledAt) {
+        this.sampledAt = sampledAt;
+        this.cpuLoad = s.getCpuLoad();
+        this.ramUsedMb = s.getRamUsedMb();
+        this.ramTotalMb = s.getRamTotalMb();
+        this.diskTotalGb = s.getDiskTotalGb();
+        this.diskFreeGb = s.getDiskFreeGb();
+        this.diskDetails = s.getDiskDetails();
+        this.uptimeSeconds = s.getUptimeSeconds();
+        this.keyPresses = s.getKeyPresses();
+        this.mouseClicks = s.getMouseClicks();
+        this.mouseMoves = s.getMouseMoves();
+        this.inputDelta = new InputActivity(
+                s.getKeyPressesDelta(),
+                s.getMouseClicksDelta(),
+                s.getMouseMovesDelta(),
+                s.getInputIntervalMillis()
+        );
+        this.activeWindow = s.getActiveWindow();
+        this.osName = s.getOsName();
+    }
+
+    public LocalDateTime getSampledAt() { return sampledAt; }
+    public double getCpuLoad() { return cpuLoad; }
+    public double getRamUsedMb() { return ramUsedMb; }
+    public double getRamTotalMb() { return ramTotalMb; }
+    public double getDiskTotalGb() { return diskTotalGb; }
+    public double getDiskFreeGb() { return diskFreeGb; }
+    public double getDiskUsedGb() { return diskTotalGb - diskFreeGb; }
+    public String getDiskDetails() { return diskDetails; }
+    public long getUptimeSeconds() { return uptimeSeconds; }
+    public long getKeyPresses() { return keyPresses; }
+    public long getMouseClicks() { return mouseClicks; }
+    public long getMouseMoves() { return mouseMoves; }
+    public InputActivity getInputDelta() { return inputDelta; }
+    public String getActiveWindow() { return activeWindow; }
+    public String getOsName() { return osName; }
+}
@@ -0,0 +1,75 @@
+package com.example.modules.monitoring.metrics;
+
+/**
+ * Mutable holder that a {@link MetricsProvider} fills in place on every sample.
+ * Callers keep one instance per sampling thread and reuse it between ticks.
+ */
+public class MetricsSnapshot {
+
+    private double cpuLoad;
+    private double ramUsedMb;
+    private double ramTotalMb;
+    private double diskTotalGb;
+    private double diskFreeGb;
+    private String diskDetails = "Unknown";
+    private long uptimeSeconds;
+    private long keyPresses;
+    private long mouseClicks;
+    private long mouseMoves;
+    private long keyPressesDelta;
+    private long mouseClicksDelta;
+    private long mouseMovesDelta;
+    private long inputIntervalMillis;
+    private String activeWindow = "Unknown";
+    private String osName = "Unknown";
+
+    public double getCpuLoad() { return cpuLoad; }
+    public void setCpuLoad(double cpuLoad) { this.cpuLoad = cpuLoad; }
+
+    public double getRamUsedMb() { return ramUsedMb; }
+    public void setRamUsedMb(double ramUsedMb) { this.ramUsedMb = ramUsedMb; }
+
+    public double getRamTotalMb() { return ramTotalMb; }
+    public void setRamTotalMb(double ramTotalMb) { this.ramTotalMb = ramTotalMb; }
+
+    public double getDiskTotalGb() { return diskTotalGb; }
+    public void setDiskTotalGb(double diskTotalGb) { this.diskTotalGb = diskTotalGb; }
+
+    public double getDiskFreeGb() { return diskFreeGb; }
+    public void setDiskFreeGb(double diskFreeGb) { this.diskFreeGb = diskFreeGb; }
+
+    public double getDiskUsedGb() { return diskTotalGb - diskFreeGb; }
+
+    public String getDiskDetails() { return diskDetails; }
+    public void setDiskDetails(String diskDetails) { this.diskDetails = diskDetails; }
+
+    public long getUptimeSeconds() { return uptimeSeconds; }
+    public void setUptimeSeconds(long uptimeSeconds) { this.uptimeSeconds = uptimeSeconds; }
+
+    public long getKeyPresses() { return keyPresses; }
+    public void setKeyPresses(long keyPresses) { this.keyPresses = keyPresses; }
+
+    public long getMouseClicks() { return mouseClicks; }
+    public void setMouseClicks(long mouseClicks) { this.mouseClicks = mouseClicks; }
+
+    public long getMouseMoves() { return mouseMoves; }
+    public void setMouseMoves(long mouseMoves) { this.mouseMoves = mouseMoves; }
+
+    public long getKeyPressesDelta() { return keyPressesDelta; }
+    public void setKeyPressesDelta(long keyPressesDelta) { this.keyPressesDelta = keyPressesDelta; }
+
+    public long getMouseClicksDelta() { return mouseClicksDelta; }
+    public void setMouseClicksDelta(long mouseClicksDelta) { this.mouseClicksDelta = mouseClicksDelta; }
+
+    public long getMouseMovesDelta() { return mouseMovesDelta; }
+    public void setMouseMovesDelta(long mouseMovesDelta) { this.mouseMovesDelta = mouseMovesDelta; }
+
+    public long getInputIntervalMillis() { return inputIntervalMillis; }
+    public void setInputIntervalMillis(long inputIntervalMillis) { this.inputIntervalMillis = inputIntervalMillis; }
+
+    public String getActiveWindow() { return activeWindow; }
+    public void setActiveWindow(String activeWindow) { this.activeWindow = activeWindow; }
+
+    public String getOsName() { return osName; }
+    public void setOsName(String osName) { this.osName = osName; }
+}
@@ -0,0 +1,79 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import com.example.modules.monitoring.input.InputCounters;
+import com.example.modules.monitoring.input.InputEventSource;
+import com.example.modules.monitoring.metrics.MetricsSnapshot;
+
+/**
+ * Input side of the platform providers: runs the {@link InputEventSource} and copies
+ * its {@link InputCounters} into snapshots without allocating per sample.
+ */
+final class InputMonitor {
+
+    private final InputEventSource source;
+    private final InputCounters counters = new InputCounters();
+    private volatile boolean active = false;
+
+    InputMonitor(InputEventSource source) {
+        this.source = source;
+    }
+
+    // Active only once the source really started, so a hook that failed to register
+    // reports zeros and is tried again on the next start.
+    void start() {
+        if (active) return;
+
+        counters.reset();
+        source.start(counters);
+        active = source.isActive();
+
+        if (!active) {
+            System.err.println("[InputMonitor] Input monitoring is not active.");
+        }
+    }
+
+    void stop() {
+        active = false;
+        source.stop();
+    }
+
+    void fill(MetricsSnapshot snapshot, boolean drain) {
+        if (!active) {
+            snapshot.setKeyPresses(0);
+            snapshot.setMouseClicks(0);
+            snapshot.setMouseMoves(0);
+            snapshot.setKeyPressesDelta(0);
+            snapshot.setMouseClicksDelta(0);
+            snapshot.setMouseMovesDelta(0);
+            snapshot.setInputIntervalMillis(0);
+            return;
+        }
+
+        synchronized (counters) {
+            if (!drain) {
+                long keys = counters.getPendingKeyPresses();
+                long clicks = counters.getPendingMouseClicks();
+                long moves = counters.getPendingMouseMoves();
+
+                snapshot.setKeyPresses(counters.getKeyPresses() + keys);
+                snapshot.setMouseClicks(counters.getMouseClicks() + clicks);
+                snapshot.setMouseMoves(counters.getMouseMoves() + moves);
+                snapshot.setKeyPressesDelta(keys);
+                snapshot.setMouseClicksDelta(clicks);
+                snapshot.setMouseMovesDelta(moves);
+                snapshot.setInputIntervalMillis(counters.getPendingMillis());
+                return;
+            }
+
+            counters.drain();
+
+            snapshot.setKeyPresses(counters.getKeyPresses());
+            snapshot.setMouseClicks(counters.getMouseClicks());
+            snapshot.setMouseMoves(counters.getMouseMoves());
+            snapshot.setKeyPressesDelta(counters.getKeyPressesDelta());
+            snapshot.setMouseClicksDelta(counters.getMouseClicksDelta());
+            snapshot.setMouseMovesDelta(counters.getMouseMovesDelta());
+            snapshot.setInputIntervalMillis(counters.getDeltaMillis());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import com.example.modules.monitoring.input.InputEventSource;
+import com.example.modules.monitoring.input.NativeHookInputEventSource;
+import com.example.modules.monitoring.metrics.MetricsProvider;
+import com.example.modules.monitoring.metrics.MetricsSnapshot;
+import com.example.modules.monitoring.volume.VolumeRegistry;
+import com.example.modules.monitoring.volume.VolumeSource;
+import com.example.util.MonitoringThreadFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class LinuxMetricsProvider implements MetricsProvider {
+
+    private static final byte[] CPU_KEY = "cpu ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MEM_TOTAL_KEY = "MemTotal:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MEM_AVAILABLE_KEY = "MemAvailable:".getBytes(StandardCharsets.US_ASCII);
+
+    private final ProcFile stat;
+    private final ProcFile meminfo;
+    private final ProcFile uptime;
+    private final VolumeRegistry volumes;
+    private final InputMonitor input;
+    private final boolean sampleCpu;
+
+    private long lastIdle = 0, lastTotal = 0;
+    private volatile double cpuLoad = 0;
+
+    private ScheduledExecutorService cpuScheduler;
+
+    public LinuxMetricsProvider() {
+        this(Path.of("/proc"), new LinuxVolumeSource(Path.of("/proc")), new NativeHookInputEventSource());
+    }
+
+    public LinuxMetricsProvider(Path procRoot, VolumeSource volumeSource, InputEventSource inputSource) {
+        this(procRoot, volumeSource, inputSource, true);
+    }
+
+    /** With {@code sampleCpu} off, {@link #start()} leaves CPU load to explicit {@link #updateCpu()} calls. */
+    LinuxMetricsProvider(Path procRoot, VolumeSource volumeSource, InputEventSource inputSource, boolean sampleCpu) {
+        this.stat = new ProcFile(procRoot.resolve("stat"), 4096);
+        this.meminfo = new ProcFile(procRoot.resolve("meminfo"), 4096);
+        this.uptime = new ProcFile(procRoot.resolve("uptime"), 128);
+        this.volumes = new VolumeRegistry(volumeSource);
+        this.input = new InputMonitor(inputSource);
+        this.sampleCpu = sampleCpu;
+    }
+
+    @Override
+    public synchronized void start() {
+        volumes.start();
+
+        if (sampleCpu && cpuScheduler == null) {
+            cpuScheduler = Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("linux-cpu"));
+            cpuScheduler.scheduleAtFixedRate(this::updateCpu, 0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (cpuScheduler != null) {
+            cpuScheduler.shutdownNow();
+            cpuScheduler = null;
+        }
+
+        volumes.stop();
+    }
+
+    // cpu  user nice system idle iowait irq softirq steal guest guest_nice
+    synchronized void updateCpu() {
+        if (!stat.reload() || !stat.seekLine(CPU_KEY)) return;
+
+        long total = 0, idle = 0;
+        int fields = 0;
+        for (; fields < 8; fields++) {
+            long v = stat.nextLong();
+            if (v < 0) break;
+
+            total += v;
+            if (fields == 3 || fields == 4) idle += v;
+        }
+        // A line cut before the idle column would read as 100% busy.
+        if (fields < 4) return;
+
+        if (lastTotal == 0) {
+            lastIdle = idle;
+            lastTotal = total;
+            return;
+        }
+
+        long totalDiff = total - lastTotal;
+        long idleDiff = idle - lastIdle;
+
+        lastIdle = idle;
+        lastTotal = total;
+
+        if (totalDiff <= 0) return;
+
+        double usage = (double) (totalDiff - idleDiff) / totalDiff * 100.0;
+        usage = Math.max(0, Math.min(100, usage));
+
+        cpuLoad = usage;
+    }
+
+    @Override
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    private double ramTotal = 0;
+
+    @Override
+    public synchronized double getRamUsed() {
+        if (!meminfo.reload()) return 0;
+
+        long totalKb = meminfo.seekLine(MEM_TOTAL_KEY) ? meminfo.nextLong() : -1;
+        long availableKb = meminfo.seekLine(MEM_AVAILABLE_KEY) ? meminfo.nextLong() : -1;
+        if (totalKb <= 0 || availableKb < 0) return 0;
+
+        ramTotal = totalKb / 1024.0;
+
+        return (totalKb - availableKb) / 1024.0;
+    }
+
+    @Override
+    public double getRamTotal() {
+        return ramTotal;
+    }
+
+    private double diskTotal = 0;
+    private double diskFree = 0;
+    private String diskDetails = "Unknown";
+
+    @Override
+    public synchronized void updateDiskStats() {
+        diskTotal = volumes.getTotalGb();
+        diskFree = volumes.getFreeGb();
+        diskDetails = volumes.getDetails();
+    }
+
+    @Override public double getDiskTotal() { return diskTotal; }
+    @Override public double getDiskFree()  { return diskFree;  }
+    @Override public double getDiskUsed()  { return diskTotal - diskFree; }
+
+    @Override
+    public String getUptime() {
+        long sec = getUptimeSeconds();
+
+        long d = sec / 86400;
+        long h = (sec % 86400) / 3600;
+        long m = (sec % 3600) / 60;
+
+        return d + " d " + h + " h " + m + " m";
+    }
+
+    @Override
+    public synchronized long getUptimeSeconds() {
+        if (!uptime.reload()) return 0;
+
+        long sec = uptime.nextLong();
+        return Math.max(sec, 0);
+    }
+
+    @Override
+    public void startInputMonitoring() {
+        input.start();
+    }
+
+    @Override
+    public void stopInputMonitoring() {
+        input.stop();
+    }
+
+    @Override
+    public String getActiveWindowTitle() {
+        return "Unknown";
+    }
+
+    @Override
+    public synchronized void collectAllMetrics(MetricsSnapshot snapshot, boolean drainInput) {
+        updateDiskStats();
+
+        snapshot.setCpuLoad(getCpuLoad());
+        snapshot.setRamUsedMb(getRamUsed());
+        snapshot.setRamTotalMb(getRamTotal());
+
+        snapshot.setDiskTotalGb(diskTotal);
+        snapshot.setDiskFreeGb(diskFree);
+        snapshot.setDiskDetails(diskDetails);
+
+        snapshot.setUptimeSeconds(getUptimeSeconds());
+
+        snapshot.setActiveWindow(getActiveWindowTitle());
+        snapshot.setOsName("Linux");
+
+        input.fill(snapshot, drainInput);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import com.example.modules.monitoring.volume.VolumeSource;
+import com.example.modules.monitoring.volume.VolumeUsage;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Volumes from /proc/mounts: block devices only, one mount point per device, plus
+ * the root mount whatever backs it (overlay, ZFS, btrfs subvolumes, tmpfs).
+ */
+public class LinuxVolumeSource implements VolumeSource {
+
+    private final ProcFile mounts;
+
+    public LinuxVolumeSource(Path procRoot) {
+        this.mounts = new ProcFile(procRoot.resolve("mounts"), 64 * 1024);
+    }
+
+    @Override
+    public synchronized long mountsSignature() {
+        return mounts.reload() ? mounts.checksum() : 0;
+    }
+
+    // device mountpoint fstype options dump pass
+    @Override
+    public synchronized List<String> listVolumes() {
+        List<String> result = new ArrayList<>();
+        if (!mounts.reload()) return result;
+
+        Set<String> devices = new HashSet<>();
+        for (String line : mounts.text().split("\n")) {
+            String[] parts = line.split(" ");
+            if (parts.length < 3) continue;
+
+            String device = parts[0];
+            String mountPoint = unescape(parts[1]);
+            if (mountPoint.equals("/")) {
+                if (!result.contains("/")) result.add(0, "/");
+                devices.add(device);
+                continue;
+            }
+            if (!device.startsWith("/dev/") || device.startsWith("/dev/loop")) continue;
+            if (!devices.add(device)) continue;
+
+            result.add(mountPoint);
+        }
+        return result;
+    }
+
+    @Override
+    public VolumeUsage probe(String volume) throws IOException {
+        FileStore store = Files.getFileStore(Path.of(volume));
+        return new VolumeUsage(store.getTotalSpace(), store.getUnallocatedSpace());
+    }
+
+    // The kernel writes spaces, tabs and backslashes in mount points as octal escapes.
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 3 < s.length()) {
+                sb.append((char) Integer.parseInt(s.substring(i + 1, i + 4), 8));
+                i += 3;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
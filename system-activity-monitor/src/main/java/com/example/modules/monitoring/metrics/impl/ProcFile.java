@@ -0,0 +1,144 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Re-readable view of a /proc file. The channel stays open and every reload is a
+ * positional read into the same direct buffer, so sampling does not allocate.
+ * A read that fills the buffer may have been cut, so the buffer is doubled and
+ * the file read again from the start.
+ */
+final class ProcFile {
+
+    private final Path path;
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private int length;
+    private int cursor;
+
+    ProcFile(Path path, int capacity) {
+        this.path = path;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    boolean reload() {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+
+            while (!readAll()) {
+                buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            }
+
+            length = buffer.position();
+            cursor = 0;
+            return length > 0;
+
+        } catch (IOException e) {
+            close();
+            length = 0;
+            return false;
+        }
+    }
+
+    /** Reads the file from the start; false when it filled the buffer and may go on. */
+    private boolean readAll() throws IOException {
+        buffer.clear();
+        long position = 0;
+        int read;
+        while (buffer.hasRemaining() && (read = channel.read(buffer, position)) > 0) {
+            position += read;
+        }
+        return buffer.hasRemaining();
+    }
+
+    int capacity() { return buffer.capacity(); }
+
+    /** Moves the cursor right after {@code key} if some line starts with it. */
+    boolean seekLine(byte[] key) {
+        int lineStart = 0;
+
+        while (lineStart < length) {
+            if (startsWith(lineStart, key)) {
+                cursor = lineStart + key.length;
+                return true;
+            }
+
+            int i = lineStart;
+            while (i < length && buffer.get(i) != '\n') i++;
+            lineStart = i + 1;
+        }
+        return false;
+    }
+
+    /** Parses the next unsigned integer on the current line, or returns -1. */
+    long nextLong() {
+        int i = cursor;
+
+        while (i < length) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                cursor = i;
+                return -1;
+            }
+            if (b >= '0' && b <= '9') break;
+            i++;
+        }
+        if (i >= length) {
+            cursor = i;
+            return -1;
+        }
+
+        long value = 0;
+        while (i < length) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') break;
+            value = value * 10 + (b - '0');
+            i++;
+        }
+
+        cursor = i;
+        return value;
+    }
+
+    /** FNV-1a hash of the last reload, used to notice that the file content changed. */
+    long checksum() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < length; i++) {
+            hash ^= buffer.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    String text() {
+        byte[] bytes = new byte[length];
+        buffer.get(0, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    private boolean startsWith(int offset, byte[] key) {
+        if (offset + key.length > length) return false;
+
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + i) != key[i]) return false;
+        }
+        return true;
+    }
+}
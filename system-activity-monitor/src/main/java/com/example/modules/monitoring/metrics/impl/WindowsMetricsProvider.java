@@ -1,27 +1,58 @@
 package com.example.modules.monitoring.metrics.impl;
 
+import com.example.modules.monitoring.input.InputEventSource;
+import com.example.modules.monitoring.input.NativeHookInputEventSource;
 import com.example.modules.monitoring.metrics.MetricsProvider;
+import com.example.modules.monitoring.metrics.MetricsSnapshot;
+import com.example.modules.monitoring.volume.VolumeRegistry;
+import com.example.modules.monitoring.volume.VolumeSource;
+import com.example.util.MonitoringThreadFactory;
 import com.sun.jna.Native;
 import com.sun.jna.platform.win32.*;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class WindowsMetricsProvider implements MetricsProvider {
 
     private long lastIdle = 0, lastKernel = 0, lastUser = 0;
-    private volatile BigDecimal cpuLoad = BigDecimal.ZERO;
+    private volatile double cpuLoad = 0;
 
-    private final ScheduledExecutorService cpuScheduler =
-            Executors.newSingleThreadScheduledExecutor();
+    private final WinBase.FILETIME idle = new WinBase.FILETIME();
+    private final WinBase.FILETIME kernel = new WinBase.FILETIME();
+    private final WinBase.FILETIME user = new WinBase.FILETIME();
+
+    private ScheduledExecutorService cpuScheduler;
+
+    private final VolumeRegistry volumes;
+    private final InputMonitor input;
 
     public WindowsMetricsProvider() {
-        cpuScheduler.scheduleAtFixedRate(this::updateCpu, 0, 1, TimeUnit.SECONDS);
+        this(new NativeHookInputEventSource(), new WindowsVolumeSource());
+    }
+
+    public WindowsMetricsProvider(InputEventSource inputSource, VolumeSource volumeSource) {
+        this.input = new InputMonitor(inputSource);
+        this.volumes = new VolumeRegistry(volumeSource);
+    }
+
+    @Override
+    public synchronized void start() {
+        volumes.start();
+
+        if (cpuScheduler == null) {
+            cpuScheduler = Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("windows-cpu"));
+            cpuScheduler.scheduleAtFixedRate(this::updateCpu, 0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (cpuScheduler != null) {
+            cpuScheduler.shutdownNow();
+            cpuScheduler = null;
+        }
+
+        volumes.stop();
     }
 
     private long filetime(WinBase.FILETIME ft) {
@@ -31,10 +62,6 @@ public class WindowsMetricsProvider implements MetricsProvider {
     private void updateCpu() {
         Kernel32 k = Kernel32.INSTANCE;
 
-        WinBase.FILETIME idle = new WinBase.FILETIME();
-        WinBase.FILETIME kernel = new WinBase.FILETIME();
-        WinBase.FILETIME user = new WinBase.FILETIME();
-
         if (!k.GetSystemTimes(idle, kernel, user)) return;
 
         long idleNow = filetime(idle);
@@ -62,77 +89,50 @@ public class WindowsMetricsProvider implements MetricsProvider {
         double usage = (double) (total - idleDiff) / total * 100.0;
         usage = Math.max(0, Math.min(100, usage));
 
-        cpuLoad = BigDecimal.valueOf(usage).setScale(2, RoundingMode.HALF_UP);
+        cpuLoad = usage;
     }
 
     @Override
-    public BigDecimal getCpuLoad() {
+    public double getCpuLoad() {
         return cpuLoad;
     }
 
-    private BigDecimal ramTotal = BigDecimal.ZERO;
+    private final WinBase.MEMORYSTATUSEX mem = new WinBase.MEMORYSTATUSEX();
+    private double ramTotal = 0;
 
     @Override
-    public BigDecimal getRamUsed() {
+    public synchronized double getRamUsed() {
         Kernel32 k = Kernel32.INSTANCE;
 
-        WinBase.MEMORYSTATUSEX mem = new WinBase.MEMORYSTATUSEX();
-        if (!k.GlobalMemoryStatusEx(mem)) return BigDecimal.ZERO;
+        if (!k.GlobalMemoryStatusEx(mem)) return 0;
 
         long total = mem.ullTotalPhys.longValue();
         long free = mem.ullAvailPhys.longValue();
 
-        ramTotal = BigDecimal.valueOf(total / 1024.0 / 1024.0).setScale(2, RoundingMode.HALF_UP);
+        ramTotal = total / 1024.0 / 1024.0;
 
-        double usedMb = (total - free) / 1024.0 / 1024.0;
-        return BigDecimal.valueOf(usedMb).setScale(2, RoundingMode.HALF_UP);
+        return (total - free) / 1024.0 / 1024.0;
     }
 
     @Override
-    public BigDecimal getRamTotal() {
+    public double getRamTotal() {
         return ramTotal;
     }
 
-    private BigDecimal diskTotal = BigDecimal.ZERO;
-    private BigDecimal diskFree = BigDecimal.ZERO;
+    private double diskTotal = 0;
+    private double diskFree = 0;
     private String diskDetails = "Unknown";
 
     @Override
-    public void updateDiskStats() {
-        Kernel32 k = Kernel32.INSTANCE;
-
-        double tot = 0, free = 0;
-        StringBuilder sb = new StringBuilder();
-
-        for (char d = 'C'; d <= 'Z'; d++) {
-            String root = d + ":\\";
-
-            if (k.GetDriveType(root) != WinBase.DRIVE_FIXED) continue;
-
-            WinNT.LARGE_INTEGER freeAvail = new WinNT.LARGE_INTEGER();
-            WinNT.LARGE_INTEGER totalBytes = new WinNT.LARGE_INTEGER();
-            WinNT.LARGE_INTEGER freeBytes = new WinNT.LARGE_INTEGER();
-
-            if (k.GetDiskFreeSpaceEx(root, freeAvail, totalBytes, freeBytes)) {
-
-                double tGb = totalBytes.getValue() / 1e9;
-                double fGb = freeBytes.getValue() / 1e9;
-
-                tot += tGb;
-                free += fGb;
-
-                sb.append(String.format("%s: %.2f / %.2f GB | ", d, (tGb - fGb), tGb));
-            }
-        }
-
-        diskTotal = BigDecimal.valueOf(tot).setScale(2, RoundingMode.HALF_UP);
-        diskFree = BigDecimal.valueOf(free).setScale(2, RoundingMode.HALF_UP);
-        diskDetails = sb.isEmpty() ? "Unknown" : sb.toString();
+    public synchronized void updateDiskStats() {
+        diskTotal = volumes.getTotalGb();
+        diskFree = volumes.getFreeGb();
+        diskDetails = volumes.getDetails();
     }
 
-    @Override public BigDecimal getDiskTotal() { return diskTotal; }
-    @Override public BigDecimal getDiskFree()  { return diskFree;  }
-    @Override public BigDecimal getDiskUsed()  { return diskTotal.subtract(diskFree); }
+    @Override public double getDiskTotal() { return diskTotal; }
+    @Override public double getDiskFree()  { return diskFree;  }
+    @Override public double getDiskUsed()  { return diskTotal - diskFree; }
 
     @Override
     public String getUptime() {
@@ -145,76 +145,19 @@ public class WindowsMetricsProvider implements MetricsProvider {
         return d + " d " + h + " h " + m + " m";
     }
 
-    public long getSystemUptimeSecondsRaw() {
+    @Override
+    public long getUptimeSeconds() {
         return Kernel32.INSTANCE.GetTickCount64() / 1000;
     }
 
-    private final AtomicInteger keyPressCount = new AtomicInteger();
-    private final AtomicInteger mouseClickCount = new AtomicInteger();
-    private final AtomicLong mouseMoveCount = new AtomicLong();
-    private long lastActivity = System.currentTimeMillis();
-
-    private ScheduledExecutorService inputScheduler;
-    private boolean inputMonitoringActive = false;
-    private int lastX = -1, lastY = -1;
-
     @Override
     public void startInputMonitoring() {
-        if (inputMonitoringActive) return;
-
-        inputMonitoringActive = true;
-
-        inputScheduler = Executors.newSingleThreadScheduledExecutor();
-        inputScheduler.scheduleAtFixedRate(this::checkInput, 0, 80, TimeUnit.MILLISECONDS);
-    }
-
-    private void checkInput() {
-        User32 u = User32.INSTANCE;
-
-        for (int i = 0x08; i <= 0xFE; i++) {
-            if ((u.GetAsyncKeyState(i) & 0x0001) != 0) {
-                keyPressCount.incrementAndGet();
-                lastActivity = System.currentTimeMillis();
-            }
-        }
-
-        // мишка
-        if ((u.GetAsyncKeyState(0x01) & 1) != 0) mouseClickCount.incrementAndGet();
-        if ((u.GetAsyncKeyState(0x02) & 1) != 0) mouseClickCount.incrementAndGet();
-
-        WinDef.POINT p = new WinDef.POINT();
-        u.GetCursorPos(p);
-
-        if (lastX != -1 && lastY != -1) {
-            if (Math.abs(p.x - lastX) > 3 || Math.abs(p.y - lastY) > 3) {
-                mouseMoveCount.incrementAndGet();
-                lastActivity = System.currentTimeMillis();
-            }
-        }
-
-        lastX = p.x;
-        lastY = p.y;
+        input.start();
     }
 
     @Override
     public void stopInputMonitoring() {
-        inputMonitoringActive = false;
-        if (inputScheduler != null) inputScheduler.shutdownNow();
-    }
-
-    @Override
-    public Map<String, Long> getInputStats() {
-        if (!inputMonitoringActive) return Map.of(
-                "keys", 0L,
-                "clicks", 0L,
-                "moves", 0L
-        );
-
-        Map<String, Long> map = new HashMap<>();
-        map.put("keys", (long) keyPressCount.get());
-        map.put("clicks", (long) mouseClickCount.get());
-        map.put("moves", mouseMoveCount.get());
-        return map;
+        input.stop();
     }
 
     @Override
@@ -233,27 +176,22 @@ public class WindowsMetricsProvider implements MetricsProvider {
     }
 
     @Override
-    public Map<String, Object> collectAllMetrics() {
+    public synchronized void collectAllMetrics(MetricsSnapshot snapshot, boolean drainInput) {
         updateDiskStats();
 
-        Map<String, Object> map = new HashMap<>();
-        map.put("cpuLoad", getCpuLoad());
-        map.put("ramUsed", getRamUsed());
-        map.put("ramTotal", getRamTotal());
-
-        map.put("diskTotal", getDiskTotal());
-        map.put("diskFree", getDiskFree());
-        map.put("diskUsed", getDiskUsed());
-        map.put("diskDetails", diskDetails);
+        snapshot.setCpuLoad(getCpuLoad());
+        snapshot.setRamUsedMb(getRamUsed());
+        snapshot.setRamTotalMb(getRamTotal());
 
-        map.put("uptime", getUptime());
-        map.put("uptimeSeconds", getSystemUptimeSecondsRaw());
+        snapshot.setDiskTotalGb(diskTotal);
+        snapshot.setDiskFreeGb(diskFree);
+        snapshot.setDiskDetails(diskDetails);
 
-        map.put("activeWindow", getActiveWindowTitle());
-        map.put("osName", "Windows");
+        snapshot.setUptimeSeconds(getUptimeSeconds());
 
-        if (inputMonitoringActive) map.putAll(getInputStats());
+        snapshot.setActiveWindow(getActiveWindowTitle());
+        snapshot.setOsName("Windows");
 
-        return map;
+        input.fill(snapshot, drainInput);
     }
 }
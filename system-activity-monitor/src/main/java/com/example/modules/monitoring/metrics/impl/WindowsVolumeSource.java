@@ -0,0 +1,58 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import com.example.modules.monitoring.volume.VolumeSource;
+import com.example.modules.monitoring.volume.VolumeUsage;
+import com.sun.jna.Native;
+import com.sun.jna.platform.win32.Kernel32;
+import com.sun.jna.platform.win32.WinBase;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.win32.StdCallLibrary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed drives C: to Z:. The drive bitmask from GetLogicalDrives is the mounts signature.
+ */
+public class WindowsVolumeSource implements VolumeSource {
+
+    // jna-platform's Kernel32 does not map GetLogicalDrives.
+    private interface Drives extends StdCallLibrary {
+        Drives INSTANCE = Native.load("kernel32", Drives.class);
+
+        int GetLogicalDrives();
+    }
+
+    @Override
+    public long mountsSignature() {
+        return Drives.INSTANCE.GetLogicalDrives() & 0xffffffffL;
+    }
+
+    @Override
+    public List<String> listVolumes() {
+        Kernel32 k = Kernel32.INSTANCE;
+        int mask = Drives.INSTANCE.GetLogicalDrives();
+
+        List<String> result = new ArrayList<>();
+        for (char d = 'C'; d <= 'Z'; d++) {
+            if ((mask & (1 << (d - 'A'))) == 0) continue;
+            if (k.GetDriveType(d + ":\\") != WinBase.DRIVE_FIXED) continue;
+
+            result.add(String.valueOf(d));
+        }
+        return result;
+    }
+
+    @Override
+    public VolumeUsage probe(String volume) throws IOException {
+        WinNT.LARGE_INTEGER freeAvail = new WinNT.LARGE_INTEGER();
+        WinNT.LARGE_INTEGER totalBytes = new WinNT.LARGE_INTEGER();
+        WinNT.LARGE_INTEGER freeBytes = new WinNT.LARGE_INTEGER();
+
+        if (!Kernel32.INSTANCE.GetDiskFreeSpaceEx(volume + ":\\", freeAvail, totalBytes, freeBytes)) {
+            throw new IOException("GetDiskFreeSpaceEx failed for " + volume);
+        }
+        return new VolumeUsage(totalBytes.getValue(), freeBytes.getValue());
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.modules.monitoring.sampling;
+
+import com.example.modules.monitoring.metrics.MetricsSample;
+
+@FunctionalInterface
+public interface MetricsListener {
+    void onSample(MetricsSample sample);
+}
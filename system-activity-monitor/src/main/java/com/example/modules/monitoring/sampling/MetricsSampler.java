@@ -0,0 +1,128 @@
+package com.example.modules.monitoring.sampling;
+
+import com.example.modules.monitoring.metrics.MetricsProvider;
+import com.example.modules.monitoring.metrics.MetricsSample;
+import com.example.modules.monitoring.metrics.MetricsSnapshot;
+import com.example.util.MonitoringThreadFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects metrics once per interval and publishes the same immutable sample to
+ * every subscriber. A subscriber that needs a lower rate asks for every n-th sample.
+ */
+public class MetricsSampler {
+
+    private final MetricsProvider provider;
+    private final long interval;
+    private final TimeUnit unit;
+
+    private final MetricsSnapshot scratch = new MetricsSnapshot();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile MetricsSample latest;
+
+    private ScheduledExecutorService scheduler;
+
+    public MetricsSampler(MetricsProvider provider, long interval, TimeUnit unit) {
+        this.provider = provider;
+        this.interval = interval;
+        this.unit = unit;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("metrics-sampler"));
+        scheduler.scheduleAtFixedRate(this::tick, 0, interval, unit);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public Subscription subscribe(MetricsListener listener, int everyNthSample) {
+        if (everyNthSample < 1)
+            throw new IllegalArgumentException("everyNthSample must be >= 1");
+
+        Subscription subscription = new Subscription(listener, everyNthSample);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        if (subscription != null) subscriptions.remove(subscription);
+    }
+
+    public MetricsSample getLatest() {
+        return latest;
+    }
+
+    /**
+     * Collects immediately without notifying subscribers. Input counted so far is only
+     * peeked at, so it still goes to the next scheduled sample.
+     */
+    public MetricsSample sampleNow() {
+        return collect(false);
+    }
+
+    /**
+     * Collects immediately and takes the input counted since the previous sample. The
+     * caller owns that input: subscribers never see it.
+     */
+    public MetricsSample drainNow() {
+        return collect(true);
+    }
+
+    private MetricsSample collect(boolean drainInput) {
+        synchronized (scratch) {
+            provider.collectAllMetrics(scratch, drainInput);
+            MetricsSample sample = new MetricsSample(scratch, LocalDateTime.now());
+            latest = sample;
+            return sample;
+        }
+    }
+
+    private void tick() {
+        MetricsSample sample;
+        try {
+            sample = collect(true);
+        } catch (Exception e) {
+            System.err.println("[MetricsSampler] Error collecting metrics: " + e.getMessage());
+            return;
+        }
+
+        for (Subscription s : subscriptions) {
+            s.offer(sample);
+        }
+    }
+
+    public static final class Subscription {
+
+        private final MetricsListener listener;
+        private final int every;
+        private long counter;
+
+        private Subscription(MetricsListener listener, int every) {
+            this.listener = listener;
+            this.every = every;
+        }
+
+        private void offer(MetricsSample sample) {
+            if (counter++ % every != 0) return;
+
+            try {
+                listener.onSample(sample);
+            } catch (Exception e) {
+                System.err.println("[MetricsSampler] Subscriber failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,26 +1,47 @@
 package com.example.modules.monitoring.service;
 
+import com.example.modules.monitoring.focus.FocusTracker;
+import com.example.modules.monitoring.input.InputActivity;
 import com.example.modules.monitoring.metrics.MetricsProvider;
+import com.example.modules.monitoring.metrics.MetricsSample;
+import com.example.modules.monitoring.sampling.MetricsListener;
+import com.example.modules.monitoring.sampling.MetricsSampler;
 import com.example.model.SystemStats;
 import com.example.model.User;
-import com.example.repository.impl.StatsRepositoryImpl;
+import com.example.repository.factory.RepositoryFactory;
+import com.example.repository.interfaces.AppSegmentRepository;
 import com.example.repository.interfaces.StatsRepository;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Map;
 import java.util.concurrent.*;
 
 public class MonitoringService {
 
-    protected final StatsRepository statsRepository = new StatsRepositoryImpl();
+    public static final int SAMPLE_INTERVAL_SECONDS = 5;
+    public static final int WARNING_EVERY_N_SAMPLES = 1;
+    public static final int PERSIST_EVERY_N_SAMPLES = 12;
+
+    protected final StatsRepository statsRepository = RepositoryFactory.getStatsRepository();
+    protected final AppSegmentRepository appSegmentRepository = RepositoryFactory.getAppSegmentRepository();
     protected final MetricsProvider metricsProvider;
+    protected final MetricsSampler sampler;
 
-    protected ScheduledExecutorService scheduler;
+    protected ExecutorService scheduler;
     protected volatile boolean active = false;
     protected User activeUser;
 
+    private MetricsSampler.Subscription warningSubscription;
+    private MetricsSampler.Subscription persistSubscription;
+    private MetricsSampler.Subscription focusSubscription;
+    private FocusTracker focusTracker;
+
+    private final Object inputLock = new Object();
+    private InputActivity pendingInput = InputActivity.NONE;
+    private long persistCounter;
+
     private final ThreadFactory threadFactory = runnable -> {
         Thread t = new Thread(runnable);
         t.setName("MonitoringScheduler-" + t.getId());
@@ -33,6 +54,7 @@ public class MonitoringService {
 
     public MonitoringService(MetricsProvider provider) {
         this.metricsProvider = provider;
+        this.sampler = new MetricsSampler(provider, SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
     public synchronized void start(User user) {
@@ -41,34 +63,74 @@ public class MonitoringService {
         active = true;
         this.activeUser = user;
 
-        scheduler = Executors.newScheduledThreadPool(2, threadFactory);
+        scheduler = Executors.newSingleThreadExecutor(threadFactory);
 
-        // 🔹 Швидке оновлення UI / метрик кожні 5 секунд
-        scheduler.scheduleAtFixedRate(() -> safeGuard(this::tickFast),
-                0, 5, TimeUnit.SECONDS);
+        // 🔹 Попередження на кожному семплі (5 секунд)
+        warningSubscription = sampler.subscribe(this::logWarnings, WARNING_EVERY_N_SAMPLES);
 
-        // 🔹 Повільний запис у базу кожну 1 хвилину
-        scheduler.scheduleAtFixedRate(() -> safeGuard(this::tickSlow),
-                0, 1, TimeUnit.MINUTES);
+        // 🔹 Запис у базу кожен 12-й семпл (1 хвилина), поза потоком семплера
+        if (user != null) {
+            synchronized (inputLock) {
+                pendingInput = InputActivity.NONE;
+                persistCounter = 0;
+            }
+            persistSubscription = sampler.subscribe(sample -> onPersistSample(sample, user), 1);
 
+            // 🔹 Сегменти застосунків пишуться лише при зміні активного вікна.
+            // Сегменти, що лишилися відкритими після аварійного завершення, закриваються першими.
+            scheduler.execute(() -> safeGuard(() -> closeOpenSegments(user)));
+            focusTracker = new FocusTracker(appSegmentRepository, user, scheduler);
+            focusSubscription = sampler.subscribe(focusTracker, 1);
+        }
+
+        metricsProvider.start();
         metricsProvider.startInputMonitoring();
+        sampler.start();
 
         System.out.println("MonitoringService: monitoring is started.");
     }
 
 
     public synchronized void stop() {
+        boolean wasActive = active;
         active = false;
 
+        sampler.stop();
+        sampler.unsubscribe(warningSubscription);
+        sampler.unsubscribe(persistSubscription);
+        sampler.unsubscribe(focusSubscription);
+        warningSubscription = null;
+        persistSubscription = null;
+        focusSubscription = null;
+
+        // Before input monitoring stops, or the last sample would read zeros.
+        if (wasActive && activeUser != null) {
+            safeGuard(() -> flushPendingInput(activeUser));
+        }
+
+        if (focusTracker != null) {
+            focusTracker.close(LocalDateTime.now());
+            focusTracker = null;
+        }
+
         metricsProvider.stopInputMonitoring();
+        metricsProvider.stop();
 
+        // Queued writes (the last stats row, the closing segment) are allowed to finish.
         if (scheduler != null && !scheduler.isShutdown()) {
-            scheduler.shutdownNow();
+            scheduler.shutdown();
         }
 
         System.out.println("Monitoring stopped.");
     }
 
+    private void closeOpenSegments(User user) {
+        int closed = appSegmentRepository.closeOpenSegments(user.getId(), SAMPLE_INTERVAL_SECONDS);
+        if (closed > 0) {
+            System.out.println("MonitoringService: closed " + closed + " app segment(s) left open by the last run.");
+        }
+    }
+
     protected void safeGuard(Runnable task) {
         try {
             task.run();
@@ -76,90 +138,109 @@ public class MonitoringService {
             System.err.println("Exception in scheduled task: " + e.getMessage());
         }
     }
-    protected void collectMetrics() {
-        if (!active) return;
+    // Input deltas of every sample are summed so the persisted row covers the whole minute.
+    private void onPersistSample(MetricsSample sample, User user) {
+        InputActivity input;
+        synchronized (inputLock) {
+            pendingInput = pendingInput.plus(sample.getInputDelta());
 
-        Map<String, Object> data = metricsProvider.collectAllMetrics();
-        logWarnings(data);
-        if (activeUser != null) {
-            recordSystemStats(data, activeUser);
+            if (persistCounter++ % PERSIST_EVERY_N_SAMPLES != 0) return;
+
+            input = pendingInput;
+            pendingInput = InputActivity.NONE;
+        }
+
+        scheduler.execute(() -> safeGuard(() -> recordSystemStats(sample, input, user)));
+    }
+
+    // Rows are written every 12th sample; the input counted since the last one goes into a final row.
+    private void flushPendingInput(User user) {
+        MetricsSample data;
+        InputActivity input;
+        synchronized (inputLock) {
+            data = sampler.drainNow();
+            input = pendingInput.plus(data.getInputDelta());
+            pendingInput = InputActivity.NONE;
         }
+
+        scheduler.execute(() -> safeGuard(() -> recordSystemStats(data, input, user)));
+    }
+
+    public MetricsSampler.Subscription subscribe(MetricsListener listener, int everyNthSample) {
+        return sampler.subscribe(listener, everyNthSample);
+    }
+
+    public void unsubscribe(MetricsSampler.Subscription subscription) {
+        sampler.unsubscribe(subscription);
+    }
+
+    public MetricsSample getLatestSample() {
+        return sampler.getLatest();
     }
 
-    public Map<String, Object> collectFormattedStats() {
-        return metricsProvider.collectAllMetrics();
+    public MetricsSample sampleNow() {
+        return sampler.sampleNow();
     }
 
-    private void logWarnings(Map<String, Object> data) {
+    private void logWarnings(MetricsSample data) {
 
-        BigDecimal cpu = toDecimal(data.get("cpuLoad"));
-        BigDecimal ramUsed = toDecimal(data.get("ramUsed"));
-        BigDecimal ramTotal = toDecimal(data.get("ramTotal"));
-        BigDecimal diskTotal = toDecimal(data.get("diskTotal"));
-        BigDecimal diskFree = toDecimal(data.get("diskFree"));
+        double cpu = data.getCpuLoad();
+        double ramUsed = data.getRamUsedMb();
+        double ramTotal = data.getRamTotalMb();
+        double diskTotal = data.getDiskTotalGb();
+        double diskFree = data.getDiskFreeGb();
 
         // CPU warning
-        if (cpu.compareTo(BigDecimal.valueOf(90)) > 0) {
+        if (cpu > 90) {
             System.out.printf("High CPU load (%.2f%%)%n", cpu);
         }
 
         // RAM warning
-        if (ramTotal.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal percent = ramUsed.divide(ramTotal, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
+        if (ramTotal > 0) {
+            double percent = ramUsed / ramTotal * 100;
 
-            if (percent.compareTo(BigDecimal.valueOf(85)) > 0) {
+            if (percent > 85) {
                 System.out.printf("High RAM usage (%.2f%%)%n", percent);
             }
         }
 
         // Disk warning
-        if (diskTotal.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal freePercent = diskFree.divide(diskTotal, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
+        if (diskTotal > 0) {
+            double freePercent = diskFree / diskTotal * 100;
 
-            if (freePercent.compareTo(BigDecimal.valueOf(10)) < 0) {
+            if (freePercent < 10) {
                 System.out.printf("Not enough disk space (%.2f%% free)%n", freePercent);
             }
         }
     }
 
 
-    protected void recordSystemStats(Map<String, Object> data, User user) {
+    protected void recordSystemStats(MetricsSample data, InputActivity input, User user) {
         try {
-            BigDecimal cpu = toDecimal(data.get("cpuLoad"));
-            BigDecimal ramUsed = toDecimal(data.get("ramUsed"));
-            BigDecimal ramTotal = toDecimal(data.get("ramTotal"));
-
-            BigDecimal diskTotal = toDecimal(data.get("diskTotal"));
-            BigDecimal diskFree = toDecimal(data.get("diskFree"));
-            BigDecimal diskUsed = toDecimal(data.get("diskUsed"));
-
-            long uptimeSec = toLong(data.get("uptimeSeconds"));
-            long keys = toLong(data.get("keys"));
-            long clicks = toLong(data.get("clicks"));
-            long moves = toLong(data.get("moves"));
-
-
-            String window = safeStr(data.get("activeWindow"));
+            BigDecimal diskTotal = toDecimal(data.getDiskTotalGb());
+            BigDecimal diskFree = toDecimal(data.getDiskFreeGb());
 
             SystemStats stats = new SystemStats();
             stats.setUser(user);
-            stats.setCpuLoad(cpu);
+            stats.setCpuLoad(toDecimal(data.getCpuLoad()));
 
-            stats.setRamUsedMb(ramUsed);
-            stats.setRamTotalMb(ramTotal);
+            stats.setRamUsedMb(toDecimal(data.getRamUsedMb()));
+            stats.setRamTotalMb(toDecimal(data.getRamTotalMb()));
 
-            stats.setActiveWindow(window);
-            stats.setKeyboardPresses((int) keys);
-            stats.setMouseClicks((int) clicks);
-            stats.setMouseMoves(moves);
+            stats.setActiveWindow(safeStr(data.getActiveWindow()));
+            stats.setKeyboardPresses((int) input.getKeyPresses());
+            stats.setMouseClicks((int) input.getMouseClicks());
+            stats.setMouseMoves(input.getMouseMoves());
+            stats.setIntervalSeconds((int) Math.round(input.getIntervalMillis() / 1000.0));
+            stats.setActivityRate(toDecimal(input.getRatePerMinute()));
 
-            stats.setSystemUptimeSeconds(uptimeSec);
+            stats.setSystemUptimeSeconds(data.getUptimeSeconds());
 
             stats.setDiskTotalGb(diskTotal);
             stats.setDiskFreeGb(diskFree);
-            stats.setDiskUsedGb(diskUsed);
+            stats.setDiskUsedGb(diskTotal.subtract(diskFree));
+
+            stats.setRecordedAt(data.getSampledAt());
 
             statsRepository.save(stats);
 
@@ -168,27 +249,8 @@ public class MonitoringService {
         }
     }
 
-    protected BigDecimal toDecimal(Object obj) {
-        if (obj instanceof BigDecimal bd) return bd;
-
-        if (obj instanceof Number n) {
-            return BigDecimal.valueOf(n.doubleValue());
-        }
-
-        try {
-            return new BigDecimal(String.valueOf(obj));
-        } catch (Exception e) {
-            return BigDecimal.ZERO;
-        }
-    }
-
-    protected long toLong(Object obj) {
-        if (obj instanceof Number n) return n.longValue();
-        try {
-            return Long.parseLong(String.valueOf(obj));
-        } catch (Exception e) {
-            return 0L;
-        }
+    protected BigDecimal toDecimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
     }
 
     protected String safeStr(Object obj) {
@@ -215,32 +277,27 @@ public class MonitoringService {
         return days * 86400 + hours * 3600 + minutes * 60;
     }
 
-    private void tickFast() {
-        if (!active) return;
-
-        Map<String, Object> data = metricsProvider.collectAllMetrics();
-        logWarnings(data);
-    }
-
-    private void tickSlow() {
-        if (!active || activeUser == null) return;
-
-        Map<String, Object> data = metricsProvider.collectAllMetrics();
-        recordSystemStats(data, activeUser);
-    }
-
-    public void saveNow(User user) {
+    // The manual row takes the input of the minute so far, so the next periodic row starts after it.
+    public MetricsSample saveNow(User user) {
         if (user == null) {
             System.out.println("Guest mode — we don't save.");
-            return;
+            return sampler.sampleNow();
+        }
+
+        MetricsSample data;
+        InputActivity input;
+        synchronized (inputLock) {
+            data = sampler.drainNow();
+            input = pendingInput.plus(data.getInputDelta());
+            pendingInput = InputActivity.NONE;
         }
 
         try {
-            Map<String, Object> data = collectFormattedStats();
-            recordSystemStats(data, user);
+            recordSystemStats(data, input, user);
         } catch (Exception e) {
             System.err.println("[MonitoringService] Error when saving manually: " + e.getMessage());
         }
+        return data;
     }
 
     public String formatStatusSaved() {
@@ -0,0 +1,187 @@
+package com.example.modules.monitoring.volume;
+
+import com.example.util.MonitoringThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps per-volume disk usage up to date in the background so the metrics
+ * sampler only reads cached totals.
+ * <p>
+ * Mounts are re-listed only when {@link VolumeSource#mountsSignature()} changes.
+ * Every volume is probed on its own schedule on a separate thread. A probe that
+ * runs longer than the timeout marks the volume stale, and the volume is not
+ * probed again until that call returns. The last known value keeps being served.
+ */
+public class VolumeRegistry {
+
+    public static final long RESCAN_INTERVAL_MILLIS = 5_000;
+    public static final long PROBE_INTERVAL_MILLIS = 10_000;
+    public static final long PROBE_TIMEOUT_MILLIS = 2_000;
+
+    private final VolumeSource source;
+    private final long probeIntervalMillis;
+    private final long probeTimeoutMillis;
+
+    private final Map<String, Volume> volumes = new ConcurrentHashMap<>();
+    private long knownSignature = Long.MIN_VALUE;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService probes;
+
+    private volatile double totalGb = 0;
+    private volatile double freeGb = 0;
+    private volatile String details = "Unknown";
+
+    public VolumeRegistry(VolumeSource source) {
+        this(source, PROBE_INTERVAL_MILLIS, PROBE_TIMEOUT_MILLIS);
+    }
+
+    public VolumeRegistry(VolumeSource source, long probeIntervalMillis, long probeTimeoutMillis) {
+        this.source = source;
+        this.probeIntervalMillis = probeIntervalMillis;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("volume-registry"));
+        probes = Executors.newCachedThreadPool(new MonitoringThreadFactory("volume-probe"));
+
+        scheduler.scheduleWithFixedDelay(this::rescan, 0, RESCAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) return;
+
+        scheduler.shutdownNow();
+        probes.shutdownNow();
+        scheduler = null;
+        probes = null;
+        volumes.clear();
+        knownSignature = Long.MIN_VALUE;
+    }
+
+    public double getTotalGb() { return totalGb; }
+    public double getFreeGb() { return freeGb; }
+    public String getDetails() { return details; }
+
+    public boolean isStale(String volume) {
+        Volume v = volumes.get(volume);
+        return v != null && v.stale;
+    }
+
+    private void rescan() {
+        try {
+            long signature = source.mountsSignature();
+            if (signature == knownSignature) return;
+            knownSignature = signature;
+
+            List<String> current = source.listVolumes();
+
+            for (String name : new ArrayList<>(volumes.keySet())) {
+                if (!current.contains(name)) {
+                    Volume removed = volumes.remove(name);
+                    removed.schedule.cancel(false);
+                    if (removed.inFlight != null) removed.inFlight.cancel(true);
+                }
+            }
+
+            for (String name : current) {
+                volumes.computeIfAbsent(name, n -> {
+                    Volume v = new Volume(n);
+                    v.schedule = scheduler.scheduleWithFixedDelay(() -> probe(v),
+                            0, probeIntervalMillis, TimeUnit.MILLISECONDS);
+                    return v;
+                });
+            }
+
+            publish();
+
+        } catch (Exception e) {
+            System.err.println("[VolumeRegistry] Error listing volumes: " + e.getMessage());
+        }
+    }
+
+    private void probe(Volume v) {
+        if (checkTimeout(v)) return;
+
+        v.probeStartedAt = System.currentTimeMillis();
+        v.inFlight = probes.submit(() -> {
+            try {
+                VolumeUsage usage = source.probe(v.name);
+                v.totalBytes = usage.getTotalBytes();
+                v.freeBytes = usage.getFreeBytes();
+                v.known = true;
+                v.stale = false;
+            } catch (Exception e) {
+                v.stale = true;
+            }
+            publish();
+        });
+
+        // A hung probe is flagged on the next tick at the latest; check earlier when the timeout is shorter.
+        if (probeTimeoutMillis < probeIntervalMillis) {
+            scheduler.schedule(() -> checkTimeout(v), probeTimeoutMillis + 1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Returns true while a probe is still running, marking the volume stale once it overruns the timeout. */
+    private boolean checkTimeout(Volume v) {
+        Future<?> running = v.inFlight;
+        if (running == null || running.isDone()) return false;
+
+        if (System.currentTimeMillis() - v.probeStartedAt > probeTimeoutMillis && !v.stale) {
+            v.stale = true;
+            System.err.println("[VolumeRegistry] Volume " + v.name + " is not responding.");
+            publish();
+        }
+        return true;
+    }
+
+    private synchronized void publish() {
+        double tot = 0, free = 0;
+        StringBuilder sb = new StringBuilder();
+
+        for (Volume v : volumes.values()) {
+            if (!v.known) continue;
+
+            double tGb = v.totalBytes / 1e9;
+            double fGb = v.freeBytes / 1e9;
+
+            tot += tGb;
+            free += fGb;
+
+            sb.append(String.format("%s: %.2f / %.2f GB%s | ", v.name, (tGb - fGb), tGb, v.stale ? " (stale)" : ""));
+        }
+
+        totalGb = tot;
+        freeGb = free;
+        details = sb.isEmpty() ? "Unknown" : sb.toString();
+    }
+
+    private static final class Volume {
+        final String name;
+        volatile long totalBytes;
+        volatile long freeBytes;
+        volatile boolean known;
+        volatile boolean stale;
+        volatile Future<?> inFlight;
+        volatile long probeStartedAt;
+        ScheduledFuture<?> schedule;
+
+        Volume(String name) {
+            this.name = name;
+        }
+    }
+}
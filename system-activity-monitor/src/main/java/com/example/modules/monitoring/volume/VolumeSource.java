@@ -0,0 +1,19 @@
+package com.example.modules.monitoring.volume;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Platform access to mounted volumes, used by {@link VolumeRegistry}.
+ */
+public interface VolumeSource {
+
+    /** Cheap value that changes whenever the set of mounts changes. */
+    long mountsSignature();
+
+    /** Volume names, e.g. {@code C} on Windows or a mount point on Linux. */
+    List<String> listVolumes();
+
+    /** May block on a slow or hung volume; the registry calls it off the sampling thread. */
+    VolumeUsage probe(String volume) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.example.modules.monitoring.volume;
+
+public final class VolumeUsage {
+
+    private final long totalBytes;
+    private final long freeBytes;
+
+    public VolumeUsage(long totalBytes, long freeBytes) {
+        this.totalBytes = totalBytes;
+        this.freeBytes = freeBytes;
+    }
+
+    public long getTotalBytes() { return totalBytes; }
+    public long getFreeBytes() { return freeBytes; }
+}
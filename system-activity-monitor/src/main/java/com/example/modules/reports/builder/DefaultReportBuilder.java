@@ -32,9 +32,13 @@ public class DefaultReportBuilder implements ReportBuilder {
     public void buildCpuRam(Report report) {
         pkg.cpuAvg = report.getCpuAvg();
         pkg.ramAvg = report.getRamAvg();
+        pkg.cpuPercentiles = report.getCpuPercentiles();
+        pkg.ramPercentiles = report.getRamPercentiles();
 
         built.setCpuAvg(report.getCpuAvg());
         built.setRamAvg(report.getRamAvg());
+        built.setCpuSketch(report.getCpuSketch());
+        built.setRamSketch(report.getRamSketch());
     }
 
     @Override
@@ -1,6 +1,7 @@
 package com.example.modules.reports.builder;
 
 import com.example.model.DaySummary;
+import com.example.model.Percentiles;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +13,8 @@ public class ReportExportPackage {
 
     public BigDecimal cpuAvg;
     public BigDecimal ramAvg;
+    public Percentiles cpuPercentiles;
+    public Percentiles ramPercentiles;
     public BigDecimal idleSeconds;
     public BigDecimal avgUptime;
 
@@ -0,0 +1,70 @@
+package com.example.modules.reports.calculations;
+
+import com.example.repository.query.StatsColumn;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Count, sum, min and max of two-decimal values kept as {@code long} hundredths.
+ * Sums are exact, so the average rounds exactly like the {@link BigDecimal} sum it
+ * replaces, but adding a value creates no objects. {@link BigDecimal} is produced only
+ * by the getters. Stored metrics are {@code DECIMAL(x,2)}; finer inputs are rounded
+ * {@code HALF_UP} to hundredths as they are added.
+ */
+public final class FixedPointStats {
+
+    // Below 2^43 hundredths the correctly rounded double of a two-decimal value, times 100,
+    // rounds back to the exact integer without going through BigInteger.
+    private static final double EXACT_LIMIT = 0x1p43 / 100;
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    public void add(BigDecimal value) {
+        if (value == null) return;
+
+        double d = value.doubleValue();
+        addHundredths(value.scale() <= 2 && Math.abs(d) < EXACT_LIMIT
+                ? Math.round(d * 100)
+                : StatsColumn.toHundredths(value));
+    }
+
+    public void addHundredths(long value) {
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    /** Adds a pre-aggregated group, such as a rollup; {@code null} bounds are ignored. */
+    public void addGroup(long groupCount, BigDecimal groupSum, BigDecimal groupMin, BigDecimal groupMax) {
+        if (groupCount == 0) return;
+
+        count += groupCount;
+        sum += StatsColumn.toHundredths(groupSum);
+        if (groupMin != null) min = Math.min(min, StatsColumn.toHundredths(groupMin));
+        if (groupMax != null) max = Math.max(max, StatsColumn.toHundredths(groupMax));
+    }
+
+    public void merge(FixedPointStats other) {
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() { return count; }
+
+    /** Average rounded {@code HALF_UP} to two decimals; zero when nothing was added. */
+    public BigDecimal average() {
+        if (count == 0) return BigDecimal.ZERO;
+        return BigDecimal.valueOf(sum, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal sum() { return BigDecimal.valueOf(sum, 2); }
+    public BigDecimal min() { return min == Long.MAX_VALUE ? null : BigDecimal.valueOf(min, 2); }
+    public BigDecimal max() { return max == Long.MIN_VALUE ? null : BigDecimal.valueOf(max, 2); }
+}
@@ -0,0 +1,192 @@
+package com.example.modules.reports.calculations;
+
+import com.example.model.DaySummary;
+import com.example.model.HourStat;
+import com.example.model.Percentiles;
+import com.example.model.QuantileSketch;
+import com.example.model.StatsRollup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Builds every report section in one scan over time-ordered rollups: overall
+ * CPU/RAM averages, app usage, daily uptime with its average, and, for hour
+ * rollups, the day/hour breakdown. Only the day in progress is kept open; a day
+ * is closed as soon as the first rollup of the next one arrives.
+ * <p>
+ * CPU/RAM percentiles come from the rollup sketches: hours use their own, days
+ * merge their hours and the report merges everything. A level with a rollup that
+ * has values but no sketch gets no percentiles rather than ones that leave it out.
+ * <p>
+ * Results equal what {@link ReportCalculator} computes from the raw rows the
+ * rollups were built from.
+ */
+public class ReportAccumulator implements Consumer<StatsRollup> {
+
+    private final boolean buildDays;
+
+    private final FixedPointStats cpu = new FixedPointStats();
+    private final FixedPointStats ram = new FixedPointStats();
+    private final SketchMerge cpuSketch = new SketchMerge();
+    private final SketchMerge ramSketch = new SketchMerge();
+    private long samples;
+    private final Map<String, Long> appCounts = new LinkedHashMap<>();
+
+    private final FixedPointStats uptime = new FixedPointStats();
+    private final List<DaySummary> days = new ArrayList<>();
+
+    private LocalDateTime lastBucket;
+    private Day day;
+
+    /** @param buildDays whether to build day summaries; needs hour rollups */
+    public ReportAccumulator(boolean buildDays) {
+        this.buildDays = buildDays;
+    }
+
+    @Override
+    public void accept(StatsRollup r) {
+        LocalDateTime bucket = r.getBucketStart();
+        if (lastBucket != null && bucket.isBefore(lastBucket)) {
+            throw new IllegalArgumentException("Rollups must be in time order: " + bucket + " after " + lastBucket);
+        }
+        lastBucket = bucket;
+
+        cpu.addGroup(r.getCpuCount(), r.getCpuSum(), r.getCpuMin(), r.getCpuMax());
+        ram.addGroup(r.getRamCount(), r.getRamSum(), r.getRamMin(), r.getRamMax());
+        cpuSketch.add(r.getCpuSketch(), r.getCpuCount());
+        ramSketch.add(r.getRamSketch(), r.getRamCount());
+        samples += r.getSampleCount();
+        r.getAppCounts().forEach((name, c) -> appCounts.merge(name, c, Long::sum));
+
+        LocalDate date = bucket.toLocalDate();
+        if (day == null || !day.date.equals(date)) {
+            closeDay();
+            day = new Day(date);
+        }
+        day.add(r, buildDays);
+    }
+
+    public BigDecimal cpuAvg() { return cpu.average(); }
+    public BigDecimal ramAvg() { return ram.average(); }
+    public Map<String, BigDecimal> appUsagePercent() { return percent(appCounts, samples); }
+    public QuantileSketch cpuSketch() { return cpuSketch.result(); }
+    public QuantileSketch ramSketch() { return ramSketch.result(); }
+
+    public BigDecimal averageUptime() {
+        closeDay();
+        return uptime.average();
+    }
+
+    /** Day summaries in date order; empty unless built with {@code buildDays}. */
+    public List<DaySummary> days() {
+        closeDay();
+        return days;
+    }
+
+    private void closeDay() {
+        if (day == null) return;
+
+        BigDecimal dayUptime = day.uptime();
+        uptime.add(dayUptime);
+
+        if (buildDays) {
+            DaySummary summary = new DaySummary(day.date, day.hours, dayUptime);
+            summary.setCpuAvg(day.cpu.average());
+            summary.setRamAvg(day.ram.average());
+            summary.setCpuPercentiles(day.cpuSketch.percentiles());
+            summary.setRamPercentiles(day.ramSketch.percentiles());
+            summary.setAppUsagePercentByDay(percent(day.appCounts, day.samples));
+            for (HourStat h : day.hours) h.setParentDay(summary);
+            days.add(summary);
+        }
+
+        day = null;
+    }
+
+    static Map<String, BigDecimal> percent(Map<String, Long> counts, long total) {
+        if (total == 0) return Map.of();
+
+        Map<String, BigDecimal> result = new LinkedHashMap<>();
+        counts.forEach((name, count) -> result.put(name,
+                BigDecimal.valueOf(count * 100.0 / total).setScale(2, RoundingMode.HALF_UP)));
+        return result;
+    }
+
+    private static final class Day {
+
+        final LocalDate date;
+        final List<HourStat> hours = new ArrayList<>();
+        final Map<String, Long> appCounts = new LinkedHashMap<>();
+
+        long samples;
+        long gapSeconds;
+        long gapCount;
+        final FixedPointStats cpu = new FixedPointStats();
+        final FixedPointStats ram = new FixedPointStats();
+        final SketchMerge cpuSketch = new SketchMerge();
+        final SketchMerge ramSketch = new SketchMerge();
+
+        Day(LocalDate date) {
+            this.date = date;
+        }
+
+        void add(StatsRollup r, boolean buildDays) {
+            samples += r.getSampleCount();
+            gapSeconds += r.getGapSeconds();
+            gapCount += r.getGapCount();
+
+            if (!buildDays) return;
+
+            FixedPointStats hourCpu = new FixedPointStats();
+            FixedPointStats hourRam = new FixedPointStats();
+            hourCpu.addGroup(r.getCpuCount(), r.getCpuSum(), r.getCpuMin(), r.getCpuMax());
+            hourRam.addGroup(r.getRamCount(), r.getRamSum(), r.getRamMin(), r.getRamMax());
+            cpu.merge(hourCpu);
+            ram.merge(hourRam);
+            cpuSketch.add(r.getCpuSketch(), r.getCpuCount());
+            ramSketch.add(r.getRamSketch(), r.getRamCount());
+            r.getAppCounts().forEach((name, c) -> appCounts.merge(name, c, Long::sum));
+
+            HourStat hour = new HourStat(r.getBucketStart().getHour(), hourCpu.average(), hourRam.average());
+            hour.setInputEvents(r.getInputEvents());
+            if (r.getCpuSketch() != null) hour.setCpuPercentiles(r.getCpuSketch().percentiles());
+            if (r.getRamSketch() != null) hour.setRamPercentiles(r.getRamSketch().percentiles());
+            hours.add(hour);
+        }
+
+        // Same rule as ReportCalculator.dailyUptime: average in-day gap times the sample count.
+        BigDecimal uptime() {
+            if (samples < 2) return BigDecimal.ZERO;
+
+            long avgInterval = gapCount > 0 ? gapSeconds / gapCount : 10;
+            return BigDecimal.valueOf(avgInterval * samples / 3600.0).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    /** Merged sketch of a level; incomplete once a rollup with values has none. */
+    private static final class SketchMerge {
+
+        private final QuantileSketch sketch = new QuantileSketch();
+        private boolean incomplete;
+
+        void add(QuantileSketch rollupSketch, long valueCount) {
+            if (valueCount == 0) return;
+            if (rollupSketch == null) incomplete = true;
+            else sketch.merge(rollupSketch);
+        }
+
+        QuantileSketch result() {
+            return incomplete || sketch.isEmpty() ? null : sketch;
+        }
+
+        Percentiles percentiles() {
+            QuantileSketch result = result();
+            return result != null ? result.percentiles() : null;
+        }
+    }
+}
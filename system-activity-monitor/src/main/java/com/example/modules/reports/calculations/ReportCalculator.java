@@ -1,14 +1,18 @@
 package com.example.modules.reports.calculations;
 
+import com.example.model.AppSegment;
 import com.example.model.DaySummary;
 import com.example.model.HourStat;
 import com.example.model.IdleTime;
 import com.example.model.SystemStats;
+import com.example.util.AppNameNormalizer;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -18,15 +22,9 @@ public class ReportCalculator {
     public BigDecimal average(List<SystemStats> stats, Function<SystemStats, BigDecimal> mapper) {
         if (stats == null || stats.isEmpty()) return BigDecimal.ZERO;
 
-        List<BigDecimal> values = stats.stream()
-                .map(mapper)
-                .filter(Objects::nonNull)
-                .toList();
-
-        if (values.isEmpty()) return BigDecimal.ZERO;
-
-        BigDecimal sum = values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
-        return sum.divide(BigDecimal.valueOf(values.size()), 2, RoundingMode.HALF_UP);
+        FixedPointStats acc = new FixedPointStats();
+        for (SystemStats s : stats) acc.add(mapper.apply(s));
+        return acc.average();
     }
 
     public BigDecimal totalIdle(List<IdleTime> idleList) {
@@ -62,6 +60,114 @@ public class ReportCalculator {
         return result;
     }
 
+    /**
+     * App usage weighted by focus time: segment durations clipped to {@code [from, to]}.
+     * Only the latest segment, the live one of the running tracker, counts up to now while
+     * open; an earlier segment without an end stops where the next one starts.
+     */
+    public Map<String, BigDecimal> appUsagePercent(List<AppSegment> segments, LocalDateTime from, LocalDateTime to) {
+        if (segments == null || segments.isEmpty()) return Map.of();
+
+        List<LocalDateTime> ends = segmentEnds(segments);
+        Map<String, Long> seconds = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            AppSegment seg = segments.get(i);
+            long s = clippedSeconds(seg, ends.get(i), from, to);
+            if (s > 0) seconds.merge(seg.getAppName(), s, Long::sum);
+        }
+
+        return toPercent(seconds);
+    }
+
+    public Map<LocalDate, Map<String, BigDecimal>> dailyAppUsage(List<AppSegment> segments, LocalDateTime from, LocalDateTime to) {
+        if (segments == null || segments.isEmpty()) return Map.of();
+
+        List<LocalDateTime> ends = segmentEnds(segments);
+        Map<LocalDate, Map<String, Long>> seconds = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            AppSegment seg = segments.get(i);
+            if (seg.getStartTime() == null) continue;
+
+            LocalDateTime end = ends.get(i);
+            LocalDate first = max(seg.getStartTime(), from).toLocalDate();
+            LocalDate last = min(end, to).toLocalDate();
+
+            for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+                long s = clippedSeconds(seg, end, max(from, d.atStartOfDay()), min(to, d.plusDays(1).atStartOfDay()));
+                if (s > 0) {
+                    seconds.computeIfAbsent(d, k -> new LinkedHashMap<>()).merge(seg.getAppName(), s, Long::sum);
+                }
+            }
+        }
+
+        Map<LocalDate, Map<String, BigDecimal>> result = new LinkedHashMap<>();
+        seconds.forEach((day, apps) -> result.put(day, toPercent(apps)));
+        return result;
+    }
+
+    private long clippedSeconds(AppSegment seg, LocalDateTime segEnd, LocalDateTime from, LocalDateTime to) {
+        if (seg.getStartTime() == null) return 0;
+
+        LocalDateTime start = max(seg.getStartTime(), from);
+        LocalDateTime end = min(segEnd, to);
+        return end.isAfter(start) ? Duration.between(start, end).getSeconds() : 0;
+    }
+
+    // Segments come ordered by start time. Open ones left behind by a crash are closed when
+    // tracking starts again; until then they end where the next segment begins.
+    private List<LocalDateTime> segmentEnds(List<AppSegment> segments) {
+        List<LocalDateTime> ends = new ArrayList<>(segments.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < segments.size(); i++) {
+            AppSegment seg = segments.get(i);
+            if (seg.getEndTime() != null) {
+                ends.add(seg.getEndTime());
+                continue;
+            }
+
+            LocalDateTime next = null;
+            for (int j = i + 1; j < segments.size() && next == null; j++) {
+                LocalDateTime start = segments.get(j).getStartTime();
+                if (start != null && seg.getStartTime() != null && start.isAfter(seg.getStartTime())) next = start;
+            }
+            ends.add(next != null ? next : now);
+        }
+        return ends;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) { return a.isAfter(b) ? a : b; }
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) { return a.isBefore(b) ? a : b; }
+
+    private Map<String, BigDecimal> toPercent(Map<String, Long> seconds) {
+        long total = seconds.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0) return Map.of();
+
+        Map<String, BigDecimal> result = new LinkedHashMap<>();
+        seconds.forEach((name, s) -> result.put(name,
+                BigDecimal.valueOf(s * 100.0 / total).setScale(2, RoundingMode.HALF_UP)));
+        return result;
+    }
+
+    public Map<LocalDateTime, Long> hourlyActivity(List<SystemStats> stats) {
+        if (stats == null || stats.isEmpty()) return Map.of();
+
+        Map<LocalDateTime, Long> result = new LinkedHashMap<>();
+
+        for (SystemStats s : stats) {
+            // Rows written before per-interval deltas hold running totals, not activity.
+            if (s.getRecordedAt() == null || s.getIntervalSeconds() == null) continue;
+
+            long events = (s.getKeyboardPresses() != null ? s.getKeyboardPresses() : 0)
+                    + (s.getMouseClicks() != null ? s.getMouseClicks() : 0)
+                    + (s.getMouseMoves() != null ? s.getMouseMoves() : 0);
+
+            result.merge(s.getRecordedAt().truncatedTo(ChronoUnit.HOURS), events, Long::sum);
+        }
+
+        return result;
+    }
+
     public Map<LocalDate, BigDecimal> dailyUptime(List<SystemStats> stats) {
 
         if (stats == null || stats.isEmpty())
@@ -126,6 +232,7 @@ public class ReportCalculator {
                         ));
 
         Map<LocalDate, BigDecimal> uptimeByDay = dailyUptime(stats);
+        Map<LocalDateTime, Long> activityByHour = hourlyActivity(stats);
 
         List<DaySummary> days = new ArrayList<>();
 
@@ -162,6 +269,7 @@ public class ReportCalculator {
             daySummary.setAppUsagePercentByDay(dailyApps);
             for (HourStat h : hourStats) {
                 h.setParentDay(daySummary);
+                h.setInputEvents(activityByHour.getOrDefault(date.atTime(h.getHour(), 0), 0L));
             }
 
             days.add(daySummary);
@@ -171,6 +279,28 @@ public class ReportCalculator {
         return days;
     }
 
+    /** Day summaries whose per-day app usage comes from focus segments when there are any. */
+    public List<DaySummary> buildDaySummary(List<SystemStats> stats, List<AppSegment> segments,
+                                            LocalDateTime from, LocalDateTime to) {
+        return withSegmentApps(buildDaySummary(stats), segments, from, to);
+    }
+
+    /**
+     * Replaces per-day app usage with focus-segment time on days that have segments;
+     * other days keep the usage counted from samples.
+     */
+    public List<DaySummary> withSegmentApps(List<DaySummary> days, List<AppSegment> segments,
+                                             LocalDateTime from, LocalDateTime to) {
+        if (segments == null || segments.isEmpty()) return days;
+
+        Map<LocalDate, Map<String, BigDecimal>> appsByDay = dailyAppUsage(segments, from, to);
+        for (DaySummary day : days) {
+            Map<String, BigDecimal> apps = appsByDay.get(day.getDate());
+            if (apps != null) day.setAppUsagePercentByDay(apps);
+        }
+        return days;
+    }
+
     public BigDecimal averageUptime(List<SystemStats> stats) {
 
         if (stats == null || stats.isEmpty())
@@ -191,21 +321,6 @@ public class ReportCalculator {
     }
 
     private String normalizeAppName(String t) {
-        if (t == null) return "Робочий стіл";
-
-        String s = t.toLowerCase();
-
-        if (s.contains("chrome")) return "Google Chrome";
-        if (s.contains("firefox")) return "Mozilla Firefox";
-        if (s.contains("edge")) return "Microsoft Edge";
-        if (s.contains("opera")) return "Opera Browser";
-        if (s.contains("word")) return "MS Word";
-        if (s.contains("excel")) return "MS Excel";
-        if (s.contains("idea")) return "IntelliJ IDEA";
-        if (s.contains("studio")) return "Android Studio";
-        if (s.contains("telegram")) return "Telegram";
-        if (s.contains("viber")) return "Viber";
-
-        return t.length() > 40 ? t.substring(0, 40) + "..." : t;
+        return AppNameNormalizer.normalize(t);
     }
 }
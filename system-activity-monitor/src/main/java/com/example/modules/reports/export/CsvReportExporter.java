@@ -3,6 +3,7 @@ package com.example.modules.reports.export;
 import com.example.modules.reports.builder.ReportExportPackage;
 import com.example.model.DaySummary;
 import com.example.model.HourStat;
+import com.example.model.Percentiles;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -30,6 +31,12 @@ public class CsvReportExporter implements ReportExporter {
             if (pkg.ramAvg != null)
                 writer.write("RAM Avg," + pkg.ramAvg + "\n");
 
+            if (pkg.cpuPercentiles != null)
+                writer.write("CPU p50/p95/p99/Max," + cells(pkg.cpuPercentiles) + "\n");
+
+            if (pkg.ramPercentiles != null)
+                writer.write("RAM p50/p95/p99/Max," + cells(pkg.ramPercentiles) + "\n");
+
             if (pkg.idleSeconds != null)
                 writer.write("Idle Time," + pkg.idleSeconds + "\n");
 
@@ -51,6 +58,14 @@ public class CsvReportExporter implements ReportExporter {
                 writer.write("\n");
             }
 
+            if (pkg.days != null && pkg.days.stream().anyMatch(d -> d.getCpuPercentiles() != null)) {
+                writer.write("Date," + PERCENTILE_HEADER + "\n");
+                for (DaySummary d : pkg.days) {
+                    writer.write(d.getDate() + "," + cells(d.getCpuPercentiles()) + "," + cells(d.getRamPercentiles()) + "\n");
+                }
+                writer.write("\n");
+            }
+
             // DAILY APP USAGE
             if (pkg.days != null && !pkg.days.isEmpty()) {
                 writer.write("Date,Application,Usage (%)\n");
@@ -78,16 +93,18 @@ public class CsvReportExporter implements ReportExporter {
             }
 
             if (pkg.days != null && !pkg.days.isEmpty()) {
-                writer.write("Date,Hour,CPU,RAM\n");
+                writer.write("Date,Hour,CPU,RAM," + PERCENTILE_HEADER + "\n");
                 for (DaySummary d : pkg.days) {
                     if (d.getHourlyStats() == null) continue;
                     for (HourStat h : d.getHourlyStats()) {
                         writer.write(String.format(
-                                "%s,%02d:00,%.2f,%.2f\n",
+                                "%s,%02d:00,%.2f,%.2f,%s,%s\n",
                                 d.getDate(),
                                 h.getHour(),
                                 h.getAvgCpu(),
-                                h.getAvgRam()
+                                h.getAvgRam(),
+                                cells(h.getCpuPercentiles()),
+                                cells(h.getRamPercentiles())
                         ));
                     }
                 }
@@ -108,6 +125,15 @@ public class CsvReportExporter implements ReportExporter {
         return path;
     }
 
+    private static final String PERCENTILE_HEADER =
+            "CPU p50,CPU p95,CPU p99,CPU Max,RAM p50,RAM p95,RAM p99,RAM Max";
+
+    // Empty cells when the percentiles are unknown, so the columns stay aligned.
+    private static String cells(Percentiles p) {
+        if (p == null) return ",,,";
+        return p.getP50() + "," + p.getP95() + "," + p.getP99() + "," + p.getMax();
+    }
+
     @Override
     public String getExtension() {
         return "csv";
@@ -3,6 +3,7 @@ package com.example.modules.reports.export;
 import com.example.modules.reports.builder.ReportExportPackage;
 import com.example.model.DaySummary;
 import com.example.model.HourStat;
+import com.example.model.Percentiles;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -33,6 +34,12 @@ public class ExcelReportExporter implements ReportExporter {
             if (pkg.ramAvg != null)
                 sheet.createRow(row++).createCell(0).setCellValue("RAM Avg: " + pkg.ramAvg);
 
+            if (pkg.cpuPercentiles != null)
+                sheet.createRow(row++).createCell(0).setCellValue("CPU Percentiles: " + pkg.cpuPercentiles);
+
+            if (pkg.ramPercentiles != null)
+                sheet.createRow(row++).createCell(0).setCellValue("RAM Percentiles: " + pkg.ramPercentiles);
+
             if (pkg.idleSeconds != null)
                 sheet.createRow(row++).createCell(0).setCellValue("Idle: " + pkg.idleSeconds);
 
@@ -57,6 +64,21 @@ public class ExcelReportExporter implements ReportExporter {
                 row += 2;
             }
 
+            if (pkg.days != null && pkg.days.stream().anyMatch(d -> d.getCpuPercentiles() != null)) {
+                Row title = sheet.createRow(row++);
+                title.createCell(0).setCellValue("Date");
+                percentileHeader(title, 1);
+
+                for (DaySummary d : pkg.days) {
+                    Row r = sheet.createRow(row++);
+                    r.createCell(0).setCellValue(d.getDate().toString());
+                    percentileCells(r, 1, d.getCpuPercentiles());
+                    percentileCells(r, 5, d.getRamPercentiles());
+                }
+
+                row += 2;
+            }
+
             if (pkg.days != null && !pkg.days.isEmpty()) {
                 Row title = sheet.createRow(row++);
                 title.createCell(0).setCellValue("Date");
@@ -99,6 +121,7 @@ public class ExcelReportExporter implements ReportExporter {
                 h.createCell(1).setCellValue("Hour");
                 h.createCell(2).setCellValue("CPU (%)");
                 h.createCell(3).setCellValue("RAM (MB)");
+                percentileHeader(h, 4);
 
                 for (DaySummary d : pkg.days) {
                     if (d.getHourlyStats() == null) continue;
@@ -109,6 +132,8 @@ public class ExcelReportExporter implements ReportExporter {
                         r.createCell(1).setCellValue(hs.getHour());
                         r.createCell(2).setCellValue(hs.getAvgCpu().doubleValue());
                         r.createCell(3).setCellValue(hs.getAvgRam().doubleValue());
+                        percentileCells(r, 4, hs.getCpuPercentiles());
+                        percentileCells(r, 8, hs.getRamPercentiles());
                     }
                 }
 
@@ -134,6 +159,23 @@ public class ExcelReportExporter implements ReportExporter {
         return path;
     }
 
+    private static void percentileHeader(Row row, int firstColumn) {
+        String[] names = {"CPU p50 (%)", "CPU p95 (%)", "CPU p99 (%)", "CPU Max (%)",
+                "RAM p50 (MB)", "RAM p95 (MB)", "RAM p99 (MB)", "RAM Max (MB)"};
+        for (int i = 0; i < names.length; i++) {
+            row.createCell(firstColumn + i).setCellValue(names[i]);
+        }
+    }
+
+    // Cells are left blank when the percentiles are unknown.
+    private static void percentileCells(Row row, int firstColumn, Percentiles p) {
+        if (p == null) return;
+        row.createCell(firstColumn).setCellValue(p.getP50().doubleValue());
+        row.createCell(firstColumn + 1).setCellValue(p.getP95().doubleValue());
+        row.createCell(firstColumn + 2).setCellValue(p.getP99().doubleValue());
+        row.createCell(firstColumn + 3).setCellValue(p.getMax().doubleValue());
+    }
+
     @Override
     public String getExtension() {
         return "xlsx";
@@ -3,6 +3,7 @@ package com.example.modules.reports.export;
 import com.example.modules.reports.builder.ReportExportPackage;
 import com.example.model.DaySummary;
 import com.example.model.HourStat;
+import com.example.model.Percentiles;
 import com.example.util.FontResolver;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
@@ -38,6 +39,12 @@ public class PdfReportExporter implements ReportExporter {
         if (pkg.ramAvg != null)
             document.add(new Paragraph("RAM Avg: " + pkg.ramAvg + " MB", font));
 
+        if (pkg.cpuPercentiles != null)
+            document.add(new Paragraph("CPU p50/p95/p99/Max: " + values(pkg.cpuPercentiles) + " %", font));
+
+        if (pkg.ramPercentiles != null)
+            document.add(new Paragraph("RAM p50/p95/p99/Max: " + values(pkg.ramPercentiles) + " MB", font));
+
         if (pkg.idleSeconds != null)
             document.add(new Paragraph("Idle Time: " + pkg.idleSeconds + " сек", font));
 
@@ -59,6 +66,23 @@ public class PdfReportExporter implements ReportExporter {
         }
         document.add(new Paragraph("\n"));
 
+        if (pkg.days.stream().anyMatch(d -> d.getCpuPercentiles() != null)) {
+            document.add(new Paragraph("Перцентилі CPU/RAM по днях (p50 / p95 / p99 / max):", bold));
+
+            PdfPTable dayPercentiles = new PdfPTable(3);
+            dayPercentiles.addCell("Дата");
+            dayPercentiles.addCell("CPU (%)");
+            dayPercentiles.addCell("RAM (MB)");
+
+            for (DaySummary d : pkg.days) {
+                dayPercentiles.addCell(d.getDate().toString());
+                dayPercentiles.addCell(values(d.getCpuPercentiles()));
+                dayPercentiles.addCell(values(d.getRamPercentiles()));
+            }
+            document.add(dayPercentiles);
+            document.add(new Paragraph("\n"));
+        }
+
         document.add(new Paragraph("Використання програм по днях:", bold));
         PdfPTable appDailyTable = new PdfPTable(3);
         appDailyTable.addCell("Дата");
@@ -91,11 +115,13 @@ public class PdfReportExporter implements ReportExporter {
 
             document.add(new Paragraph("Погодинна статистика:", bold));
 
-            PdfPTable table = new PdfPTable(4);
+            PdfPTable table = new PdfPTable(6);
             table.addCell("Дата");
             table.addCell("Година");
             table.addCell("CPU (%)");
+            table.addCell("CPU p50 / p95 / p99 / max");
             table.addCell("RAM (MB)");
+            table.addCell("RAM p50 / p95 / p99 / max");
 
             for (DaySummary d : pkg.days) {
                 if (d.getHourlyStats() == null) continue;
@@ -104,7 +130,9 @@ public class PdfReportExporter implements ReportExporter {
                     table.addCell(d.getDate().toString());
                     table.addCell(String.format("%02d:00", h.getHour()));
                     table.addCell(h.getAvgCpu().toString());
+                    table.addCell(values(h.getCpuPercentiles()));
                     table.addCell(h.getAvgRam().toString());
+                    table.addCell(values(h.getRamPercentiles()));
                 }
             }
 
@@ -131,6 +159,11 @@ public class PdfReportExporter implements ReportExporter {
         return path;
     }
 
+    private static String values(Percentiles p) {
+        if (p == null) return "—";
+        return p.getP50() + " / " + p.getP95() + " / " + p.getP99() + " / " + p.getMax();
+    }
+
     @Override
     public String getExtension() {
         return "pdf";
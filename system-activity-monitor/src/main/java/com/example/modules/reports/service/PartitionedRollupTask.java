@@ -0,0 +1,53 @@
+package com.example.modules.reports.service;
+
+import com.example.model.StatsRollup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+
+/**
+ * Splits a range of whole days in halves down to {@link #MAX_LEAF_DAYS} and loads the
+ * rollups of each part in parallel. Parts start at midnight and uptime gaps never
+ * cross a day, so every bucket is computed exactly as in one sequential scan.
+ * Results are joined left before right, which keeps them in bucket order whatever
+ * order the parts finish in.
+ */
+class PartitionedRollupTask extends RecursiveTask<List<StatsRollup>> {
+
+    static final int MAX_LEAF_DAYS = 7;
+
+    private final LocalDate first;
+    private final LocalDate last;
+    private final BiFunction<LocalDateTime, LocalDateTime, List<StatsRollup>> loader;
+
+    /** @param loader rollups of {@code [from, to]}, both inclusive, in bucket order */
+    PartitionedRollupTask(LocalDate first, LocalDate last,
+                          BiFunction<LocalDateTime, LocalDateTime, List<StatsRollup>> loader) {
+        this.first = first;
+        this.last = last;
+        this.loader = loader;
+    }
+
+    @Override
+    protected List<StatsRollup> compute() {
+        long days = ChronoUnit.DAYS.between(first, last) + 1;
+
+        if (days <= MAX_LEAF_DAYS) {
+            return loader.apply(first.atStartOfDay(), last.atTime(23, 59, 59));
+        }
+
+        LocalDate mid = first.plusDays(days / 2 - 1);
+        PartitionedRollupTask left = new PartitionedRollupTask(first, mid, loader);
+        PartitionedRollupTask right = new PartitionedRollupTask(mid.plusDays(1), last, loader);
+
+        right.fork();
+        List<StatsRollup> result = new ArrayList<>(left.compute());
+        result.addAll(right.join());
+        return result;
+    }
+}
@@ -1,30 +1,57 @@
 package com.example.modules.reports.service;
 
+import com.example.connection.DatabaseConnection;
 import com.example.model.*;
 import com.example.modules.reports.builder.*;
+import com.example.modules.reports.calculations.ReportAccumulator;
 import com.example.modules.reports.calculations.ReportCalculator;
 import com.example.modules.reports.export.ReportExporter;
+import com.example.repository.interfaces.AppSegmentRepository;
 import com.example.repository.interfaces.IdleRepository;
 import com.example.repository.interfaces.ReportRepository;
+import com.example.repository.interfaces.RollupRepository;
 import com.example.repository.interfaces.StatsRepository;
+import com.example.repository.query.StatsColumn;
+import com.example.repository.query.StatsRollupAccumulator;
 
+import java.math.BigDecimal;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
 
 public class ReportService {
 
+    private static final int STATS_BATCH_ROWS = 2_048;
+
+    // Each part of a long period holds a pooled connection while it loads. Of the rest, one
+    // is left for the stats writer and one for the application dictionary's inserts, which
+    // may be needed while every other holder waits.
+    private static final int REPORT_PARALLELISM = Math.max(1,
+            Math.min(Runtime.getRuntime().availableProcessors(), DatabaseConnection.MAX_POOL_SIZE - 2));
+    private static final ForkJoinPool REPORT_POOL = new ForkJoinPool(REPORT_PARALLELISM);
+
     private final ReportRepository reportRepo;
     private final StatsRepository statsRepo;
     private final IdleRepository idleRepo;
+    private final AppSegmentRepository segmentRepo;
+    private final RollupRepository rollupRepo;
     private final ReportCalculator calculator = new ReportCalculator();
     private ReportExporter exporter;
 
-    public ReportService(ReportRepository rr, StatsRepository sr, IdleRepository ir) {
+    public ReportService(ReportRepository rr, StatsRepository sr, IdleRepository ir, AppSegmentRepository ar,
+                         RollupRepository rlr) {
         this.reportRepo = rr;
         this.statsRepo = sr;
         this.idleRepo = ir;
+        this.segmentRepo = ar;
+        this.rollupRepo = rlr;
     }
 
     public void setExporter(ReportExporter exporter) {
@@ -38,21 +65,33 @@ public class ReportService {
         LocalDateTime from = start.atStartOfDay();
         LocalDateTime to = end.atTime(23, 59, 59);
 
-        List<SystemStats> stats = statsRepo.findByUserIdAndRecordedAtBetween(user.getId(), from, to);
-        List<IdleTime> idle = idleRepo.findByUserIdAndStartTimeBetween(user.getId(), from, to);
+        List<AppSegment> segments = segmentRepo.findByUserIdOverlapping(user.getId(), from, to);
 
         Report base = new Report();
         base.setUser(user);
         base.setReportName(name);
         base.setPeriodStart(start);
         base.setPeriodEnd(end);
-
-        base.setCpuAvg(calculator.average(stats, SystemStats::getCpuLoad));
-        base.setRamAvg(calculator.average(stats, SystemStats::getRamUsedMb));
-        base.setIdleTimeTotalSeconds(calculator.totalIdle(idle));
-        base.setAppUsagePercent(calculator.appUsagePercent(stats));
-        base.setDays(calculator.buildDaySummary(stats));
-        base.setAvgUptimeHours(calculator.averageUptime(stats));
+        base.setIdleTimeTotalSeconds(BigDecimal.valueOf(
+                idleRepo.sumDurationSecondsByUserIdAndStartTimeBetween(user.getId(), from, to)));
+
+        // Day rollups answer everything except the hourly breakdown.
+        StatsRollup.Resolution resolution = opt.includeHourlyStats
+                ? StatsRollup.Resolution.HOUR
+                : StatsRollup.Resolution.DAY;
+
+        List<StatsRollup> rollups = loadRollups(user.getId(), resolution, from, to);
+        if (rollups == null) {
+            // Raw samples are folded into hour rollups batch by batch, never held as a list.
+            resolution = StatsRollup.Resolution.HOUR;
+            Set<StatsColumn> columns = statsColumns(opt, segments.isEmpty());
+            rollups = loadPartitioned(from, to, (f, t) -> {
+                StatsRollupAccumulator hours = new StatsRollupAccumulator(ChronoUnit.HOURS, user.getId());
+                statsRepo.forEachBatch(user.getId(), f, t, columns, STATS_BATCH_ROWS, hours);
+                return hours.result();
+            });
+        }
+        fillFromRollups(base, rollups, resolution, segments, from, to);
 
         ReportBuilder builder = new DefaultReportBuilder();
         ReportDirector director = new ReportDirector(builder);
@@ -63,20 +102,121 @@ public class ReportService {
         return finalReport;
     }
 
+    // Only what the enabled sections read; uptime needs nothing beyond recorded_at.
+    private Set<StatsColumn> statsColumns(ReportOptions opt, boolean appsFromStats) {
+        Set<StatsColumn> columns = EnumSet.of(StatsColumn.RECORDED_AT);
+
+        if (opt.includeCpuRam || opt.includeHourlyStats) {
+            columns.add(StatsColumn.CPU_LOAD);
+            columns.add(StatsColumn.RAM_USED_MB);
+        }
+        if (opt.includeHourlyStats) {
+            columns.add(StatsColumn.INPUT_EVENTS);
+        }
+        if (appsFromStats && (opt.includeAppUsage || opt.includeHourlyStats)) {
+            columns.add(StatsColumn.APPLICATION);
+        }
+        return columns;
+    }
+
+    // Stored rollups act as the per-day cache: days already rolled up are read as they are
+    // and only stale days are rebuilt and stored. If that fails, the database groups the
+    // buckets without storing them. Null when neither works and the report has to read raw rows.
+    private List<StatsRollup> loadRollups(Integer userId, StatsRollup.Resolution resolution,
+                                          LocalDateTime from, LocalDateTime to) {
+        if (rollupRepo == null) return null;
+
+        try {
+            statsRepo.flush();
+
+            List<LocalDate> stale = rollupRepo.findStaleDays(userId, from, to);
+            rebuildDays(userId, stale);
+            if (!stale.isEmpty()) {
+                System.out.println("[ReportService] Rolled up " + stale.size() + " day(s) of stats.");
+            }
+            return rollupRepo.findByUserIdAndBucketBetween(userId, resolution, from, to);
+
+        } catch (RuntimeException e) {
+            System.err.println("[ReportService] Stored rollups unavailable, aggregating in the database: " + e.getMessage());
+        }
+
+        try {
+            return loadPartitioned(from, to, (f, t) -> rollupRepo.aggregate(userId, resolution, f, t));
+
+        } catch (RuntimeException e) {
+            System.err.println("[ReportService] Rollups unavailable, reading raw stats: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Each day's rollups are rebuilt from that day's rows only, so stale days run side by
+    // side on the report pool. The first failure is rethrown once every day has finished.
+    private void rebuildDays(Integer userId, List<LocalDate> days) {
+        if (days.size() < 2) {
+            days.forEach(day -> rollupRepo.rebuild(userId, day.atStartOfDay(), day.atTime(23, 59, 59)));
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = days.stream()
+                .<ForkJoinTask<?>>map(day -> REPORT_POOL.submit(
+                        () -> rollupRepo.rebuild(userId, day.atStartOfDay(), day.atTime(23, 59, 59))))
+                .toList();
+
+        RuntimeException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    // Periods longer than a week are loaded week by week in parallel; see PartitionedRollupTask.
+    private List<StatsRollup> loadPartitioned(LocalDateTime from, LocalDateTime to,
+                                              BiFunction<LocalDateTime, LocalDateTime, List<StatsRollup>> loader) {
+        LocalDate first = from.toLocalDate();
+        LocalDate last = to.toLocalDate();
+
+        if (ChronoUnit.DAYS.between(first, last) < PartitionedRollupTask.MAX_LEAF_DAYS) {
+            return loader.apply(from, to);
+        }
+        return REPORT_POOL.invoke(new PartitionedRollupTask(first, last, loader));
+    }
+
+    private void fillFromRollups(Report base, List<StatsRollup> rollups, StatsRollup.Resolution resolution,
+                                 List<AppSegment> segments, LocalDateTime from, LocalDateTime to) {
+        // One scan over the rollups fills every section.
+        ReportAccumulator acc = new ReportAccumulator(resolution == StatsRollup.Resolution.HOUR);
+        rollups.forEach(acc);
+
+        base.setCpuAvg(acc.cpuAvg());
+        base.setRamAvg(acc.ramAvg());
+        base.setCpuSketch(acc.cpuSketch());
+        base.setRamSketch(acc.ramSketch());
+        // Periods recorded before focus tracking existed fall back to counting sampled rows.
+        base.setAppUsagePercent(segments.isEmpty()
+                ? acc.appUsagePercent()
+                : calculator.appUsagePercent(segments, from, to));
+        base.setDays(calculator.withSegmentApps(acc.days(), segments, from, to));
+        base.setAvgUptimeHours(acc.averageUptime());
+    }
+
     public Report findById(Integer id) {
         return reportRepo.findById(id).orElse(null);
     }
 
-    public List<Report> getReportsByUser(User user) {
+    public List<ReportSummary> getReportPage(User user, ReportSummary after, int limit) {
         validateUser(user);
-        return reportRepo.findByUserId(user.getId());
+        return reportRepo.findSummariesByUserId(user.getId(), after, limit);
     }
 
-    public List<Report> getReportsInPeriod(User user, LocalDate start, LocalDate end) {
+    public List<ReportSummary> getReportsInPeriod(User user, LocalDate start, LocalDate end) {
         validateUser(user);
         validatePeriod(start, end);
 
-        return reportRepo.findByUserIdAndPeriodBetween(
+        return reportRepo.findSummariesByUserIdAndPeriodBetween(
                 user.getId(),
                 start,
                 end
@@ -0,0 +1,125 @@
+package com.example.modules.retention.service;
+
+import com.example.repository.interfaces.RetentionRepository;
+import com.example.util.MonitoringThreadFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Removes stats older than the retention period, by default {@link #DEFAULT_RETENTION_DAYS}
+ * days or {@code users.retention_days} when a user has one.
+ * <p>
+ * On a partitioned table it keeps monthly partitions created a few months ahead
+ * and drops months that no user needs any more. Whatever is left past a cutoff,
+ * or everything when the table is not partitioned, is deleted in small chunks
+ * with a pause between them so the monitor keeps writing undisturbed.
+ */
+public class RetentionService {
+
+    public static final int DEFAULT_RETENTION_DAYS = 365;
+
+    private static final int PARTITIONS_AHEAD_MONTHS = 3;
+    private static final int CHUNK_SIZE = 5_000;
+    private static final long CHUNK_PAUSE_MILLIS = 200;
+    private static final long INITIAL_DELAY_MINUTES = 1;
+    private static final long RUN_INTERVAL_HOURS = 24;
+
+    private final RetentionRepository repository;
+    private final int retentionDays;
+    private ScheduledExecutorService scheduler;
+
+    public RetentionService(RetentionRepository repository) {
+        this(repository, DEFAULT_RETENTION_DAYS);
+    }
+
+    public RetentionService(RetentionRepository repository, int retentionDays) {
+        this.repository = repository;
+        this.retentionDays = retentionDays;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("stats-retention"));
+        scheduler.scheduleWithFixedDelay(this::runSafely, INITIAL_DELAY_MINUTES, RUN_INTERVAL_HOURS * 60, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) return;
+
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    private void runSafely() {
+        try {
+            runOnce();
+        } catch (Exception e) {
+            System.err.println("[RetentionService] Retention run failed: " + e.getMessage());
+        }
+    }
+
+    public void runOnce() {
+        runOnce(LocalDate.now());
+    }
+
+    void runOnce(LocalDate today) {
+        Map<Integer, Integer> overrides = repository.findUserRetentionDays();
+
+        LocalDateTime globalCutoff = today.minusDays(retentionDays).atStartOfDay();
+
+        if (repository.isPartitioned()) {
+            repository.ensurePartitions(YearMonth.from(today).plusMonths(PARTITIONS_AHEAD_MONTHS));
+
+            // A partition holds every user's rows, so only months older than the longest retention can go.
+            int longest = overrides.values().stream().mapToInt(Integer::intValue).max().orElse(retentionDays);
+            LocalDateTime oldestKept = today.minusDays(Math.max(longest, retentionDays)).atStartOfDay();
+
+            List<String> dropped = repository.dropPartitionsBefore(oldestKept);
+            if (!dropped.isEmpty()) {
+                System.out.println("[RetentionService] Dropped partitions: " + String.join(", ", dropped));
+            }
+        }
+
+        long deleted = deleteInChunks(limit -> repository.deleteStatsBefore(null, overrides.keySet(), globalCutoff, limit));
+        deleteInChunks(limit -> repository.deleteRollupsBefore(null, overrides.keySet(), globalCutoff, limit));
+
+        for (Map.Entry<Integer, Integer> e : overrides.entrySet()) {
+            LocalDateTime cutoff = today.minusDays(e.getValue()).atStartOfDay();
+            Integer userId = e.getKey();
+
+            deleted += deleteInChunks(limit -> repository.deleteStatsBefore(userId, null, cutoff, limit));
+            deleteInChunks(limit -> repository.deleteRollupsBefore(userId, null, cutoff, limit));
+        }
+
+        if (deleted > 0) {
+            System.out.println("[RetentionService] Deleted " + deleted + " expired stats rows.");
+        }
+    }
+
+    private long deleteInChunks(IntUnaryOperator deleteChunk) {
+        long total = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            int n = deleteChunk.applyAsInt(CHUNK_SIZE);
+            total += n;
+            if (n == 0) break;
+
+            try {
+                Thread.sleep(CHUNK_PAUSE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return total;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.dto.UserLoginDto;
 import com.example.dto.UserPasswordChangeDto;
 import com.example.dto.UserRegisterDto;
 import com.example.model.User;
+import com.example.repository.interfaces.StatsRepository;
 import com.example.repository.interfaces.UserRepository;
 import com.example.util.SimplePasswordEncoder;
 
@@ -13,9 +14,11 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final StatsRepository statsRepository;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, StatsRepository statsRepository) {
         this.userRepository = userRepository;
+        this.statsRepository = statsRepository;
     }
 
     public User register(UserRegisterDto dto) {
@@ -81,7 +84,11 @@ public class UserService {
         if (id == null)
             throw new IllegalArgumentException("ID cannot be null.");
 
+        // system_stats has no foreign key to users on MySQL: rows still queued or spooled
+        // must reach the table before deleteById removes the user's rows with the user.
+        statsRepository.flush();
         userRepository.deleteById(id);
+        statsRepository.deleteByUserId(id);
         System.out.println("User deleted: ID=" + id);
     }
 
@@ -1,22 +1,76 @@
 package com.example.repository.factory;
 
-import com.example.repository.impl.*;
-import com.example.repository.interfaces.*;
+import com.example.connection.DatabaseConnection;
+import com.example.connection.StorageBackend;
+import com.example.repository.impl.AppSegmentRepositoryImpl;
 import com.example.repository.impl.IdleRepositoryImpl;
 import com.example.repository.impl.ReportRepositoryImpl;
+import com.example.repository.impl.RetentionRepositoryImpl;
+import com.example.repository.impl.RollupRepositoryImpl;
+import com.example.repository.impl.SpooledStatsRepository;
 import com.example.repository.impl.StatsRepositoryImpl;
+import com.example.repository.impl.TimeSeriesRetentionRepository;
+import com.example.repository.impl.TimeSeriesStatsRepository;
 import com.example.repository.impl.UserRepositoryImpl;
+import com.example.repository.impl.WriteBehindStatsRepository;
+import com.example.repository.interfaces.AppSegmentRepository;
 import com.example.repository.interfaces.IdleRepository;
 import com.example.repository.interfaces.ReportRepository;
+import com.example.repository.interfaces.RetentionRepository;
+import com.example.repository.interfaces.RollupRepository;
 import com.example.repository.interfaces.StatsRepository;
 import com.example.repository.interfaces.UserRepository;
+import com.example.repository.spool.StatsSpool;
+
+import java.nio.file.Path;
 
 public class RepositoryFactory {
 
     private static final ReportRepository REPORT_REPOSITORY = new ReportRepositoryImpl();
-    private static final StatsRepository STATS_REPOSITORY = new StatsRepositoryImpl();
+    private static final int STATS_QUEUE_CAPACITY = 10_000;
+    private static final int STATS_BATCH_SIZE = 200;
+    private static final long STATS_FLUSH_INTERVAL_MILLIS = 2_000;
+    private static final long STATS_OFFER_TIMEOUT_MILLIS = 1_000;
+
+    private static final Path SPOOL_DIR = Path.of(System.getProperty("user.home"), ".system-activity-monitor", "spool");
+    private static final int SPOOL_SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final long SPOOL_REPLAY_INTERVAL_MILLIS = 5_000;
+
+    private static final TimeSeriesStatsRepository FILE_STATS = DatabaseConnection.getBackend().keepsStatsInFiles()
+            ? new TimeSeriesStatsRepository(DatabaseConnection.getStatsDir())
+            : null;
+
+    private static final WriteBehindStatsRepository WRITE_BEHIND_STATS = new WriteBehindStatsRepository(
+            FILE_STATS != null ? FILE_STATS : new StatsRepositoryImpl(),
+            STATS_QUEUE_CAPACITY, STATS_BATCH_SIZE, STATS_FLUSH_INTERVAL_MILLIS,
+            WriteBehindStatsRepository.OverflowPolicy.BLOCK, STATS_OFFER_TIMEOUT_MILLIS
+    );
+
+    // In front of the write-behind queue: a row is on disk before save returns.
+    private static final SpooledStatsRepository SPOOLED_STATS = createSpooledStats(WRITE_BEHIND_STATS);
+
+    private static final StatsRepository STATS_REPOSITORY = SPOOLED_STATS != null ? SPOOLED_STATS : WRITE_BEHIND_STATS;
+
+    // The embedded database and the stats files are local and cannot be unreachable, so they need no spool.
+    private static SpooledStatsRepository createSpooledStats(StatsRepository target) {
+        if (DatabaseConnection.getBackend().isEmbedded()) return null;
+
+        try {
+            StatsSpool spool = new StatsSpool(SPOOL_DIR, SPOOL_SEGMENT_BYTES);
+            return new SpooledStatsRepository(target, spool, STATS_BATCH_SIZE, SPOOL_REPLAY_INTERVAL_MILLIS);
+        } catch (Exception e) {
+            System.err.println("Stats spool is unavailable, writing to the database directly: " + e.getMessage());
+            return null;
+        }
+    }
     private static final IdleRepository IDLE_REPOSITORY = new IdleRepositoryImpl();
     private static final UserRepository USER_REPOSITORY = new UserRepositoryImpl();
+    private static final AppSegmentRepository APP_SEGMENT_REPOSITORY = new AppSegmentRepositoryImpl();
+    // Rollups are built from system_stats, which stays empty when stats live in files.
+    private static final RollupRepository ROLLUP_REPOSITORY = FILE_STATS == null ? new RollupRepositoryImpl() : null;
+    private static final RetentionRepository RETENTION_REPOSITORY = FILE_STATS == null
+            ? new RetentionRepositoryImpl()
+            : new TimeSeriesRetentionRepository(new RetentionRepositoryImpl(), FILE_STATS);
 
     public static ReportRepository getReportRepository() {
         return REPORT_REPOSITORY;
@@ -33,4 +87,23 @@ public class RepositoryFactory {
     public static UserRepository getUserRepository() {
         return USER_REPOSITORY;
     }
+
+    public static AppSegmentRepository getAppSegmentRepository() {
+        return APP_SEGMENT_REPOSITORY;
+    }
+
+    /** Null with {@link StorageBackend#FILES}; reports then read raw rows. */
+    public static RollupRepository getRollupRepository() {
+        return ROLLUP_REPOSITORY;
+    }
+
+    public static RetentionRepository getRetentionRepository() {
+        return RETENTION_REPOSITORY;
+    }
+
+    public static void shutdown() {
+        if (SPOOLED_STATS != null) SPOOLED_STATS.close();
+        WRITE_BEHIND_STATS.close();
+        if (FILE_STATS != null) FILE_STATS.close();
+    }
 }
@@ -0,0 +1,200 @@
+package com.example.repository.impl;
+
+import com.example.model.AppSegment;
+import com.example.repository.interfaces.AppSegmentRepository;
+import com.example.connection.DatabaseConnection;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppSegmentRepositoryImpl implements AppSegmentRepository {
+
+    private final DataSource dataSource;
+
+    public AppSegmentRepositoryImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public AppSegmentRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void save(AppSegment segment) {
+        if (segment == null || segment.getUser() == null || segment.getUser().getId() == null) {
+            throw new IllegalArgumentException("AppSegment або user.id == null при збереженні");
+        }
+        if (segment.getStartTime() == null) {
+            throw new IllegalArgumentException("startTime не може бути null для AppSegment");
+        }
+
+        final boolean isUpdate = segment.getId() != null;
+
+        String sqlInsert = "INSERT INTO app_segments (user_id, app_name, start_time, end_time, duration_seconds) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        String sqlUpdate = "UPDATE app_segments " +
+                "SET user_id = ?, app_name = ?, start_time = ?, end_time = ?, duration_seconds = ? " +
+                "WHERE id = ?";
+
+        String sql = isUpdate ? sqlUpdate : sqlInsert;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            ps.setInt(1, segment.getUser().getId());
+            ps.setString(2, segment.getAppName());
+            ps.setTimestamp(3, Timestamp.valueOf(segment.getStartTime()));
+
+            if (segment.getEndTime() != null) {
+                ps.setTimestamp(4, Timestamp.valueOf(segment.getEndTime()));
+            } else {
+                ps.setNull(4, Types.TIMESTAMP);
+            }
+
+            if (segment.getDurationSeconds() != null) {
+                ps.setInt(5, segment.getDurationSeconds());
+            } else {
+                ps.setNull(5, Types.INTEGER);
+            }
+
+            if (isUpdate) {
+                ps.setInt(6, segment.getId());
+            }
+
+            ps.executeUpdate();
+
+            if (!isUpdate) {
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        segment.setId(keys.getInt(1));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка при збереженні AppSegment: " + e.getMessage(), e);
+        }
+    }
+
+    // Segments that started before the range but were still open inside it count too.
+    @Override
+    public List<AppSegment> findByUserIdOverlapping(Integer userId, LocalDateTime start, LocalDateTime end) {
+        List<AppSegment> list = new ArrayList<>();
+        String sql = "SELECT * FROM app_segments WHERE user_id = ? AND start_time <= ? " +
+                "AND (end_time IS NULL OR end_time >= ?) ORDER BY start_time";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(end));
+            ps.setTimestamp(3, Timestamp.valueOf(start));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapResultSet(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка при пошуку AppSegment за user_id і діапазоном дат: " + e.getMessage(), e);
+        }
+
+        return list;
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        String sql = "DELETE FROM app_segments WHERE id = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, id);
+            ps.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка при видаленні AppSegment: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int closeOpenSegments(Integer userId, int fallbackSeconds) {
+        String openSql = "SELECT a.id, a.start_time, " +
+                "(SELECT MIN(n.start_time) FROM app_segments n " +
+                "WHERE n.user_id = a.user_id AND n.start_time > a.start_time) AS next_start " +
+                "FROM app_segments a WHERE a.user_id = ? AND a.end_time IS NULL";
+
+        String lastSampleSql = "SELECT MAX(recorded_at) FROM system_stats " +
+                "WHERE user_id = ? AND recorded_at >= ? AND recorded_at < ?";
+
+        String closeSql = "UPDATE app_segments SET end_time = ?, duration_seconds = ? WHERE id = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement open = conn.prepareStatement(openSql);
+             PreparedStatement lastSample = conn.prepareStatement(lastSampleSql);
+             PreparedStatement close = conn.prepareStatement(closeSql)) {
+
+            open.setInt(1, userId);
+            int closed = 0;
+
+            try (ResultSet rs = open.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime start = rs.getTimestamp("start_time").toLocalDateTime();
+                    Timestamp nextTs = rs.getTimestamp("next_start");
+                    LocalDateTime next = nextTs != null ? nextTs.toLocalDateTime() : LocalDateTime.now();
+
+                    lastSample.setInt(1, userId);
+                    lastSample.setTimestamp(2, Timestamp.valueOf(start));
+                    lastSample.setTimestamp(3, Timestamp.valueOf(next));
+
+                    LocalDateTime end = null;
+                    try (ResultSet last = lastSample.executeQuery()) {
+                        if (last.next() && last.getTimestamp(1) != null) {
+                            end = last.getTimestamp(1).toLocalDateTime();
+                        }
+                    }
+                    if (end == null) end = start.plusSeconds(fallbackSeconds);
+                    if (end.isAfter(next)) end = next.isAfter(start) ? next : start;
+
+                    close.setTimestamp(1, Timestamp.valueOf(end));
+                    close.setInt(2, (int) Duration.between(start, end).getSeconds());
+                    close.setInt(3, rs.getInt("id"));
+                    close.addBatch();
+                    closed++;
+                }
+            }
+
+            if (closed > 0) close.executeBatch();
+            return closed;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка при закритті незавершених AppSegment: " + e.getMessage(), e);
+        }
+    }
+
+    private AppSegment mapResultSet(ResultSet rs) throws SQLException {
+        AppSegment segment = new AppSegment();
+        segment.setId(rs.getInt("id"));
+        segment.setAppName(rs.getString("app_name"));
+
+        Timestamp startTs = rs.getTimestamp("start_time");
+        if (startTs != null) {
+            segment.setStartTime(startTs.toLocalDateTime());
+        }
+
+        Timestamp endTs = rs.getTimestamp("end_time");
+        if (endTs != null) {
+            segment.setEndTime(endTs.toLocalDateTime());
+        }
+
+        int duration = rs.getInt("duration_seconds");
+        segment.setDurationSeconds(rs.wasNull() ? null : duration);
+        return segment;
+    }
+}
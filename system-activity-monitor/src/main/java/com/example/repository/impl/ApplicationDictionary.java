@@ -0,0 +1,213 @@
+package com.example.repository.impl;
+
+import com.example.util.AppNameNormalizer;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process, two-way cache of the {@code window_titles} and {@code applications}
+ * dictionaries. A title gets its id, and its normalised application, the first
+ * time it is seen; after that both directions are answered from memory.
+ * Entries are inserted on their own connection and committed immediately, so an
+ * id stays valid even if the transaction that first used it rolls back.
+ * <p>
+ * Lookups run on the caller's connection, so a cache miss never waits for a second
+ * pooled connection while the caller holds one. Inserts are serialised, which keeps
+ * the dictionary's own use of the pool to a single connection at a time.
+ */
+final class ApplicationDictionary {
+
+    private static final Map<DataSource, ApplicationDictionary> INSTANCES = new ConcurrentHashMap<>();
+
+    private final DataSource dataSource;
+
+    private final Map<String, Integer> titleIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> titles = new ConcurrentHashMap<>();
+    private final Map<String, Integer> applicationIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> applicationNames = new ConcurrentHashMap<>();
+
+    // applicationByTitle[titleId]; 0 means not loaded yet. Written under the instance lock and
+    // re-published through the volatile field after every change.
+    private volatile int[] applicationByTitle = new int[0];
+
+    // Held while inserting on the dictionary's own connection. Never taken by lookups.
+    private final Object writes = new Object();
+
+    private ApplicationDictionary(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    static ApplicationDictionary forDataSource(DataSource dataSource) {
+        return INSTANCES.computeIfAbsent(dataSource, ApplicationDictionary::new);
+    }
+
+    /** Id of the title, creating it when it is new; null for a null title. */
+    Integer titleId(String title) {
+        if (title == null) return null;
+
+        Integer id = titleIds.get(title);
+        return id != null ? id : createTitle(title);
+    }
+
+    String title(Connection conn, int titleId) throws SQLException {
+        String title = titles.get(titleId);
+        if (title == null) {
+            loadTitle(conn, titleId);
+            title = titles.get(titleId);
+        }
+        return title;
+    }
+
+    int applicationId(Connection conn, int titleId) throws SQLException {
+        int[] byTitle = applicationByTitle;
+        if (titleId < byTitle.length && byTitle[titleId] != 0) return byTitle[titleId];
+
+        loadTitle(conn, titleId);
+        byTitle = applicationByTitle;
+        return titleId < byTitle.length ? byTitle[titleId] : 0;
+    }
+
+    String applicationName(Connection conn, int applicationId) throws SQLException {
+        String name = applicationNames.get(applicationId);
+        if (name != null) return name;
+
+        try (PreparedStatement ps = conn.prepareStatement("SELECT name FROM applications WHERE id = ?")) {
+            ps.setInt(1, applicationId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                name = rs.getString(1);
+            }
+        }
+
+        remember(applicationIds, applicationNames, name, applicationId);
+        return name;
+    }
+
+    /** For callers that no longer hold a connection; names already looked up are answered from memory. */
+    String applicationName(int applicationId) {
+        String name = applicationNames.get(applicationId);
+        if (name != null) return name;
+
+        try (Connection conn = dataSource.getConnection()) {
+            return applicationName(conn, applicationId);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка читання застосунку: " + e.getMessage(), e);
+        }
+    }
+
+    private Integer createTitle(String title) {
+        synchronized (writes) {
+            Integer id = titleIds.get(title);
+            if (id != null) return id;
+
+            try (Connection conn = dataSource.getConnection()) {
+
+                int applicationId = applicationIdFor(conn, AppNameNormalizer.normalize(title));
+
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "INSERT INTO window_titles (title, application_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE id = id")) {
+                    ps.setString(1, title);
+                    ps.setInt(2, applicationId);
+                    ps.executeUpdate();
+                }
+
+                id = selectId(conn, "SELECT id FROM window_titles WHERE title = ?", title);
+                rememberTitle(id, title, applicationId);
+                return id;
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Помилка збереження заголовка вікна: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void loadTitle(Connection conn, int titleId) throws SQLException {
+        String title;
+        int applicationId;
+
+        try (PreparedStatement ps = conn.prepareStatement("SELECT title, application_id FROM window_titles WHERE id = ?")) {
+            ps.setInt(1, titleId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return;
+                title = rs.getString("title");
+                applicationId = rs.getInt("application_id");
+            }
+        }
+
+        // Titles migrated from active_window have no application yet.
+        if (applicationId == 0) applicationId = assignApplication(titleId, title);
+
+        rememberTitle(titleId, title, applicationId);
+    }
+
+    // Committed on the dictionary's own connection, like a new title, so the caller's
+    // transaction rolling back cannot leave a cached id without its row.
+    private int assignApplication(int titleId, String title) {
+        synchronized (writes) {
+            try (Connection conn = dataSource.getConnection()) {
+
+                int applicationId = applicationIdFor(conn, AppNameNormalizer.normalize(title));
+                try (PreparedStatement upd = conn.prepareStatement(
+                        "UPDATE window_titles SET application_id = ? WHERE id = ?")) {
+                    upd.setInt(1, applicationId);
+                    upd.setInt(2, titleId);
+                    upd.executeUpdate();
+                }
+                return applicationId;
+
+            } catch (SQLException e) {
+                throw new RuntimeException("Помилка читання заголовка вікна: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private int applicationIdFor(Connection conn, String name) throws SQLException {
+        Integer id = applicationIds.get(name);
+        if (id != null) return id;
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO applications (name) VALUES (?) ON DUPLICATE KEY UPDATE id = id")) {
+            ps.setString(1, name);
+            ps.executeUpdate();
+        }
+
+        id = selectId(conn, "SELECT id FROM applications WHERE name = ?", name);
+        remember(applicationIds, applicationNames, name, id);
+        return id;
+    }
+
+    // Insert-if-absent followed by a lookup works the same on every backend and also
+    // returns the id when another process inserted the value first.
+    private static int selectId(Connection conn, String sql, String value) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, value);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) throw new SQLException("No id found for " + value);
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private synchronized void rememberTitle(int titleId, String title, int applicationId) {
+        remember(titleIds, titles, title, titleId);
+
+        int[] byTitle = applicationByTitle;
+        if (titleId >= byTitle.length) {
+            byTitle = Arrays.copyOf(byTitle, Math.max(titleId + 1, byTitle.length * 2));
+        }
+        byTitle[titleId] = applicationId;
+        applicationByTitle = byTitle;
+    }
+
+    private static void remember(Map<String, Integer> ids, Map<Integer, String> values, String value, int id) {
+        values.put(id, value);
+        ids.put(value, id);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.model.IdleTime;
 import com.example.repository.interfaces.IdleRepository;
 import com.example.connection.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,6 +13,16 @@ import java.util.List;
 
 public class IdleRepositoryImpl implements IdleRepository {
 
+    private final DataSource dataSource;
+
+    public IdleRepositoryImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public IdleRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public void save(IdleTime idleTime) {
         if (idleTime == null || idleTime.getUser() == null || idleTime.getUser().getId() == null) {
@@ -29,7 +40,7 @@ public class IdleRepositoryImpl implements IdleRepository {
 
         String sql = isUpdate ? sqlUpdate : sqlInsert;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setInt(1, idleTime.getUser().getId());
@@ -75,7 +86,7 @@ public class IdleRepositoryImpl implements IdleRepository {
         List<IdleTime> list = new ArrayList<>();
         String sql = "SELECT * FROM idle_time WHERE user_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, userId);
@@ -98,7 +109,7 @@ public class IdleRepositoryImpl implements IdleRepository {
         List<IdleTime> list = new ArrayList<>();
         String sql = "SELECT * FROM idle_time WHERE user_id = ? AND start_time BETWEEN ? AND ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, userId);
@@ -118,11 +129,31 @@ public class IdleRepositoryImpl implements IdleRepository {
         return list;
     }
 
+    @Override
+    public long sumDurationSecondsByUserIdAndStartTimeBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
+        String sql = "SELECT COALESCE(SUM(duration_seconds), 0) FROM idle_time WHERE user_id = ? AND start_time BETWEEN ? AND ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(start));
+            ps.setTimestamp(3, Timestamp.valueOf(end));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка підрахунку IdleTime: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public void deleteById(Integer id) {
         String sql = "DELETE FROM idle_time WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -0,0 +1,269 @@
+package com.example.repository.impl;
+
+import com.example.model.DaySummary;
+import com.example.model.HourStat;
+import com.example.model.Percentiles;
+import com.example.model.QuantileSketch;
+import com.example.model.Report;
+import com.example.util.Varints;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Binary form of a report's app usage, CPU/RAM sketches and day/hour breakdown, stored in
+ * {@code reports.payload}.
+ * <p>
+ * Layout: version byte, string table of app names, report app usage, the report sketches
+ * behind a presence mask, then the days. Days and hours keep their percentiles as four
+ * decimals rather than sketches, which would take far more space and are not merged further.
+ * Integers are unsigned or zigzag varints. Decimals are fixed-point hundredths, the
+ * scale reports are rounded to. Each day and hour starts with a presence mask, so
+ * {@code null} values take no space. Days are stored as deltas from the previous day,
+ * and app names as indexes into the string table.
+ * <p>
+ * {@link #decode(byte[])} reads the header only. Days are decoded on the first call to
+ * {@link Decoded#days()}. Version 1 payloads, written before sketches, are still read.
+ */
+final class ReportPayloadCodec {
+
+    static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_SKETCHES = 1;
+
+    private static final int REPORT_CPU_SKETCH = 1;
+    private static final int REPORT_RAM_SKETCH = 1 << 1;
+
+    private static final int DAY_UPTIME = 1;
+    private static final int DAY_CPU = 1 << 1;
+    private static final int DAY_RAM = 1 << 2;
+    private static final int DAY_APPS = 1 << 3;
+    private static final int DAY_HOURS = 1 << 4;
+    private static final int DAY_CPU_PERCENTILES = 1 << 5;
+    private static final int DAY_RAM_PERCENTILES = 1 << 6;
+
+    private static final int HOUR_CPU = 1;
+    private static final int HOUR_RAM = 1 << 1;
+    private static final int HOUR_CPU_PERCENTILES = 1 << 2;
+    private static final int HOUR_RAM_PERCENTILES = 1 << 3;
+
+    private ReportPayloadCodec() {}
+
+    static byte[] encode(Report report) {
+        Map<String, BigDecimal> appUsage = report.getAppUsagePercent();
+        List<DaySummary> days = report.getDays();
+
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        if (appUsage != null) appUsage.keySet().forEach(app -> strings.putIfAbsent(app, strings.size()));
+        if (days != null) {
+            for (DaySummary d : days) {
+                if (d.getAppUsagePercentByDay() != null) {
+                    d.getAppUsagePercentByDay().keySet().forEach(app -> strings.putIfAbsent(app, strings.size()));
+                }
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        out.write(VERSION);
+
+        Varints.put(out, strings.size());
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            Varints.put(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        putApps(out, appUsage != null ? appUsage : Map.of(), strings);
+
+        QuantileSketch cpuSketch = report.getCpuSketch();
+        QuantileSketch ramSketch = report.getRamSketch();
+        out.write((cpuSketch != null ? REPORT_CPU_SKETCH : 0) | (ramSketch != null ? REPORT_RAM_SKETCH : 0));
+        if (cpuSketch != null) cpuSketch.writeTo(out);
+        if (ramSketch != null) ramSketch.writeTo(out);
+
+        List<DaySummary> list = days != null ? days : List.of();
+        Varints.put(out, list.size());
+
+        long previousDay = 0;
+        for (DaySummary d : list) {
+            long epochDay = d.getDate().toEpochDay();
+            Varints.putSigned(out, epochDay - previousDay);
+            previousDay = epochDay;
+
+            int mask = (d.getUptimeHours() != null ? DAY_UPTIME : 0)
+                    | (d.getCpuAvg() != null ? DAY_CPU : 0)
+                    | (d.getRamAvg() != null ? DAY_RAM : 0)
+                    | (d.getAppUsagePercentByDay() != null ? DAY_APPS : 0)
+                    | (d.getHourlyStats() != null ? DAY_HOURS : 0)
+                    | (d.getCpuPercentiles() != null ? DAY_CPU_PERCENTILES : 0)
+                    | (d.getRamPercentiles() != null ? DAY_RAM_PERCENTILES : 0);
+            out.write(mask);
+
+            if (d.getUptimeHours() != null) putDecimal(out, d.getUptimeHours());
+            if (d.getCpuAvg() != null) putDecimal(out, d.getCpuAvg());
+            if (d.getRamAvg() != null) putDecimal(out, d.getRamAvg());
+            if (d.getAppUsagePercentByDay() != null) putApps(out, d.getAppUsagePercentByDay(), strings);
+            if (d.getCpuPercentiles() != null) putPercentiles(out, d.getCpuPercentiles());
+            if (d.getRamPercentiles() != null) putPercentiles(out, d.getRamPercentiles());
+
+            if (d.getHourlyStats() != null) {
+                Varints.put(out, d.getHourlyStats().size());
+                for (HourStat h : d.getHourlyStats()) {
+                    out.write(h.getHour());
+                    out.write((h.getAvgCpu() != null ? HOUR_CPU : 0)
+                            | (h.getAvgRam() != null ? HOUR_RAM : 0)
+                            | (h.getCpuPercentiles() != null ? HOUR_CPU_PERCENTILES : 0)
+                            | (h.getRamPercentiles() != null ? HOUR_RAM_PERCENTILES : 0));
+                    if (h.getAvgCpu() != null) putDecimal(out, h.getAvgCpu());
+                    if (h.getAvgRam() != null) putDecimal(out, h.getAvgRam());
+                    Varints.put(out, h.getInputEvents());
+                    if (h.getCpuPercentiles() != null) putPercentiles(out, h.getCpuPercentiles());
+                    if (h.getRamPercentiles() != null) putPercentiles(out, h.getRamPercentiles());
+                }
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    static Decoded decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+
+        byte version = in.get();
+        if (version != VERSION && version != VERSION_WITHOUT_SKETCHES) {
+            throw new IllegalStateException("Unsupported report payload version " + version);
+        }
+
+        String[] strings = new String[(int) Varints.get(in)];
+        for (int i = 0; i < strings.length; i++) {
+            int len = (int) Varints.get(in);
+            strings[i] = new String(bytes, in.position(), len, StandardCharsets.UTF_8);
+            in.position(in.position() + len);
+        }
+
+        Map<String, BigDecimal> appUsage = getApps(in, strings);
+
+        QuantileSketch cpuSketch = null;
+        QuantileSketch ramSketch = null;
+        if (version != VERSION_WITHOUT_SKETCHES) {
+            int mask = in.get() & 0xFF;
+            if ((mask & REPORT_CPU_SKETCH) != 0) cpuSketch = QuantileSketch.readFrom(in);
+            if ((mask & REPORT_RAM_SKETCH) != 0) ramSketch = QuantileSketch.readFrom(in);
+        }
+
+        return new Decoded(appUsage, cpuSketch, ramSketch, strings, in.slice());
+    }
+
+    static final class Decoded {
+
+        private final Map<String, BigDecimal> appUsage;
+        private final QuantileSketch cpuSketch;
+        private final QuantileSketch ramSketch;
+        private final String[] strings;
+        private final ByteBuffer daysData;
+
+        private Decoded(Map<String, BigDecimal> appUsage, QuantileSketch cpuSketch, QuantileSketch ramSketch,
+                        String[] strings, ByteBuffer daysData) {
+            this.appUsage = appUsage;
+            this.cpuSketch = cpuSketch;
+            this.ramSketch = ramSketch;
+            this.strings = strings;
+            this.daysData = daysData;
+        }
+
+        Map<String, BigDecimal> appUsage() { return appUsage; }
+        QuantileSketch cpuSketch() { return cpuSketch; }
+        QuantileSketch ramSketch() { return ramSketch; }
+
+        List<DaySummary> days() {
+            ByteBuffer in = daysData.duplicate();
+
+            int count = (int) Varints.get(in);
+            List<DaySummary> days = new ArrayList<>(count);
+
+            long epochDay = 0;
+            for (int i = 0; i < count; i++) {
+                epochDay += Varints.getSigned(in);
+                int mask = in.get() & 0xFF;
+
+                DaySummary d = new DaySummary();
+                d.setDate(LocalDate.ofEpochDay(epochDay));
+                if ((mask & DAY_UPTIME) != 0) d.setUptimeHours(getDecimal(in));
+                if ((mask & DAY_CPU) != 0) d.setCpuAvg(getDecimal(in));
+                if ((mask & DAY_RAM) != 0) d.setRamAvg(getDecimal(in));
+                if ((mask & DAY_APPS) != 0) d.setAppUsagePercentByDay(getApps(in, strings));
+                if ((mask & DAY_CPU_PERCENTILES) != 0) d.setCpuPercentiles(getPercentiles(in));
+                if ((mask & DAY_RAM_PERCENTILES) != 0) d.setRamPercentiles(getPercentiles(in));
+
+                if ((mask & DAY_HOURS) != 0) {
+                    int hours = (int) Varints.get(in);
+                    List<HourStat> hourly = new ArrayList<>(hours);
+
+                    for (int h = 0; h < hours; h++) {
+                        int hour = in.get() & 0xFF;
+                        int hourMask = in.get() & 0xFF;
+                        BigDecimal cpu = (hourMask & HOUR_CPU) != 0 ? getDecimal(in) : null;
+                        BigDecimal ram = (hourMask & HOUR_RAM) != 0 ? getDecimal(in) : null;
+
+                        HourStat stat = new HourStat(hour, cpu, ram);
+                        stat.setInputEvents(Varints.get(in));
+                        if ((hourMask & HOUR_CPU_PERCENTILES) != 0) stat.setCpuPercentiles(getPercentiles(in));
+                        if ((hourMask & HOUR_RAM_PERCENTILES) != 0) stat.setRamPercentiles(getPercentiles(in));
+                        hourly.add(stat);
+                    }
+                    d.setHourlyStats(hourly);
+                }
+
+                days.add(d);
+            }
+
+            return days;
+        }
+    }
+
+    private static void putApps(ByteArrayOutputStream out, Map<String, BigDecimal> apps, Map<String, Integer> strings) {
+        int count = 0;
+        for (BigDecimal v : apps.values()) if (v != null) count++;
+
+        Varints.put(out, count);
+        apps.forEach((app, percent) -> {
+            if (percent == null) return;
+            Varints.put(out, strings.get(app));
+            putDecimal(out, percent);
+        });
+    }
+
+    private static Map<String, BigDecimal> getApps(ByteBuffer in, String[] strings) {
+        int count = (int) Varints.get(in);
+        Map<String, BigDecimal> apps = new LinkedHashMap<>(Math.max(16, count * 2));
+
+        for (int i = 0; i < count; i++) {
+            String app = strings[(int) Varints.get(in)];
+            apps.put(app, getDecimal(in));
+        }
+        return apps;
+    }
+
+    private static void putDecimal(ByteArrayOutputStream out, BigDecimal value) {
+        Varints.putSigned(out, value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer in) {
+        return BigDecimal.valueOf(Varints.getSigned(in), 2);
+    }
+
+    private static void putPercentiles(ByteArrayOutputStream out, Percentiles p) {
+        putDecimal(out, p.getP50());
+        putDecimal(out, p.getP95());
+        putDecimal(out, p.getP99());
+        putDecimal(out, p.getMax());
+    }
+
+    private static Percentiles getPercentiles(ByteBuffer in) {
+        return new Percentiles(getDecimal(in), getDecimal(in), getDecimal(in), getDecimal(in));
+    }
+}
@@ -2,10 +2,12 @@ package com.example.repository.impl;
 
 import com.example.model.DaySummary;
 import com.example.model.Report;
+import com.example.model.ReportSummary;
 import com.example.repository.interfaces.ReportRepository;
 import com.example.connection.DatabaseConnection;
 import com.google.gson.*;
 
+import javax.sql.DataSource;
 import java.lang.reflect.Type;
 import java.sql.*;
 import java.sql.Date;
@@ -16,6 +18,8 @@ import java.math.BigDecimal;
 
 public class ReportRepositoryImpl implements ReportRepository {
 
+    private final DataSource dataSource;
+
     private final Gson gson = new GsonBuilder()
             .registerTypeAdapter(LocalDate.class, (JsonSerializer<LocalDate>) (src, type, context) ->
                     new JsonPrimitive(src.toString()))
@@ -26,20 +30,30 @@ public class ReportRepositoryImpl implements ReportRepository {
     private static final Type MAP_TYPE =
             new com.google.gson.reflect.TypeToken<Map<String, BigDecimal>>() {}.getType();
 
+    private static final String SUMMARY_COLUMNS = "id, report_name, period_start, period_end, created_at";
+
     private static final Type DAYS_LIST_TYPE =
             new com.google.gson.reflect.TypeToken<List<DaySummary>>() {}.getType();
 
+    public ReportRepositoryImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public ReportRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public void save(Report report) {
         String sql = """
             INSERT INTO reports 
             (user_id, report_name, period_start, period_end, cpu_avg, ram_avg,
              idle_time_total_seconds, avg_uptime_hours,
-             app_usage_json, file_path, days_json)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+             file_path, payload)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setInt(1, report.getUser().getId());
@@ -50,17 +64,8 @@ public class ReportRepositoryImpl implements ReportRepository {
             ps.setBigDecimal(6, report.getRamAvg());
             ps.setBigDecimal(7, report.getIdleTimeTotalSeconds());
             ps.setBigDecimal(8, report.getAvgUptimeHours());
-
-            ps.setString(9, gson.toJson(
-                    report.getAppUsagePercent() != null ? report.getAppUsagePercent() : Map.of(),
-                    MAP_TYPE
-            ));
-
-            ps.setString(10, report.getFilePath());
-            ps.setString(11, gson.toJson(
-                    report.getDays() != null ? report.getDays() : List.of(),
-                    DAYS_LIST_TYPE
-            ));
+            ps.setString(9, report.getFilePath());
+            ps.setBytes(10, ReportPayloadCodec.encode(report));
 
             ps.executeUpdate();
 
@@ -79,11 +84,11 @@ public class ReportRepositoryImpl implements ReportRepository {
             UPDATE reports SET
                 report_name = ?, period_start = ?, period_end = ?, cpu_avg = ?, ram_avg = ?,
                 idle_time_total_seconds = ?, avg_uptime_hours = ?, 
-                app_usage_json = ?, file_path = ?, days_json = ?
+                file_path = ?, payload = ?, app_usage_json = NULL, days_json = NULL
             WHERE id = ?
         """;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, report.getReportName());
@@ -93,19 +98,10 @@ public class ReportRepositoryImpl implements ReportRepository {
             ps.setBigDecimal(5, report.getRamAvg());
             ps.setBigDecimal(6, report.getIdleTimeTotalSeconds());
             ps.setBigDecimal(7, report.getAvgUptimeHours());
+            ps.setString(8, report.getFilePath());
+            ps.setBytes(9, ReportPayloadCodec.encode(report));
 
-            ps.setString(8, gson.toJson(
-                    report.getAppUsagePercent() != null ? report.getAppUsagePercent() : Map.of(),
-                    MAP_TYPE
-            ));
-
-            ps.setString(9, report.getFilePath());
-            ps.setString(10, gson.toJson(
-                    report.getDays() != null ? report.getDays() : List.of(),
-                    DAYS_LIST_TYPE
-            ));
-
-            ps.setInt(11, report.getId());
+            ps.setInt(10, report.getId());
             ps.executeUpdate();
 
         } catch (SQLException e) {
@@ -141,7 +137,7 @@ public class ReportRepositoryImpl implements ReportRepository {
 
     @Override
     public void deleteById(Integer id) {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement("DELETE FROM reports WHERE id = ?")) {
 
             ps.setInt(1, id);
@@ -157,10 +153,74 @@ public class ReportRepositoryImpl implements ReportRepository {
         return executeQuery(sql, ps -> ps.setInt(1, userId));
     }
 
+    @Override
+    public List<ReportSummary> findSummariesByUserId(Integer userId, ReportSummary after, int limit) {
+        if (after == null) {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM reports WHERE user_id = ? "
+                    + "ORDER BY created_at DESC, id DESC LIMIT ?";
+            return executeSummaryQuery(sql, ps -> {
+                ps.setInt(1, userId);
+                ps.setInt(2, limit);
+            });
+        }
+
+        // Keyset on (created_at, id): the page starts right after the last row shown.
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM reports WHERE user_id = ? "
+                + "AND (created_at < ? OR (created_at = ? AND id < ?)) "
+                + "ORDER BY created_at DESC, id DESC LIMIT ?";
+        return executeSummaryQuery(sql, ps -> {
+            Timestamp createdAt = Timestamp.valueOf(after.getCreatedAt());
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, createdAt);
+            ps.setTimestamp(3, createdAt);
+            ps.setInt(4, after.getId());
+            ps.setInt(5, limit);
+        });
+    }
+
+    @Override
+    public List<ReportSummary> findSummariesByUserIdAndPeriodBetween(Integer userId, LocalDate start, LocalDate end) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM reports "
+                + "WHERE user_id = ? AND period_start >= ? AND period_end <= ? ORDER BY period_start";
+
+        return executeSummaryQuery(sql, ps -> {
+            ps.setInt(1, userId);
+            ps.setDate(2, java.sql.Date.valueOf(start));
+            ps.setDate(3, java.sql.Date.valueOf(end));
+        });
+    }
+
+    private List<ReportSummary> executeSummaryQuery(String sql, SQLConsumer<PreparedStatement> paramsSetter) {
+        List<ReportSummary> summaries = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            paramsSetter.accept(ps);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ReportSummary s = new ReportSummary();
+                    s.setId(rs.getInt("id"));
+                    s.setReportName(rs.getString("report_name"));
+                    s.setPeriodStart(rs.getDate("period_start").toLocalDate());
+                    s.setPeriodEnd(rs.getDate("period_end").toLocalDate());
+                    s.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    summaries.add(s);
+                }
+            }
+
+        } catch (Exception e) {
+            throw new RuntimeException("Помилка SELECT у reports: " + e.getMessage(), e);
+        }
+
+        return summaries;
+    }
+
     private List<Report> executeQuery(String sql, SQLConsumer<PreparedStatement> paramsSetter) {
         List<Report> reports = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             paramsSetter.accept(ps);
@@ -194,6 +254,17 @@ public class ReportRepositoryImpl implements ReportRepository {
         Timestamp ts = rs.getTimestamp("created_at");
         if (ts != null) r.setCreatedAt(ts.toLocalDateTime());
 
+        byte[] payload = rs.getBytes("payload");
+        if (payload != null) {
+            ReportPayloadCodec.Decoded decoded = ReportPayloadCodec.decode(payload);
+            r.setAppUsagePercent(decoded.appUsage());
+            r.setCpuSketch(decoded.cpuSketch());
+            r.setRamSketch(decoded.ramSketch());
+            r.setDaysLoader(decoded::days);
+            return r;
+        }
+
+        // Rows saved before the binary payload still carry JSON.
         String jsonApps = rs.getString("app_usage_json");
         r.setAppUsagePercent(jsonApps != null && !jsonApps.isBlank()
                 ? gson.fromJson(jsonApps, MAP_TYPE)
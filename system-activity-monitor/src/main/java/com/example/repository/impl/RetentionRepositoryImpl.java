@@ -0,0 +1,213 @@
+package com.example.repository.impl;
+
+import com.example.connection.DatabaseConnection;
+import com.example.repository.interfaces.RetentionRepository;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Retention through chunked deletes, plus partition drops on MySQL. Monthly partitions of {@code system_stats} are named
+ * {@code pYYYYMM} and hold rows of that month; {@code p_future} takes
+ * everything after the last of them.
+ */
+public class RetentionRepositoryImpl implements RetentionRepository {
+
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final List<String> ROLLUP_TABLES = List.of("stats_1m", "stats_1h", "stats_1d", "stats_app_counts");
+
+    private final DataSource dataSource;
+    private final boolean partitionsSupported;
+
+    public RetentionRepositoryImpl() {
+        this(DatabaseConnection.getDataSource(), DatabaseConnection.getBackend().supportsPartitions());
+    }
+
+    public RetentionRepositoryImpl(DataSource dataSource, boolean partitionsSupported) {
+        this.dataSource = dataSource;
+        this.partitionsSupported = partitionsSupported;
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        if (!partitionsSupported) return false;
+
+        try (Connection conn = dataSource.getConnection()) {
+            return listPartitions(conn).contains(FUTURE_PARTITION);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка читання партицій system_stats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void ensurePartitions(YearMonth through) {
+        try (Connection conn = dataSource.getConnection()) {
+
+            List<YearMonth> months = monthlyPartitions(listPartitions(conn));
+            YearMonth first = months.isEmpty() ? firstMonthWithData(conn) : months.get(months.size() - 1).plusMonths(1);
+            if (first.isAfter(through)) return;
+
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate(reorganizeSql(first, through));
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка створення партицій system_stats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> dropPartitionsBefore(LocalDateTime cutoff) {
+        try (Connection conn = dataSource.getConnection()) {
+
+            List<String> expired = expiredPartitions(listPartitions(conn), cutoff);
+
+            if (!expired.isEmpty()) {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("ALTER TABLE system_stats DROP PARTITION " + String.join(", ", expired));
+                }
+            }
+            return expired;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка видалення партицій system_stats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> findUserRetentionDays() {
+        String sql = "SELECT id, retention_days FROM users WHERE retention_days IS NOT NULL";
+        Map<Integer, Integer> result = new HashMap<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.put(rs.getInt("id"), rs.getInt("retention_days"));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка читання retention_days: " + e.getMessage(), e);
+        }
+
+        return result;
+    }
+
+    @Override
+    public int deleteStatsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) {
+        try (Connection conn = dataSource.getConnection()) {
+            return deleteChunk(conn, "system_stats", "recorded_at", userId, excludedUsers, cutoff, limit);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка видалення застарілих SystemStats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int deleteRollupsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) {
+        int deleted = 0;
+
+        try (Connection conn = dataSource.getConnection()) {
+            for (String table : ROLLUP_TABLES) {
+                deleted += deleteChunk(conn, table, "bucket_start", userId, excludedUsers, cutoff, limit);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка видалення застарілих StatsRollup: " + e.getMessage(), e);
+        }
+
+        return deleted;
+    }
+
+    private int deleteChunk(Connection conn, String table, String timeColumn, Integer userId,
+                            Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table)
+                .append(" WHERE ").append(timeColumn).append(" < ?");
+
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+        } else if (!excludedUsers.isEmpty()) {
+            sql.append(" AND user_id NOT IN (")
+                    .append(excludedUsers.stream().map(id -> "?").collect(Collectors.joining(", ")))
+                    .append(")");
+        }
+        sql.append(" LIMIT ?");
+
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            ps.setTimestamp(i++, Timestamp.valueOf(cutoff));
+
+            if (userId != null) {
+                ps.setInt(i++, userId);
+            } else {
+                for (Integer id : excludedUsers) ps.setInt(i++, id);
+            }
+            ps.setInt(i, limit);
+
+            return ps.executeUpdate();
+        }
+    }
+
+    private List<String> listPartitions(Connection conn) throws SQLException {
+        String sql = """
+                SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'system_stats' AND PARTITION_NAME IS NOT NULL
+                ORDER BY PARTITION_ORDINAL_POSITION
+                """;
+
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) names.add(rs.getString(1));
+        }
+        return names;
+    }
+
+    // Splits p_future into one partition per month from first through the last month, plus a new p_future.
+    static String reorganizeSql(YearMonth first, YearMonth through) {
+        List<String> parts = new ArrayList<>();
+        for (YearMonth m = first; !m.isAfter(through); m = m.plusMonths(1)) {
+            parts.add("PARTITION " + m.format(PARTITION_NAME)
+                    + " VALUES LESS THAN ('" + m.plusMonths(1).atDay(1) + " 00:00:00')");
+        }
+        parts.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+
+        return "ALTER TABLE system_stats REORGANIZE PARTITION " + FUTURE_PARTITION
+                + " INTO (" + String.join(", ", parts) + ")";
+    }
+
+    // Months that end on or before the cutoff; p_future is never among them.
+    static List<String> expiredPartitions(List<String> names, LocalDateTime cutoff) {
+        return monthlyPartitions(names).stream()
+                .filter(m -> !m.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff))
+                .map(m -> m.format(PARTITION_NAME))
+                .toList();
+    }
+
+    static List<YearMonth> monthlyPartitions(List<String> names) {
+        return names.stream()
+                .filter(n -> !n.equals(FUTURE_PARTITION))
+                .map(n -> YearMonth.parse(n, PARTITION_NAME))
+                .sorted()
+                .toList();
+    }
+
+    // Oldest month that has rows, so existing data is split by month on the first run.
+    private YearMonth firstMonthWithData(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MIN(recorded_at) FROM system_stats");
+             ResultSet rs = ps.executeQuery()) {
+            Timestamp ts = rs.next() ? rs.getTimestamp(1) : null;
+            return ts != null ? YearMonth.from(ts.toLocalDateTime()) : YearMonth.now();
+        }
+    }
+}
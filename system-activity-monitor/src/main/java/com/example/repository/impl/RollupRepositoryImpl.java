@@ -0,0 +1,607 @@
+package com.example.repository.impl;
+
+import com.example.connection.DatabaseConnection;
+import com.example.model.QuantileSketch;
+import com.example.model.StatsRollup;
+import com.example.model.StatsRollup.Resolution;
+import com.example.repository.interfaces.RollupRepository;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import com.example.repository.query.StatsRollupAccumulator;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.HashMap;
+
+/**
+ * Minute, hour and day rollups of {@code system_stats}.
+ * <p>
+ * Minute buckets are recomputed from raw rows; hour buckets are summed from
+ * minutes and day buckets from hours; their CPU/RAM sketches are merged the
+ * same way in Java, since SQL cannot add them. {@link #refresh} replaces every bucket a
+ * time range touches, so running it twice, or after rows were skipped as
+ * duplicates, gives the same result.
+ */
+public class RollupRepositoryImpl implements RollupRepository {
+
+    private static final String HOUR_BUCKET = bucketOf(Resolution.HOUR, "bucket_start");
+    private static final String DAY_BUCKET = bucketOf(Resolution.DAY, "bucket_start");
+
+    private static final String INSERT_ROLLUP_SQL = """
+            INSERT INTO %s (
+                user_id, bucket_start, sample_count,
+                cpu_count, cpu_sum, cpu_min, cpu_max,
+                ram_count, ram_sum, ram_min, ram_max,
+                input_events, gap_seconds, gap_count,
+                cpu_sketch, ram_sketch
+            )
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String ROLL_UP_SQL = """
+            INSERT INTO %1$s (
+                user_id, bucket_start, sample_count,
+                cpu_count, cpu_sum, cpu_min, cpu_max,
+                ram_count, ram_sum, ram_min, ram_max,
+                input_events, gap_seconds, gap_count
+            )
+            SELECT user_id, %3$s, SUM(sample_count),
+                   SUM(cpu_count), SUM(cpu_sum), MIN(cpu_min), MAX(cpu_max),
+                   SUM(ram_count), SUM(ram_sum), MIN(ram_min), MAX(ram_max),
+                   SUM(input_events), SUM(gap_seconds), SUM(gap_count)
+            FROM %2$s
+            WHERE user_id = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY user_id, %3$s
+            """;
+
+    private static final String ROLL_UP_APPS_SQL = """
+            INSERT INTO stats_app_counts (user_id, resolution, bucket_start, app_name, sample_count, first_seen_at)
+            SELECT user_id, ?, %1$s, app_name, SUM(sample_count), MIN(first_seen_at)
+            FROM stats_app_counts
+            WHERE user_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?
+            GROUP BY user_id, %1$s, app_name
+            """;
+
+    // Gap to the previous sample of the same day; LAG runs over the whole range, as dailyUptime does.
+    private static final String AGGREGATE_SQL = """
+            SELECT %1$s AS bucket_start, COUNT(*) AS sample_count,
+                   COUNT(cpu_load) AS cpu_count, COALESCE(SUM(cpu_load), 0) AS cpu_sum,
+                   MIN(cpu_load) AS cpu_min, MAX(cpu_load) AS cpu_max,
+                   COUNT(ram_used_mb) AS ram_count, COALESCE(SUM(ram_used_mb), 0) AS ram_sum,
+                   MIN(ram_used_mb) AS ram_min, MAX(ram_used_mb) AS ram_max,
+                   COALESCE(SUM(CASE WHEN interval_seconds IS NOT NULL
+                       THEN COALESCE(keyboard_presses, 0) + COALESCE(mouse_clicks, 0) + COALESCE(mouse_moves, 0) END), 0) AS input_events,
+                   COALESCE(SUM(CASE WHEN gap > 0 AND gap <= %2$d THEN gap END), 0) AS gap_seconds,
+                   COUNT(CASE WHEN gap > 0 AND gap <= %2$d THEN 1 END) AS gap_count
+            FROM (
+                SELECT recorded_at, cpu_load, ram_used_mb, keyboard_presses, mouse_clicks, mouse_moves, interval_seconds,
+                       CASE WHEN CAST(LAG(recorded_at) OVER w AS DATE) = CAST(recorded_at AS DATE)
+                            THEN TIMESTAMPDIFF(SECOND, LAG(recorded_at) OVER w, recorded_at) END AS gap
+                FROM system_stats
+                WHERE user_id = ? AND recorded_at BETWEEN ? AND ?
+                WINDOW w AS (ORDER BY recorded_at)
+            ) s
+            GROUP BY bucket_start
+            ORDER BY bucket_start
+            """;
+
+    // Values for the percentile sketches, which SQL cannot build.
+    private static final String AGGREGATE_SKETCH_SQL = """
+            SELECT %1$s AS bucket_start, %2$s AS cpu, %3$s AS ram
+            FROM system_stats
+            WHERE user_id = ? AND recorded_at BETWEEN ? AND ? AND (cpu_load IS NOT NULL OR ram_used_mb IS NOT NULL)
+            """;
+
+    private static final int AGGREGATE_FETCH_SIZE = 1_000;
+
+    private static final String AGGREGATE_APPS_SQL = """
+            SELECT %1$s AS bucket_start, window_title_id, COUNT(*) AS sample_count
+            FROM system_stats
+            WHERE user_id = ? AND recorded_at BETWEEN ? AND ? AND window_title_id IS NOT NULL
+            GROUP BY bucket_start, window_title_id
+            ORDER BY bucket_start, MIN(recorded_at)
+            """;
+
+    private final DataSource dataSource;
+    private final ApplicationDictionary dictionary;
+
+    public RollupRepositoryImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public RollupRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.dictionary = ApplicationDictionary.forDataSource(dataSource);
+    }
+
+    @Override
+    public List<StatsRollup> findByUserIdAndBucketBetween(Integer userId, Resolution resolution,
+                                                          LocalDateTime start, LocalDateTime end) {
+        String sql = "SELECT * FROM " + resolution.getTable()
+                + " WHERE user_id = ? AND bucket_start BETWEEN ? AND ? ORDER BY bucket_start ASC";
+
+        String appsSql = """
+                SELECT bucket_start, app_name, sample_count FROM stats_app_counts
+                WHERE user_id = ? AND resolution = ? AND bucket_start BETWEEN ? AND ?
+                ORDER BY bucket_start ASC, first_seen_at ASC
+                """;
+
+        Map<LocalDateTime, StatsRollup> byBucket = new TreeMap<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, userId);
+                ps.setTimestamp(2, Timestamp.valueOf(start));
+                ps.setTimestamp(3, Timestamp.valueOf(end));
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        StatsRollup r = mapRow(rs, userId);
+                        r.setCpuSketch(QuantileSketch.fromBytes(rs.getBytes("cpu_sketch")));
+                        r.setRamSketch(QuantileSketch.fromBytes(rs.getBytes("ram_sketch")));
+                        byBucket.put(r.getBucketStart(), r);
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(appsSql)) {
+                ps.setInt(1, userId);
+                ps.setString(2, resolution.getCode());
+                ps.setTimestamp(3, Timestamp.valueOf(start));
+                ps.setTimestamp(4, Timestamp.valueOf(end));
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        StatsRollup r = byBucket.get(rs.getTimestamp("bucket_start").toLocalDateTime());
+                        if (r != null) r.getAppCounts().put(rs.getString("app_name"), rs.getLong("sample_count"));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка пошуку StatsRollup: " + e.getMessage(), e);
+        }
+
+        return new ArrayList<>(byBucket.values());
+    }
+
+    // refresh stamps stats_1d.updated_at in the same transaction as the raw write, so a day
+    // rolled up after it ended is final and is not looked at again. Only the other days touch
+    // system_stats, each as one index range of uq_system_stats_user_time: a day without a
+    // rollup is probed for any row, and a day still open when it was last rolled up (or
+    // rolled up before the stamp existed) has its rows counted. A rolled-up day whose raw
+    // rows are gone was trimmed by retention and keeps its rollup.
+    @Override
+    public List<LocalDate> findStaleDays(Integer userId, LocalDateTime start, LocalDateTime end) {
+        // Days rolled up before sketches were kept count as stale, so they are rebuilt with them.
+        String rollupSql = "SELECT bucket_start, sample_count, updated_at,"
+                + " CASE WHEN (cpu_count > 0 AND cpu_sketch IS NULL) OR (ram_count > 0 AND ram_sketch IS NULL)"
+                + " THEN 1 ELSE 0 END AS sketch_missing FROM " + Resolution.DAY.getTable()
+                + " WHERE user_id = ? AND bucket_start BETWEEN ? AND ?";
+
+        LocalDate first = start.toLocalDate();
+        LocalDate last = end.toLocalDate();
+        List<LocalDate> stale = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+
+            Map<LocalDate, DayRollup> rolled = new HashMap<>();
+            try (PreparedStatement ps = conn.prepareStatement(rollupSql)) {
+                bindRange(ps, userId, first.atStartOfDay(), end);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp updatedAt = rs.getTimestamp("updated_at");
+                        rolled.put(rs.getTimestamp("bucket_start").toLocalDateTime().toLocalDate(), new DayRollup(
+                                rs.getLong("sample_count"),
+                                updatedAt != null ? updatedAt.toLocalDateTime() : null,
+                                rs.getInt("sketch_missing") == 1));
+                    }
+                }
+            }
+
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                LocalDateTime from = day.atStartOfDay();
+                LocalDateTime to = day.plusDays(1).atStartOfDay();
+                DayRollup r = rolled.get(day);
+
+                if (r == null) {
+                    if (countRows(conn, HAS_ROWS_SQL, userId, from, to) > 0) stale.add(day);
+                } else if (r.sketchMissing()) {
+                    stale.add(day);
+                } else if (r.updatedAt() == null || r.updatedAt().isBefore(to)) {
+                    long raw = countRows(conn, COUNT_ROWS_SQL, userId, from, to);
+                    if (raw > 0 && raw != r.sampleCount()) stale.add(day);
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка перевірки StatsRollup: " + e.getMessage(), e);
+        }
+
+        return stale;
+    }
+
+    private static final String HAS_ROWS_SQL =
+            "SELECT 1 FROM system_stats WHERE user_id = ? AND recorded_at >= ? AND recorded_at < ? LIMIT 1";
+    private static final String COUNT_ROWS_SQL =
+            "SELECT COUNT(*) FROM system_stats WHERE user_id = ? AND recorded_at >= ? AND recorded_at < ?";
+
+    private record DayRollup(long sampleCount, LocalDateTime updatedAt, boolean sketchMissing) {}
+
+    private static long countRows(Connection conn, String sql, Integer userId,
+                                  LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindRange(ps, userId, from, to);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public List<StatsRollup> aggregate(Integer userId, Resolution resolution, LocalDateTime start, LocalDateTime end) {
+        String bucket = bucketOf(resolution, "recorded_at");
+        Map<LocalDateTime, StatsRollup> byBucket = new TreeMap<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    AGGREGATE_SQL.formatted(bucket, StatsRollupAccumulator.MAX_GAP_SECONDS))) {
+                bindRange(ps, userId, start, end);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        StatsRollup r = mapRow(rs, userId);
+                        byBucket.put(r.getBucketStart(), r);
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(AGGREGATE_SKETCH_SQL.formatted(
+                    bucket, StatsColumn.CPU_LOAD.getSql(), StatsColumn.RAM_USED_MB.getSql()))) {
+                ps.setFetchSize(AGGREGATE_FETCH_SIZE);
+                bindRange(ps, userId, start, end);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        StatsRollup r = byBucket.get(rs.getTimestamp("bucket_start").toLocalDateTime());
+                        if (r == null) continue;
+
+                        long cpu = rs.getLong("cpu");
+                        if (!rs.wasNull()) {
+                            if (r.getCpuSketch() == null) r.setCpuSketch(new QuantileSketch());
+                            r.getCpuSketch().add(cpu);
+                        }
+                        long ram = rs.getLong("ram");
+                        if (!rs.wasNull()) {
+                            if (r.getRamSketch() == null) r.setRamSketch(new QuantileSketch());
+                            r.getRamSketch().add(ram);
+                        }
+                    }
+                }
+            }
+
+            // Grouped by title id; titles of one application are merged by name here.
+            try (PreparedStatement ps = conn.prepareStatement(AGGREGATE_APPS_SQL.formatted(bucket))) {
+                bindRange(ps, userId, start, end);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        StatsRollup r = byBucket.get(rs.getTimestamp("bucket_start").toLocalDateTime());
+                        String app = dictionary.applicationName(conn, dictionary.applicationId(conn, rs.getInt("window_title_id")));
+                        if (r != null && app != null) r.getAppCounts().merge(app, rs.getLong("sample_count"), Long::sum);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка агрегації SystemStats: " + e.getMessage(), e);
+        }
+
+        return new ArrayList<>(byBucket.values());
+    }
+
+    private static void bindRange(PreparedStatement ps, Integer userId, LocalDateTime start, LocalDateTime end) throws SQLException {
+        ps.setInt(1, userId);
+        ps.setTimestamp(2, Timestamp.valueOf(start));
+        ps.setTimestamp(3, Timestamp.valueOf(end));
+    }
+
+    // Written with functions MySQL and H2 share, so both storage backends run the same SQL.
+    private static String bucketOf(Resolution resolution, String column) {
+        String day = "CAST(CAST(%s AS DATE) AS DATETIME)".formatted(column);
+        return switch (resolution) {
+            case MINUTE -> "TIMESTAMPADD(MINUTE, HOUR(%1$s) * 60 + MINUTE(%1$s), %2$s)".formatted(column, day);
+            case HOUR -> "TIMESTAMPADD(HOUR, HOUR(%1$s), %2$s)".formatted(column, day);
+            case DAY -> day;
+        };
+    }
+
+    @Override
+    public void rebuild(Integer userId, LocalDateTime start, LocalDateTime end) {
+        try (Connection conn = dataSource.getConnection()) {
+
+            // A day at a time keeps the raw rows held in memory small.
+            for (LocalDate day = start.toLocalDate(); !day.isAfter(end.toLocalDate()); day = day.plusDays(1)) {
+                conn.setAutoCommit(false);
+                try {
+                    // Raw rows are unchanged, so the gap of the next day's first row is too.
+                    recompute(conn, dictionary, userId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                    conn.commit();
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка перебудови StatsRollup: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recomputes, on the caller's connection and transaction, every bucket that
+     * rows of {@code userId} between {@code from} and {@code to} fall into. The
+     * minute of the next row after the range is included as well, because its
+     * gap to the previous row may have changed.
+     */
+    static void refresh(Connection conn, ApplicationDictionary dictionary, int userId,
+                        LocalDateTime from, LocalDateTime to) throws SQLException {
+        LocalDateTime minuteFrom = from.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime minuteTo = to.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+
+        LocalDateTime next = queryTime(conn,
+                "SELECT MIN(recorded_at) FROM system_stats WHERE user_id = ? AND recorded_at >= ?", userId, minuteTo);
+        if (next != null) minuteTo = next.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+
+        recompute(conn, dictionary, userId, minuteFrom, minuteTo);
+    }
+
+    /**
+     * Recomputes the minute buckets from {@code minuteFrom} up to {@code minuteTo} and the
+     * hour and day buckets they fall into. Unlike {@link #refresh}, no bucket outside the
+     * range is touched, so rebuilds of different days can run side by side.
+     */
+    private static void recompute(Connection conn, ApplicationDictionary dictionary, int userId,
+                                  LocalDateTime minuteFrom, LocalDateTime minuteTo) throws SQLException {
+        LocalDateTime previous = queryTime(conn,
+                "SELECT MAX(recorded_at) FROM system_stats WHERE user_id = ? AND recorded_at < ?", userId, minuteFrom);
+
+        List<StatsRollup> minutes = aggregateMinutes(conn, dictionary, userId, minuteFrom, minuteTo, previous);
+        replaceMinutes(conn, userId, minuteFrom, minuteTo, minutes);
+
+        LocalDateTime hourFrom = minuteFrom.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hourTo = minuteTo.minusMinutes(1).truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        rollUp(conn, userId, Resolution.MINUTE, Resolution.HOUR, HOUR_BUCKET, hourFrom, hourTo);
+
+        LocalDateTime dayFrom = hourFrom.toLocalDate().atStartOfDay();
+        LocalDateTime dayTo = hourTo.minusHours(1).toLocalDate().plusDays(1).atStartOfDay();
+        rollUp(conn, userId, Resolution.HOUR, Resolution.DAY, DAY_BUCKET, dayFrom, dayTo);
+        markUpdated(conn, userId, dayFrom, dayTo);
+    }
+
+    // Read by findStaleDays: a day stamped after it ended needs no further checks.
+    private static void markUpdated(Connection conn, int userId, LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE " + Resolution.DAY.getTable()
+                + " SET updated_at = ? WHERE user_id = ? AND bucket_start >= ? AND bucket_start < ?")) {
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setInt(2, userId);
+            ps.setTimestamp(3, Timestamp.valueOf(from));
+            ps.setTimestamp(4, Timestamp.valueOf(to));
+            ps.executeUpdate();
+        }
+    }
+
+    private static final Set<StatsColumn> ROLLUP_COLUMNS = EnumSet.of(StatsColumn.RECORDED_AT,
+            StatsColumn.CPU_LOAD, StatsColumn.RAM_USED_MB, StatsColumn.INPUT_EVENTS, StatsColumn.APPLICATION);
+
+    private static final int REFRESH_BATCH_ROWS = 1_000;
+
+    private static List<StatsRollup> aggregateMinutes(Connection conn, ApplicationDictionary dictionary,
+                                                      int userId, LocalDateTime from, LocalDateTime to,
+                                                      LocalDateTime previous) throws SQLException {
+        StatsBatch batch = new StatsBatch(ROLLUP_COLUMNS, REFRESH_BATCH_ROWS);
+        StatsRollupAccumulator minutes = new StatsRollupAccumulator(ChronoUnit.MINUTES, userId, previous);
+
+        String sql = "SELECT " + StatsProjection.selectList(batch)
+                + " FROM system_stats WHERE user_id = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at ASC";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                StatsProjection.readAll(conn, rs, batch, dictionary, minutes);
+            }
+        }
+
+        return minutes.result();
+    }
+
+    private static void replaceMinutes(Connection conn, int userId, LocalDateTime from, LocalDateTime to,
+                                       List<StatsRollup> minutes) throws SQLException {
+        deleteRange(conn, userId, Resolution.MINUTE, from, to);
+        if (minutes.isEmpty()) return;
+
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_ROLLUP_SQL.formatted(Resolution.MINUTE.getTable()));
+             PreparedStatement apps = conn.prepareStatement(
+                     "INSERT INTO stats_app_counts (user_id, resolution, bucket_start, app_name, sample_count, first_seen_at) VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            for (StatsRollup r : minutes) {
+                Timestamp bucket = Timestamp.valueOf(r.getBucketStart());
+
+                ps.setInt(1, userId);
+                ps.setTimestamp(2, bucket);
+                ps.setLong(3, r.getSampleCount());
+                ps.setLong(4, r.getCpuCount());
+                ps.setBigDecimal(5, r.getCpuSum());
+                ps.setBigDecimal(6, r.getCpuMin());
+                ps.setBigDecimal(7, r.getCpuMax());
+                ps.setLong(8, r.getRamCount());
+                ps.setBigDecimal(9, r.getRamSum());
+                ps.setBigDecimal(10, r.getRamMin());
+                ps.setBigDecimal(11, r.getRamMax());
+                ps.setLong(12, r.getInputEvents());
+                ps.setLong(13, r.getGapSeconds());
+                ps.setLong(14, r.getGapCount());
+                ps.setBytes(15, sketchBytes(r.getCpuSketch()));
+                ps.setBytes(16, sketchBytes(r.getRamSketch()));
+                ps.addBatch();
+
+                for (Map.Entry<String, Long> app : r.getAppCounts().entrySet()) {
+                    apps.setInt(1, userId);
+                    apps.setString(2, Resolution.MINUTE.getCode());
+                    apps.setTimestamp(3, bucket);
+                    apps.setString(4, app.getKey());
+                    apps.setLong(5, app.getValue());
+                    LocalDateTime firstSeen = r.getAppFirstSeen().get(app.getKey());
+                    apps.setTimestamp(6, Timestamp.valueOf(firstSeen != null ? firstSeen : r.getBucketStart()));
+                    apps.addBatch();
+                }
+            }
+
+            ps.executeBatch();
+            apps.executeBatch();
+        }
+    }
+
+    private static void rollUp(Connection conn, int userId, Resolution source, Resolution target, String bucketExpr,
+                               LocalDateTime from, LocalDateTime to) throws SQLException {
+        deleteRange(conn, userId, target, from, to);
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                ROLL_UP_SQL.formatted(target.getTable(), source.getTable(), bucketExpr))) {
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(ROLL_UP_APPS_SQL.formatted(bucketExpr))) {
+            ps.setString(1, target.getCode());
+            ps.setInt(2, userId);
+            ps.setString(3, source.getCode());
+            ps.setTimestamp(4, Timestamp.valueOf(from));
+            ps.setTimestamp(5, Timestamp.valueOf(to));
+            ps.executeUpdate();
+        }
+
+        mergeSketches(conn, userId, source, target, from, to);
+    }
+
+    private static void mergeSketches(Connection conn, int userId, Resolution source, Resolution target,
+                                      LocalDateTime from, LocalDateTime to) throws SQLException {
+        Map<LocalDateTime, QuantileSketch[]> merged = new TreeMap<>();
+
+        try (PreparedStatement ps = conn.prepareStatement("SELECT bucket_start, cpu_sketch, ram_sketch FROM "
+                + source.getTable() + " WHERE user_id = ? AND bucket_start >= ? AND bucket_start < ?")) {
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    LocalDateTime bucket = rs.getTimestamp("bucket_start").toLocalDateTime();
+                    LocalDateTime targetBucket = target == Resolution.DAY
+                            ? bucket.toLocalDate().atStartOfDay()
+                            : bucket.truncatedTo(ChronoUnit.HOURS);
+
+                    QuantileSketch[] sketches = merged.computeIfAbsent(targetBucket,
+                            b -> new QuantileSketch[] { new QuantileSketch(), new QuantileSketch() });
+                    sketches[0].merge(QuantileSketch.fromBytes(rs.getBytes("cpu_sketch")));
+                    sketches[1].merge(QuantileSketch.fromBytes(rs.getBytes("ram_sketch")));
+                }
+            }
+        }
+
+        if (merged.isEmpty()) return;
+
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE " + target.getTable()
+                + " SET cpu_sketch = ?, ram_sketch = ? WHERE user_id = ? AND bucket_start = ?")) {
+            for (Map.Entry<LocalDateTime, QuantileSketch[]> e : merged.entrySet()) {
+                ps.setBytes(1, sketchBytes(e.getValue()[0]));
+                ps.setBytes(2, sketchBytes(e.getValue()[1]));
+                ps.setInt(3, userId);
+                ps.setTimestamp(4, Timestamp.valueOf(e.getKey()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static byte[] sketchBytes(QuantileSketch sketch) {
+        return sketch != null && !sketch.isEmpty() ? sketch.toBytes() : null;
+    }
+
+    private static void deleteRange(Connection conn, int userId, Resolution resolution,
+                                    LocalDateTime from, LocalDateTime to) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + resolution.getTable()
+                + " WHERE user_id = ? AND bucket_start >= ? AND bucket_start < ?")) {
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            ps.executeUpdate();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "DELETE FROM stats_app_counts WHERE user_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?")) {
+            ps.setInt(1, userId);
+            ps.setString(2, resolution.getCode());
+            ps.setTimestamp(3, Timestamp.valueOf(from));
+            ps.setTimestamp(4, Timestamp.valueOf(to));
+            ps.executeUpdate();
+        }
+    }
+
+    private static LocalDateTime queryTime(Connection conn, String sql, int userId, LocalDateTime bound) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(bound));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                Timestamp ts = rs.next() ? rs.getTimestamp(1) : null;
+                return ts != null ? ts.toLocalDateTime() : null;
+            }
+        }
+    }
+
+    private StatsRollup mapRow(ResultSet rs, Integer userId) throws SQLException {
+        StatsRollup r = new StatsRollup();
+
+        r.setUserId(userId);
+        r.setBucketStart(rs.getTimestamp("bucket_start").toLocalDateTime());
+        r.setSampleCount(rs.getLong("sample_count"));
+
+        r.setCpuCount(rs.getLong("cpu_count"));
+        r.setCpuSum(rs.getBigDecimal("cpu_sum"));
+        r.setCpuMin(rs.getBigDecimal("cpu_min"));
+        r.setCpuMax(rs.getBigDecimal("cpu_max"));
+
+        r.setRamCount(rs.getLong("ram_count"));
+        r.setRamSum(rs.getBigDecimal("ram_sum"));
+        r.setRamMin(rs.getBigDecimal("ram_min"));
+        r.setRamMax(rs.getBigDecimal("ram_max"));
+
+        r.setInputEvents(rs.getLong("input_events"));
+        r.setGapSeconds(rs.getLong("gap_seconds"));
+        r.setGapCount(rs.getLong("gap_count"));
+
+        return r;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.repository.impl;
+
+import com.example.model.SystemStats;
+import com.example.repository.interfaces.StatsRepository;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import com.example.repository.spool.StatsSpool;
+import com.example.util.MonitoringThreadFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes stats to a local {@link StatsSpool} first and replays them into the
+ * repository behind it in the background. Rows survive restarts and network
+ * outages; the replayer keeps retrying until the database accepts them.
+ * <p>
+ * The delegate may buffer rows itself, as {@link WriteBehindStatsRepository} does.
+ * A replayed batch therefore leaves the spool only once {@link StatsRepository#flush()}
+ * reports it stored; until then it is not handed over again. The target must insert
+ * idempotently by user and timestamp, because a row can be replayed again if the
+ * process stops between the insert and the checkpoint.
+ */
+public class SpooledStatsRepository implements StatsRepository, AutoCloseable {
+
+    private final StatsRepository delegate;
+    private final StatsSpool spool;
+    private final int replayBatchSize;
+
+    private final ScheduledExecutorService replayer =
+            Executors.newSingleThreadScheduledExecutor(new MonitoringThreadFactory("stats-replayer"));
+
+    private boolean failing = false;
+
+    // Handed to the delegate but not confirmed stored yet; guarded by this.
+    private StatsSpool.Batch forwarded;
+
+    public SpooledStatsRepository(StatsRepository delegate, StatsSpool spool,
+                                  int replayBatchSize, long replayIntervalMillis) {
+        this.delegate = delegate;
+        this.spool = spool;
+        this.replayBatchSize = replayBatchSize;
+
+        replayer.scheduleWithFixedDelay(this::replay, 0, replayIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(SystemStats stats) {
+        saveAll(List.of(stats));
+    }
+
+    @Override
+    public void saveAll(List<SystemStats> batch) {
+        if (batch == null || batch.isEmpty()) return;
+
+        for (SystemStats s : batch) {
+            if (s.getRecordedAt() == null) s.setRecordedAt(LocalDateTime.now());
+        }
+
+        try {
+            spool.append(batch);
+        } catch (Exception e) {
+            System.err.println("[SpooledStatsRepository] Spool write failed, writing directly: " + e.getMessage());
+            delegate.saveAll(batch);
+        }
+    }
+
+    @Override
+    public List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
+        replay();
+        return delegate.findByUserIdAndRecordedAtBetween(userId, start, end);
+    }
+
+    @Override
+    public void forEachBatch(Integer userId, LocalDateTime start, LocalDateTime end,
+                             Set<StatsColumn> columns, int batchSize, Consumer<StatsBatch> consumer) {
+        replay();
+        delegate.forEachBatch(userId, start, end, columns, batchSize, consumer);
+    }
+
+    // The row may still be spooled; deleting first would let the replay bring it back.
+    @Override
+    public void deleteById(Integer id) {
+        replay();
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public void deleteByUserId(Integer userId) {
+        replay();
+        delegate.deleteByUserId(userId);
+    }
+
+    @Override
+    public boolean flush() {
+        return replay() && delegate.flush();
+    }
+
+    /**
+     * Moves spooled rows into the database; stops at the first failure and leaves the rest
+     * spooled. Returns whether the spool is empty afterwards.
+     */
+    public synchronized boolean replay() {
+        long replayed = 0;
+
+        try {
+            while (true) {
+                if (forwarded == null) {
+                    StatsSpool.Batch batch = spool.read(replayBatchSize);
+                    if (batch.isEmpty()) break;
+
+                    delegate.saveAll(batch.records());
+                    forwarded = batch;
+                }
+
+                if (!delegate.flush()) {
+                    throw new IllegalStateException(forwarded.records().size() + " replayed row(s) are not stored yet");
+                }
+                spool.commit(forwarded.end());
+                replayed += forwarded.records().size();
+                forwarded = null;
+            }
+
+            if (failing) {
+                failing = false;
+                System.out.println("[SpooledStatsRepository] Database is reachable again, replayed " + replayed + " rows.");
+            }
+
+        } catch (Exception e) {
+            if (!failing) {
+                failing = true;
+                System.err.println("[SpooledStatsRepository] Database unavailable, keeping rows in the spool: " + e.getMessage());
+            }
+        }
+
+        return forwarded == null && spool.isEmpty();
+    }
+
+    public boolean hasPending() {
+        return !spool.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        replayer.shutdown();
+        try {
+            replayer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        replay();
+        spool.close();
+    }
+}
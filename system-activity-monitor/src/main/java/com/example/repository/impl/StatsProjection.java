@@ -0,0 +1,63 @@
+package com.example.repository.impl;
+
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/** SQL side of projected stats queries: the select list and reading rows into a {@link StatsBatch}. */
+final class StatsProjection {
+
+    private StatsProjection() {}
+
+    /** Select list in the order of {@link StatsBatch#columns()}. */
+    static String selectList(StatsBatch batch) {
+        return batch.columns().stream()
+                .map(StatsColumn::getSql)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Reads every row of {@code rs}, handing the batch to {@code consumer} each time it fills up
+     * and at the end. Window title ids are turned into application ids through {@code dictionary},
+     * which looks up what it has not cached yet on {@code conn}, the connection {@code rs} came from.
+     */
+    static void readAll(Connection conn, ResultSet rs, StatsBatch batch, ApplicationDictionary dictionary,
+                        Consumer<StatsBatch> consumer) throws SQLException {
+        StatsColumn[] columns = batch.columns().toArray(new StatsColumn[0]);
+        batch.setApplicationNames(dictionary::applicationName);
+        batch.clear();
+
+        while (rs.next()) {
+            int row = batch.addRow();
+
+            for (int i = 0; i < columns.length; i++) {
+                StatsColumn c = columns[i];
+                long v = rs.getLong(i + 1);
+
+                if (rs.wasNull()) {
+                    v = StatsBatch.NULL;
+                } else if (c == StatsColumn.APPLICATION) {
+                    v = dictionary.applicationId(conn, (int) v);
+                    // Cached now, so the batch's name lookups later need no connection.
+                    if (v != 0) dictionary.applicationName(conn, (int) v);
+                }
+                batch.longs(c)[row] = v;
+            }
+
+            if (batch.isFull()) {
+                consumer.accept(batch);
+                batch.clear();
+            }
+        }
+
+        if (batch.size() > 0) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+    }
+}
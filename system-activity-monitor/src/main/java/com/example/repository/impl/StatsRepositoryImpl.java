@@ -2,64 +2,78 @@ package com.example.repository.impl;
 
 import com.example.model.SystemStats;
 import com.example.repository.interfaces.StatsRepository;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
 import com.example.connection.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class StatsRepositoryImpl implements StatsRepository {
 
+    private final DataSource dataSource;
+    private final ApplicationDictionary dictionary;
+
+    public StatsRepositoryImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public StatsRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.dictionary = ApplicationDictionary.forDataSource(dataSource);
+    }
+
+    private static final String INSERT_SQL = """
+            INSERT INTO system_stats (
+                user_id, cpu_load,
+                ram_used_mb, ram_total_mb,
+                window_title_id,
+                keyboard_presses, mouse_clicks, mouse_moves,
+                system_uptime_seconds,
+                disk_total_gb, disk_free_gb, disk_used_gb,
+                interval_seconds, activity_rate,
+                recorded_at
+            )
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Replayed rows may already be in the table; uq_system_stats_user_time makes the insert a no-op then.
+    // Unlike INSERT IGNORE, any other error (bad value, missing column) still fails the batch.
+    private static final String INSERT_OR_KEEP_SQL = INSERT_SQL.stripTrailing() + " ON DUPLICATE KEY UPDATE id = id";
+
     @Override
     public void save(SystemStats s) {
-        String sql = """
-                INSERT INTO system_stats (
-                    user_id, cpu_load,
-                    ram_used_mb, ram_total_mb,
-                    active_window,
-                    keyboard_presses, mouse_clicks, mouse_moves,
-                    system_uptime_seconds,
-                    disk_total_gb, disk_free_gb, disk_used_gb,
-                    recorded_at
-                )
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            ps.setInt(1, s.getUser().getId());
-            ps.setBigDecimal(2, s.getCpuLoad());
-
-            ps.setBigDecimal(3, s.getRamUsedMb());
-            ps.setBigDecimal(4, s.getRamTotalMb());
-
-            ps.setString(5, s.getActiveWindow());
-            ps.setInt(6, s.getKeyboardPresses());
-            ps.setInt(7, s.getMouseClicks());
-            ps.setLong(8, s.getMouseMoves() != null ? s.getMouseMoves() : 0);
-
-            if (s.getSystemUptimeSeconds() != null)
-                ps.setLong(9, s.getSystemUptimeSeconds());
-            else
-                ps.setNull(9, Types.BIGINT);
-
-            ps.setBigDecimal(10, s.getDiskTotalGb());
-            ps.setBigDecimal(11, s.getDiskFreeGb());
-            ps.setBigDecimal(12, s.getDiskUsedGb());
-
-            if (s.getRecordedAt() == null)
-                s.setRecordedAt(LocalDateTime.now());
-
-            ps.setTimestamp(13, Timestamp.valueOf(s.getRecordedAt()));
-
-            ps.executeUpdate();
-
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    s.setId(rs.getInt(1));
+        Integer titleId = dictionary.titleId(s.getActiveWindow());
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            conn.setAutoCommit(false);
+            try {
+                bindInsert(ps, s, titleId);
+                ps.executeUpdate();
+
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        s.setId(rs.getInt(1));
+                    }
                 }
+
+                RollupRepositoryImpl.refresh(conn, dictionary, s.getUser().getId(), s.getRecordedAt(), s.getRecordedAt());
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
 
         } catch (SQLException e) {
@@ -67,26 +81,122 @@ public class StatsRepositoryImpl implements StatsRepository {
         }
     }
 
+    // One transaction, one round trip: the driver rewrites the batch into a multi-row INSERT
+    // (rewriteBatchedStatements=true in the connection URL). Generated ids are not read back,
+    // and rows that already exist for the same user and recorded_at are skipped.
+    // Rollups for the covered time range are refreshed in the same transaction.
     @Override
-    public List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
-        String sql = """
-                SELECT * FROM system_stats
-                WHERE user_id = ? AND recorded_at BETWEEN ? AND ?
-                ORDER BY recorded_at ASC
-                """;
+    public void saveAll(List<SystemStats> batch) {
+        if (batch == null || batch.isEmpty()) return;
+
+        // Resolved before the transaction: new titles are committed on their own connection.
+        Integer[] titleIds = new Integer[batch.size()];
+        for (int i = 0; i < titleIds.length; i++) {
+            titleIds[i] = dictionary.titleId(batch.get(i).getActiveWindow());
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(INSERT_OR_KEEP_SQL)) {
+
+            conn.setAutoCommit(false);
+            try {
+                for (int i = 0; i < titleIds.length; i++) {
+                    bindInsert(ps, batch.get(i), titleIds[i]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                refreshRollups(conn, batch);
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка при пакетному збереженні SystemStats: " + e.getMessage(), e);
+        }
+    }
+
+    private void refreshRollups(Connection conn, List<SystemStats> batch) throws SQLException {
+        Map<Integer, LocalDateTime[]> ranges = new HashMap<>();
+
+        for (SystemStats s : batch) {
+            LocalDateTime t = s.getRecordedAt();
+            ranges.merge(s.getUser().getId(), new LocalDateTime[]{t, t}, (a, b) -> new LocalDateTime[]{
+                    a[0].isBefore(b[0]) ? a[0] : b[0],
+                    a[1].isAfter(b[1]) ? a[1] : b[1]
+            });
+        }
+
+        for (Map.Entry<Integer, LocalDateTime[]> e : ranges.entrySet()) {
+            RollupRepositoryImpl.refresh(conn, dictionary, e.getKey(), e.getValue()[0], e.getValue()[1]);
+        }
+    }
+
+    private void bindInsert(PreparedStatement ps, SystemStats s, Integer titleId) throws SQLException {
+        ps.setInt(1, s.getUser().getId());
+        ps.setBigDecimal(2, s.getCpuLoad());
+
+        ps.setBigDecimal(3, s.getRamUsedMb());
+        ps.setBigDecimal(4, s.getRamTotalMb());
+
+        if (titleId != null)
+            ps.setInt(5, titleId);
+        else
+            ps.setNull(5, Types.INTEGER);
+        ps.setInt(6, s.getKeyboardPresses());
+        ps.setInt(7, s.getMouseClicks());
+        ps.setLong(8, s.getMouseMoves() != null ? s.getMouseMoves() : 0);
+
+        if (s.getSystemUptimeSeconds() != null)
+            ps.setLong(9, s.getSystemUptimeSeconds());
+        else
+            ps.setNull(9, Types.BIGINT);
 
+        ps.setBigDecimal(10, s.getDiskTotalGb());
+        ps.setBigDecimal(11, s.getDiskFreeGb());
+        ps.setBigDecimal(12, s.getDiskUsedGb());
+
+        if (s.getIntervalSeconds() != null)
+            ps.setInt(13, s.getIntervalSeconds());
+        else
+            ps.setNull(13, Types.INTEGER);
+
+        ps.setBigDecimal(14, s.getActivityRate());
+
+        if (s.getRecordedAt() == null)
+            s.setRecordedAt(LocalDateTime.now());
+
+        ps.setTimestamp(15, Timestamp.valueOf(s.getRecordedAt()));
+    }
+
+    private static final String FIND_BETWEEN_SQL = """
+            SELECT * FROM system_stats
+            WHERE user_id = ? AND recorded_at BETWEEN ? AND ?
+            ORDER BY recorded_at ASC
+            """;
+
+    // Rows per server round trip for batched reads (server-side cursor, useCursorFetch=true).
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
+    @Override
+    public List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
         List<SystemStats> list = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BETWEEN_SQL)) {
 
             ps.setInt(1, userId);
             ps.setTimestamp(2, Timestamp.valueOf(start));
             ps.setTimestamp(3, Timestamp.valueOf(end));
 
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                list.add(mapRow(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(conn, rs));
+                }
             }
 
         } catch (SQLException e) {
@@ -96,22 +206,73 @@ public class StatsRepositoryImpl implements StatsRepository {
         return list;
     }
 
+    @Override
+    public void forEachBatch(Integer userId, LocalDateTime start, LocalDateTime end,
+                             Set<StatsColumn> columns, int batchSize, Consumer<StatsBatch> consumer) {
+        StatsBatch batch = new StatsBatch(columns, batchSize);
+
+        String sql = "SELECT " + StatsProjection.selectList(batch)
+                + " FROM system_stats WHERE user_id = ? AND recorded_at BETWEEN ? AND ? ORDER BY recorded_at ASC";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(start));
+            ps.setTimestamp(3, Timestamp.valueOf(end));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                StatsProjection.readAll(conn, rs, batch, dictionary, consumer);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка пошуку SystemStats: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public void deleteById(Integer id) {
+        String findSql = "SELECT user_id, recorded_at FROM system_stats WHERE id = ?";
         String sql = "DELETE FROM system_stats WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection()) {
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement find = conn.prepareStatement(findSql);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                find.setInt(1, id);
+                int userId;
+                LocalDateTime recordedAt;
+                try (ResultSet rs = find.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.commit();
+                        return;
+                    }
+                    userId = rs.getInt("user_id");
+                    recordedAt = rs.getTimestamp("recorded_at").toLocalDateTime();
+                }
+
+                ps.setInt(1, id);
+                ps.executeUpdate();
 
-            ps.setInt(1, id);
-            ps.executeUpdate();
+                RollupRepositoryImpl.refresh(conn, dictionary, userId, recordedAt, recordedAt);
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
             throw new RuntimeException("Помилка видалення SystemStats: " + e.getMessage(), e);
         }
     }
 
-    private SystemStats mapRow(ResultSet rs) throws SQLException {
+    private SystemStats mapRow(Connection conn, ResultSet rs) throws SQLException {
         SystemStats s = new SystemStats();
 
         s.setId(rs.getInt("id"));
@@ -120,7 +281,8 @@ public class StatsRepositoryImpl implements StatsRepository {
         s.setRamUsedMb(rs.getBigDecimal("ram_used_mb"));
         s.setRamTotalMb(rs.getBigDecimal("ram_total_mb"));
 
-        s.setActiveWindow(rs.getString("active_window"));
+        int titleId = rs.getInt("window_title_id");
+        if (!rs.wasNull()) s.setActiveWindow(dictionary.title(conn, titleId));
         s.setKeyboardPresses(rs.getInt("keyboard_presses"));
         s.setMouseClicks(rs.getInt("mouse_clicks"));
         s.setMouseMoves(rs.getLong("mouse_moves"));
@@ -132,6 +294,10 @@ public class StatsRepositoryImpl implements StatsRepository {
         s.setDiskFreeGb(rs.getBigDecimal("disk_free_gb"));
         s.setDiskUsedGb(rs.getBigDecimal("disk_used_gb"));
 
+        int interval = rs.getInt("interval_seconds");
+        if (!rs.wasNull()) s.setIntervalSeconds(interval);
+        s.setActivityRate(rs.getBigDecimal("activity_rate"));
+
         Timestamp ts = rs.getTimestamp("recorded_at");
         if (ts != null) s.setRecordedAt(ts.toLocalDateTime());
 
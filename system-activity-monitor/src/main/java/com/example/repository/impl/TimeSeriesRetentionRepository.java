@@ -0,0 +1,60 @@
+package com.example.repository.impl;
+
+import com.example.repository.interfaces.RetentionRepository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Retention for {@link com.example.connection.StorageBackend#FILES}: stats rows live in the
+ * time-series files, everything else in the database behind {@code delegate}.
+ * A partition is rewritten without its expired rows in one pass, so {@code limit} is not
+ * used for stats; the next call finds nothing left and returns 0.
+ */
+public class TimeSeriesRetentionRepository implements RetentionRepository {
+
+    private final RetentionRepository delegate;
+    private final TimeSeriesStatsRepository stats;
+
+    public TimeSeriesRetentionRepository(RetentionRepository delegate, TimeSeriesStatsRepository stats) {
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        return false;
+    }
+
+    @Override
+    public void ensurePartitions(YearMonth through) {}
+
+    @Override
+    public List<String> dropPartitionsBefore(LocalDateTime cutoff) {
+        return List.of();
+    }
+
+    @Override
+    public Map<Integer, Integer> findUserRetentionDays() {
+        return delegate.findUserRetentionDays();
+    }
+
+    @Override
+    public int deleteStatsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) {
+        if (userId != null) return stats.purgeBefore(userId, cutoff);
+
+        int deleted = 0;
+        for (Integer id : stats.userIds()) {
+            if (excludedUsers == null || !excludedUsers.contains(id)) deleted += stats.purgeBefore(id, cutoff);
+        }
+        return deleted;
+    }
+
+    @Override
+    public int deleteRollupsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) {
+        return delegate.deleteRollupsBefore(userId, excludedUsers, cutoff, limit);
+    }
+}
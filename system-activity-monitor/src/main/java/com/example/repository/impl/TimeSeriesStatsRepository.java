@@ -0,0 +1,92 @@
+package com.example.repository.impl;
+
+import com.example.model.SystemStats;
+import com.example.repository.interfaces.StatsRepository;
+import com.example.repository.timeseries.TimeSeriesStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link StatsRepository} backed by the embedded {@link TimeSeriesStore}, for installs without MySQL.
+ */
+public class TimeSeriesStatsRepository implements StatsRepository, AutoCloseable {
+
+    private final TimeSeriesStore store;
+
+    public TimeSeriesStatsRepository(Path dataDir) {
+        try {
+            this.store = new TimeSeriesStore(dataDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Помилка відкриття сховища статистики: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void save(SystemStats systemStats) {
+        saveAll(List.of(systemStats));
+    }
+
+    @Override
+    public void saveAll(List<SystemStats> batch) {
+        if (batch == null || batch.isEmpty()) return;
+
+        try {
+            store.append(batch);
+        } catch (IOException e) {
+            throw new RuntimeException("Помилка при збереженні SystemStats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
+        try {
+            return store.query(userId, start, end);
+        } catch (IOException e) {
+            throw new RuntimeException("Помилка пошуку SystemStats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        try {
+            store.delete(id);
+        } catch (IOException e) {
+            throw new RuntimeException("Помилка видалення SystemStats: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void deleteByUserId(Integer userId) {
+        try {
+            store.deleteUser(userId);
+        } catch (IOException e) {
+            throw new RuntimeException("Помилка видалення статистики користувача: " + e.getMessage(), e);
+        }
+    }
+
+    /** Removes rows recorded before {@code cutoff}; returns how many were removed. */
+    public int purgeBefore(Integer userId, LocalDateTime cutoff) {
+        try {
+            return store.purgeBefore(userId, cutoff);
+        } catch (IOException e) {
+            throw new RuntimeException("Помилка очищення застарілої статистики: " + e.getMessage(), e);
+        }
+    }
+
+    public Set<Integer> userIds() {
+        return store.userIds();
+    }
+
+    @Override
+    public void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.err.println("Error closing stats store: " + e.getMessage());
+        }
+    }
+}
@@ -4,11 +4,22 @@ import com.example.model.User;
 import com.example.repository.interfaces.UserRepository;
 import com.example.connection.DatabaseConnection;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.Optional;
 
 public class UserRepositoryImpl implements UserRepository {
 
+    private final DataSource dataSource;
+
+    public UserRepositoryImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public UserRepositoryImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public void save(User user) {
         boolean isNew = (user.getId() == null);
@@ -26,7 +37,7 @@ public class UserRepositoryImpl implements UserRepository {
 
         String sql = isNew ? sqlInsert : sqlUpdate;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setString(1, user.getUsername());
@@ -54,7 +65,7 @@ public class UserRepositoryImpl implements UserRepository {
     public Optional<User> findByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, username);
@@ -72,7 +83,7 @@ public class UserRepositoryImpl implements UserRepository {
     public Optional<User> findById(Integer id) {
         String sql = "SELECT * FROM users WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -90,7 +101,7 @@ public class UserRepositoryImpl implements UserRepository {
     public void updatePassword(Integer userId, String newPasswordHash) {
         String sql = "UPDATE users SET password_hash=? WHERE id=?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, newPasswordHash);
@@ -107,12 +118,28 @@ public class UserRepositoryImpl implements UserRepository {
         if (id == null) return;
 
         String sql = "DELETE FROM users WHERE id=?";
+        // system_stats is partitioned and has no foreign key to cascade from users.
+        String statsSql = "DELETE FROM system_stats WHERE user_id=?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stats = conn.prepareStatement(statsSql);
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, id);
-            ps.executeUpdate();
+            conn.setAutoCommit(false);
+            try {
+                stats.setInt(1, id);
+                stats.executeUpdate();
+
+                ps.setInt(1, id);
+                ps.executeUpdate();
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
             throw new RuntimeException("Не вдалося видалити користувача: " + e.getMessage(), e);
@@ -0,0 +1,306 @@
+package com.example.repository.impl;
+
+import com.example.model.SystemStats;
+import com.example.repository.interfaces.StatsRepository;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import com.example.util.MonitoringThreadFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind stage in front of another {@link StatsRepository}.
+ * <p>
+ * {@link #save(SystemStats)} only puts the row into a bounded queue. A writer
+ * thread hands queued rows to {@link StatsRepository#saveAll(List)} once
+ * {@code batchSize} rows are waiting or {@code flushIntervalMillis} has passed.
+ * When the queue is full the {@link OverflowPolicy} decides between waiting and
+ * dropping. Reads and deletes flush the queue first, so callers see their own writes.
+ * <p>
+ * All writes happen on the writer thread. {@link #flush()} only asks it to write and
+ * waits at most {@link #FLUSH_TIMEOUT_MILLIS}, so a slow or unreachable database never
+ * stalls the caller for long. A batch that fails is kept and written before any newer
+ * row, with a growing pause between attempts; meanwhile new rows wait in the queue.
+ */
+public class WriteBehindStatsRepository implements StatsRepository, AutoCloseable {
+
+    public enum OverflowPolicy {
+        /** Wait up to the offer timeout for space, then drop the new row. */
+        BLOCK,
+        /** Drop the new row immediately. */
+        DROP_NEWEST,
+        /** Evict the oldest queued row to make room. */
+        DROP_OLDEST
+    }
+
+    public static final long FLUSH_TIMEOUT_MILLIS = 2_000;
+    private static final long RETRY_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30_000;
+
+    private final StatsRepository delegate;
+    private final BlockingQueue<SystemStats> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy policy;
+    private final long offerTimeoutMillis;
+
+    private final Object signal = new Object();
+    private final ExecutorService writer =
+            Executors.newSingleThreadExecutor(new MonitoringThreadFactory("stats-writer"));
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean running = true;
+
+    // Owned by the writer thread; touched by close() only after that thread has finished.
+    private final List<SystemStats> failedBatch = new ArrayList<>();
+    private volatile int failedRows;
+    private int failures;
+
+    private CompletableFuture<Boolean> flushRequest;
+
+    public WriteBehindStatsRepository(StatsRepository delegate, int capacity, int batchSize,
+                                      long flushIntervalMillis, OverflowPolicy policy, long offerTimeoutMillis) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.policy = policy;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+
+        writer.execute(this::writeLoop);
+    }
+
+    @Override
+    public void save(SystemStats stats) {
+        if (!running) {
+            delegate.save(stats);
+            return;
+        }
+
+        if (stats.getRecordedAt() == null) {
+            stats.setRecordedAt(LocalDateTime.now());
+        }
+
+        if (enqueue(stats)) {
+            enqueued.increment();
+        } else {
+            dropped.increment();
+        }
+
+        if (queue.size() >= batchSize) {
+            synchronized (signal) {
+                signal.notify();
+            }
+        }
+    }
+
+    private boolean enqueue(SystemStats stats) {
+        switch (policy) {
+            case DROP_NEWEST -> {
+                return queue.offer(stats);
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(stats)) {
+                    if (queue.poll() != null) dropped.increment();
+                }
+                return true;
+            }
+            default -> {
+                try {
+                    return queue.offer(stats, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void saveAll(List<SystemStats> batch) {
+        for (SystemStats s : batch) save(s);
+    }
+
+    @Override
+    public List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
+        flush();
+        return delegate.findByUserIdAndRecordedAtBetween(userId, start, end);
+    }
+
+    @Override
+    public void forEachBatch(Integer userId, LocalDateTime start, LocalDateTime end,
+                             Set<StatsColumn> columns, int batchSize, Consumer<StatsBatch> consumer) {
+        flush();
+        delegate.forEachBatch(userId, start, end, columns, batchSize, consumer);
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        flush();
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public void deleteByUserId(Integer userId) {
+        flush();
+        delegate.deleteByUserId(userId);
+    }
+
+    /**
+     * Asks the writer thread to write everything queued so far and flush the delegate, and
+     * waits for it up to {@link #FLUSH_TIMEOUT_MILLIS}. Rows it could not write stay queued,
+     * and false is returned; true only once every row saved before the call is stored.
+     */
+    @Override
+    public boolean flush() {
+        if (!running) return getQueued() == 0;
+
+        CompletableFuture<Boolean> done;
+        synchronized (signal) {
+            if (flushRequest == null) flushRequest = new CompletableFuture<>();
+            done = flushRequest;
+            signal.notifyAll();
+        }
+
+        try {
+            return done.get(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("[WriteBehindStatsRepository] Flush still running after "
+                    + FLUSH_TIMEOUT_MILLIS + " ms, reading what is already stored.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("[WriteBehindStatsRepository] Flush failed: " + e.getCause().getMessage());
+        }
+        return false;
+    }
+
+    private void writeLoop() {
+        while (running) {
+            CompletableFuture<Boolean> request;
+            try {
+                synchronized (signal) {
+                    long wait = failures > 0 ? backoffMillis() : flushIntervalMillis;
+                    if (running && flushRequest == null && (failures > 0 || queue.size() < batchSize)) {
+                        signal.wait(wait);
+                    }
+                    request = flushRequest;
+                    flushRequest = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            boolean ok = writePending();
+            if (request != null) {
+                try {
+                    request.complete(ok && delegate.flush());
+                } catch (Exception e) {
+                    request.completeExceptionally(e);
+                }
+            }
+        }
+
+        // Rows are written by close() once this thread has stopped.
+        synchronized (signal) {
+            if (flushRequest != null) flushRequest.complete(false);
+            flushRequest = null;
+        }
+    }
+
+    /** Writes the failed batch, then the queue; stops at the first failure and returns false. */
+    private boolean writePending() {
+        if (!failedBatch.isEmpty()) {
+            if (!write(failedBatch)) return false;
+            failedBatch.clear();
+            failedRows = 0;
+        }
+
+        List<SystemStats> batch = new ArrayList<>(batchSize);
+        while (!queue.isEmpty()) {
+            batch.clear();
+            queue.drainTo(batch, batchSize);
+            if (!write(batch)) {
+                failedBatch.addAll(batch);
+                failedRows = failedBatch.size();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean write(List<SystemStats> batch) {
+        try {
+            delegate.saveAll(batch);
+            written.add(batch.size());
+            batches.increment();
+            failures = 0;
+            return true;
+
+        } catch (Exception e) {
+            failures++;
+            System.err.println("[WriteBehindStatsRepository] Batch of " + batch.size()
+                    + " failed (attempt " + failures + "), kept for retry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private long backoffMillis() {
+        return Math.min(MAX_RETRY_BACKOFF_MILLIS, RETRY_BACKOFF_MILLIS << Math.min(failures - 1, 10));
+    }
+
+    public int getQueued() { return queue.size() + failedRows; }
+    public long getEnqueued() { return enqueued.sum(); }
+    public long getWritten() { return written.sum(); }
+    public long getDropped() { return dropped.sum(); }
+    public long getBatches() { return batches.sum(); }
+
+    @Override
+    public void close() {
+        running = false;
+
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+
+        writer.shutdown();
+        try {
+            writer.awaitTermination(flushIntervalMillis + 1_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!writer.isTerminated()) {
+            System.err.println("[WriteBehindStatsRepository] Writer still busy on close, "
+                    + getQueued() + " row(s) left to it.");
+            return;
+        }
+
+        // One last attempt; rows the database still refuses are lost with the process.
+        if (writePending()) {
+            delegate.flush();
+        } else {
+            int lost = queue.size() + failedBatch.size();
+            dropped.add(lost);
+            System.err.println("[WriteBehindStatsRepository] " + lost + " row(s) not written on close.");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.repository.interfaces;
+
+import com.example.model.AppSegment;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AppSegmentRepository {
+
+    void save(AppSegment segment);
+    List<AppSegment> findByUserIdOverlapping(Integer userId, LocalDateTime start, LocalDateTime end);
+    void deleteById(Integer id);
+
+    /**
+     * Ends segments left open by a crash or a killed process: at the last stats sample
+     * recorded before the next segment, or {@code fallbackSeconds} after the start.
+     * Returns how many were closed.
+     */
+    int closeOpenSegments(Integer userId, int fallbackSeconds);
+}
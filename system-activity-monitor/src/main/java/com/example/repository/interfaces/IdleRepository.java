@@ -9,5 +9,6 @@ public interface IdleRepository {
     void save(IdleTime idleTime);
     List<IdleTime> findByUserId(Integer userId);
     List<IdleTime> findByUserIdAndStartTimeBetween(Integer userId, LocalDateTime start, LocalDateTime end);
+    long sumDurationSecondsByUserIdAndStartTimeBetween(Integer userId, LocalDateTime start, LocalDateTime end);
     void deleteById(Integer id);
 }
@@ -1,6 +1,7 @@
 package com.example.repository.interfaces;
 
 import com.example.model.Report;
+import com.example.model.ReportSummary;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -13,6 +14,13 @@ public interface ReportRepository {
     List<Report> findByUserIdAndPeriodBetween(Integer userId, LocalDate start, LocalDate end);
     Optional<Report> findById(Integer id);
     List<Report> findByUserId(Integer userId);
+
+    /**
+     * Newest-first page of report summaries. Pass {@code null} for the first page,
+     * then the last summary of the previous page.
+     */
+    List<ReportSummary> findSummariesByUserId(Integer userId, ReportSummary after, int limit);
+    List<ReportSummary> findSummariesByUserIdAndPeriodBetween(Integer userId, LocalDate start, LocalDate end);
     void update(Report report);
     void deleteById(Integer id);
 }
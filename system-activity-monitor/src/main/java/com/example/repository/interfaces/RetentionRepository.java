@@ -0,0 +1,31 @@
+package com.example.repository.interfaces;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface RetentionRepository {
+
+    /** True when system_stats is range-partitioned by month. */
+    boolean isPartitioned();
+
+    /** Creates monthly partitions up to and including {@code through}. */
+    void ensurePartitions(YearMonth through);
+
+    /** Drops monthly partitions that hold only rows older than {@code cutoff}; returns their names. */
+    List<String> dropPartitionsBefore(LocalDateTime cutoff);
+
+    /** Per-user retention overrides in days, keyed by user id. */
+    Map<Integer, Integer> findUserRetentionDays();
+
+    /**
+     * Deletes at most {@code limit} stats rows older than {@code cutoff}, either of one
+     * user or, when {@code userId} is null, of every user except {@code excludedUsers}.
+     */
+    int deleteStatsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit);
+
+    /** Same as {@link #deleteStatsBefore} for the minute, hour and day rollups. */
+    int deleteRollupsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit);
+}
@@ -0,0 +1,31 @@
+package com.example.repository.interfaces;
+
+import com.example.model.StatsRollup;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RollupRepository {
+
+    List<StatsRollup> findByUserIdAndBucketBetween(Integer userId, StatsRollup.Resolution resolution,
+                                                   LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Days of the range whose stored day rollup does not hold exactly that day's raw
+     * samples, in date order. Stats writes and deletes keep rollups current, so these
+     * are days never rolled up or changed outside the repositories. Days rolled up
+     * after they ended are taken as they are, without reading their raw samples.
+     */
+    List<LocalDate> findStaleDays(Integer userId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Rollups computed by the database straight from the raw samples, without storing
+     * them. Gives the same values as stored rollups of a complete range, percentile
+     * sketches included.
+     */
+    List<StatsRollup> aggregate(Integer userId, StatsRollup.Resolution resolution,
+                                LocalDateTime start, LocalDateTime end);
+
+    /** Recomputes every rollup in the range from the raw samples. */
+    void rebuild(Integer userId, LocalDateTime start, LocalDateTime end);
+}
@@ -1,12 +1,46 @@
 package com.example.repository.interfaces;
 
 import com.example.model.SystemStats;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface StatsRepository {
 
     void save(SystemStats systemStats);
+    void saveAll(List<SystemStats> batch);
     List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end);
     void deleteById(Integer id);
+
+    /**
+     * Reads only {@code columns} of the rows in time order and hands them to {@code consumer}
+     * in batches of up to {@code batchSize} rows. The same batch object is reused for every call.
+     * This default reads the whole range first; the database repository pages through a cursor.
+     */
+    default void forEachBatch(Integer userId, LocalDateTime start, LocalDateTime end,
+                              Set<StatsColumn> columns, int batchSize, Consumer<StatsBatch> consumer) {
+        StatsBatch batch = new StatsBatch(columns, batchSize);
+
+        for (SystemStats s : findByUserIdAndRecordedAtBetween(userId, start, end)) {
+            batch.add(s);
+            if (batch.isFull()) {
+                consumer.accept(batch);
+                batch.clear();
+            }
+        }
+
+        if (batch.size() > 0) consumer.accept(batch);
+    }
+
+    /** Pushes rows buffered in front of the database down to it; true when all of them are stored. */
+    default boolean flush() { return true; }
+
+    /**
+     * Removes every row of a user that is being deleted. The database removes them together
+     * with the user, so only stores outside it need to do anything.
+     */
+    default void deleteByUserId(Integer userId) {}
 }
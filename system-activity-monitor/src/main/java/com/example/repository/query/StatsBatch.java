@@ -0,0 +1,104 @@
+package com.example.repository.query;
+
+import com.example.model.SystemStats;
+import com.example.util.AppNameNormalizer;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * A block of stats rows holding only the requested {@link StatsColumn}s,
+ * stored column by column in primitive arrays. Producers reuse one batch:
+ * consumers must copy anything they keep past the callback.
+ * <p>
+ * {@link StatsColumn#APPLICATION} holds integer ids whose names come from the
+ * producer's dictionary, see {@link #setApplicationNames(IntFunction)}. Batches
+ * filled with {@link #add(SystemStats)} number applications themselves.
+ */
+public final class StatsBatch {
+
+    public static final long NULL = Long.MIN_VALUE;
+
+    private final Set<StatsColumn> columns;
+    private final long[][] longs = new long[StatsColumn.values().length][];
+    private final int capacity;
+    private int size;
+
+    private IntFunction<String> applicationNames;
+    private Map<String, Integer> localTitles;
+    private Map<String, Integer> localApplications;
+    private List<String> localNames;
+
+    public StatsBatch(Set<StatsColumn> columns, int capacity) {
+        this.columns = EnumSet.copyOf(columns);
+        this.columns.add(StatsColumn.RECORDED_AT);
+        this.capacity = capacity;
+
+        for (StatsColumn c : this.columns) {
+            longs[c.ordinal()] = new long[capacity];
+        }
+    }
+
+    public Set<StatsColumn> columns() { return columns; }
+    public boolean contains(StatsColumn c) { return columns.contains(c); }
+
+    public int size() { return size; }
+    public int capacity() { return capacity; }
+    public boolean isFull() { return size == capacity; }
+    public void clear() { size = 0; }
+
+    /** Values of a column; only the first {@link #size()} entries are valid. */
+    public long[] longs(StatsColumn c) {
+        long[] values = longs[c.ordinal()];
+        if (values == null) throw new IllegalArgumentException("Column is not in the batch: " + c);
+        return values;
+    }
+
+    public void setApplicationNames(IntFunction<String> applicationNames) {
+        this.applicationNames = applicationNames;
+    }
+
+    public IntFunction<String> getApplicationNames() { return applicationNames; }
+
+    public String applicationName(int id) {
+        return applicationNames != null ? applicationNames.apply(id) : null;
+    }
+
+    /** Reserves the next row and returns its index; the caller fills the columns. */
+    public int addRow() {
+        if (size == capacity) throw new IllegalStateException("Batch is full.");
+        return size++;
+    }
+
+    public void add(SystemStats s) {
+        int row = addRow();
+        for (StatsColumn c : columns) {
+            longs[c.ordinal()][row] = c == StatsColumn.APPLICATION
+                    ? localApplicationId(s.getActiveWindow())
+                    : c.extract(s);
+        }
+    }
+
+    private long localApplicationId(String title) {
+        if (title == null) return NULL;
+
+        if (localTitles == null) {
+            localTitles = new HashMap<>();
+            localApplications = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            localNames = names;
+            applicationNames = names::get;
+        }
+
+        return localTitles.computeIfAbsent(title, t ->
+                localApplications.computeIfAbsent(AppNameNormalizer.normalize(t), name -> {
+                    localNames.add(name);
+                    return localNames.size() - 1;
+                }));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.repository.query;
+
+import com.example.model.SystemStats;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.ToLongFunction;
+
+/**
+ * Columns and derived metrics that a projected stats query can ask for.
+ * Numeric values are read as longs: decimals in hundredths, times as
+ * wall-clock seconds since 1970-01-01T00:00, and missing values as {@link StatsBatch#NULL}.
+ */
+public enum StatsColumn {
+
+    RECORDED_AT("TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', recorded_at)",
+            s -> s.getRecordedAt() != null ? toEpochSeconds(s.getRecordedAt()) : StatsBatch.NULL),
+    CPU_LOAD("ROUND(cpu_load * 100)", s -> toHundredths(s.getCpuLoad())),
+    RAM_USED_MB("ROUND(ram_used_mb * 100)", s -> toHundredths(s.getRamUsedMb())),
+    RAM_TOTAL_MB("ROUND(ram_total_mb * 100)", s -> toHundredths(s.getRamTotalMb())),
+    DISK_USED_GB("ROUND(disk_used_gb * 100)", s -> toHundredths(s.getDiskUsedGb())),
+    /**
+     * Keyboard presses, mouse clicks and mouse moves of the interval together. Zero for rows
+     * without {@code interval_seconds}: they were written before per-interval deltas and
+     * hold running totals.
+     */
+    INPUT_EVENTS("CASE WHEN interval_seconds IS NULL THEN 0"
+            + " ELSE COALESCE(keyboard_presses, 0) + COALESCE(mouse_clicks, 0) + COALESCE(mouse_moves, 0) END",
+            s -> s.getIntervalSeconds() == null ? 0
+                    : (s.getKeyboardPresses() != null ? s.getKeyboardPresses() : 0)
+                    + (s.getMouseClicks() != null ? s.getMouseClicks() : 0)
+                    + (s.getMouseMoves() != null ? s.getMouseMoves() : 0)),
+    /**
+     * Normalised application of the active window as an integer id, resolved with
+     * {@link StatsBatch#applicationName(int)}. Read from the window title id; the
+     * producer maps titles to applications.
+     */
+    APPLICATION("window_title_id");
+
+    private final String sql;
+    private final ToLongFunction<SystemStats> extractor;
+
+    StatsColumn(String sql, ToLongFunction<SystemStats> extractor) {
+        this.sql = sql;
+        this.extractor = extractor;
+    }
+
+    StatsColumn(String sql) {
+        this(sql, null);
+    }
+
+    public String getSql() { return sql; }
+
+    // Columns without an extractor cannot be read off a single SystemStats; StatsBatch handles them.
+    long extract(SystemStats s) { return extractor.applyAsLong(s); }
+
+    public static long toEpochSeconds(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSeconds(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    public static long toHundredths(BigDecimal v) {
+        return v != null ? v.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : StatsBatch.NULL;
+    }
+
+    public static BigDecimal fromHundredths(long v) {
+        return v != StatsBatch.NULL ? BigDecimal.valueOf(v, 2) : null;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.repository.query;
+
+import com.example.model.QuantileSketch;
+import com.example.model.StatsRollup;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Folds time-ordered {@link StatsBatch}es into {@link StatsRollup} buckets of a
+ * fixed size (minute, hour or day) using primitive sums. Memory grows with the
+ * number of buckets, not samples. CPU and RAM values also go into a
+ * {@link QuantileSketch} per bucket for percentiles. Columns missing from the batches leave their
+ * rollup fields empty. Applications are counted by integer id and named only
+ * when the rollups are built.
+ * <p>
+ * The gap between two samples counts towards uptime when both are on the same
+ * day and at most {@link #MAX_GAP_SECONDS} apart, as in {@code ReportCalculator.dailyUptime}.
+ */
+public final class StatsRollupAccumulator implements Consumer<StatsBatch> {
+
+    public static final long MAX_GAP_SECONDS = 300;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final long bucketSeconds;
+    private final Integer userId;
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<>();
+
+    private long previous;
+    private IntFunction<String> applicationNames;
+
+    public StatsRollupAccumulator(TemporalUnit unit, Integer userId) {
+        this(unit, userId, null);
+    }
+
+    /** {@code previous} is the time of the sample just before the first one accumulated, if any. */
+    public StatsRollupAccumulator(TemporalUnit unit, Integer userId, LocalDateTime previous) {
+        this.bucketSeconds = unit.getDuration().getSeconds();
+        if (bucketSeconds <= 0 || SECONDS_PER_DAY % bucketSeconds != 0) {
+            throw new IllegalArgumentException("Unsupported bucket size: " + unit);
+        }
+
+        this.userId = userId;
+        this.previous = previous != null ? StatsColumn.toEpochSeconds(previous) : StatsBatch.NULL;
+    }
+
+    @Override
+    public void accept(StatsBatch batch) {
+        long[] time = batch.longs(StatsColumn.RECORDED_AT);
+        long[] cpu = batch.contains(StatsColumn.CPU_LOAD) ? batch.longs(StatsColumn.CPU_LOAD) : null;
+        long[] ram = batch.contains(StatsColumn.RAM_USED_MB) ? batch.longs(StatsColumn.RAM_USED_MB) : null;
+        long[] input = batch.contains(StatsColumn.INPUT_EVENTS) ? batch.longs(StatsColumn.INPUT_EVENTS) : null;
+        long[] app = batch.contains(StatsColumn.APPLICATION) ? batch.longs(StatsColumn.APPLICATION) : null;
+        if (app != null) applicationNames = batch.getApplicationNames();
+
+        Bucket b = null;
+
+        for (int i = 0; i < batch.size(); i++) {
+            long t = time[i];
+            if (t == StatsBatch.NULL) continue;
+
+            long start = t - Math.floorMod(t, bucketSeconds);
+            if (b == null || b.start != start) {
+                b = buckets.computeIfAbsent(start, Bucket::new);
+            }
+
+            b.samples++;
+
+            if (cpu != null && cpu[i] != StatsBatch.NULL) {
+                b.cpuCount++;
+                b.cpuSum += cpu[i];
+                b.cpuMin = Math.min(b.cpuMin, cpu[i]);
+                b.cpuMax = Math.max(b.cpuMax, cpu[i]);
+                b.cpuSketch.add(cpu[i]);
+            }
+
+            if (ram != null && ram[i] != StatsBatch.NULL) {
+                b.ramCount++;
+                b.ramSum += ram[i];
+                b.ramMin = Math.min(b.ramMin, ram[i]);
+                b.ramMax = Math.max(b.ramMax, ram[i]);
+                b.ramSketch.add(ram[i]);
+            }
+
+            if (input != null) b.inputEvents += input[i];
+
+            if (previous != StatsBatch.NULL && Math.floorDiv(previous, SECONDS_PER_DAY) == Math.floorDiv(t, SECONDS_PER_DAY)) {
+                long diff = t - previous;
+                if (diff > 0 && diff <= MAX_GAP_SECONDS) {
+                    b.gapSeconds += diff;
+                    b.gapCount++;
+                }
+            }
+            previous = t;
+
+            if (app != null && app[i] != StatsBatch.NULL) {
+                b.countApplication((int) app[i], t);
+            }
+        }
+    }
+
+    public List<StatsRollup> result() {
+        List<StatsRollup> result = new ArrayList<>(buckets.size());
+
+        for (Bucket b : buckets.values()) {
+            StatsRollup r = new StatsRollup();
+            r.setUserId(userId);
+            r.setBucketStart(StatsColumn.fromEpochSeconds(b.start));
+            r.setSampleCount(b.samples);
+
+            r.setCpuCount(b.cpuCount);
+            r.setCpuSum(StatsColumn.fromHundredths(b.cpuSum));
+            if (b.cpuCount > 0) {
+                r.setCpuMin(StatsColumn.fromHundredths(b.cpuMin));
+                r.setCpuMax(StatsColumn.fromHundredths(b.cpuMax));
+                r.setCpuSketch(b.cpuSketch);
+            }
+
+            r.setRamCount(b.ramCount);
+            r.setRamSum(StatsColumn.fromHundredths(b.ramSum));
+            if (b.ramCount > 0) {
+                r.setRamMin(StatsColumn.fromHundredths(b.ramMin));
+                r.setRamMax(StatsColumn.fromHundredths(b.ramMax));
+                r.setRamSketch(b.ramSketch);
+            }
+
+            r.setInputEvents(b.inputEvents);
+            r.setGapSeconds(b.gapSeconds);
+            r.setGapCount(b.gapCount);
+
+            Map<String, Long> apps = new LinkedHashMap<>();
+            Map<String, LocalDateTime> firstSeen = new HashMap<>();
+            for (int i = 0; i < b.appSize; i++) {
+                String name = applicationNames != null ? applicationNames.apply(b.appIds[i]) : null;
+                if (name == null) continue;
+                apps.merge(name, b.appCounts[i], Long::sum);
+                firstSeen.putIfAbsent(name, StatsColumn.fromEpochSeconds(b.appFirstSeen[i]));
+            }
+            r.setAppCounts(apps);
+            r.setAppFirstSeen(firstSeen);
+
+            result.add(r);
+        }
+
+        return result;
+    }
+
+    private static final class Bucket {
+        final long start;
+        long samples;
+        long cpuCount, cpuSum, cpuMin = Long.MAX_VALUE, cpuMax = Long.MIN_VALUE;
+        long ramCount, ramSum, ramMin = Long.MAX_VALUE, ramMax = Long.MIN_VALUE;
+        final QuantileSketch cpuSketch = new QuantileSketch();
+        final QuantileSketch ramSketch = new QuantileSketch();
+        long inputEvents;
+        long gapSeconds, gapCount;
+
+        // Applications in order of first appearance; a bucket rarely sees more than a few dozen.
+        int[] appIds = new int[8];
+        long[] appCounts = new long[8];
+        long[] appFirstSeen = new long[8];
+        int appSize;
+        int lastApp = -1;
+
+        Bucket(long start) {
+            this.start = start;
+        }
+
+        void countApplication(int id, long time) {
+            if (lastApp >= 0 && appIds[lastApp] == id) {
+                appCounts[lastApp]++;
+                return;
+            }
+
+            for (int i = 0; i < appSize; i++) {
+                if (appIds[i] == id) {
+                    appCounts[i]++;
+                    lastApp = i;
+                    return;
+                }
+            }
+
+            if (appSize == appIds.length) {
+                appIds = Arrays.copyOf(appIds, appSize * 2);
+                appCounts = Arrays.copyOf(appCounts, appSize * 2);
+                appFirstSeen = Arrays.copyOf(appFirstSeen, appSize * 2);
+            }
+            appIds[appSize] = id;
+            appCounts[appSize] = 1;
+            appFirstSeen[appSize] = time;
+            lastApp = appSize++;
+        }
+    }
+}
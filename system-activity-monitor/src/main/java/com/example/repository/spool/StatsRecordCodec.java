@@ -0,0 +1,117 @@
+package com.example.repository.spool;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary form of one {@link SystemStats} row inside a spool segment.
+ * Decimals are stored as fixed-point longs with two fractional digits, the
+ * same scale the monitoring service rounds to; {@code null} uses a sentinel.
+ */
+final class StatsRecordCodec {
+
+    static final byte VERSION = 1;
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int MAX_WINDOW_BYTES = 1024;
+
+    private StatsRecordCodec() {}
+
+    static int maxSize() {
+        return 1 + 4 + 8 + 4 + 7 * 8 + 4 + 4 + 8 + 8 + 4 + 4 + MAX_WINDOW_BYTES;
+    }
+
+    static void encode(SystemStats s, ByteBuffer out) {
+        out.put(VERSION);
+        out.putInt(s.getUser().getId());
+
+        LocalDateTime at = s.getRecordedAt();
+        out.putLong(at.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(at.getNano());
+
+        putDecimal(out, s.getCpuLoad());
+        putDecimal(out, s.getRamUsedMb());
+        putDecimal(out, s.getRamTotalMb());
+        putDecimal(out, s.getDiskTotalGb());
+        putDecimal(out, s.getDiskFreeGb());
+        putDecimal(out, s.getDiskUsedGb());
+        putDecimal(out, s.getActivityRate());
+
+        out.putInt(s.getKeyboardPresses() != null ? s.getKeyboardPresses() : NULL_INT);
+        out.putInt(s.getMouseClicks() != null ? s.getMouseClicks() : NULL_INT);
+        out.putLong(s.getMouseMoves() != null ? s.getMouseMoves() : NULL_LONG);
+        out.putLong(s.getSystemUptimeSeconds() != null ? s.getSystemUptimeSeconds() : NULL_LONG);
+        out.putInt(s.getIntervalSeconds() != null ? s.getIntervalSeconds() : NULL_INT);
+
+        String window = s.getActiveWindow();
+        if (window == null) {
+            out.putInt(-1);
+        } else {
+            byte[] bytes = window.getBytes(StandardCharsets.UTF_8);
+            int len = Math.min(bytes.length, MAX_WINDOW_BYTES);
+            // Cut before a lead byte, never inside a multi-byte character.
+            while (len < bytes.length && len > 0 && (bytes[len] & 0xC0) == 0x80) len--;
+            out.putInt(len);
+            out.put(bytes, 0, len);
+        }
+    }
+
+    static SystemStats decode(ByteBuffer in) {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported spool record version " + version);
+        }
+
+        User user = new User();
+        user.setId(in.getInt());
+
+        SystemStats s = new SystemStats();
+        s.setUser(user);
+        s.setRecordedAt(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+
+        s.setCpuLoad(getDecimal(in));
+        s.setRamUsedMb(getDecimal(in));
+        s.setRamTotalMb(getDecimal(in));
+        s.setDiskTotalGb(getDecimal(in));
+        s.setDiskFreeGb(getDecimal(in));
+        s.setDiskUsedGb(getDecimal(in));
+        s.setActivityRate(getDecimal(in));
+
+        int keys = in.getInt();
+        s.setKeyboardPresses(keys == NULL_INT ? null : keys);
+        int clicks = in.getInt();
+        s.setMouseClicks(clicks == NULL_INT ? null : clicks);
+        long moves = in.getLong();
+        s.setMouseMoves(moves == NULL_LONG ? null : moves);
+        long uptime = in.getLong();
+        s.setSystemUptimeSeconds(uptime == NULL_LONG ? null : uptime);
+        int interval = in.getInt();
+        s.setIntervalSeconds(interval == NULL_INT ? null : interval);
+
+        int len = in.getInt();
+        if (len >= 0) {
+            byte[] bytes = new byte[len];
+            in.get(bytes);
+            s.setActiveWindow(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        return s;
+    }
+
+    private static void putDecimal(ByteBuffer out, BigDecimal v) {
+        out.putLong(v == null ? NULL_LONG : v.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue());
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer in) {
+        long v = in.getLong();
+        return v == NULL_LONG ? null : BigDecimal.valueOf(v, 2);
+    }
+}
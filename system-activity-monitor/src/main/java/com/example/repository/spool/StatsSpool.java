@@ -0,0 +1,259 @@
+package com.example.repository.spool;
+
+import com.example.model.SystemStats;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local log of stats rows that have not reached the database yet.
+ * <p>
+ * The log is a directory of fixed-size, memory-mapped segments named
+ * {@code stats-<seq>.seg}. Each record is {@code [length][crc32][payload]}; a zero
+ * length marks the end of written data. A new segment is started when the
+ * current one is full. Appends are forced to disk before returning.
+ * <p>
+ * The read side is a {@link Position} stored in the {@code checkpoint} file.
+ * {@link #read(int)} returns records after it and {@link #commit(Position)}
+ * moves it forward and deletes segments that were read completely.
+ * Torn or corrupted records at the tail are cut off when the spool is opened.
+ */
+public class StatsSpool implements AutoCloseable {
+
+    public record Position(long segment, int offset) {}
+
+    public record Batch(List<SystemStats> records, Position end) {
+        public boolean isEmpty() { return records.isEmpty(); }
+    }
+
+    private static final int MAGIC = 0x53545350; // "STSP"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final ByteBuffer scratch;
+    private final CRC32 crc = new CRC32();
+
+    private long writeSegment;
+    private MappedByteBuffer writeMap;
+
+    private Position readPosition;
+    private long readMapSegment = -1;
+    private MappedByteBuffer readMap;
+
+    public StatsSpool(Path dir, int segmentBytes) throws IOException {
+        if (segmentBytes < HEADER_BYTES + RECORD_HEADER_BYTES + StatsRecordCodec.maxSize()) {
+            throw new IllegalArgumentException("Segment size is too small: " + segmentBytes);
+        }
+
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.scratch = ByteBuffer.allocate(StatsRecordCodec.maxSize());
+
+        Files.createDirectories(dir);
+
+        List<Long> segments = listSegments();
+        writeSegment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        writeMap = openForWrite(writeSegment);
+        recoverTail();
+
+        readPosition = loadCheckpoint(segments.isEmpty() ? writeSegment : segments.get(0));
+    }
+
+    public synchronized void append(List<SystemStats> batch) throws IOException {
+        for (SystemStats s : batch) {
+            scratch.clear();
+            StatsRecordCodec.encode(s, scratch);
+            scratch.flip();
+
+            int length = scratch.remaining();
+            if (writeMap.remaining() < RECORD_HEADER_BYTES + length) {
+                rotate();
+            }
+
+            crc.reset();
+            crc.update(scratch.duplicate());
+
+            int start = writeMap.position();
+            writeMap.position(start + 4);
+            writeMap.putInt((int) crc.getValue());
+            writeMap.put(scratch);
+            // Length goes last so a torn write never looks like a complete record.
+            writeMap.putInt(start, length);
+        }
+
+        writeMap.force();
+    }
+
+    public synchronized Batch read(int maxRecords) throws IOException {
+        List<SystemStats> records = new ArrayList<>();
+        long segment = readPosition.segment();
+        int offset = readPosition.offset();
+
+        while (records.size() < maxRecords) {
+            MappedByteBuffer map = mapForRead(segment);
+
+            int length = offset + RECORD_HEADER_BYTES <= segmentBytes ? map.getInt(offset) : 0;
+            boolean valid = length > 0 && offset + RECORD_HEADER_BYTES + length <= segmentBytes
+                    && checksumMatches(map, offset, length);
+
+            if (!valid) {
+                if (segment >= writeSegment) break;
+
+                if (length != 0) {
+                    System.err.println("[StatsSpool] Corrupted record in segment " + segment
+                            + " at " + offset + ", skipping the rest of the segment.");
+                }
+                segment++;
+                offset = HEADER_BYTES;
+                continue;
+            }
+
+            ByteBuffer payload = map.duplicate();
+            payload.limit(offset + RECORD_HEADER_BYTES + length).position(offset + RECORD_HEADER_BYTES);
+            records.add(StatsRecordCodec.decode(payload));
+
+            offset += RECORD_HEADER_BYTES + length;
+        }
+
+        return new Batch(records, new Position(segment, offset));
+    }
+
+    public synchronized void commit(Position position) throws IOException {
+        readPosition = position;
+
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, position.segment() + " " + position.offset(), StandardCharsets.US_ASCII);
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (readMapSegment >= 0 && readMapSegment < position.segment()) {
+            readMap = null;
+            readMapSegment = -1;
+        }
+
+        for (long seq : listSegments()) {
+            if (seq >= position.segment()) break;
+            try {
+                Files.deleteIfExists(segmentPath(seq));
+            } catch (IOException e) {
+                // Still mapped on some platforms; retried on the next commit.
+            }
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return readPosition.segment() == writeSegment && readPosition.offset() == writeMap.position();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writeMap != null) writeMap.force();
+        writeMap = null;
+        readMap = null;
+    }
+
+    private void rotate() throws IOException {
+        writeMap.force();
+        writeSegment++;
+        writeMap = openForWrite(writeSegment);
+    }
+
+    private MappedByteBuffer openForWrite(long seq) throws IOException {
+        try (FileChannel ch = FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+
+            if (map.getInt(0) != MAGIC) {
+                map.putInt(0, MAGIC);
+                map.putInt(4, FORMAT);
+            } else if (map.getInt(4) != FORMAT) {
+                throw new IOException("Unsupported spool segment format in " + segmentPath(seq));
+            }
+
+            map.position(HEADER_BYTES);
+            return map;
+        }
+    }
+
+    private MappedByteBuffer mapForRead(long seq) throws IOException {
+        if (seq == writeSegment) return writeMap;
+        if (seq == readMapSegment) return readMap;
+
+        try (FileChannel ch = FileChannel.open(segmentPath(seq), StandardOpenOption.READ)) {
+            readMap = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), segmentBytes));
+            readMapSegment = seq;
+            return readMap;
+        }
+    }
+
+    // Finds the end of valid data in the last segment and zeroes whatever follows it.
+    private void recoverTail() {
+        int offset = HEADER_BYTES;
+
+        while (offset + RECORD_HEADER_BYTES <= segmentBytes) {
+            int length = writeMap.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_BYTES + length > segmentBytes
+                    || !checksumMatches(writeMap, offset, length)) {
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+
+        for (int i = offset; i < segmentBytes; i++) {
+            writeMap.put(i, (byte) 0);
+        }
+
+        writeMap.position(offset);
+    }
+
+    private boolean checksumMatches(ByteBuffer map, int offset, int length) {
+        ByteBuffer payload = map.duplicate();
+        payload.limit(offset + RECORD_HEADER_BYTES + length).position(offset + RECORD_HEADER_BYTES);
+
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue() == map.getInt(offset + 4);
+    }
+
+    private Position loadCheckpoint(long firstSegment) throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        if (Files.exists(file)) {
+            String[] parts = Files.readString(file, StandardCharsets.US_ASCII).trim().split(" ");
+            if (parts.length == 2) {
+                long seq = Long.parseLong(parts[0]);
+                int offset = Integer.parseInt(parts[1]);
+                if (seq >= firstSegment) return new Position(seq, offset);
+            }
+        }
+        return new Position(firstSegment, HEADER_BYTES);
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("stats-") && n.endsWith(".seg"))
+                    .map(n -> Long.parseLong(n.substring(6, n.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(String.format("stats-%016d.seg", seq));
+    }
+}
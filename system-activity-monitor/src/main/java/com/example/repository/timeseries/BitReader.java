@@ -0,0 +1,63 @@
+package com.example.repository.timeseries;
+
+import java.nio.ByteBuffer;
+
+/** MSB-first bit reader over a (usually memory-mapped) buffer slice, refilled eight bytes at a time. */
+final class BitReader {
+
+    private final ByteBuffer buf;
+    private final int limit;
+    private int bytePos;
+    private long cache;
+    private int cached;
+
+    BitReader(ByteBuffer buf) {
+        this.buf = buf;
+        this.limit = buf.limit();
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    long readBits(int n) {
+        if (n <= cached) {
+            cached -= n;
+            return (cache >>> cached) & mask(n);
+        }
+
+        int need = n - cached;
+        long high = cache & mask(cached);
+        refill();
+
+        if (cached < need) {
+            // Past the end of the data: the missing low bits read as zero.
+            cache <<= need - cached;
+            cached = need;
+        }
+
+        cached -= need;
+        long low = (cache >>> cached) & mask(need);
+        return need == 64 ? low : (high << need) | low;
+    }
+
+    private void refill() {
+        if (bytePos + 8 <= limit) {
+            cache = buf.getLong(bytePos);
+            bytePos += 8;
+            cached = 64;
+            return;
+        }
+
+        cache = 0;
+        cached = 0;
+        while (bytePos < limit) {
+            cache = (cache << 8) | (buf.get(bytePos++) & 0xff);
+            cached += 8;
+        }
+    }
+
+    private static long mask(int n) {
+        return n == 64 ? -1L : (1L << n) - 1;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.repository.timeseries;
+
+import java.util.Arrays;
+
+/** Growable MSB-first bit stream. */
+final class BitWriter {
+
+    private byte[] buf = new byte[256];
+    private long bitPos;
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /** Writes the low {@code n} bits of {@code value}, most significant first. */
+    void writeBits(long value, int n) {
+        while (n > 0) {
+            int byteIdx = (int) (bitPos >>> 3);
+            if (byteIdx >= buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+
+            int avail = 8 - (int) (bitPos & 7);
+            int take = Math.min(avail, n);
+            int bits = (int) ((value >>> (n - take)) & ((1 << take) - 1));
+
+            buf[byteIdx] |= (byte) (bits << (avail - take));
+            n -= take;
+            bitPos += take;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, (int) ((bitPos + 7) >>> 3));
+    }
+}
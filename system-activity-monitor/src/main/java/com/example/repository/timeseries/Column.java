@@ -0,0 +1,117 @@
+package com.example.repository.timeseries;
+
+import com.example.model.SystemStats;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The columns of a stats partition, each stored in its own {@code <name>.col} file.
+ * Missing values are {@link #NULL_LONG} or {@code NaN}.
+ */
+enum Column {
+
+    RECORDED_AT("recorded_at", Type.TIMESTAMP),
+    ID("id", Type.LONG),
+    CPU_LOAD("cpu_load", Type.DOUBLE),
+    RAM_USED_MB("ram_used_mb", Type.DOUBLE),
+    RAM_TOTAL_MB("ram_total_mb", Type.DOUBLE),
+    DISK_TOTAL_GB("disk_total_gb", Type.DOUBLE),
+    DISK_FREE_GB("disk_free_gb", Type.DOUBLE),
+    DISK_USED_GB("disk_used_gb", Type.DOUBLE),
+    ACTIVITY_RATE("activity_rate", Type.DOUBLE),
+    KEYBOARD_PRESSES("keyboard_presses", Type.LONG),
+    MOUSE_CLICKS("mouse_clicks", Type.LONG),
+    MOUSE_MOVES("mouse_moves", Type.LONG),
+    SYSTEM_UPTIME_SECONDS("system_uptime_seconds", Type.LONG),
+    INTERVAL_SECONDS("interval_seconds", Type.LONG),
+    ACTIVE_WINDOW("active_window", Type.STRING);
+
+    enum Type { TIMESTAMP, LONG, DOUBLE, STRING }
+
+    static final long NULL_LONG = Long.MIN_VALUE;
+
+    final String fileName;
+    final Type type;
+
+    Column(String name, Type type) {
+        this.fileName = name + ".col";
+        this.type = type;
+    }
+
+    long longOf(SystemStats s) {
+        return switch (this) {
+            case RECORDED_AT -> toEpochMillis(s.getRecordedAt());
+            case ID -> s.getId() != null ? s.getId() : NULL_LONG;
+            case KEYBOARD_PRESSES -> s.getKeyboardPresses() != null ? s.getKeyboardPresses() : NULL_LONG;
+            case MOUSE_CLICKS -> s.getMouseClicks() != null ? s.getMouseClicks() : NULL_LONG;
+            case MOUSE_MOVES -> s.getMouseMoves() != null ? s.getMouseMoves() : NULL_LONG;
+            case SYSTEM_UPTIME_SECONDS -> s.getSystemUptimeSeconds() != null ? s.getSystemUptimeSeconds() : NULL_LONG;
+            case INTERVAL_SECONDS -> s.getIntervalSeconds() != null ? s.getIntervalSeconds() : NULL_LONG;
+            default -> throw new IllegalStateException(name() + " is not a long column");
+        };
+    }
+
+    double doubleOf(SystemStats s) {
+        BigDecimal v = switch (this) {
+            case CPU_LOAD -> s.getCpuLoad();
+            case RAM_USED_MB -> s.getRamUsedMb();
+            case RAM_TOTAL_MB -> s.getRamTotalMb();
+            case DISK_TOTAL_GB -> s.getDiskTotalGb();
+            case DISK_FREE_GB -> s.getDiskFreeGb();
+            case DISK_USED_GB -> s.getDiskUsedGb();
+            case ACTIVITY_RATE -> s.getActivityRate();
+            default -> throw new IllegalStateException(name() + " is not a double column");
+        };
+        return v != null ? v.doubleValue() : Double.NaN;
+    }
+
+    String stringOf(SystemStats s) {
+        if (this != ACTIVE_WINDOW) throw new IllegalStateException(name() + " is not a string column");
+        return s.getActiveWindow();
+    }
+
+    void setLong(SystemStats s, long v) {
+        boolean isNull = v == NULL_LONG;
+        switch (this) {
+            case RECORDED_AT -> s.setRecordedAt(fromEpochMillis(v));
+            case ID -> s.setId(isNull ? null : (int) v);
+            case KEYBOARD_PRESSES -> s.setKeyboardPresses(isNull ? null : (int) v);
+            case MOUSE_CLICKS -> s.setMouseClicks(isNull ? null : (int) v);
+            case MOUSE_MOVES -> s.setMouseMoves(isNull ? null : v);
+            case SYSTEM_UPTIME_SECONDS -> s.setSystemUptimeSeconds(isNull ? null : v);
+            case INTERVAL_SECONDS -> s.setIntervalSeconds(isNull ? null : (int) v);
+            default -> throw new IllegalStateException(name() + " is not a long column");
+        }
+    }
+
+    // Values were rounded to two decimals before they were stored, so rounding back is exact.
+    void setDouble(SystemStats s, double v) {
+        BigDecimal d = Double.isNaN(v) ? null : BigDecimal.valueOf(Math.round(v * 100), 2);
+        switch (this) {
+            case CPU_LOAD -> s.setCpuLoad(d);
+            case RAM_USED_MB -> s.setRamUsedMb(d);
+            case RAM_TOTAL_MB -> s.setRamTotalMb(d);
+            case DISK_TOTAL_GB -> s.setDiskTotalGb(d);
+            case DISK_FREE_GB -> s.setDiskFreeGb(d);
+            case DISK_USED_GB -> s.setDiskUsedGb(d);
+            case ACTIVITY_RATE -> s.setActivityRate(d);
+            default -> throw new IllegalStateException(name() + " is not a double column");
+        }
+    }
+
+    void setString(SystemStats s, String v) {
+        if (this != ACTIVE_WINDOW) throw new IllegalStateException(name() + " is not a string column");
+        s.setActiveWindow(v);
+    }
+
+    static long toEpochMillis(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1000 + t.getNano() / 1_000_000;
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
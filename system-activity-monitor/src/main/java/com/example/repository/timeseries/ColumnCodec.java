@@ -0,0 +1,242 @@
+package com.example.repository.timeseries;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Block encodings for the time-series columns.
+ * <ul>
+ *   <li>timestamps: delta-of-delta with variable-width buckets, as in Facebook's Gorilla;</li>
+ *   <li>doubles: XOR with the previous value, storing only the meaningful bits;</li>
+ *   <li>longs: zig-zag delta with a 6-bit length prefix;</li>
+ *   <li>strings: per-block dictionary plus fixed-width indexes.</li>
+ * </ul>
+ * Decoders take the number of rows to decode, so a scan can stop early inside a block.
+ */
+final class ColumnCodec {
+
+    private static final int MAX_STRING_BYTES = 0xffff;
+
+    private ColumnCodec() {}
+
+    // ---- timestamps ----
+
+    static byte[] encodeTimestamps(long[] ts, int count) {
+        BitWriter w = new BitWriter();
+        if (count == 0) return w.toByteArray();
+
+        w.writeBits(ts[0], 64);
+        long prev = ts[0], prevDelta = 0;
+
+        for (int i = 1; i < count; i++) {
+            long delta = ts[i] - prev;
+            long dod = delta - prevDelta;
+
+            if (dod == 0) {
+                w.writeBit(false);
+            } else if (dod >= -64 && dod <= 63) {
+                w.writeBits(0b10, 2);
+                w.writeBits(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                w.writeBits(0b110, 3);
+                w.writeBits(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                w.writeBits(0b1110, 4);
+                w.writeBits(dod, 12);
+            } else {
+                w.writeBits(0b1111, 4);
+                w.writeBits(dod, 64);
+            }
+
+            prevDelta = delta;
+            prev = ts[i];
+        }
+        return w.toByteArray();
+    }
+
+    static long[] decodeTimestamps(BitReader r, int count) {
+        long[] out = new long[count];
+        if (count == 0) return out;
+
+        out[0] = r.readBits(64);
+        long prev = out[0], prevDelta = 0;
+
+        for (int i = 1; i < count; i++) {
+            long dod;
+            if (!r.readBit()) dod = 0;
+            else if (!r.readBit()) dod = signExtend(r.readBits(7), 7);
+            else if (!r.readBit()) dod = signExtend(r.readBits(9), 9);
+            else if (!r.readBit()) dod = signExtend(r.readBits(12), 12);
+            else dod = r.readBits(64);
+
+            prevDelta += dod;
+            prev += prevDelta;
+            out[i] = prev;
+        }
+        return out;
+    }
+
+    // ---- doubles ----
+
+    static byte[] encodeDoubles(double[] values, int count) {
+        BitWriter w = new BitWriter();
+        if (count == 0) return w.toByteArray();
+
+        long prev = Double.doubleToRawLongBits(values[0]);
+        w.writeBits(prev, 64);
+        int prevLead = -1, prevTrail = 0;
+
+        for (int i = 1; i < count; i++) {
+            long cur = Double.doubleToRawLongBits(values[i]);
+            long xor = cur ^ prev;
+
+            if (xor == 0) {
+                w.writeBit(false);
+            } else {
+                w.writeBit(true);
+                int lead = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                int trail = Long.numberOfTrailingZeros(xor);
+
+                if (prevLead >= 0 && lead >= prevLead && trail >= prevTrail) {
+                    w.writeBit(false);
+                    w.writeBits(xor >>> prevTrail, 64 - prevLead - prevTrail);
+                } else {
+                    int significant = 64 - lead - trail;
+                    w.writeBit(true);
+                    w.writeBits(lead, 5);
+                    w.writeBits(significant == 64 ? 0 : significant, 6);
+                    w.writeBits(xor >>> trail, significant);
+                    prevLead = lead;
+                    prevTrail = trail;
+                }
+            }
+            prev = cur;
+        }
+        return w.toByteArray();
+    }
+
+    static double[] decodeDoubles(BitReader r, int count) {
+        double[] out = new double[count];
+        if (count == 0) return out;
+
+        long prev = r.readBits(64);
+        out[0] = Double.longBitsToDouble(prev);
+        int lead = 0, trail = 0;
+
+        for (int i = 1; i < count; i++) {
+            if (r.readBit()) {
+                if (r.readBit()) {
+                    lead = (int) r.readBits(5);
+                    int significant = (int) r.readBits(6);
+                    if (significant == 0) significant = 64;
+                    trail = 64 - lead - significant;
+                }
+                long xor = r.readBits(64 - lead - trail) << trail;
+                prev ^= xor;
+            }
+            out[i] = Double.longBitsToDouble(prev);
+        }
+        return out;
+    }
+
+    // ---- longs ----
+
+    static byte[] encodeLongs(long[] values, int count) {
+        BitWriter w = new BitWriter();
+        long prev = 0;
+
+        for (int i = 0; i < count; i++) {
+            long delta = values[i] - prev;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+
+            if (zigzag == 0) {
+                w.writeBit(false);
+            } else {
+                int bits = 64 - Long.numberOfLeadingZeros(zigzag);
+                w.writeBit(true);
+                w.writeBits(bits - 1, 6);
+                w.writeBits(zigzag, bits);
+            }
+            prev = values[i];
+        }
+        return w.toByteArray();
+    }
+
+    static long[] decodeLongs(BitReader r, int count) {
+        long[] out = new long[count];
+        long prev = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (r.readBit()) {
+                int bits = (int) r.readBits(6) + 1;
+                long zigzag = r.readBits(bits);
+                prev += (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+            out[i] = prev;
+        }
+        return out;
+    }
+
+    // ---- strings ----
+
+    static byte[] encodeStrings(String[] values, int count) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] idx = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            String v = values[i];
+            if (v == null) continue;
+
+            Integer id = ids.get(v);
+            if (id == null) {
+                dictionary.add(v);
+                id = dictionary.size();
+                ids.put(v, id);
+            }
+            idx[i] = id;
+        }
+
+        BitWriter w = new BitWriter();
+        w.writeBits(dictionary.size(), 32);
+        for (String s : dictionary) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            int len = Math.min(bytes.length, MAX_STRING_BYTES);
+            w.writeBits(len, 16);
+            for (int i = 0; i < len; i++) w.writeBits(bytes[i], 8);
+        }
+
+        int width = indexWidth(dictionary.size());
+        for (int i = 0; i < count; i++) w.writeBits(idx[i], width);
+
+        return w.toByteArray();
+    }
+
+    static String[] decodeStrings(BitReader r, int count) {
+        int size = (int) r.readBits(32);
+        String[] dictionary = new String[size + 1];
+
+        for (int d = 1; d <= size; d++) {
+            byte[] bytes = new byte[(int) r.readBits(16)];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) r.readBits(8);
+            dictionary[d] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int width = indexWidth(size);
+        String[] out = new String[count];
+        for (int i = 0; i < count; i++) out[i] = dictionary[(int) r.readBits(width)];
+        return out;
+    }
+
+    // Index 0 is null, so a dictionary of n strings needs room for n + 1 values.
+    private static int indexWidth(int dictionarySize) {
+        return 32 - Integer.numberOfLeadingZeros(dictionarySize);
+    }
+
+    private static long signExtend(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
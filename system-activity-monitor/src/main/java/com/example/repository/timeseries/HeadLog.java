@@ -0,0 +1,91 @@
+package com.example.repository.timeseries;
+
+import com.example.model.SystemStats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Durable log of the rows in a partition's unsealed head block.
+ * Records are {@code [length][crc32][row]}; the log is truncated when the head is sealed.
+ */
+final class HeadLog implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final CRC32 crc = new CRC32();
+
+    HeadLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /** Reads back every intact record and cuts off a torn tail. */
+    List<SystemStats> recover(int userId) throws IOException {
+        List<SystemStats> rows = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(8);
+        long pos = 0, size = channel.size();
+
+        while (pos + 8 <= size) {
+            header.clear();
+            channel.read(header, pos);
+            int length = header.getInt(0);
+            int checksum = header.getInt(4);
+            if (length <= 0 || pos + 8 + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, pos + 8);
+            crc.reset();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) break;
+
+            rows.add(RowCodec.read(new DataInputStream(new ByteArrayInputStream(payload.array())), userId));
+            pos += 8 + length;
+        }
+
+        channel.truncate(pos);
+        channel.position(pos);
+        return rows;
+    }
+
+    void append(List<SystemStats> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        for (SystemStats s : rows) {
+            ByteArrayOutputStream row = new ByteArrayOutputStream(128);
+            RowCodec.write(new DataOutputStream(row), s);
+            byte[] payload = row.toByteArray();
+
+            crc.reset();
+            crc.update(payload);
+            out.writeInt(payload.length);
+            out.writeInt((int) crc.getValue());
+            out.write(payload);
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+        while (buf.hasRemaining()) channel.write(buf);
+        channel.force(false);
+    }
+
+    void clear() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
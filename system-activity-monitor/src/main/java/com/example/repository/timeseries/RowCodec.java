@@ -0,0 +1,47 @@
+package com.example.repository.timeseries;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/** Uncompressed row layout used by {@link HeadLog}: every {@link Column} in declaration order. */
+final class RowCodec {
+
+    private static final int MAX_STRING_CHARS = 1024;
+
+    private RowCodec() {}
+
+    static void write(DataOutput out, SystemStats s) throws IOException {
+        for (Column c : Column.values()) {
+            switch (c.type) {
+                case TIMESTAMP, LONG -> out.writeLong(c.longOf(s));
+                case DOUBLE -> out.writeDouble(c.doubleOf(s));
+                case STRING -> {
+                    String v = c.stringOf(s);
+                    out.writeBoolean(v != null);
+                    if (v != null) out.writeUTF(v.length() > MAX_STRING_CHARS ? v.substring(0, MAX_STRING_CHARS) : v);
+                }
+            }
+        }
+    }
+
+    static SystemStats read(DataInput in, int userId) throws IOException {
+        User user = new User();
+        user.setId(userId);
+
+        SystemStats s = new SystemStats();
+        s.setUser(user);
+
+        for (Column c : Column.values()) {
+            switch (c.type) {
+                case TIMESTAMP, LONG -> c.setLong(s, in.readLong());
+                case DOUBLE -> c.setDouble(s, in.readDouble());
+                case STRING -> c.setString(s, in.readBoolean() ? in.readUTF() : null);
+            }
+        }
+        return s;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.repository.timeseries;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * All stats of one user: sealed blocks in per-column files plus an unsealed head.
+ * <p>
+ * New rows go to the head (kept in memory and in {@link HeadLog}). When the head
+ * reaches {@code blockRows} rows it is sorted by time, every column is encoded
+ * and appended to its file, and an entry with the block's min/max time and
+ * column offsets is appended to {@code index.idx}. Range queries use the index to
+ * skip blocks, decode the timestamp column, and then decode the other columns
+ * only up to the last matching row. Column files are read through memory maps.
+ */
+final class SeriesPartition implements AutoCloseable {
+
+    private static final Column[] COLUMNS = Column.values();
+    private static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 4 + COLUMNS.length * (8 + 4);
+
+    private static final class Block {
+        long minTime;
+        long maxTime;
+        long maxId;
+        int rows;
+        final long[] offsets = new long[COLUMNS.length];
+        final int[] lengths = new int[COLUMNS.length];
+    }
+
+    private final int userId;
+    private final int blockRows;
+    private final FileChannel[] columnFiles = new FileChannel[COLUMNS.length];
+    private final MappedByteBuffer[] columnMaps = new MappedByteBuffer[COLUMNS.length];
+    private final FileChannel indexFile;
+    private final HeadLog headLog;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final List<SystemStats> head = new ArrayList<>();
+    private long maxSealedTime = Long.MIN_VALUE;
+    private long maxId = 0;
+
+    SeriesPartition(Path dir, int userId, int blockRows) throws IOException {
+        this.userId = userId;
+        this.blockRows = blockRows;
+
+        Files.createDirectories(dir);
+
+        for (Column c : COLUMNS) {
+            columnFiles[c.ordinal()] = FileChannel.open(dir.resolve(c.fileName),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        indexFile = FileChannel.open(dir.resolve("index.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+
+        headLog = new HeadLog(dir.resolve("head.log"));
+        for (SystemStats s : headLog.recover(userId)) {
+            // Left over when the process stopped between writing a block and clearing the log.
+            long t = Column.toEpochMillis(s.getRecordedAt());
+            if (t <= maxSealedTime && containsSealed(t)) continue;
+
+            head.add(s);
+            if (s.getId() != null) maxId = Math.max(maxId, s.getId());
+        }
+        head.sort(Comparator.comparing(SystemStats::getRecordedAt));
+    }
+
+    long getMaxId() {
+        return maxId;
+    }
+
+    /** Adds rows that are not stored yet (same user and timestamp); returns how many were added. */
+    synchronized int append(List<SystemStats> rows) throws IOException {
+        List<SystemStats> fresh = new ArrayList<>(rows.size());
+
+        for (SystemStats s : rows) {
+            long t = Column.toEpochMillis(s.getRecordedAt());
+            if (containsInHead(t) || (t <= maxSealedTime && containsSealed(t))) continue;
+
+            fresh.add(s);
+            insertIntoHead(s, t);
+            maxId = Math.max(maxId, s.getId());
+        }
+
+        if (fresh.isEmpty()) return 0;
+
+        headLog.append(fresh);
+        if (head.size() >= blockRows) seal();
+        return fresh.size();
+    }
+
+    synchronized List<SystemStats> query(long from, long to, Set<Integer> deleted) throws IOException {
+        List<SystemStats> result = new ArrayList<>();
+        boolean ordered = true;
+        long last = Long.MIN_VALUE;
+
+        for (Block b : blocks) {
+            if (b.maxTime < from || b.minTime > to) continue;
+
+            if (b.minTime < last) ordered = false;
+            readBlock(b, from, to, deleted, result);
+            last = b.maxTime;
+        }
+
+        for (SystemStats s : head) {
+            long t = Column.toEpochMillis(s.getRecordedAt());
+            if (t < from || t > to || deleted.contains(s.getId())) continue;
+
+            if (t < last) ordered = false;
+            result.add(copy(s));
+        }
+
+        if (!ordered) result.sort(Comparator.comparing(SystemStats::getRecordedAt));
+        return result;
+    }
+
+    synchronized void seal() throws IOException {
+        if (head.isEmpty()) return;
+
+        int n = head.size();
+        Block b = new Block();
+        b.rows = n;
+        b.minTime = Column.toEpochMillis(head.get(0).getRecordedAt());
+        b.maxTime = Column.toEpochMillis(head.get(n - 1).getRecordedAt());
+
+        for (Column c : COLUMNS) {
+            byte[] data = encode(c, head);
+            FileChannel ch = columnFiles[c.ordinal()];
+
+            b.offsets[c.ordinal()] = ch.size();
+            b.lengths[c.ordinal()] = data.length;
+
+            ByteBuffer buf = ByteBuffer.wrap(data);
+            long pos = ch.size();
+            while (buf.hasRemaining()) pos += ch.write(buf, pos);
+        }
+        for (SystemStats s : head) b.maxId = Math.max(b.maxId, s.getId());
+
+        for (FileChannel ch : columnFiles) ch.force(false);
+
+        // The index entry is written only after the column data is on disk.
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+        entry.putLong(b.minTime).putLong(b.maxTime).putLong(b.maxId).putInt(b.rows);
+        for (int i = 0; i < COLUMNS.length; i++) entry.putLong(b.offsets[i]).putInt(b.lengths[i]);
+        entry.flip();
+
+        long pos = (long) blocks.size() * INDEX_ENTRY_BYTES;
+        while (entry.hasRemaining()) pos += indexFile.write(entry, pos);
+        indexFile.force(false);
+
+        blocks.add(b);
+        maxSealedTime = Math.max(maxSealedTime, b.maxTime);
+
+        head.clear();
+        headLog.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        headLog.close();
+        indexFile.close();
+        for (FileChannel ch : columnFiles) ch.close();
+    }
+
+    private void loadIndex() throws IOException {
+        long entries = indexFile.size() / INDEX_ENTRY_BYTES;
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+
+        for (long i = 0; i < entries; i++) {
+            entry.clear();
+            indexFile.read(entry, i * INDEX_ENTRY_BYTES);
+            entry.flip();
+
+            Block b = new Block();
+            b.minTime = entry.getLong();
+            b.maxTime = entry.getLong();
+            b.maxId = entry.getLong();
+            b.rows = entry.getInt();
+            for (int c = 0; c < COLUMNS.length; c++) {
+                b.offsets[c] = entry.getLong();
+                b.lengths[c] = entry.getInt();
+            }
+
+            // A block whose column data did not fully reach disk is dropped with everything after it.
+            if (!columnDataPresent(b)) {
+                indexFile.truncate(i * INDEX_ENTRY_BYTES);
+                break;
+            }
+
+            blocks.add(b);
+            maxSealedTime = Math.max(maxSealedTime, b.maxTime);
+            maxId = Math.max(maxId, b.maxId);
+        }
+    }
+
+    private boolean columnDataPresent(Block b) throws IOException {
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (b.offsets[c] + b.lengths[c] > columnFiles[c].size()) return false;
+        }
+        return true;
+    }
+
+    private void readBlock(Block b, long from, long to, Set<Integer> deleted, List<SystemStats> out) throws IOException {
+        long[] times = ColumnCodec.decodeTimestamps(reader(Column.RECORDED_AT, b), b.rows);
+
+        int lo = lowerBound(times, from);
+        int hi = to == Long.MAX_VALUE ? times.length : lowerBound(times, to + 1);
+        if (lo >= hi) return;
+
+        SystemStats[] rows = new SystemStats[hi - lo];
+        User user = new User();
+        user.setId(userId);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new SystemStats();
+            rows[i].setUser(user);
+            Column.RECORDED_AT.setLong(rows[i], times[lo + i]);
+        }
+
+        for (Column c : COLUMNS) {
+            if (c == Column.RECORDED_AT) continue;
+
+            BitReader r = reader(c, b);
+            switch (c.type) {
+                case LONG -> {
+                    long[] v = ColumnCodec.decodeLongs(r, hi);
+                    for (int i = lo; i < hi; i++) c.setLong(rows[i - lo], v[i]);
+                }
+                case DOUBLE -> {
+                    double[] v = ColumnCodec.decodeDoubles(r, hi);
+                    for (int i = lo; i < hi; i++) c.setDouble(rows[i - lo], v[i]);
+                }
+                case STRING -> {
+                    String[] v = ColumnCodec.decodeStrings(r, hi);
+                    for (int i = lo; i < hi; i++) c.setString(rows[i - lo], v[i]);
+                }
+                default -> { }
+            }
+        }
+
+        for (SystemStats s : rows) {
+            if (!deleted.contains(s.getId())) out.add(s);
+        }
+    }
+
+    private BitReader reader(Column c, Block b) throws IOException {
+        int i = c.ordinal();
+        long end = b.offsets[i] + b.lengths[i];
+
+        if (columnMaps[i] == null || columnMaps[i].capacity() < end) {
+            columnMaps[i] = columnFiles[i].map(FileChannel.MapMode.READ_ONLY, 0, columnFiles[i].size());
+        }
+        return new BitReader(columnMaps[i].slice((int) b.offsets[i], b.lengths[i]));
+    }
+
+    private static byte[] encode(Column c, List<SystemStats> rows) {
+        int n = rows.size();
+
+        switch (c.type) {
+            case TIMESTAMP -> {
+                long[] v = new long[n];
+                for (int i = 0; i < n; i++) v[i] = c.longOf(rows.get(i));
+                return ColumnCodec.encodeTimestamps(v, n);
+            }
+            case LONG -> {
+                long[] v = new long[n];
+                for (int i = 0; i < n; i++) v[i] = c.longOf(rows.get(i));
+                return ColumnCodec.encodeLongs(v, n);
+            }
+            case DOUBLE -> {
+                double[] v = new double[n];
+                for (int i = 0; i < n; i++) v[i] = c.doubleOf(rows.get(i));
+                return ColumnCodec.encodeDoubles(v, n);
+            }
+            default -> {
+                String[] v = new String[n];
+                for (int i = 0; i < n; i++) v[i] = c.stringOf(rows.get(i));
+                return ColumnCodec.encodeStrings(v, n);
+            }
+        }
+    }
+
+    private void insertIntoHead(SystemStats s, long t) {
+        int i = head.size();
+        while (i > 0 && Column.toEpochMillis(head.get(i - 1).getRecordedAt()) > t) i--;
+        head.add(i, s);
+    }
+
+    private boolean containsInHead(long t) {
+        for (int i = head.size() - 1; i >= 0; i--) {
+            long ht = Column.toEpochMillis(head.get(i).getRecordedAt());
+            if (ht == t) return true;
+            if (ht < t) return false;
+        }
+        return false;
+    }
+
+    private boolean containsSealed(long t) throws IOException {
+        for (Block b : blocks) {
+            if (t < b.minTime || t > b.maxTime) continue;
+
+            long[] times = ColumnCodec.decodeTimestamps(reader(Column.RECORDED_AT, b), b.rows);
+            int i = lowerBound(times, t);
+            if (i < times.length && times[i] == t) return true;
+        }
+        return false;
+    }
+
+    private static int lowerBound(long[] a, long key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static SystemStats copy(SystemStats s) {
+        SystemStats c = new SystemStats();
+        c.setId(s.getId());
+        c.setUser(s.getUser());
+        c.setCpuLoad(s.getCpuLoad());
+        c.setRamUsedMb(s.getRamUsedMb());
+        c.setRamTotalMb(s.getRamTotalMb());
+        c.setDiskTotalGb(s.getDiskTotalGb());
+        c.setDiskFreeGb(s.getDiskFreeGb());
+        c.setDiskUsedGb(s.getDiskUsedGb());
+        c.setActivityRate(s.getActivityRate());
+        c.setActiveWindow(s.getActiveWindow());
+        c.setKeyboardPresses(s.getKeyboardPresses());
+        c.setMouseClicks(s.getMouseClicks());
+        c.setMouseMoves(s.getMouseMoves());
+        c.setSystemUptimeSeconds(s.getSystemUptimeSeconds());
+        c.setIntervalSeconds(s.getIntervalSeconds());
+        c.setRecordedAt(s.getRecordedAt());
+        return c;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.repository.timeseries;
+
+import com.example.model.SystemStats;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Embedded, file-backed store for {@link SystemStats}.
+ * <p>
+ * Each user gets a {@link SeriesPartition} under {@code user-<id>/}. Row ids come
+ * from one counter shared by all partitions, restored from the partitions on open.
+ * Deleted ids are kept in {@code deleted.ids} and filtered out of query results.
+ * <p>
+ * Retention rewrites a partition without its expired rows into {@code user-<id>.tmp/}
+ * and swaps it in once a {@code complete} marker is written; a swap cut short is
+ * finished, or an unfinished rewrite discarded, the next time the store opens.
+ */
+public class TimeSeriesStore implements AutoCloseable {
+
+    public static final int DEFAULT_BLOCK_ROWS = 4096;
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String COMPLETE_MARKER = "complete";
+
+    private final Path root;
+    private final int blockRows;
+    private final Map<Integer, SeriesPartition> partitions = new ConcurrentHashMap<>();
+    private final Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+    private final FileChannel deletedFile;
+    private final AtomicLong nextId;
+    // Appends and queries share the lock; rewriting or removing a partition takes it alone.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public TimeSeriesStore(Path root) throws IOException {
+        this(root, DEFAULT_BLOCK_ROWS);
+    }
+
+    public TimeSeriesStore(Path root, int blockRows) throws IOException {
+        this.root = root;
+        this.blockRows = blockRows;
+
+        Files.createDirectories(root);
+
+        finishRewrites();
+
+        long maxId = 0;
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                String name = dir.getFileName().toString();
+                if (!name.startsWith("user-") || name.endsWith(TMP_SUFFIX)) continue;
+
+                int userId = Integer.parseInt(name.substring(5));
+                SeriesPartition p = new SeriesPartition(dir, userId, blockRows);
+                partitions.put(userId, p);
+                maxId = Math.max(maxId, p.getMaxId());
+            }
+        }
+        Path deletedPath = root.resolve("deleted.ids");
+        if (Files.exists(deletedPath)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(deletedPath))) {
+                long count = Files.size(deletedPath) / 4;
+                for (long i = 0; i < count; i++) deleted.add(in.readInt());
+            }
+        }
+        // Ids of deleted rows are never handed out again, even once their rows are purged.
+        for (int id : deleted) maxId = Math.max(maxId, id);
+        deletedFile = FileChannel.open(deletedPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        nextId = new AtomicLong(maxId + 1);
+    }
+
+    /** Stores the rows, skipping any whose user already has a row at the same timestamp. */
+    public void append(List<SystemStats> rows) throws IOException {
+        Map<Integer, List<SystemStats>> byUser = new HashMap<>();
+
+        for (SystemStats s : rows) {
+            if (s.getUser() == null || s.getUser().getId() == null) {
+                throw new IllegalArgumentException("SystemStats без user.id");
+            }
+            if (s.getRecordedAt() == null) s.setRecordedAt(LocalDateTime.now());
+            if (s.getId() == null) s.setId((int) nextId.getAndIncrement());
+
+            byUser.computeIfAbsent(s.getUser().getId(), k -> new ArrayList<>()).add(s);
+        }
+
+        lock.readLock().lock();
+        try {
+            for (var entry : byUser.entrySet()) {
+                partition(entry.getKey()).append(entry.getValue());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SystemStats> query(int userId, LocalDateTime from, LocalDateTime to) throws IOException {
+        lock.readLock().lock();
+        try {
+            SeriesPartition p = partitions.get(userId);
+            if (p == null) return new ArrayList<>();
+
+            return p.query(Column.toEpochMillis(from), Column.toEpochMillis(to), deleted);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Users that have a partition. */
+    public Set<Integer> userIds() {
+        return Set.copyOf(partitions.keySet());
+    }
+
+    /** Removes the user's rows recorded before {@code cutoff}; returns how many were removed. */
+    public int purgeBefore(int userId, LocalDateTime cutoff) throws IOException {
+        lock.writeLock().lock();
+        try {
+            SeriesPartition p = partitions.get(userId);
+            if (p == null) return 0;
+
+            long cut = Column.toEpochMillis(cutoff);
+            int expired = p.query(Long.MIN_VALUE, cut - 1, deleted).size();
+            if (expired == 0) return 0;
+
+            List<SystemStats> kept = p.query(cut, Long.MAX_VALUE, deleted);
+            Path dir = partitionDir(userId);
+            Path tmp = root.resolve(dir.getFileName() + TMP_SUFFIX);
+            deleteTree(tmp);
+
+            try (SeriesPartition rewritten = new SeriesPartition(tmp, userId, blockRows)) {
+                for (int i = 0; i < kept.size(); i += blockRows) {
+                    rewritten.append(kept.subList(i, Math.min(kept.size(), i + blockRows)));
+                }
+                rewritten.seal();
+            }
+            Files.createFile(tmp.resolve(COMPLETE_MARKER));
+
+            p.close();
+            partitions.remove(userId);
+            swapIn(tmp, dir);
+            partitions.put(userId, new SeriesPartition(dir, userId, blockRows));
+            return expired;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Removes every row of the user. */
+    public void deleteUser(int userId) throws IOException {
+        lock.writeLock().lock();
+        try {
+            SeriesPartition p = partitions.remove(userId);
+            if (p != null) p.close();
+            deleteTree(partitionDir(userId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(int id) throws IOException {
+        if (!deleted.add(id)) return;
+
+        ByteBuffer buf = ByteBuffer.allocate(4).putInt(id).flip();
+        synchronized (deletedFile) {
+            while (buf.hasRemaining()) deletedFile.write(buf);
+            deletedFile.force(false);
+        }
+    }
+
+    /** Seals every partition's head so all rows are in compressed blocks. */
+    public void flush() throws IOException {
+        lock.readLock().lock();
+        try {
+            for (SeriesPartition p : partitions.values()) p.seal();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (SeriesPartition p : partitions.values()) p.close();
+            deletedFile.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private SeriesPartition partition(int userId) throws IOException {
+        SeriesPartition p = partitions.get(userId);
+        if (p != null) return p;
+
+        synchronized (partitions) {
+            p = partitions.get(userId);
+            if (p == null) {
+                p = new SeriesPartition(partitionDir(userId), userId, blockRows);
+                partitions.put(userId, p);
+            }
+            return p;
+        }
+    }
+
+    private Path partitionDir(int userId) {
+        return root.resolve("user-" + userId);
+    }
+
+    // A complete rewrite replaces its partition; an incomplete one is thrown away.
+    private void finishRewrites() throws IOException {
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path tmp : dirs.filter(d -> d.getFileName().toString().endsWith(TMP_SUFFIX)).toList()) {
+                String name = tmp.getFileName().toString();
+                Path dir = root.resolve(name.substring(0, name.length() - TMP_SUFFIX.length()));
+
+                if (Files.exists(tmp.resolve(COMPLETE_MARKER))) {
+                    swapIn(tmp, dir);
+                } else {
+                    deleteTree(tmp);
+                }
+            }
+        }
+    }
+
+    private static void swapIn(Path tmp, Path dir) throws IOException {
+        deleteTree(dir);
+        Files.move(tmp, dir, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(dir.resolve(COMPLETE_MARKER));
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(f);
+        }
+    }
+}
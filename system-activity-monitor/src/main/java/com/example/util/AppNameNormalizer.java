@@ -0,0 +1,25 @@
+package com.example.util;
+
+public final class AppNameNormalizer {
+
+    private AppNameNormalizer() {}
+
+    public static String normalize(String t) {
+        if (t == null) return "Робочий стіл";
+
+        String s = t.toLowerCase();
+
+        if (s.contains("chrome")) return "Google Chrome";
+        if (s.contains("firefox")) return "Mozilla Firefox";
+        if (s.contains("edge")) return "Microsoft Edge";
+        if (s.contains("opera")) return "Opera Browser";
+        if (s.contains("word")) return "MS Word";
+        if (s.contains("excel")) return "MS Excel";
+        if (s.contains("idea")) return "IntelliJ IDEA";
+        if (s.contains("studio")) return "Android Studio";
+        if (s.contains("telegram")) return "Telegram";
+        if (s.contains("viber")) return "Viber";
+
+        return t.length() > 40 ? t.substring(0, 40) + "..." : t;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/** LEB128 varints for the compact binary formats: unsigned, and zigzag for signed values. */
+public final class Varints {
+
+    private Varints() {}
+
+    public static void put(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public static long get(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    public static void putSigned(ByteArrayOutputStream out, long value) {
+        put(out, (value << 1) ^ (value >> 63));
+    }
+
+    public static long getSigned(ByteBuffer in) {
+        long v = get(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
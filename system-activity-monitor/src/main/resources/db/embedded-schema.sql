@@ -0,0 +1,176 @@
+-- Schema of the embedded (H2, MySQL mode) backend; mirrors system_activity_monitor.sql
+-- without partitioning. Run by EmbeddedSchema on every start.
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    email VARCHAR(100),
+    created_at TIMESTAMP NOT NULL,
+    retention_days INT
+);
+
+CREATE TABLE IF NOT EXISTS idle_time (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP,
+    duration_seconds INT,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS applications (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uq_applications_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS window_titles (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    application_id INT,
+    CONSTRAINT uq_window_titles_title UNIQUE (title),
+    FOREIGN KEY (application_id) REFERENCES applications(id)
+);
+
+CREATE TABLE IF NOT EXISTS system_stats (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL,
+    cpu_load DECIMAL(6,2),
+    ram_used_mb DECIMAL(12,2),
+    ram_total_mb DECIMAL(12,2),
+    window_title_id INT,
+    keyboard_presses INT DEFAULT 0,
+    mouse_clicks INT DEFAULT 0,
+    mouse_moves BIGINT DEFAULT 0,
+    system_uptime_seconds BIGINT,
+    disk_total_gb DECIMAL(12,2),
+    disk_free_gb DECIMAL(12,2),
+    disk_used_gb DECIMAL(12,2),
+    interval_seconds INT,
+    activity_rate DECIMAL(10,2),
+    recorded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_system_stats_user_time UNIQUE (user_id, recorded_at),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS app_segments (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP,
+    duration_seconds INT,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_app_segments_user_start ON app_segments (user_id, start_time);
+
+CREATE TABLE IF NOT EXISTS stats_1m (
+    user_id INT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    cpu_count INT NOT NULL,
+    cpu_sum DECIMAL(20,2) NOT NULL,
+    cpu_min DECIMAL(6,2),
+    cpu_max DECIMAL(6,2),
+    ram_count INT NOT NULL,
+    ram_sum DECIMAL(24,2) NOT NULL,
+    ram_min DECIMAL(12,2),
+    ram_max DECIMAL(12,2),
+    input_events BIGINT NOT NULL,
+    gap_seconds BIGINT NOT NULL,
+    gap_count INT NOT NULL,
+    cpu_sketch BLOB,
+    ram_sketch BLOB,
+    PRIMARY KEY (user_id, bucket_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS stats_1h (
+    user_id INT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    cpu_count INT NOT NULL,
+    cpu_sum DECIMAL(20,2) NOT NULL,
+    cpu_min DECIMAL(6,2),
+    cpu_max DECIMAL(6,2),
+    ram_count INT NOT NULL,
+    ram_sum DECIMAL(24,2) NOT NULL,
+    ram_min DECIMAL(12,2),
+    ram_max DECIMAL(12,2),
+    input_events BIGINT NOT NULL,
+    gap_seconds BIGINT NOT NULL,
+    gap_count INT NOT NULL,
+    cpu_sketch BLOB,
+    ram_sketch BLOB,
+    PRIMARY KEY (user_id, bucket_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS stats_1d (
+    user_id INT NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count INT NOT NULL,
+    cpu_count INT NOT NULL,
+    cpu_sum DECIMAL(20,2) NOT NULL,
+    cpu_min DECIMAL(6,2),
+    cpu_max DECIMAL(6,2),
+    ram_count INT NOT NULL,
+    ram_sum DECIMAL(24,2) NOT NULL,
+    ram_min DECIMAL(12,2),
+    ram_max DECIMAL(12,2),
+    input_events BIGINT NOT NULL,
+    gap_seconds BIGINT NOT NULL,
+    gap_count INT NOT NULL,
+    cpu_sketch BLOB,
+    ram_sketch BLOB,
+    updated_at TIMESTAMP,
+    PRIMARY KEY (user_id, bucket_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS stats_app_counts (
+    user_id INT NOT NULL,
+    resolution CHAR(2) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    sample_count INT NOT NULL,
+    first_seen_at TIMESTAMP,
+    PRIMARY KEY (user_id, resolution, bucket_start, app_name),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS reports (
+    id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL,
+    report_name VARCHAR(255),
+    period_start DATE,
+    period_end DATE,
+    cpu_avg DECIMAL(10,2),
+    ram_avg DECIMAL(10,2),
+    idle_time_total_seconds DECIMAL(10,2),
+    avg_uptime_hours DECIMAL(10,2),
+    app_usage_json CLOB,
+    file_path CLOB,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    days_json CLOB,
+    payload BLOB,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_reports_user_created ON reports (user_id, created_at, id);
+
+-- Databases created before rollups kept percentile sketches.
+ALTER TABLE stats_1m ADD COLUMN IF NOT EXISTS cpu_sketch BLOB;
+ALTER TABLE stats_1m ADD COLUMN IF NOT EXISTS ram_sketch BLOB;
+ALTER TABLE stats_1h ADD COLUMN IF NOT EXISTS cpu_sketch BLOB;
+ALTER TABLE stats_1h ADD COLUMN IF NOT EXISTS ram_sketch BLOB;
+ALTER TABLE stats_1d ADD COLUMN IF NOT EXISTS cpu_sketch BLOB;
+ALTER TABLE stats_1d ADD COLUMN IF NOT EXISTS ram_sketch BLOB;
+
+-- Databases created before day rollups were stamped (see findStaleDays).
+ALTER TABLE stats_1d ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+
+-- Databases created before app counts kept the first sample of each application.
+ALTER TABLE stats_app_counts ADD COLUMN IF NOT EXISTS first_seen_at TIMESTAMP;
@@ -0,0 +1,100 @@
+package com.example.connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    @Test
+    void returnedConnectionIsLeasedAgain() throws Exception {
+        pool = pool(2, 1_000, 60_000, 600_000);
+
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getStats().getActive());
+        first.close();
+        first.close();
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+        assertTrue(first.isClosed());
+
+        try (Connection second = pool.getConnection(); Statement st = second.createStatement()) {
+            st.execute("SELECT 1");
+        }
+        assertEquals(1, pool.getStats().getCreated());
+        assertEquals(2, pool.getStats().getAcquired());
+    }
+
+    @Test
+    void connectionIdleForMoreThanHalfASecondIsValidatedFirst() throws Exception {
+        pool = pool(1, 1_000, 60_000, 600_000);
+
+        Connection raw;
+        try (Connection conn = pool.getConnection()) {
+            raw = conn.unwrap(Connection.class);
+        }
+        // Dropped by the server while idle in the pool.
+        raw.close();
+        Thread.sleep(600);
+
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SELECT 1");
+        }
+        assertEquals(2, pool.getStats().getCreated());
+        assertEquals(1, pool.getStats().getEvicted());
+    }
+
+    @Test
+    void connectionIdleLongerThanTheTimeoutIsEvicted() throws Exception {
+        pool = pool(1, 1_000, 100, 600_000);
+
+        pool.getConnection().close();
+        Thread.sleep(200);
+        pool.getConnection().close();
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(2, stats.getCreated());
+        assertEquals(1, stats.getEvicted());
+        assertEquals(1, stats.getTotal());
+    }
+
+    @Test
+    void exhaustedPoolTimesOut() throws Exception {
+        pool = pool(1, 100, 60_000, 600_000);
+
+        try (Connection held = pool.getConnection()) {
+            long started = System.nanoTime();
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+            assertTrue(System.nanoTime() - started >= 100_000_000L);
+            assertEquals(1, pool.getStats().getTimeouts());
+        }
+
+        pool.getConnection().close();
+        assertEquals(1, pool.getStats().getCreated());
+    }
+
+    private static ConnectionPool pool(int maxSize, long connectionTimeoutMillis,
+                                       long idleTimeoutMillis, long maxLifetimeMillis) {
+        String url = "jdbc:h2:mem:pool-" + COUNTER.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+        return new ConnectionPool(url, "sa", "", maxSize, connectionTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis);
+    }
+}
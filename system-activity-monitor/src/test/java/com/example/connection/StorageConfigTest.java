@@ -0,0 +1,20 @@
+package com.example.connection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StorageConfigTest {
+
+    @Test
+    void backendNamesAreCaseAndSpaceInsensitive() {
+        assertEquals(StorageBackend.EMBEDDED, StorageConfig.parseBackend(" Embedded "));
+        assertEquals(StorageBackend.MYSQL, StorageConfig.parseBackend("mysql"));
+    }
+
+    @Test
+    void unknownBackendFallsBackToMysql() {
+        assertEquals(StorageBackend.MYSQL, StorageConfig.parseBackend("postgres"));
+        assertEquals(StorageBackend.MYSQL, StorageConfig.parseBackend(""));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.connection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** In-memory H2 databases with the embedded backend's schema, one per call. */
+public final class TestDatabase {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private TestDatabase() {}
+
+    public static ConnectionPool create(int maxSize, long connectionTimeoutMillis) {
+        String url = "jdbc:h2:mem:test-" + COUNTER.incrementAndGet()
+                + ";DB_CLOSE_DELAY=-1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+        ConnectionPool pool = new ConnectionPool(url, "sa", "", maxSize, connectionTimeoutMillis, 60_000, 600_000);
+        EmbeddedSchema.create(pool);
+        return pool;
+    }
+}
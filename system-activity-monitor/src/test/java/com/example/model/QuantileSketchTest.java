@@ -0,0 +1,127 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantileSketchTest {
+
+    @Test
+    void bucketsAreExactBelow256AndThenSplitEachPowerOfTwo() {
+        assertEquals(255, QuantileSketch.indexOf(255));
+        assertEquals(255, QuantileSketch.lowerBound(255));
+        assertEquals(1, QuantileSketch.width(255));
+
+        assertEquals(256, QuantileSketch.indexOf(256));
+        assertEquals(256, QuantileSketch.indexOf(257));
+        assertEquals(257, QuantileSketch.indexOf(258));
+        assertEquals(256, QuantileSketch.lowerBound(256));
+        assertEquals(2, QuantileSketch.width(256));
+
+        for (int exponent = 9; exponent < 50; exponent++) {
+            long power = 1L << exponent;
+            int index = QuantileSketch.indexOf(power);
+
+            assertEquals(power, QuantileSketch.lowerBound(index), "2^" + exponent);
+            assertEquals(index - 1, QuantileSketch.indexOf(power - 1), "2^" + exponent + " - 1");
+            assertEquals(power, QuantileSketch.lowerBound(index - 1) + QuantileSketch.width(index - 1), "2^" + exponent);
+            assertEquals(QuantileSketch.width(index - 1) * 2, QuantileSketch.width(index), "2^" + exponent);
+        }
+    }
+
+    @Test
+    void bucketsTileTheValuesWithoutGaps() {
+        for (int index = 0; index < 5_000; index++) {
+            long lower = QuantileSketch.lowerBound(index);
+            long width = QuantileSketch.width(index);
+
+            assertEquals(lower + width, QuantileSketch.lowerBound(index + 1), "index " + index);
+            assertEquals(index, QuantileSketch.indexOf(lower));
+            assertEquals(index, QuantileSketch.indexOf(lower + width - 1));
+        }
+    }
+
+    @Test
+    void quantilesStayWithinFourTenthsOfAPercent() {
+        Random random = new Random(25);
+        long[] values = new long[20_000];
+        QuantileSketch sketch = new QuantileSketch();
+
+        for (int i = 0; i < values.length; i++) {
+            // Spread over many powers of two, CPU hundredths up to RAM hundredths of a large machine.
+            values[i] = (long) Math.pow(10, 1 + random.nextDouble() * 8);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.01, 0.10, 0.25, 0.50, 0.75, 0.90, 0.95, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            BigDecimal estimate = sketch.quantile(q);
+            double error = Math.abs(estimate.movePointRight(2).doubleValue() - exact) / exact;
+
+            assertTrue(error <= 0.004, "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+        assertEquals(BigDecimal.valueOf(values[values.length - 1], 2), sketch.quantile(1));
+        assertEquals(BigDecimal.valueOf(values[values.length - 1], 2), sketch.max());
+    }
+
+    @Test
+    void valuesBelow256AreExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (long v = 0; v < 200; v++) sketch.add(v);
+
+        assertEquals(new BigDecimal("0.99"), sketch.quantile(0.50));
+        assertEquals(new BigDecimal("1.89"), sketch.quantile(0.95));
+
+        QuantileSketch negative = new QuantileSketch();
+        negative.add(-500);
+        assertEquals(new BigDecimal("0.00"), negative.max());
+    }
+
+    @Test
+    void mergedSketchEqualsOneBuiltFromAllValues() {
+        Random random = new Random(11);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch[] parts = {new QuantileSketch(), new QuantileSketch(), new QuantileSketch()};
+
+        for (int i = 0; i < 5_000; i++) {
+            long v = random.nextInt(3) == 0 ? random.nextInt(256) : random.nextInt(10_000_000);
+            all.add(v);
+            parts[random.nextInt(parts.length)].add(v);
+        }
+
+        QuantileSketch merged = new QuantileSketch();
+        for (QuantileSketch part : parts) merged.merge(part);
+        merged.merge(new QuantileSketch());
+        merged.merge(null);
+
+        assertArrayEquals(all.toBytes(), merged.toBytes());
+        assertEquals(all.getCount(), merged.getCount());
+        assertEquals(all.percentiles().toString(), merged.percentiles().toString());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (long v : new long[]{0, 1, 255, 256, 257, 1_000, 123_456_789, 123_456_789}) sketch.add(v);
+
+        QuantileSketch read = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertArrayEquals(sketch.toBytes(), read.toBytes());
+        assertEquals(sketch.getCount(), read.getCount());
+        assertEquals(sketch.max(), read.max());
+        assertEquals(sketch.percentiles().toString(), read.percentiles().toString());
+
+        QuantileSketch empty = QuantileSketch.fromBytes(new QuantileSketch().toBytes());
+        assertTrue(empty.isEmpty());
+        assertNull(empty.percentiles());
+        assertNull(QuantileSketch.fromBytes(null));
+    }
+}
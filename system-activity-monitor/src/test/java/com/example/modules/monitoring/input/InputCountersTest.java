@@ -0,0 +1,142 @@
+package com.example.modules.monitoring.input;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputCountersTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayedSessionIsCountedExactly() throws Exception {
+        InputCounters counters = new InputCounters();
+        replay(resource("session.txt"), counters);
+
+        counters.drain();
+        assertEquals(5, counters.getKeyPressesDelta());
+        assertEquals(3, counters.getMouseClicksDelta());
+        assertEquals(3, counters.getMouseMovesDelta(), "jitter and moves inside the 80 ms window are not counted");
+    }
+
+    @Test
+    void drainSplitsIntervalsAndKeepsTotals() throws Exception {
+        InputCounters counters = new InputCounters();
+        replay(resource("session.txt"), counters);
+        counters.drain();
+
+        counters.keyPressed();
+        counters.keyPressed();
+        counters.mouseClicked();
+        counters.drain();
+
+        assertEquals(2, counters.getKeyPressesDelta());
+        assertEquals(1, counters.getMouseClicksDelta());
+        assertEquals(0, counters.getMouseMovesDelta());
+        assertEquals(7, counters.getKeyPresses());
+        assertEquals(4, counters.getMouseClicks());
+        assertEquals(3, counters.getMouseMoves());
+
+        counters.drain();
+        assertEquals(0, counters.getKeyPressesDelta());
+        assertEquals(7, counters.getKeyPresses());
+    }
+
+    @Test
+    void resetDiscardsPendingEventsAndTotals() {
+        InputCounters counters = new InputCounters();
+        counters.keyPressed();
+        counters.drain();
+        counters.mouseClicked();
+
+        counters.reset();
+        counters.drain();
+
+        assertEquals(0, counters.getKeyPresses());
+        assertEquals(0, counters.getMouseClicks());
+        assertEquals(0, counters.getMouseClicksDelta());
+    }
+
+    @Test
+    void everyIncrementLandsInExactlyOneInterval() throws Exception {
+        InputCounters counters = new InputCounters();
+        int threads = 4;
+        int perThread = 200_000;
+
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) counters.keyPressed();
+            });
+            writers.add(w);
+            w.start();
+        }
+
+        AtomicLong drained = new AtomicLong();
+        while (writers.stream().anyMatch(Thread::isAlive)) {
+            counters.drain();
+            drained.addAndGet(counters.getKeyPressesDelta());
+        }
+        for (Thread w : writers) w.join();
+        counters.drain();
+        drained.addAndGet(counters.getKeyPressesDelta());
+
+        assertEquals((long) threads * perThread, drained.get());
+        assertEquals((long) threads * perThread, counters.getKeyPresses());
+    }
+
+    @Test
+    void countingOverheadStaysFarBelowPollingCost() throws Exception {
+        int events = 300_000;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < events; i++) {
+            switch (i % 3) {
+                case 0 -> sb.append(i).append(" KEY\n");
+                case 1 -> sb.append(i).append(" CLICK\n");
+                default -> sb.append(i).append(" MOVE ").append(i % 500).append(' ').append(i % 300).append('\n');
+            }
+        }
+        Path file = dir.resolve("load.txt");
+        Files.writeString(file, sb);
+
+        InputCounters counters = new InputCounters();
+        ReplayInputEventSource source = replay(file, counters);
+        counters.drain();
+
+        assertEquals(events, source.getReplayedEvents());
+        assertEquals(events / 3, counters.getKeyPressesDelta());
+        assertEquals(events / 3, counters.getMouseClicksDelta());
+
+        // The 80 ms poll cost about 3,000 native calls a second; an event costs well under a microsecond.
+        double nanosPerEvent = (double) source.getElapsedNanos() / events;
+        assertTrue(nanosPerEvent < 10_000, "counting took " + nanosPerEvent + " ns per event");
+    }
+
+    @Test
+    void unknownEventInReplayFileIsRejected() throws Exception {
+        ReplayInputEventSource source = new ReplayInputEventSource(resource("unknown-event.txt"), false);
+        assertThrows(IllegalArgumentException.class, () -> source.start(new InputCounters()));
+    }
+
+    private static ReplayInputEventSource replay(Path file, InputCounters counters) throws InterruptedException {
+        ReplayInputEventSource source = new ReplayInputEventSource(file, false);
+        source.start(counters);
+        assertTrue(source.awaitFinished(30, TimeUnit.SECONDS), "replay did not finish");
+        return source;
+    }
+
+    private Path resource(String name) throws Exception {
+        return Path.of(getClass().getResource("/input/" + name).toURI());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.modules.monitoring.input;
+
+import com.example.util.MonitoringThreadFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays recorded input from a text file, so counting can be checked headlessly.
+ * One event per line: {@code <offsetMillis> KEY | CLICK | MOVE <x> <y>}.
+ * Empty lines and lines starting with '#' are ignored.
+ */
+public class ReplayInputEventSource implements InputEventSource {
+
+    private final Path file;
+    private final boolean realtime;
+
+    private volatile boolean active = false;
+    private volatile long replayedEvents;
+    private volatile long elapsedNanos;
+    private CountDownLatch finished = new CountDownLatch(0);
+    private Thread worker;
+
+    public ReplayInputEventSource(Path file, boolean realtime) {
+        this.file = file;
+        this.realtime = realtime;
+    }
+
+    @Override
+    public synchronized void start(InputCounters counters) {
+        if (active) return;
+
+        List<long[]> events = load();
+
+        active = true;
+        finished = new CountDownLatch(1);
+        worker = new MonitoringThreadFactory("input-replay").newThread(() -> replay(events, counters));
+        worker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        active = false;
+        if (worker != null) worker.interrupt();
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    public long getReplayedEvents() { return replayedEvents; }
+
+    /** Time spent inside the counters, excluding realtime pauses. */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    private void replay(List<long[]> events, InputCounters counters) {
+        long startedAt = System.currentTimeMillis();
+        long spent = 0, count = 0;
+
+        try {
+            for (long[] e : events) {
+                if (!active) break;
+
+                if (realtime) {
+                    long wait = startedAt + e[0] - System.currentTimeMillis();
+                    if (wait > 0) Thread.sleep(wait);
+                }
+
+                long t0 = System.nanoTime();
+                switch ((int) e[1]) {
+                    case 0 -> counters.keyPressed();
+                    case 1 -> counters.mouseClicked();
+                    default -> counters.mouseMovedTo((int) e[2], (int) e[3], e[0]);
+                }
+                spent += System.nanoTime() - t0;
+                count++;
+            }
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replayedEvents = count;
+            elapsedNanos = spent;
+            active = false;
+            finished.countDown();
+        }
+    }
+
+    private List<long[]> load() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read input replay file " + file + ": " + e.getMessage(), e);
+        }
+
+        List<long[]> events = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] p = line.split("\\s+");
+            long offset = Long.parseLong(p[0]);
+
+            switch (p[1].toUpperCase()) {
+                case "KEY" -> events.add(new long[]{offset, 0, 0, 0});
+                case "CLICK" -> events.add(new long[]{offset, 1, 0, 0});
+                case "MOVE" -> events.add(new long[]{offset, 2, Long.parseLong(p[2]), Long.parseLong(p[3])});
+                default -> throw new IllegalArgumentException("Unknown input event: " + line);
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.modules.monitoring.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsSampleTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Test
+    void sampleKeepsItsValuesWhenTheSnapshotIsRefilled() {
+        MetricsSnapshot snapshot = filled(40.0, 3, "editor");
+        MetricsSample sample = new MetricsSample(snapshot, AT);
+
+        filled(snapshot, 90.0, 7, "browser");
+
+        assertEquals(40.0, sample.getCpuLoad());
+        assertEquals(3, sample.getKeyPresses());
+        assertEquals(3, sample.getInputDelta().getKeyPresses());
+        assertEquals("editor", sample.getActiveWindow());
+        assertEquals(AT, sample.getSampledAt());
+    }
+
+    @Test
+    void sampleCopiesEveryFieldAndGroupsTheInputDeltas() {
+        MetricsSnapshot snapshot = filled(12.5, 4, "terminal");
+        MetricsSample sample = new MetricsSample(snapshot, AT);
+
+        assertEquals(2048.0, sample.getRamUsedMb());
+        assertEquals(8192.0, sample.getRamTotalMb());
+        assertEquals(100.0, sample.getDiskTotalGb());
+        assertEquals(60.0, sample.getDiskFreeGb());
+        assertEquals(40.0, sample.getDiskUsedGb());
+        assertEquals("/ 100 GB", sample.getDiskDetails());
+        assertEquals(3600, sample.getUptimeSeconds());
+        assertEquals(5, sample.getMouseClicks());
+        assertEquals(6, sample.getMouseMoves());
+        assertEquals("Linux", sample.getOsName());
+
+        assertEquals(4, sample.getInputDelta().getKeyPresses());
+        assertEquals(1, sample.getInputDelta().getMouseClicks());
+        assertEquals(2, sample.getInputDelta().getMouseMoves());
+        assertEquals(5_000, sample.getInputDelta().getIntervalMillis());
+    }
+
+    private static MetricsSnapshot filled(double cpu, long keys, String window) {
+        return filled(new MetricsSnapshot(), cpu, keys, window);
+    }
+
+    private static MetricsSnapshot filled(MetricsSnapshot s, double cpu, long keys, String window) {
+        s.setCpuLoad(cpu);
+        s.setRamUsedMb(2048.0);
+        s.setRamTotalMb(8192.0);
+        s.setDiskTotalGb(100.0);
+        s.setDiskFreeGb(60.0);
+        s.setDiskDetails("/ 100 GB");
+        s.setUptimeSeconds(3600);
+        s.setKeyPresses(keys);
+        s.setMouseClicks(5);
+        s.setMouseMoves(6);
+        s.setKeyPressesDelta(keys);
+        s.setMouseClicksDelta(1);
+        s.setMouseMovesDelta(2);
+        s.setInputIntervalMillis(5_000);
+        s.setActiveWindow(window);
+        s.setOsName("Linux");
+        return s;
+    }
+}
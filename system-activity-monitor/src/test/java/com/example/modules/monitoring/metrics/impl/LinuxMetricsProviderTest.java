@@ -0,0 +1,224 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import com.example.modules.monitoring.input.InputCounters;
+import com.example.modules.monitoring.input.InputEventSource;
+import com.example.modules.monitoring.metrics.MetricsSnapshot;
+import com.example.modules.monitoring.volume.VolumeSource;
+import com.example.modules.monitoring.volume.VolumeUsage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LinuxMetricsProviderTest {
+
+    @TempDir
+    Path proc;
+
+    @Test
+    void cpuLoadIsBusyShareOfTicksBetweenTwoReads() throws Exception {
+        install("stat", "stat");
+        LinuxMetricsProvider provider = provider();
+
+        provider.updateCpu();
+        assertEquals(0.0, provider.getCpuLoad(), "first read only sets the baseline");
+
+        install("stat-next", "stat");
+        provider.updateCpu();
+        assertEquals(75.0, provider.getCpuLoad(), 1e-9);
+    }
+
+    @Test
+    void truncatedStatLineIsSkippedWithoutMovingTheBaseline() throws Exception {
+        install("stat", "stat");
+        LinuxMetricsProvider provider = provider();
+        provider.updateCpu();
+
+        install("stat-truncated", "stat");
+        provider.updateCpu();
+        assertEquals(0.0, provider.getCpuLoad());
+
+        install("stat-next", "stat");
+        provider.updateCpu();
+        assertEquals(75.0, provider.getCpuLoad(), 1e-9);
+    }
+
+    @Test
+    void statWithoutCpuLineOrMissingFileLeavesLoadAtZero() throws Exception {
+        LinuxMetricsProvider provider = provider();
+        provider.updateCpu();
+        assertEquals(0.0, provider.getCpuLoad());
+
+        install("stat-no-cpu", "stat");
+        provider.updateCpu();
+        provider.updateCpu();
+        assertEquals(0.0, provider.getCpuLoad());
+    }
+
+    @Test
+    void ramUsedIsTotalMinusAvailableInMegabytes() throws Exception {
+        install("meminfo", "meminfo");
+        LinuxMetricsProvider provider = provider();
+
+        assertEquals(12000.0, provider.getRamUsed(), 1e-9);
+        assertEquals(16000.0, provider.getRamTotal(), 1e-9);
+    }
+
+    @Test
+    void meminfoWithoutAvailableOrCutOffReportsZero() throws Exception {
+        LinuxMetricsProvider provider = provider();
+        assertEquals(0.0, provider.getRamUsed(), "missing file");
+
+        install("meminfo-no-available", "meminfo");
+        assertEquals(0.0, provider.getRamUsed());
+
+        install("meminfo-truncated", "meminfo");
+        assertEquals(0.0, provider.getRamUsed());
+
+        Files.writeString(proc.resolve("meminfo"), "");
+        assertEquals(0.0, provider.getRamUsed());
+    }
+
+    @Test
+    void uptimeIsWholeSecondsOfFirstField() throws Exception {
+        install("uptime", "uptime");
+        LinuxMetricsProvider provider = provider();
+
+        assertEquals(350735, provider.getUptimeSeconds());
+        assertEquals("4 d 1 h 25 m", provider.getUptime());
+    }
+
+    @Test
+    void malformedOrEmptyUptimeReportsZero() throws Exception {
+        LinuxMetricsProvider provider = provider();
+        assertEquals(0, provider.getUptimeSeconds(), "missing file");
+
+        install("uptime-malformed", "uptime");
+        assertEquals(0, provider.getUptimeSeconds());
+
+        Files.writeString(proc.resolve("uptime"), "");
+        assertEquals(0, provider.getUptimeSeconds());
+    }
+
+    @Test
+    void rereadsPickUpRewrittenFiles() throws Exception {
+        install("uptime", "uptime");
+        LinuxMetricsProvider provider = provider();
+        assertEquals(350735, provider.getUptimeSeconds());
+
+        Files.writeString(proc.resolve("uptime"), "42.00 10.00\n");
+        assertEquals(42, provider.getUptimeSeconds());
+    }
+
+    @Test
+    void peekedInputStaysForTheNextDrainingSample() {
+        CapturingInput input = new CapturingInput();
+        LinuxMetricsProvider provider = new LinuxMetricsProvider(proc, new NoVolumes(), input, false);
+        provider.startInputMonitoring();
+
+        input.counters.keyPressed();
+        input.counters.keyPressed();
+        input.counters.mouseClicked();
+
+        MetricsSnapshot peeked = new MetricsSnapshot();
+        provider.collectAllMetrics(peeked, false);
+        provider.collectAllMetrics(peeked, false);
+        assertEquals(2, peeked.getKeyPressesDelta());
+        assertEquals(1, peeked.getMouseClicksDelta());
+
+        MetricsSnapshot drained = new MetricsSnapshot();
+        provider.collectAllMetrics(drained, true);
+        assertEquals(2, drained.getKeyPressesDelta());
+        assertEquals(1, drained.getMouseClicksDelta());
+        assertEquals(2, drained.getKeyPresses());
+
+        provider.collectAllMetrics(peeked, false);
+        assertEquals(0, peeked.getKeyPressesDelta());
+        assertEquals(2, peeked.getKeyPresses());
+    }
+
+    @Test
+    void reusedSnapshotIsOverwrittenOnEveryCollect() throws Exception {
+        install("meminfo", "meminfo");
+        install("uptime", "uptime");
+        LinuxMetricsProvider provider = provider();
+
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        provider.collectAllMetrics(snapshot);
+        assertEquals(12000.0, snapshot.getRamUsedMb(), 1e-9);
+        assertEquals(350735, snapshot.getUptimeSeconds());
+        assertEquals("Linux", snapshot.getOsName());
+
+        snapshot.setKeyPresses(99);
+        Files.writeString(proc.resolve("meminfo"), "");
+        Files.writeString(proc.resolve("uptime"), "42.00 10.00\n");
+        provider.collectAllMetrics(snapshot);
+
+        assertEquals(0.0, snapshot.getRamUsedMb(), "no value from the previous collect survives");
+        assertEquals(42, snapshot.getUptimeSeconds());
+        assertEquals(0, snapshot.getKeyPresses());
+    }
+
+    @Test
+    void inputThatFailedToStartReportsZerosAndIsRetriedOnTheNextStart() {
+        FailingOnceInput input = new FailingOnceInput();
+        LinuxMetricsProvider provider = new LinuxMetricsProvider(proc, new NoVolumes(), input, false);
+
+        provider.startInputMonitoring();
+        input.counters.keyPressed();
+
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        provider.collectAllMetrics(snapshot, true);
+        assertEquals(0, snapshot.getKeyPressesDelta(), "hook did not register, nothing is reported");
+
+        provider.startInputMonitoring();
+        assertEquals(2, input.starts);
+
+        input.counters.keyPressed();
+        provider.collectAllMetrics(snapshot, true);
+        assertEquals(1, snapshot.getKeyPressesDelta());
+    }
+
+    private LinuxMetricsProvider provider() {
+        return new LinuxMetricsProvider(proc, new NoVolumes(), new NoInput(), false);
+    }
+
+    // Replaces the file in place, as the kernel does, so an open channel sees the new content.
+    private void install(String fixture, String name) throws IOException, URISyntaxException {
+        Path source = Path.of(getClass().getResource("/proc/" + fixture).toURI());
+        Files.write(proc.resolve(name), Files.readAllBytes(source));
+    }
+
+    private static final class NoVolumes implements VolumeSource {
+        @Override public long mountsSignature() { return 0; }
+        @Override public List<String> listVolumes() { return List.of(); }
+        @Override public VolumeUsage probe(String volume) throws IOException { throw new IOException(volume); }
+    }
+
+    private static final class CapturingInput implements InputEventSource {
+        InputCounters counters;
+        @Override public void start(InputCounters counters) { this.counters = counters; }
+        @Override public void stop() {}
+        @Override public boolean isActive() { return counters != null; }
+    }
+
+    private static final class FailingOnceInput implements InputEventSource {
+        InputCounters counters;
+        int starts;
+        @Override public void start(InputCounters counters) { this.counters = counters; starts++; }
+        @Override public void stop() {}
+        @Override public boolean isActive() { return starts > 1; }
+    }
+
+    private static final class NoInput implements InputEventSource {
+        @Override public void start(InputCounters counters) {}
+        @Override public void stop() {}
+        @Override public boolean isActive() { return false; }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class LinuxVolumeSourceTest {
+
+    @TempDir
+    Path proc;
+
+    @Test
+    void containerRootIsListedWhateverItsDevice() throws Exception {
+        Path source = Path.of(getClass().getResource("/proc/mounts-overlay").toURI());
+        Files.write(proc.resolve("mounts"), Files.readAllBytes(source));
+
+        assertEquals(List.of("/", "/etc/hosts", "/mnt/My Disk"), new LinuxVolumeSource(proc).listVolumes());
+    }
+
+    @Test
+    void rootOnZfsComesFirstAndBlockDevicesFollow() throws Exception {
+        Files.writeString(proc.resolve("mounts"),
+                "/dev/sda1 /boot ext4 rw 0 0\n"
+                + "rpool/ROOT/ubuntu / zfs rw,xattr 0 0\n"
+                + "tmpfs /run tmpfs rw 0 0\n");
+
+        assertEquals(List.of("/", "/boot"), new LinuxVolumeSource(proc).listVolumes());
+    }
+
+    @Test
+    void mountsLargerThanTheBufferAreReadToTheEnd() throws Exception {
+        StringBuilder mounts = new StringBuilder("/dev/sda2 / ext4 rw 0 0\n");
+        for (int i = 0; i < 3_000; i++) {
+            mounts.append("tmpfs /run/user/").append(i).append(" tmpfs rw,nosuid,nodev,relatime,size=65536k 0 0\n");
+        }
+        mounts.append("/dev/sdb1 /data ext4 rw 0 0\n");
+        Files.writeString(proc.resolve("mounts"), mounts);
+
+        LinuxVolumeSource volumes = new LinuxVolumeSource(proc);
+        long signature = volumes.mountsSignature();
+        assertEquals(List.of("/", "/data"), volumes.listVolumes());
+
+        Files.writeString(proc.resolve("mounts"), mounts + "/dev/sdc1 /backup ext4 rw 0 0\n");
+        assertNotEquals(signature, volumes.mountsSignature(), "a change past the first 64 KB is noticed");
+        assertEquals(List.of("/", "/data", "/backup"), volumes.listVolumes());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.modules.monitoring.metrics.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void seeksLinesAndParsesNumbersInOrder() throws Exception {
+        ProcFile file = write("a 1 2\nkey:  10 kB\nkey2 7\n");
+
+        assertTrue(file.reload());
+        assertTrue(file.seekLine(bytes("key:")));
+        assertEquals(10, file.nextLong());
+        assertEquals(-1, file.nextLong(), "the number does not continue onto the next line");
+
+        assertTrue(file.seekLine(bytes("key2")));
+        assertEquals(7, file.nextLong());
+        assertFalse(file.seekLine(bytes("missing")));
+    }
+
+    @Test
+    void keyOnlyMatchesAtLineStart() throws Exception {
+        ProcFile file = write("xcpu 1\ncpu 2\n");
+
+        assertTrue(file.reload());
+        assertTrue(file.seekLine(bytes("cpu")));
+        assertEquals(2, file.nextLong());
+    }
+
+    @Test
+    void numbersCutByEndOfFileStopThere() throws Exception {
+        ProcFile file = write("cpu 12 3");
+
+        assertTrue(file.reload());
+        assertTrue(file.seekLine(bytes("cpu")));
+        assertEquals(12, file.nextLong());
+        assertEquals(3, file.nextLong());
+        assertEquals(-1, file.nextLong());
+    }
+
+    @Test
+    void missingOrEmptyFileDoesNotLoad() throws Exception {
+        ProcFile missing = new ProcFile(dir.resolve("none"), 64);
+        assertFalse(missing.reload());
+
+        ProcFile empty = write("");
+        assertFalse(empty.reload());
+        assertFalse(empty.seekLine(bytes("cpu")));
+    }
+
+    @Test
+    void checksumChangesWithContent() throws Exception {
+        ProcFile file = write("a 1\n");
+        assertTrue(file.reload());
+        long first = file.checksum();
+
+        Files.writeString(dir.resolve("f"), "a 2\n");
+        assertTrue(file.reload());
+        assertNotEquals(first, file.checksum());
+        assertEquals("a 2\n", file.text());
+    }
+
+    @Test
+    void fullBufferIsGrownAndReadAgain() throws Exception {
+        String content = "cpu 1\n".repeat(40) + "last 99\n";
+        ProcFile file = write(content);
+
+        assertTrue(file.reload());
+        assertEquals(content, file.text());
+        assertEquals(256, file.capacity());
+
+        assertTrue(file.seekLine(bytes("last")));
+        assertEquals(99, file.nextLong());
+    }
+
+    @Test
+    void contentOfExactlyTheCapacityIsNotTakenAsComplete() throws Exception {
+        String content = "x".repeat(63) + "\n";
+        ProcFile file = write(content);
+
+        assertTrue(file.reload());
+        assertEquals(content, file.text());
+        assertEquals(128, file.capacity());
+    }
+
+    private ProcFile write(String content) throws Exception {
+        Files.writeString(dir.resolve("f"), content);
+        return new ProcFile(dir.resolve("f"), 64);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.modules.monitoring.sampling;
+
+import com.example.modules.monitoring.metrics.MetricsProvider;
+import com.example.modules.monitoring.metrics.MetricsSample;
+import com.example.modules.monitoring.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsSamplerTest {
+
+    @Test
+    void everySubscriberSeesTheSameSamplesAtItsOwnRate() throws Exception {
+        CountingProvider provider = new CountingProvider();
+        MetricsSampler sampler = new MetricsSampler(provider, 5, TimeUnit.MILLISECONDS);
+
+        List<MetricsSample> everySample = new CopyOnWriteArrayList<>();
+        List<MetricsSample> everyThird = new CopyOnWriteArrayList<>();
+        CountDownLatch thirdSeen = new CountDownLatch(3);
+
+        sampler.subscribe(everySample::add, 1);
+        sampler.subscribe(sample -> {
+            everyThird.add(sample);
+            thirdSeen.countDown();
+        }, 3);
+
+        sampler.start();
+        assertTrue(thirdSeen.await(5, TimeUnit.SECONDS));
+        sampler.stop();
+
+        // One provider call per tick, shared by both subscribers: samples 1, 4 and 7.
+        assertSame(everySample.get(0), everyThird.get(0));
+        assertSame(everySample.get(3), everyThird.get(1));
+        assertSame(everySample.get(6), everyThird.get(2));
+        assertEquals(7.0, everyThird.get(2).getCpuLoad());
+    }
+
+    @Test
+    void failingSubscriberDoesNotStopTheOthers() throws Exception {
+        MetricsSampler sampler = new MetricsSampler(new CountingProvider(), 5, TimeUnit.MILLISECONDS);
+        CountDownLatch delivered = new CountDownLatch(2);
+
+        sampler.subscribe(sample -> { throw new IllegalStateException("broken"); }, 1);
+        sampler.subscribe(sample -> delivered.countDown(), 1);
+
+        sampler.start();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        sampler.stop();
+    }
+
+    @Test
+    void onDemandSamplesAreNotPublished() {
+        CountingProvider provider = new CountingProvider();
+        MetricsSampler sampler = new MetricsSampler(provider, 1, TimeUnit.HOURS);
+        List<MetricsSample> published = new CopyOnWriteArrayList<>();
+        sampler.subscribe(published::add, 1);
+
+        MetricsSample peeked = sampler.sampleNow();
+        MetricsSample drained = sampler.drainNow();
+
+        assertTrue(published.isEmpty());
+        assertSame(drained, sampler.getLatest());
+        assertEquals(1.0, peeked.getCpuLoad());
+        assertEquals(1, provider.drains, "only drainNow takes the input");
+    }
+
+    @Test
+    void rateBelowOneIsRejected() {
+        MetricsSampler sampler = new MetricsSampler(new CountingProvider(), 1, TimeUnit.SECONDS);
+        assertThrows(IllegalArgumentException.class, () -> sampler.subscribe(sample -> {}, 0));
+    }
+
+    private static final class CountingProvider implements MetricsProvider {
+        volatile int calls;
+        volatile int drains;
+
+        @Override
+        public void collectAllMetrics(MetricsSnapshot snapshot, boolean drainInput) {
+            calls++;
+            if (drainInput) drains++;
+            snapshot.setCpuLoad(calls);
+        }
+
+        @Override public double getCpuLoad() { return 0; }
+        @Override public double getRamUsed() { return 0; }
+        @Override public double getRamTotal() { return 0; }
+        @Override public void updateDiskStats() {}
+        @Override public double getDiskTotal() { return 0; }
+        @Override public double getDiskFree() { return 0; }
+        @Override public double getDiskUsed() { return 0; }
+        @Override public String getActiveWindowTitle() { return "Unknown"; }
+        @Override public String getUptime() { return ""; }
+        @Override public long getUptimeSeconds() { return 0; }
+        @Override public void startInputMonitoring() {}
+        @Override public void stopInputMonitoring() {}
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.modules.monitoring.volume;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory volumes with adjustable sizes and probe delays, for exercising
+ * {@link VolumeRegistry} without touching real disks.
+ */
+public class FakeVolumeSource implements VolumeSource {
+
+    private final Map<String, long[]> volumes = new LinkedHashMap<>();
+    private final Map<String, Long> probeDelays = new LinkedHashMap<>();
+    private long signature;
+
+    public synchronized void mount(String name, long totalBytes, long freeBytes) {
+        volumes.put(name, new long[]{totalBytes, freeBytes});
+        signature++;
+    }
+
+    public synchronized void unmount(String name) {
+        volumes.remove(name);
+        probeDelays.remove(name);
+        signature++;
+    }
+
+    public synchronized void setFree(String name, long freeBytes) {
+        long[] v = volumes.get(name);
+        if (v != null) v[1] = freeBytes;
+    }
+
+    /** Makes every probe of {@code name} block for {@code millis}; use a large value to simulate a hung volume. */
+    public synchronized void setProbeDelay(String name, long millis) {
+        probeDelays.put(name, millis);
+    }
+
+    @Override
+    public synchronized long mountsSignature() {
+        return signature;
+    }
+
+    @Override
+    public synchronized List<String> listVolumes() {
+        return new ArrayList<>(volumes.keySet());
+    }
+
+    @Override
+    public VolumeUsage probe(String volume) throws IOException {
+        long delay;
+        synchronized (this) {
+            delay = probeDelays.getOrDefault(volume, 0L);
+        }
+
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Probe interrupted: " + volume);
+            }
+        }
+
+        synchronized (this) {
+            long[] v = volumes.get(volume);
+            if (v == null) throw new IOException("No such volume: " + volume);
+            return new VolumeUsage(v[0], v[1]);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.modules.monitoring.volume;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class VolumeRegistryTest {
+
+    private static final long GB = 1_000_000_000L;
+
+    private final FakeVolumeSource source = new FakeVolumeSource();
+    private VolumeRegistry registry;
+
+    @AfterEach
+    void stop() {
+        if (registry != null) registry.stop();
+    }
+
+    @Test
+    void publishesTotalsOfAllVolumes() throws Exception {
+        source.mount("/", 100 * GB, 40 * GB);
+        source.mount("/home", 50 * GB, 10 * GB);
+        start(50, 200);
+
+        await(() -> registry.getTotalGb() == 150.0);
+        assertEquals(50.0, registry.getFreeGb(), 1e-9);
+        assertTrue(registry.getDetails().contains("/home: 40.00 / 50.00 GB"), registry.getDetails());
+    }
+
+    @Test
+    void freeSpaceFollowsLaterProbes() throws Exception {
+        source.mount("/", 100 * GB, 40 * GB);
+        start(50, 200);
+        await(() -> registry.getFreeGb() == 40.0);
+
+        source.setFree("/", 25 * GB);
+        await(() -> registry.getFreeGb() == 25.0);
+        assertEquals(100.0, registry.getTotalGb(), 1e-9);
+    }
+
+    @Test
+    void hungVolumeTurnsStaleWhileOthersKeepUpdating() throws Exception {
+        source.mount("/", 100 * GB, 40 * GB);
+        source.mount("/mnt/nfs", 20 * GB, 5 * GB);
+        start(50, 100);
+        await(() -> registry.getTotalGb() == 120.0);
+
+        source.setProbeDelay("/mnt/nfs", 60_000);
+        await(() -> registry.getDetails().contains("/mnt/nfs: 15.00 / 20.00 GB (stale)"));
+        assertTrue(registry.isStale("/mnt/nfs"));
+
+        source.setFree("/", 30 * GB);
+        await(() -> registry.getFreeGb() == 35.0);
+        assertFalse(registry.isStale("/"));
+    }
+
+    @Test
+    void nothingKnownBeforeTheFirstProbe() {
+        registry = new VolumeRegistry(source, 50, 200);
+        assertEquals(0.0, registry.getTotalGb());
+        assertEquals("Unknown", registry.getDetails());
+    }
+
+    private void start(long probeIntervalMillis, long probeTimeoutMillis) {
+        registry = new VolumeRegistry(source, probeIntervalMillis, probeTimeoutMillis);
+        registry.start();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Condition not met within 3 s");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.modules.reports.calculations;
+
+import com.example.model.DaySummary;
+import com.example.model.HourStat;
+import com.example.model.StatsRollup;
+import com.example.model.SystemStats;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import com.example.repository.query.StatsRollupAccumulator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportAccumulatorTest {
+
+    private static final String[] TITLES = {"Inbox - Google Chrome", "Main.java - IntelliJ IDEA", "Telegram", null};
+
+    private final ReportCalculator calculator = new ReportCalculator();
+
+    @Test
+    void hourRollupsGiveTheSameReportAsRawRows() {
+        List<SystemStats> rows = rows();
+        ReportAccumulator acc = new ReportAccumulator(true);
+        hourRollups(rows).forEach(acc);
+
+        assertEquals(calculator.average(rows, SystemStats::getCpuLoad), acc.cpuAvg());
+        assertEquals(calculator.average(rows, SystemStats::getRamUsedMb), acc.ramAvg());
+        assertEquals(calculator.appUsagePercent(rows), acc.appUsagePercent());
+        assertEquals(calculator.averageUptime(rows), acc.averageUptime());
+
+        List<DaySummary> expected = calculator.buildDaySummary(rows);
+        List<DaySummary> actual = acc.days();
+        assertEquals(expected.size(), actual.size());
+
+        for (int d = 0; d < expected.size(); d++) {
+            DaySummary e = expected.get(d);
+            DaySummary a = actual.get(d);
+
+            assertEquals(e.getDate(), a.getDate());
+            assertEquals(e.getUptimeHours(), a.getUptimeHours(), e.getDate().toString());
+            assertEquals(e.getCpuAvg(), a.getCpuAvg(), e.getDate().toString());
+            assertEquals(e.getRamAvg(), a.getRamAvg(), e.getDate().toString());
+            assertEquals(e.getAppUsagePercentByDay(), a.getAppUsagePercentByDay(), e.getDate().toString());
+            assertEquals(e.getHourlyStats().size(), a.getHourlyStats().size(), e.getDate().toString());
+
+            for (int h = 0; h < e.getHourlyStats().size(); h++) {
+                HourStat eh = e.getHourlyStats().get(h);
+                HourStat ah = a.getHourlyStats().get(h);
+                String where = e.getDate() + " " + eh.getHour() + ":00";
+
+                assertEquals(eh.getHour(), ah.getHour(), where);
+                assertEquals(eh.getAvgCpu(), ah.getAvgCpu(), where);
+                assertEquals(eh.getAvgRam(), ah.getAvgRam(), where);
+                assertEquals(eh.getInputEvents(), ah.getInputEvents(), where);
+            }
+        }
+    }
+
+    // Three days of samples with uneven intervals, pauses longer than the uptime gap limit,
+    // missing CPU/RAM readings, rows without a window and legacy rows without an interval.
+    private static List<SystemStats> rows() {
+        Random random = new Random(7);
+        List<SystemStats> rows = new ArrayList<>();
+        LocalDateTime t = LocalDateTime.of(2025, 3, 3, 8, 0);
+
+        for (int i = 0; i < 900; i++) {
+            t = t.plusSeconds(i % 97 == 0 ? 3_600 + random.nextInt(3_600) : 20 + random.nextInt(100));
+
+            SystemStats s = new SystemStats();
+            s.setRecordedAt(t);
+            s.setCpuLoad(i % 13 == 0 ? null : BigDecimal.valueOf(random.nextInt(10_000), 2));
+            s.setRamUsedMb(i % 17 == 0 ? null : BigDecimal.valueOf(400_000 + random.nextInt(800_000), 2));
+            s.setActiveWindow(TITLES[random.nextInt(TITLES.length)]);
+            s.setKeyboardPresses(random.nextInt(50));
+            s.setMouseClicks(random.nextInt(10));
+            s.setMouseMoves((long) random.nextInt(500));
+            s.setIntervalSeconds(i < 30 ? null : 60);
+            rows.add(s);
+        }
+        return rows;
+    }
+
+    private static List<StatsRollup> hourRollups(List<SystemStats> rows) {
+        StatsRollupAccumulator hours = new StatsRollupAccumulator(ChronoUnit.HOURS, null);
+        StatsBatch batch = new StatsBatch(EnumSet.allOf(StatsColumn.class), rows.size());
+        rows.forEach(batch::add);
+        hours.accept(batch);
+        return hours.result();
+    }
+}
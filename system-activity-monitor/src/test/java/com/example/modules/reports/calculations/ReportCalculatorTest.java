@@ -0,0 +1,190 @@
+package com.example.modules.reports.calculations;
+
+import com.example.model.AppSegment;
+import com.example.model.DaySummary;
+import com.example.model.SystemStats;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReportCalculatorTest {
+
+    private final ReportCalculator calculator = new ReportCalculator();
+
+    @Test
+    void hourlyActivitySumsIntervalDeltasAndSkipsLegacyTotals() {
+        LocalDateTime nine = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+        List<SystemStats> stats = List.of(
+                stats(nine.plusMinutes(1), 900_000, null),
+                stats(nine.plusMinutes(2), 10, 60),
+                stats(nine.plusMinutes(3), 5, 60),
+                stats(nine.plusHours(1), 7, 60));
+
+        Map<LocalDateTime, Long> activity = calculator.hourlyActivity(stats);
+
+        assertEquals(Long.valueOf(15), activity.get(nine));
+        assertEquals(Long.valueOf(7), activity.get(nine.plusHours(1)));
+    }
+
+    @Test
+    void openSegmentBeforeAnotherEndsWhereTheNextStarts() {
+        LocalDateTime nine = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+        List<AppSegment> segments = List.of(
+                segment("Firefox", nine, null),
+                segment("IntelliJ IDEA", nine.plusMinutes(30), nine.plusMinutes(60)));
+
+        Map<String, BigDecimal> usage = calculator.appUsagePercent(segments, nine, nine.plusHours(12));
+
+        assertEquals(new BigDecimal("50.00"), usage.get("Firefox"));
+        assertEquals(new BigDecimal("50.00"), usage.get("IntelliJ IDEA"));
+    }
+
+    @Test
+    void latestOpenSegmentCountsUpToNow() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(10);
+
+        List<AppSegment> segments = List.of(
+                segment("Firefox", start.minusMinutes(10), start),
+                segment("IntelliJ IDEA", start, null));
+
+        Map<String, BigDecimal> usage = calculator.appUsagePercent(segments, start.minusHours(1), start.plusHours(1));
+
+        assertEquals(new BigDecimal("50.00"), usage.get("IntelliJ IDEA"));
+    }
+
+    @Test
+    void segmentAppsReplaceOnlyDaysThatHaveSegments() {
+        LocalDate monday = LocalDate.of(2025, 3, 3);
+        DaySummary withSegments = day(monday, Map.of("Terminal", new BigDecimal("100.00")));
+        DaySummary withoutSegments = day(monday.plusDays(1), Map.of("Firefox", new BigDecimal("100.00")));
+
+        List<AppSegment> segments = List.of(
+                segment("IntelliJ IDEA", monday.atTime(9, 0), monday.atTime(10, 0)));
+
+        calculator.withSegmentApps(List.of(withSegments, withoutSegments), segments,
+                monday.atStartOfDay(), monday.plusDays(2).atStartOfDay());
+
+        assertEquals(Map.of("IntelliJ IDEA", new BigDecimal("100.00")), withSegments.getAppUsagePercentByDay());
+        assertEquals(Map.of("Firefox", new BigDecimal("100.00")), withoutSegments.getAppUsagePercentByDay());
+    }
+
+    @Test
+    void averageRoundsTiesHalfUpLikeBigDecimal() {
+        assertEquals(new BigDecimal("1.01"), calculator.average(cpu("1.00", "1.01"), SystemStats::getCpuLoad));
+        assertEquals(new BigDecimal("2.68"), calculator.average(cpu("2.67", "2.68", "2.68", "2.67"), SystemStats::getCpuLoad));
+        assertEquals(new BigDecimal("-1.01"), calculator.average(cpu("-1.00", "-1.01"), SystemStats::getCpuLoad));
+        assertEquals(new BigDecimal("0.01"), calculator.average(cpu("-0.01", "0.02"), SystemStats::getCpuLoad));
+
+        List<SystemStats> ties = cpu("1.00", "1.01", "-1.00", "-1.01", "0.05", "-0.04", "99.99", "-99.98");
+        for (int n = 1; n <= ties.size(); n++) {
+            List<SystemStats> prefix = ties.subList(0, n);
+            assertEquals(bigDecimalAverage(prefix), calculator.average(prefix, SystemStats::getCpuLoad), "first " + n);
+        }
+    }
+
+    @Test
+    void finerInputsAreRoundedHalfUpToHundredthsFirst() {
+        FixedPointStats stats = new FixedPointStats();
+        stats.add(new BigDecimal("1.005"));
+        stats.add(new BigDecimal("-1.005"));
+        stats.add(new BigDecimal("2.0049"));
+
+        assertEquals(new BigDecimal("2.00"), stats.max());
+        assertEquals(new BigDecimal("-1.01"), stats.min());
+        assertEquals(new BigDecimal("2.00"), stats.sum());
+        assertEquals(new BigDecimal("0.67"), stats.average());
+    }
+
+    @Test
+    void emptyAndZeroCountGroupsAverageToZero() {
+        FixedPointStats stats = new FixedPointStats();
+        assertEquals(BigDecimal.ZERO, stats.average());
+        assertNull(stats.min());
+        assertNull(stats.max());
+
+        stats.addGroup(0, new BigDecimal("12.34"), new BigDecimal("1.00"), new BigDecimal("9.00"));
+        stats.add(null);
+        assertEquals(0, stats.getCount());
+        assertEquals(BigDecimal.ZERO, stats.average());
+        assertEquals(BigDecimal.ZERO, calculator.average(List.of(), SystemStats::getCpuLoad));
+        assertEquals(BigDecimal.ZERO, calculator.average(cpu((String) null), SystemStats::getCpuLoad));
+    }
+
+    @Test
+    void groupsAndMergesMatchBigDecimalAveraging() {
+        Random random = new Random(22);
+
+        for (int round = 0; round < 200; round++) {
+            List<SystemStats> rows = new ArrayList<>();
+            for (int i = 0, n = 1 + random.nextInt(40); i < n; i++) {
+                rows.add(cpu(BigDecimal.valueOf(random.nextInt(40_001) - 20_000, 2).toPlainString()).get(0));
+            }
+
+            int split = random.nextInt(rows.size() + 1);
+            FixedPointStats first = new FixedPointStats();
+            FixedPointStats second = new FixedPointStats();
+            rows.subList(0, split).forEach(s -> first.add(s.getCpuLoad()));
+            rows.subList(split, rows.size()).forEach(s -> second.add(s.getCpuLoad()));
+
+            FixedPointStats grouped = new FixedPointStats();
+            grouped.addGroup(first.getCount(), first.sum(), first.min(), first.max());
+            grouped.addGroup(second.getCount(), second.sum(), second.min(), second.max());
+            first.merge(second);
+
+            BigDecimal expected = bigDecimalAverage(rows);
+            assertEquals(expected, first.average());
+            assertEquals(expected, grouped.average());
+            assertEquals(expected, calculator.average(rows, SystemStats::getCpuLoad));
+        }
+    }
+
+    private static BigDecimal bigDecimalAverage(List<SystemStats> rows) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (SystemStats s : rows) sum = sum.add(s.getCpuLoad());
+        return sum.divide(BigDecimal.valueOf(rows.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    private static List<SystemStats> cpu(String... values) {
+        List<SystemStats> rows = new ArrayList<>();
+        for (String v : values) {
+            SystemStats s = new SystemStats();
+            s.setCpuLoad(v != null ? new BigDecimal(v) : null);
+            rows.add(s);
+        }
+        return rows;
+    }
+
+    private static AppSegment segment(String app, LocalDateTime start, LocalDateTime end) {
+        AppSegment seg = new AppSegment(null, app, start);
+        seg.setEndTime(end);
+        return seg;
+    }
+
+    private static DaySummary day(LocalDate date, Map<String, BigDecimal> apps) {
+        DaySummary day = new DaySummary(date, List.of(), BigDecimal.ZERO);
+        day.setAppUsagePercentByDay(apps);
+        return day;
+    }
+
+    private static SystemStats stats(LocalDateTime at, int keys, Integer intervalSeconds) {
+        SystemStats s = new SystemStats();
+        s.setRecordedAt(at);
+        s.setKeyboardPresses(keys);
+        s.setMouseClicks(0);
+        s.setMouseMoves(0L);
+        s.setIntervalSeconds(intervalSeconds);
+        return s;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.modules.reports.service;
+
+import com.example.model.StatsRollup;
+import com.example.model.SystemStats;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import com.example.repository.query.StatsRollupAccumulator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+
+/**
+ * Times {@link PartitionedRollupTask} over a quarter of one-minute samples with pools of
+ * one thread up to the number of cores, and prints the speed-up over one thread.
+ * The loader folds in-memory rows as the database would, so only CPU work is measured.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.modules.reports.service.PartitionedRollupBenchmark}.
+ */
+public final class PartitionedRollupBenchmark {
+
+    static final LocalDate FIRST = LocalDate.of(2025, 1, 1);
+    private static final Set<StatsColumn> COLUMNS =
+            EnumSet.of(StatsColumn.RECORDED_AT, StatsColumn.CPU_LOAD, StatsColumn.RAM_USED_MB);
+
+    private PartitionedRollupBenchmark() {}
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 91;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        BiFunction<LocalDateTime, LocalDateTime, List<StatsRollup>> loader = loader(samples(days));
+        LocalDate last = FIRST.plusDays(days - 1);
+
+        System.out.printf("%d days, %d cores%n", days, cores);
+        System.out.println("threads   ms/run   speed-up");
+
+        double single = 0;
+        for (int threads = 1; threads <= cores; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new PartitionedRollupTask(FIRST, last, loader)); // warm-up
+
+                long started = System.nanoTime();
+                for (int i = 0; i < rounds; i++) {
+                    pool.invoke(new PartitionedRollupTask(FIRST, last, loader));
+                }
+                double ms = (System.nanoTime() - started) / 1e6 / rounds;
+                if (threads == 1) single = ms;
+
+                System.out.printf("%7d %8.1f %9.2fx%n", threads, ms, single / ms);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /** One sample a minute with a CPU and RAM wave, from midnight of {@link #FIRST}. */
+    static List<SystemStats> samples(int days) {
+        List<SystemStats> rows = new ArrayList<>(days * 1440);
+        LocalDateTime t = FIRST.atStartOfDay();
+
+        for (int i = 0; i < days * 1440; i++, t = t.plusMinutes(1)) {
+            SystemStats s = new SystemStats();
+            s.setRecordedAt(t);
+            s.setCpuLoad(BigDecimal.valueOf(5_000 + (i * 37L) % 4_000, 2));
+            s.setRamUsedMb(BigDecimal.valueOf(800_000 + (i * 53L) % 200_000, 2));
+            rows.add(s);
+        }
+        return rows;
+    }
+
+    /** Hour rollups of the samples in {@code [from, to]}, built like the database aggregation. */
+    static BiFunction<LocalDateTime, LocalDateTime, List<StatsRollup>> loader(List<SystemStats> rows) {
+        return (from, to) -> {
+            int firstRow = (int) ChronoUnit.MINUTES.between(FIRST.atStartOfDay(), from);
+            int lastRow = (int) Math.min(rows.size() - 1, ChronoUnit.MINUTES.between(FIRST.atStartOfDay(), to));
+
+            StatsRollupAccumulator acc = new StatsRollupAccumulator(ChronoUnit.HOURS, 1);
+            StatsBatch batch = new StatsBatch(COLUMNS, 2_048);
+
+            for (int i = firstRow; i <= lastRow; i++) {
+                batch.add(rows.get(i));
+                if (batch.isFull()) {
+                    acc.accept(batch);
+                    batch.clear();
+                }
+            }
+            if (batch.size() > 0) acc.accept(batch);
+            return acc.result();
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.modules.reports.service;
+
+import com.example.model.StatsRollup;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+
+import static com.example.modules.reports.service.PartitionedRollupBenchmark.FIRST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PartitionedRollupTaskTest {
+
+    @Test
+    void partsJoinToTheSequentialResultWhateverThePoolSize() {
+        int days = 40;
+        BiFunction<LocalDateTime, LocalDateTime, List<StatsRollup>> loader =
+                PartitionedRollupBenchmark.loader(PartitionedRollupBenchmark.samples(days));
+        LocalDate last = FIRST.plusDays(days - 1);
+
+        List<StatsRollup> sequential = loader.apply(FIRST.atStartOfDay(), last.atTime(23, 59, 59));
+        assertEquals(days * 24, sequential.size());
+
+        for (int threads = 1; threads <= 4; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<StatsRollup> parallel = pool.invoke(new PartitionedRollupTask(FIRST, last, loader));
+                assertEquals(describe(sequential), describe(parallel), threads + " thread(s)");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static List<String> describe(List<StatsRollup> rollups) {
+        return rollups.stream()
+                .map(r -> r.getBucketStart() + " " + r.getSampleCount() + " " + r.getCpuSum() + " " + r.getCpuMax())
+                .toList();
+    }
+}
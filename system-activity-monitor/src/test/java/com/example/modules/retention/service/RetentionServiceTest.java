@@ -0,0 +1,88 @@
+package com.example.modules.retention.service;
+
+import com.example.repository.interfaces.RetentionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RetentionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Test
+    void partitionsAreKeptForTheLongestRetention() {
+        Repository repository = new Repository(true, Map.of(5, 400, 6, 30));
+
+        new RetentionService(repository, 365).runOnce(TODAY);
+
+        assertEquals(List.of(YearMonth.of(2025, 9)), repository.ensured);
+        assertEquals(List.of(TODAY.minusDays(400).atStartOfDay()), repository.dropCutoffs);
+    }
+
+    @Test
+    void shorterOverridesDoNotMoveThePartitionCutoff() {
+        Repository repository = new Repository(true, Map.of(6, 30));
+
+        new RetentionService(repository, 365).runOnce(TODAY);
+
+        assertEquals(List.of(TODAY.minusDays(365).atStartOfDay()), repository.dropCutoffs);
+        // The user with 30 days loses the rest through chunked deletes.
+        assertEquals(List.of(
+                "stats null except [6] before " + TODAY.minusDays(365).atStartOfDay(),
+                "stats 6 except null before " + TODAY.minusDays(30).atStartOfDay()), repository.statsDeletes);
+    }
+
+    @Test
+    void unpartitionedTableOnlyGetsChunkedDeletes() {
+        Repository repository = new Repository(false, Map.of());
+
+        new RetentionService(repository, 90).runOnce(TODAY);
+
+        assertEquals(List.of(), repository.ensured);
+        assertEquals(List.of(), repository.dropCutoffs);
+        assertEquals(List.of("stats null except [] before " + TODAY.minusDays(90).atStartOfDay()), repository.statsDeletes);
+    }
+
+    private static final class Repository implements RetentionRepository {
+        final boolean partitioned;
+        final Map<Integer, Integer> overrides;
+        final List<YearMonth> ensured = new ArrayList<>();
+        final List<LocalDateTime> dropCutoffs = new ArrayList<>();
+        final List<String> statsDeletes = new ArrayList<>();
+
+        Repository(boolean partitioned, Map<Integer, Integer> overrides) {
+            this.partitioned = partitioned;
+            this.overrides = overrides;
+        }
+
+        @Override public boolean isPartitioned() { return partitioned; }
+        @Override public void ensurePartitions(YearMonth through) { ensured.add(through); }
+        @Override public Map<Integer, Integer> findUserRetentionDays() { return overrides; }
+
+        @Override
+        public List<String> dropPartitionsBefore(LocalDateTime cutoff) {
+            dropCutoffs.add(cutoff);
+            return List.of();
+        }
+
+        @Override
+        public int deleteStatsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) {
+            statsDeletes.add("stats " + userId + " except " + (excludedUsers != null ? excludedUsers.stream().sorted().toList() : null)
+                    + " before " + cutoff);
+            return 0;
+        }
+
+        @Override
+        public int deleteRollupsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.repository.impl;
+
+import com.example.connection.ConnectionPool;
+import com.example.connection.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ApplicationDictionaryTest {
+
+    private ConnectionPool pool;
+    private ApplicationDictionary dictionary;
+
+    @BeforeEach
+    void open() {
+        pool = TestDatabase.create(4, 1_000);
+        dictionary = ApplicationDictionary.forDataSource(pool);
+    }
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @Test
+    void oneDictionaryPerDataSource() {
+        assertSame(dictionary, ApplicationDictionary.forDataSource(pool));
+    }
+
+    @Test
+    void titlesOfOneApplicationShareItsId() throws SQLException {
+        int project = dictionary.titleId("Project - IntelliJ IDEA");
+        int other = dictionary.titleId("Other - IntelliJ IDEA");
+        int inbox = dictionary.titleId("Inbox - Google Chrome");
+
+        assertNotEquals(project, other);
+        assertEquals(project, dictionary.titleId("Project - IntelliJ IDEA"));
+        assertNull(dictionary.titleId(null));
+
+        try (Connection conn = pool.getConnection()) {
+            int idea = dictionary.applicationId(conn, project);
+            assertEquals(idea, dictionary.applicationId(conn, other));
+            assertNotEquals(idea, dictionary.applicationId(conn, inbox));
+            assertEquals("IntelliJ IDEA", dictionary.applicationName(conn, idea));
+            assertEquals("Project - IntelliJ IDEA", dictionary.title(conn, project));
+        }
+
+        assertEquals(3, count("SELECT COUNT(*) FROM window_titles"));
+        assertEquals(2, count("SELECT COUNT(*) FROM applications"));
+    }
+
+    @Test
+    void knownEntriesAreAnsweredWithoutTheDatabase() throws SQLException {
+        int title = dictionary.titleId("Inbox - Google Chrome");
+        int application;
+        try (Connection conn = pool.getConnection()) {
+            application = dictionary.applicationId(conn, title);
+        }
+
+        pool.close();
+
+        assertEquals(title, dictionary.titleId("Inbox - Google Chrome"));
+        assertEquals("Google Chrome", dictionary.applicationName(application));
+        assertThrows(RuntimeException.class, () -> dictionary.titleId("Unseen - Mozilla Firefox"));
+    }
+
+    @Test
+    void migratedTitleGetsItsApplicationOnFirstLookup() throws SQLException {
+        execute("INSERT INTO window_titles (id, title) VALUES (7, 'Report.docx - Word')");
+
+        int application;
+        try (Connection conn = pool.getConnection()) {
+            application = dictionary.applicationId(conn, 7);
+            assertEquals("MS Word", dictionary.applicationName(conn, application));
+            assertEquals(0, dictionary.applicationId(conn, 99), "unknown title");
+            assertNull(dictionary.title(conn, 99));
+        }
+
+        assertEquals(application, count("SELECT application_id FROM window_titles WHERE id = 7"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
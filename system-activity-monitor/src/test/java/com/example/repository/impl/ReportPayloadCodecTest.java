@@ -0,0 +1,216 @@
+package com.example.repository.impl;
+
+import com.example.model.DaySummary;
+import com.example.model.HourStat;
+import com.example.model.Percentiles;
+import com.example.model.QuantileSketch;
+import com.example.model.Report;
+import com.example.util.Varints;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportPayloadCodecTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Test
+    void fullReportRoundTrips() {
+        Report report = new Report();
+        report.setAppUsagePercent(apps("Firefox", "60.00", "IntelliJ IDEA", "40.00"));
+        report.setCpuSketch(sketch(150, 2_000, 9_999));
+        report.setRamSketch(sketch(400_000, 800_000));
+
+        DaySummary day = new DaySummary(MONDAY, hours(hour(9, "12.50", "4096.25", 42), hour(10, "-0.01", "0.00", 0)),
+                new BigDecimal("7.25"));
+        day.setCpuAvg(new BigDecimal("10.05"));
+        day.setRamAvg(new BigDecimal("4096.13"));
+        day.setAppUsagePercentByDay(apps("IntelliJ IDEA", "100.00"));
+        day.setCpuPercentiles(percentiles("10.00", "20.00", "30.00", "99.99"));
+        day.setRamPercentiles(percentiles("4000.00", "4100.00", "4200.00", "4300.00"));
+        day.getHourlyStats().get(0).setCpuPercentiles(percentiles("1.00", "2.00", "3.00", "4.00"));
+        report.setDays(List.of(day));
+
+        ReportPayloadCodec.Decoded decoded = ReportPayloadCodec.decode(ReportPayloadCodec.encode(report));
+
+        assertEquals(report.getAppUsagePercent(), decoded.appUsage());
+        assertArrayEquals(report.getCpuSketch().toBytes(), decoded.cpuSketch().toBytes());
+        assertArrayEquals(report.getRamSketch().toBytes(), decoded.ramSketch().toBytes());
+        assertDays(report.getDays(), decoded.days());
+    }
+
+    @Test
+    void nullFieldsAreLeftOutAndReadBackAsNull() {
+        Report report = new Report();
+        report.setAppUsagePercent(apps("Firefox", "100.00", "Telegram", null));
+
+        DaySummary empty = new DaySummary();
+        empty.setDate(MONDAY);
+        DaySummary hoursOnly = new DaySummary();
+        hoursOnly.setDate(MONDAY.plusDays(1));
+        hoursOnly.setHourlyStats(hours(hour(23, null, null, 5)));
+        report.setDays(List.of(empty, hoursOnly));
+
+        ReportPayloadCodec.Decoded decoded = ReportPayloadCodec.decode(ReportPayloadCodec.encode(report));
+
+        // A null percentage is dropped rather than stored.
+        assertEquals(apps("Firefox", "100.00"), decoded.appUsage());
+        assertNull(decoded.cpuSketch());
+        assertNull(decoded.ramSketch());
+        assertDays(report.getDays(), decoded.days());
+
+        DaySummary read = decoded.days().get(0);
+        assertNull(read.getUptimeHours());
+        assertNull(read.getAppUsagePercentByDay());
+        assertNull(read.getHourlyStats());
+
+        Report nothing = new Report();
+        ReportPayloadCodec.Decoded decodedNothing = ReportPayloadCodec.decode(ReportPayloadCodec.encode(nothing));
+        assertTrue(decodedNothing.appUsage().isEmpty());
+        assertTrue(decodedNothing.days().isEmpty());
+    }
+
+    @Test
+    void appNamesAreStoredOnceAndDaysMayGoBackwards() {
+        Report report = new Report();
+        report.setAppUsagePercent(apps("Firefox", "50.00", "IntelliJ IDEA", "50.00"));
+
+        List<DaySummary> days = new ArrayList<>();
+        for (LocalDate date : List.of(MONDAY.plusDays(10), MONDAY, MONDAY.minusDays(400), MONDAY.plusDays(1))) {
+            DaySummary d = new DaySummary(date, null, BigDecimal.ONE.setScale(2));
+            d.setAppUsagePercentByDay(apps("IntelliJ IDEA", "70.00", "Firefox", "30.00"));
+            days.add(d);
+        }
+        report.setDays(days);
+
+        byte[] bytes = ReportPayloadCodec.encode(report);
+
+        assertEquals(1, occurrences(bytes, "Firefox"));
+        assertEquals(1, occurrences(bytes, "IntelliJ IDEA"));
+        assertDays(days, ReportPayloadCodec.decode(bytes).days());
+    }
+
+    @Test
+    void versionOnePayloadsWithoutSketchesAreRead() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(1);
+        Varints.put(out, 1);
+        byte[] name = "Firefox".getBytes(StandardCharsets.UTF_8);
+        Varints.put(out, name.length);
+        out.write(name, 0, name.length);
+        Varints.put(out, 1);
+        Varints.put(out, 0);
+        Varints.putSigned(out, 10_000);
+        // One day with only its CPU average (mask bit 1), no sketch mask before the days.
+        Varints.put(out, 1);
+        Varints.putSigned(out, MONDAY.toEpochDay());
+        out.write(1 << 1);
+        Varints.putSigned(out, 1_234);
+
+        ReportPayloadCodec.Decoded decoded = ReportPayloadCodec.decode(out.toByteArray());
+
+        assertEquals(apps("Firefox", "100.00"), decoded.appUsage());
+        assertNull(decoded.cpuSketch());
+        assertEquals(1, decoded.days().size());
+        assertEquals(MONDAY, decoded.days().get(0).getDate());
+        assertEquals(new BigDecimal("12.34"), decoded.days().get(0).getCpuAvg());
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] bytes = ReportPayloadCodec.encode(new Report());
+        bytes[0] = ReportPayloadCodec.VERSION + 1;
+
+        assertThrows(IllegalStateException.class, () -> ReportPayloadCodec.decode(bytes));
+    }
+
+    private static void assertDays(List<DaySummary> expected, List<DaySummary> actual) {
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            DaySummary e = expected.get(i);
+            DaySummary a = actual.get(i);
+            String where = e.getDate().toString();
+
+            assertEquals(e.getDate(), a.getDate(), where);
+            assertEquals(e.getUptimeHours(), a.getUptimeHours(), where);
+            assertEquals(e.getCpuAvg(), a.getCpuAvg(), where);
+            assertEquals(e.getRamAvg(), a.getRamAvg(), where);
+            assertEquals(e.getAppUsagePercentByDay(), a.getAppUsagePercentByDay(), where);
+            assertEquals(String.valueOf(e.getCpuPercentiles()), String.valueOf(a.getCpuPercentiles()), where);
+            assertEquals(String.valueOf(e.getRamPercentiles()), String.valueOf(a.getRamPercentiles()), where);
+
+            if (e.getHourlyStats() == null) {
+                assertNull(a.getHourlyStats(), where);
+                continue;
+            }
+            assertEquals(e.getHourlyStats().size(), a.getHourlyStats().size(), where);
+            for (int h = 0; h < e.getHourlyStats().size(); h++) {
+                HourStat eh = e.getHourlyStats().get(h);
+                HourStat ah = a.getHourlyStats().get(h);
+
+                assertEquals(eh.getHour(), ah.getHour(), where);
+                assertEquals(eh.getAvgCpu(), ah.getAvgCpu(), where);
+                assertEquals(eh.getAvgRam(), ah.getAvgRam(), where);
+                assertEquals(eh.getInputEvents(), ah.getInputEvents(), where);
+                assertEquals(String.valueOf(eh.getCpuPercentiles()), String.valueOf(ah.getCpuPercentiles()), where);
+                assertEquals(String.valueOf(eh.getRamPercentiles()), String.valueOf(ah.getRamPercentiles()), where);
+            }
+        }
+    }
+
+    private static Map<String, BigDecimal> apps(String... namesAndPercents) {
+        Map<String, BigDecimal> apps = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndPercents.length; i += 2) {
+            String percent = namesAndPercents[i + 1];
+            apps.put(namesAndPercents[i], percent != null ? new BigDecimal(percent) : null);
+        }
+        return apps;
+    }
+
+    private static List<HourStat> hours(HourStat... hours) {
+        return new ArrayList<>(List.of(hours));
+    }
+
+    private static HourStat hour(int hour, String cpu, String ram, long inputEvents) {
+        HourStat h = new HourStat(hour, cpu != null ? new BigDecimal(cpu) : null, ram != null ? new BigDecimal(ram) : null);
+        h.setInputEvents(inputEvents);
+        return h;
+    }
+
+    private static Percentiles percentiles(String p50, String p95, String p99, String max) {
+        return new Percentiles(new BigDecimal(p50), new BigDecimal(p95), new BigDecimal(p99), new BigDecimal(max));
+    }
+
+    private static QuantileSketch sketch(long... hundredths) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (long v : hundredths) sketch.add(v);
+        return sketch;
+    }
+
+    private static int occurrences(byte[] bytes, String s) {
+        byte[] needle = s.getBytes(StandardCharsets.UTF_8);
+        int count = 0;
+        outer:
+        for (int i = 0; i + needle.length <= bytes.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (bytes[i + j] != needle[j]) continue outer;
+            }
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.repository.impl;
+
+import com.example.connection.ConnectionPool;
+import com.example.connection.TestDatabase;
+import com.example.model.ReportSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportRepositoryImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    private ConnectionPool pool;
+    private ReportRepositoryImpl repository;
+
+    @BeforeEach
+    void open() throws SQLException {
+        pool = TestDatabase.create(4, 1_000);
+        repository = new ReportRepositoryImpl(pool);
+
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO users (id, username, password_hash, created_at) VALUES"
+                    + " (1, 'u', 'h', CURRENT_TIMESTAMP), (2, 'v', 'h', CURRENT_TIMESTAMP)");
+        }
+    }
+
+    @AfterEach
+    void close() {
+        pool.close();
+    }
+
+    @Test
+    void pagesWalkEveryReportOnceNewestFirst() throws SQLException {
+        // Ids 1..7; 2, 3 and 4 were created in the same second, so only the id orders them.
+        insert(1, T0);
+        insert(1, T0.plusHours(1));
+        insert(1, T0.plusHours(1));
+        insert(1, T0.plusHours(1));
+        insert(2, T0.plusHours(2));
+        insert(1, T0.plusHours(3));
+        insert(1, T0.plusHours(4));
+
+        List<Integer> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        ReportSummary last = null;
+        while (true) {
+            List<ReportSummary> page = repository.findSummariesByUserId(1, last, 2);
+            if (page.isEmpty()) break;
+
+            pageSizes.add(page.size());
+            page.forEach(s -> seen.add(s.getId()));
+            last = page.get(page.size() - 1);
+        }
+
+        assertEquals(List.of(7, 6, 4, 3, 2, 1), seen);
+        assertEquals(List.of(2, 2, 2), pageSizes);
+    }
+
+    @Test
+    void summariesCarryTheListColumns() throws SQLException {
+        insert(1, T0);
+
+        ReportSummary s = repository.findSummariesByUserId(1, null, 10).get(0);
+        assertEquals("report", s.getReportName());
+        assertEquals(LocalDate.of(2025, 3, 1), s.getPeriodStart());
+        assertEquals(LocalDate.of(2025, 3, 2), s.getPeriodEnd());
+        assertEquals(T0, s.getCreatedAt());
+
+        assertTrue(repository.findSummariesByUserId(1, s, 10).isEmpty());
+        assertTrue(repository.findSummariesByUserId(2, null, 10).isEmpty());
+    }
+
+    private void insert(int userId, LocalDateTime createdAt) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO reports"
+                     + " (user_id, report_name, period_start, period_end, created_at)"
+                     + " VALUES (?, 'report', DATE '2025-03-01', DATE '2025-03-02', ?)")) {
+            ps.setInt(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(createdAt));
+            ps.executeUpdate();
+        }
+    }
+}
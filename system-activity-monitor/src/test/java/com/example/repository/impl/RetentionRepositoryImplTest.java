@@ -0,0 +1,48 @@
+package com.example.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RetentionRepositoryImplTest {
+
+    @Test
+    void partitionNamesAreParsedAsMonthsInOrder() {
+        List<YearMonth> months = RetentionRepositoryImpl.monthlyPartitions(
+                List.of("p202502", "p202412", "p_future", "p202501"));
+
+        assertEquals(List.of(YearMonth.of(2024, 12), YearMonth.of(2025, 1), YearMonth.of(2025, 2)), months);
+    }
+
+    @Test
+    void unknownPartitionNameIsRejected() {
+        assertThrows(DateTimeParseException.class,
+                () -> RetentionRepositoryImpl.monthlyPartitions(List.of("p2025_01")));
+    }
+
+    @Test
+    void reorganizeSplitsTheFuturePartitionByMonth() {
+        assertEquals("ALTER TABLE system_stats REORGANIZE PARTITION p_future INTO ("
+                        + "PARTITION p202411 VALUES LESS THAN ('2024-12-01 00:00:00'), "
+                        + "PARTITION p202412 VALUES LESS THAN ('2025-01-01 00:00:00'), "
+                        + "PARTITION p202501 VALUES LESS THAN ('2025-02-01 00:00:00'), "
+                        + "PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                RetentionRepositoryImpl.reorganizeSql(YearMonth.of(2024, 11), YearMonth.of(2025, 1)));
+    }
+
+    @Test
+    void onlyMonthsEndingByTheCutoffExpire() {
+        List<String> names = List.of("p202412", "p202501", "p202502", "p_future");
+
+        assertEquals(List.of("p202412", "p202501"),
+                RetentionRepositoryImpl.expiredPartitions(names, LocalDateTime.of(2025, 2, 1, 0, 0)));
+        assertEquals(List.of("p202412"),
+                RetentionRepositoryImpl.expiredPartitions(names, LocalDateTime.of(2025, 1, 31, 23, 59)));
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.repository.impl;
+
+import com.example.connection.ConnectionPool;
+import com.example.connection.DatabaseConnection;
+import com.example.connection.TestDatabase;
+import com.example.model.QuantileSketch;
+import com.example.model.StatsRollup;
+import com.example.model.StatsRollup.Resolution;
+import com.example.model.SystemStats;
+import com.example.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollupRepositoryImplTest {
+
+    private static final int USER_ID = 1;
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 3);
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    @Test
+    void coldDictionaryIsReadOnTheRebuildingConnection() throws Exception {
+        pool = TestDatabase.create(DatabaseConnection.MAX_POOL_SIZE, 500);
+        seed(true, 3);
+
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < DatabaseConnection.MAX_POOL_SIZE - 1; i++) held.add(pool.getConnection());
+
+            new RollupRepositoryImpl(pool).rebuild(USER_ID, DAY.atStartOfDay(), DAY.plusDays(2).atTime(23, 59, 59));
+        } finally {
+            for (Connection c : held) c.close();
+        }
+
+        assertEquals(Map.of("IntelliJ IDEA", 30L * 3, "Google Chrome", 30L * 3), dayAppCounts());
+    }
+
+    @Test
+    void parallelRebuildWithAStatsWriterFinishesOnAPoolOfFour() throws Exception {
+        pool = TestDatabase.create(DatabaseConnection.MAX_POOL_SIZE, 5_000);
+        // Titles migrated from active_window: the dictionary has to assign their application.
+        seed(false, 4);
+
+        RollupRepositoryImpl rollups = new RollupRepositoryImpl(pool);
+        int workers = DatabaseConnection.MAX_POOL_SIZE - 2;
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (Connection writer = pool.getConnection()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int d = 0; d < 4; d++) {
+                LocalDate day = DAY.plusDays(d);
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    rollups.rebuild(USER_ID, day.atStartOfDay(), day.atTime(23, 59, 59));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) task.get(30, TimeUnit.SECONDS);
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(Map.of("IntelliJ IDEA", 30L * 4, "Google Chrome", 30L * 4), dayAppCounts());
+        assertEquals(0, countRows("SELECT COUNT(*) FROM window_titles WHERE application_id IS NULL"));
+    }
+
+    @Test
+    void onlyDaysWithoutAFinalRollupAreStale() throws Exception {
+        pool = TestDatabase.create(DatabaseConnection.MAX_POOL_SIZE, 5_000);
+        seed(true, 4);
+        RollupRepositoryImpl rollups = new RollupRepositoryImpl(pool);
+        LocalDateTime from = DAY.atStartOfDay();
+        LocalDateTime to = DAY.plusDays(5).atTime(23, 59, 59);
+
+        assertEquals(List.of(DAY, DAY.plusDays(1), DAY.plusDays(2), DAY.plusDays(3)), rollups.findStaleDays(USER_ID, from, to));
+
+        rollups.rebuild(USER_ID, from, DAY.plusDays(3).atTime(23, 59, 59));
+        assertEquals(List.of(), rollups.findStaleDays(USER_ID, from, to));
+
+        // Stamped while the day was still open: its rows are counted again.
+        execute("UPDATE stats_1d SET updated_at = TIMESTAMP '2025-03-04 12:00:00' WHERE bucket_start = TIMESTAMP '2025-03-04 00:00:00'");
+        execute("DELETE FROM system_stats WHERE recorded_at = TIMESTAMP '2025-03-04 10:05:00'");
+        // Stamped after the day ended: final, its raw rows are not read.
+        execute("DELETE FROM system_stats WHERE recorded_at = TIMESTAMP '2025-03-05 10:05:00'");
+        // Raw rows trimmed by retention: the rollup stays.
+        execute("UPDATE stats_1d SET updated_at = NULL WHERE bucket_start = TIMESTAMP '2025-03-06 00:00:00'");
+        execute("DELETE FROM system_stats WHERE recorded_at < TIMESTAMP '2025-03-07 00:00:00' AND recorded_at >= TIMESTAMP '2025-03-06 00:00:00'");
+
+        assertEquals(List.of(DAY.plusDays(1)), rollups.findStaleDays(USER_ID, from, to));
+    }
+
+    @Test
+    void aggregatedRollupsCarryTheSameSketchesAsStoredOnes() throws Exception {
+        pool = TestDatabase.create(DatabaseConnection.MAX_POOL_SIZE, 5_000);
+        seed(true, 2);
+        execute("UPDATE system_stats SET ram_used_mb = NULL WHERE MINUTE(recorded_at) = 7");
+        RollupRepositoryImpl rollups = new RollupRepositoryImpl(pool);
+        LocalDateTime from = DAY.atStartOfDay();
+        LocalDateTime to = DAY.plusDays(1).atTime(23, 59, 59);
+
+        rollups.rebuild(USER_ID, from, to);
+
+        for (Resolution resolution : Resolution.values()) {
+            List<StatsRollup> stored = rollups.findByUserIdAndBucketBetween(USER_ID, resolution, from, to);
+            List<StatsRollup> aggregated = rollups.aggregate(USER_ID, resolution, from, to);
+            assertEquals(stored.size(), aggregated.size(), resolution.name());
+
+            for (int i = 0; i < stored.size(); i++) {
+                String where = resolution + " " + stored.get(i).getBucketStart();
+                assertArrayEquals(bytes(stored.get(i).getCpuSketch()), bytes(aggregated.get(i).getCpuSketch()), where);
+                assertArrayEquals(bytes(stored.get(i).getRamSketch()), bytes(aggregated.get(i).getRamSketch()), where);
+            }
+        }
+    }
+
+    @Test
+    void aggregateCountsGapsWithinADayAndOnlyIntervalInput() throws Exception {
+        pool = TestDatabase.create(DatabaseConnection.MAX_POOL_SIZE, 5_000);
+        seed(false, 0);
+        // 30 s and 40 s gaps count; 29 min, the jump to 23:59 and the one across midnight do not.
+        // The 10:01:10 row predates per-interval deltas, so its counter is a running total.
+        execute("INSERT INTO system_stats (user_id, cpu_load, keyboard_presses, interval_seconds, recorded_at) VALUES"
+                + " (1, 10, 1, 60, TIMESTAMP '2025-03-03 10:00:00'),"
+                + " (1, 20, 2, 60, TIMESTAMP '2025-03-03 10:00:30'),"
+                + " (1, NULL, 300, NULL, TIMESTAMP '2025-03-03 10:01:10'),"
+                + " (1, 40, 4, 60, TIMESTAMP '2025-03-03 10:30:00'),"
+                + " (1, 50, 5, 60, TIMESTAMP '2025-03-03 23:59:50'),"
+                + " (1, 60, 6, 60, TIMESTAMP '2025-03-04 00:00:10')");
+        RollupRepositoryImpl rollups = new RollupRepositoryImpl(pool);
+
+        List<StatsRollup> days = rollups.aggregate(USER_ID, Resolution.DAY, DAY.atStartOfDay(), DAY.plusDays(1).atTime(23, 59, 59));
+        assertEquals(2, days.size());
+
+        StatsRollup first = days.get(0);
+        assertEquals(DAY.atStartOfDay(), first.getBucketStart());
+        assertEquals(5, first.getSampleCount());
+        assertEquals(4, first.getCpuCount());
+        assertSameValue(BigDecimal.valueOf(120), first.getCpuSum(), "cpu sum");
+        assertSameValue(BigDecimal.valueOf(10), first.getCpuMin(), "cpu min");
+        assertSameValue(BigDecimal.valueOf(50), first.getCpuMax(), "cpu max");
+        assertEquals(4, first.getCpuSketch().getCount());
+        assertEquals(1 + 2 + 4 + 5, first.getInputEvents());
+        assertEquals(70, first.getGapSeconds());
+        assertEquals(2, first.getGapCount());
+
+        assertEquals(0, days.get(1).getGapCount(), "the gap across midnight belongs to no day");
+
+        List<StatsRollup> hours = rollups.aggregate(USER_ID, Resolution.HOUR, DAY.atStartOfDay(), DAY.atTime(23, 59, 59));
+        assertEquals(List.of(DAY.atTime(10, 0), DAY.atTime(23, 0)), hours.stream().map(StatsRollup::getBucketStart).toList());
+        assertEquals(70, hours.get(0).getGapSeconds());
+        assertEquals(0, hours.get(1).getGapSeconds());
+
+        // The first sample of the range has no predecessor, even if an earlier row exists.
+        List<StatsRollup> fromSecond = rollups.aggregate(USER_ID, Resolution.DAY, DAY.atTime(10, 0, 30), DAY.atTime(23, 59, 59));
+        assertEquals(40, fromSecond.get(0).getGapSeconds());
+        assertEquals(1, fromSecond.get(0).getGapCount());
+    }
+
+    @Test
+    void storedRollupsMatchARawRecomputationAfterInsertAndDelete() throws Exception {
+        pool = TestDatabase.create(DatabaseConnection.MAX_POOL_SIZE, 5_000);
+        seed(true, 0);
+        StatsRepositoryImpl stats = new StatsRepositoryImpl(pool);
+        RollupRepositoryImpl rollups = new RollupRepositoryImpl(pool);
+
+        User user = new User();
+        user.setId(USER_ID);
+
+        // 20-second samples across an hour boundary; the browser opens each minute after 11:00.
+        List<SystemStats> saved = new ArrayList<>();
+        LocalDateTime t0 = DAY.atTime(10, 50);
+        for (int i = 0; i < 60; i++) {
+            LocalDateTime t = t0.plusSeconds(20L * i);
+            boolean browserFirst = !t.isBefore(DAY.atTime(11, 0));
+            SystemStats s = new SystemStats();
+            s.setUser(user);
+            s.setCpuLoad(BigDecimal.valueOf(i % 7 * 10 + 5, 1));
+            s.setRamUsedMb(i % 5 == 0 ? null : BigDecimal.valueOf(2048 + i));
+            s.setActiveWindow((i % 3 == 0) == browserFirst ? "Inbox - Google Chrome" : "Project - IntelliJ IDEA");
+            s.setKeyboardPresses(i);
+            s.setMouseClicks(1);
+            s.setMouseMoves(10L);
+            s.setIntervalSeconds(20);
+            s.setRecordedAt(t);
+            stats.save(s);
+            saved.add(s);
+        }
+
+        LocalDateTime from = DAY.atStartOfDay();
+        LocalDateTime to = DAY.atTime(23, 59, 59);
+        assertMatchesRawRecomputation(rollups, from, to);
+
+        List<StatsRollup> hours = rollups.findByUserIdAndBucketBetween(USER_ID, Resolution.HOUR, from, to);
+        assertEquals(List.of("IntelliJ IDEA", "Google Chrome"), List.copyOf(hours.get(0).getAppCounts().keySet()));
+        assertEquals(List.of("Google Chrome", "IntelliJ IDEA"), List.copyOf(hours.get(1).getAppCounts().keySet()));
+
+        stats.deleteById(saved.get(0).getId());
+        stats.deleteById(saved.get(30).getId());
+        stats.deleteById(saved.get(59).getId());
+        assertMatchesRawRecomputation(rollups, from, to);
+    }
+
+    // An hour a day for each day: 30 minutes in the IDE, then 30 in the browser.
+    private void seed(boolean withApplications, int days) throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO users (id, username, password_hash, created_at) VALUES (1, 'u', 'h', CURRENT_TIMESTAMP)");
+            if (withApplications) {
+                st.executeUpdate("INSERT INTO applications (id, name) VALUES (1, 'IntelliJ IDEA'), (2, 'Google Chrome')");
+                st.executeUpdate("INSERT INTO window_titles (id, title, application_id) VALUES"
+                        + " (1, 'Project - IntelliJ IDEA', 1), (2, 'Inbox - Google Chrome', 2)");
+            } else {
+                st.executeUpdate("INSERT INTO window_titles (id, title) VALUES (1, 'Project - IntelliJ IDEA'), (2, 'Inbox - Google Chrome')");
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO system_stats"
+                    + " (user_id, cpu_load, ram_used_mb, window_title_id, interval_seconds, recorded_at) VALUES (1, ?, ?, ?, 60, ?)")) {
+                for (int d = 0; d < days; d++) {
+                    LocalDateTime t0 = DAY.plusDays(d).atTime(10, 0);
+                    for (int m = 0; m < 60; m++) {
+                        ps.setBigDecimal(1, BigDecimal.valueOf(m));
+                        ps.setBigDecimal(2, BigDecimal.valueOf(4096));
+                        ps.setInt(3, m < 30 ? 1 : 2);
+                        ps.setTimestamp(4, Timestamp.valueOf(t0.plusMinutes(m)));
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    // aggregate() reads system_stats directly; stored rollups must agree field by field,
+    // app counts in the order the applications were first used.
+    private static void assertMatchesRawRecomputation(RollupRepositoryImpl rollups,
+                                                      LocalDateTime from, LocalDateTime to) {
+        for (Resolution resolution : Resolution.values()) {
+            List<StatsRollup> stored = rollups.findByUserIdAndBucketBetween(USER_ID, resolution, from, to);
+            List<StatsRollup> raw = rollups.aggregate(USER_ID, resolution, from, to);
+            assertEquals(raw.size(), stored.size(), resolution.name());
+
+            for (int i = 0; i < raw.size(); i++) {
+                StatsRollup e = raw.get(i);
+                StatsRollup a = stored.get(i);
+                String where = resolution + " " + e.getBucketStart();
+
+                assertEquals(e.getBucketStart(), a.getBucketStart(), where);
+                assertEquals(e.getSampleCount(), a.getSampleCount(), where);
+                assertEquals(e.getCpuCount(), a.getCpuCount(), where);
+                assertSameValue(e.getCpuSum(), a.getCpuSum(), where);
+                assertSameValue(e.getCpuMin(), a.getCpuMin(), where);
+                assertSameValue(e.getCpuMax(), a.getCpuMax(), where);
+                assertEquals(e.getRamCount(), a.getRamCount(), where);
+                assertSameValue(e.getRamSum(), a.getRamSum(), where);
+                assertSameValue(e.getRamMin(), a.getRamMin(), where);
+                assertSameValue(e.getRamMax(), a.getRamMax(), where);
+                assertEquals(e.getInputEvents(), a.getInputEvents(), where);
+                assertEquals(e.getGapSeconds(), a.getGapSeconds(), where);
+                assertEquals(e.getGapCount(), a.getGapCount(), where);
+                assertEquals(List.copyOf(e.getAppCounts().entrySet()), List.copyOf(a.getAppCounts().entrySet()), where);
+                assertArrayEquals(bytes(e.getCpuSketch()), bytes(a.getCpuSketch()), where);
+                assertArrayEquals(bytes(e.getRamSketch()), bytes(a.getRamSketch()), where);
+            }
+        }
+    }
+
+    private static void assertSameValue(BigDecimal expected, BigDecimal actual, String where) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, where);
+        } else {
+            assertEquals(0, expected.compareTo(actual), where + ": " + expected + " != " + actual);
+        }
+    }
+
+    private static byte[] bytes(QuantileSketch sketch) {
+        return sketch != null ? sketch.toBytes() : null;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate(sql);
+        }
+    }
+
+    private Map<String, Long> dayAppCounts() throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        try (Connection conn = pool.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT app_name, SUM(sample_count) FROM stats_app_counts"
+                     + " WHERE resolution = '1d' GROUP BY app_name")) {
+            while (rs.next()) counts.put(rs.getString(1), rs.getLong(2));
+        }
+        return counts;
+    }
+
+    private long countRows(String sql) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.repository.impl;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+import com.example.repository.interfaces.StatsRepository;
+import com.example.repository.spool.StatsSpool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpooledStatsRepositoryTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private final Database database = new Database();
+    private WriteBehindStatsRepository writeBehind;
+    private SpooledStatsRepository repository;
+
+    @AfterEach
+    void close() {
+        if (repository != null) repository.close();
+        if (writeBehind != null) writeBehind.close();
+    }
+
+    @Test
+    void rowsQueuedBehindTheSpoolStaySpooledUntilStored() throws Exception {
+        open();
+        database.down = true;
+
+        repository.save(stats(1));
+        repository.save(stats(2));
+        assertFalse(repository.replay());
+        assertTrue(repository.hasPending());
+
+        // The process dies here: the write-behind queue is gone, the spool still has both rows.
+        try (StatsSpool reopened = new StatsSpool(dir, SEGMENT_BYTES)) {
+            assertEquals(List.of(1, 2), keys(reopened.read(10).records()));
+        }
+
+        database.down = false;
+        assertTrue(repository.replay());
+        assertFalse(repository.hasPending());
+        assertEquals(List.of(1, 2), keys(database.rows));
+    }
+
+    @Test
+    void deleteReplaysPendingRowsFirst() throws Exception {
+        open();
+        repository.save(stats(1));
+
+        repository.deleteById(1);
+
+        assertEquals(List.of("save 1", "delete 1"), database.log);
+        assertTrue(database.rows.isEmpty());
+    }
+
+    private void open() throws Exception {
+        writeBehind = new WriteBehindStatsRepository(database, 100, 50, 60_000,
+                WriteBehindStatsRepository.OverflowPolicy.BLOCK, 100);
+        // Replays only when asked: the scheduled run sees an empty spool.
+        repository = new SpooledStatsRepository(writeBehind, new StatsSpool(dir, SEGMENT_BYTES), 50, 60_000);
+    }
+
+    private static SystemStats stats(int key) {
+        User user = new User();
+        user.setId(1);
+
+        SystemStats s = new SystemStats();
+        s.setUser(user);
+        s.setKeyboardPresses(key);
+        s.setRecordedAt(LocalDateTime.of(2025, 3, 3, 9, 0).plusMinutes(key));
+        return s;
+    }
+
+    private static List<Integer> keys(List<SystemStats> rows) {
+        return rows.stream().map(SystemStats::getKeyboardPresses).toList();
+    }
+
+    private static final class Database implements StatsRepository {
+        final List<SystemStats> rows = new ArrayList<>();
+        final List<String> log = new ArrayList<>();
+        volatile boolean down;
+
+        @Override public void save(SystemStats s) { saveAll(List.of(s)); }
+
+        @Override
+        public synchronized void saveAll(List<SystemStats> batch) {
+            if (down) throw new RuntimeException("connection refused");
+            for (SystemStats s : batch) {
+                rows.add(s);
+                log.add("save " + s.getKeyboardPresses());
+            }
+        }
+
+        @Override
+        public synchronized List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
+            return new ArrayList<>(rows);
+        }
+
+        @Override
+        public synchronized void deleteById(Integer id) {
+            log.add("delete " + id);
+            rows.removeIf(s -> s.getKeyboardPresses().equals(id));
+        }
+    }
+}
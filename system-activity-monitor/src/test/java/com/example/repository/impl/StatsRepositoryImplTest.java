@@ -0,0 +1,133 @@
+package com.example.repository.impl;
+
+import com.example.connection.ConnectionPool;
+import com.example.connection.TestDatabase;
+import com.example.model.SystemStats;
+import com.example.model.User;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatsRepositoryImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 3, 10, 0);
+    private static final Set<StatsColumn> COLUMNS =
+            EnumSet.of(StatsColumn.CPU_LOAD, StatsColumn.INPUT_EVENTS, StatsColumn.APPLICATION);
+
+    private ConnectionPool pool;
+    private StatsRepositoryImpl repository;
+
+    @BeforeEach
+    void open() throws SQLException {
+        pool = TestDatabase.create(4, 1_000);
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO users (id, username, password_hash, created_at) VALUES (1, 'u', 'h', CURRENT_TIMESTAMP)");
+        }
+        repository = new StatsRepositoryImpl(pool);
+
+        repository.save(stats(0, "12.34", "Project - IntelliJ IDEA", 60, 5));
+        repository.save(stats(1, null, "Inbox - Google Chrome", 60, 7));
+        repository.save(stats(2, "50.00", null, 60, 1));
+        // Written before per-interval deltas: the counters are running totals, not events.
+        repository.save(stats(3, "99.99", "Other - IntelliJ IDEA", null, 500));
+        repository.save(stats(4, "0.01", "Inbox - Google Chrome", 60, 0));
+    }
+
+    @AfterEach
+    void close() {
+        if (pool != null) pool.close();
+    }
+
+    @Test
+    void databaseProjectionMatchesTheRowsItWasReadFrom() {
+        StatsBatch expected = new StatsBatch(COLUMNS, 16);
+        repository.findByUserIdAndRecordedAtBetween(1, T0, T0.plusHours(1)).forEach(expected::add);
+        assertEquals(5, expected.size());
+
+        List<Integer> sizes = new ArrayList<>();
+        List<long[]> rows = new ArrayList<>();
+        List<String> applications = new ArrayList<>();
+
+        repository.forEachBatch(1, T0, T0.plusHours(1), COLUMNS, 2, batch -> {
+            sizes.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                rows.add(new long[]{
+                        batch.longs(StatsColumn.RECORDED_AT)[i],
+                        batch.longs(StatsColumn.CPU_LOAD)[i],
+                        batch.longs(StatsColumn.INPUT_EVENTS)[i]
+                });
+                long app = batch.longs(StatsColumn.APPLICATION)[i];
+                applications.add(app == StatsBatch.NULL ? null : batch.applicationName((int) app));
+            }
+        });
+
+        assertEquals(List.of(2, 2, 1), sizes, "the batch is handed over each time it fills up");
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.longs(StatsColumn.RECORDED_AT)[i], rows.get(i)[0], "recorded_at of row " + i);
+            assertEquals(expected.longs(StatsColumn.CPU_LOAD)[i], rows.get(i)[1], "cpu of row " + i);
+            assertEquals(expected.longs(StatsColumn.INPUT_EVENTS)[i], rows.get(i)[2], "input of row " + i);
+
+            long app = expected.longs(StatsColumn.APPLICATION)[i];
+            assertEquals(app == StatsBatch.NULL ? null : expected.applicationName((int) app), applications.get(i));
+        }
+
+        assertEquals(StatsColumn.toEpochSeconds(T0), rows.get(0)[0]);
+        assertEquals(1234, rows.get(0)[1]);
+        assertEquals(StatsBatch.NULL, rows.get(1)[1]);
+        assertEquals(0, rows.get(3)[2], "running totals are not counted as input");
+        assertEquals(applications.get(0), applications.get(3), "titles of one application share its id");
+    }
+
+    @Test
+    void onlyTheRequestedColumnsAreRead() {
+        List<Set<StatsColumn>> seen = new ArrayList<>();
+
+        repository.forEachBatch(1, T0, T0.plusHours(1), EnumSet.of(StatsColumn.CPU_LOAD), 10, batch -> {
+            seen.add(batch.columns());
+            assertThrows(IllegalArgumentException.class, () -> batch.longs(StatsColumn.RAM_USED_MB));
+        });
+
+        assertEquals(List.of(EnumSet.of(StatsColumn.RECORDED_AT, StatsColumn.CPU_LOAD)), seen);
+    }
+
+    @Test
+    void emptyRangeCallsNothing() {
+        List<StatsBatch> batches = new ArrayList<>();
+        repository.forEachBatch(1, T0.minusDays(1), T0.minusHours(1), COLUMNS, 2, batches::add);
+        assertTrue(batches.isEmpty());
+    }
+
+    private static SystemStats stats(int minute, String cpu, String window, Integer intervalSeconds, int keys) {
+        User user = new User();
+        user.setId(1);
+
+        SystemStats s = new SystemStats();
+        s.setUser(user);
+        s.setCpuLoad(cpu != null ? new BigDecimal(cpu) : null);
+        s.setRamUsedMb(new BigDecimal("2048.00"));
+        s.setActiveWindow(window);
+        s.setKeyboardPresses(keys);
+        s.setMouseClicks(2);
+        s.setMouseMoves(3L);
+        s.setIntervalSeconds(intervalSeconds);
+        s.setRecordedAt(T0.plusMinutes(minute));
+        return s;
+    }
+}
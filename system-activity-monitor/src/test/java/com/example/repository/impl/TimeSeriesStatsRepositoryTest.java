@@ -0,0 +1,105 @@
+package com.example.repository.impl;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+import com.example.repository.interfaces.RetentionRepository;
+import com.example.repository.query.StatsBatch;
+import com.example.repository.query.StatsColumn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSeriesStatsRepositoryTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private TimeSeriesStatsRepository repository;
+
+    @AfterEach
+    void close() {
+        if (repository != null) repository.close();
+    }
+
+    @Test
+    void fulfilsTheStatsRepositoryContract() {
+        repository = new TimeSeriesStatsRepository(dir);
+        List<SystemStats> rows = rows(1, 5);
+        repository.saveAll(rows);
+        repository.save(rows(1, 6).get(5));
+
+        List<SystemStats> found = repository.findByUserIdAndRecordedAtBetween(1, T0, T0.plusMinutes(10));
+        assertEquals(6, found.size());
+
+        assertEquals(2, repository.findByUserIdAndRecordedAtBetween(1, T0.plusMinutes(1), T0.plusMinutes(2)).size());
+
+        List<Long> cpu = new ArrayList<>();
+        repository.forEachBatch(1, T0, T0.plusMinutes(10), EnumSet.of(StatsColumn.CPU_LOAD), 4,
+                (StatsBatch b) -> { for (int i = 0; i < b.size(); i++) cpu.add(b.longs(StatsColumn.CPU_LOAD)[i]); });
+        assertEquals(List.of(1000L, 1100L, 1200L, 1300L, 1400L, 1500L), cpu);
+
+        repository.deleteById(found.get(0).getId());
+        assertEquals(5, repository.findByUserIdAndRecordedAtBetween(1, T0, T0.plusMinutes(10)).size());
+
+        repository.deleteByUserId(1);
+        assertTrue(repository.findByUserIdAndRecordedAtBetween(1, T0, T0.plusMinutes(10)).isEmpty());
+    }
+
+    @Test
+    void retentionPurgesEveryUserButTheExcludedOnes() {
+        repository = new TimeSeriesStatsRepository(dir);
+        repository.saveAll(rows(1, 5));
+        repository.saveAll(rows(2, 5));
+        repository.saveAll(rows(3, 5));
+
+        TimeSeriesRetentionRepository retention = new TimeSeriesRetentionRepository(new NoDatabase(), repository);
+        LocalDateTime cutoff = T0.plusMinutes(3);
+
+        assertEquals(6, retention.deleteStatsBefore(null, Set.of(3), cutoff, 100));
+        assertEquals(0, retention.deleteStatsBefore(null, Set.of(3), cutoff, 100));
+        assertEquals(3, retention.deleteStatsBefore(3, null, cutoff, 100));
+
+        for (int user = 1; user <= 3; user++) {
+            assertEquals(2, repository.findByUserIdAndRecordedAtBetween(user, T0, T0.plusHours(1)).size());
+        }
+    }
+
+    private static List<SystemStats> rows(int userId, int count) {
+        User user = new User();
+        user.setId(userId);
+
+        List<SystemStats> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SystemStats s = new SystemStats();
+            s.setUser(user);
+            s.setRecordedAt(T0.plusMinutes(i));
+            s.setCpuLoad(BigDecimal.valueOf(1000 + i * 100L, 2));
+            rows.add(s);
+        }
+        return rows;
+    }
+
+    private static final class NoDatabase implements RetentionRepository {
+        @Override public boolean isPartitioned() { return false; }
+        @Override public void ensurePartitions(YearMonth through) {}
+        @Override public List<String> dropPartitionsBefore(LocalDateTime cutoff) { return List.of(); }
+        @Override public Map<Integer, Integer> findUserRetentionDays() { return Map.of(); }
+        @Override public int deleteStatsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) { return 0; }
+        @Override public int deleteRollupsBefore(Integer userId, Set<Integer> excludedUsers, LocalDateTime cutoff, int limit) { return 0; }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.repository.impl;
+
+import com.example.model.SystemStats;
+import com.example.repository.interfaces.StatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindStatsRepositoryTest {
+
+    private final RecordingRepository delegate = new RecordingRepository();
+    private WriteBehindStatsRepository repository;
+
+    @AfterEach
+    void close() {
+        delegate.release.countDown();
+        if (repository != null) repository.close();
+    }
+
+    @Test
+    void flushWritesQueuedRowsBeforeReads() {
+        repository = open();
+        repository.save(stats(1));
+        repository.save(stats(2));
+
+        assertEquals(List.of(1, 2), ids(repository.findByUserIdAndRecordedAtBetween(1, null, null)));
+        assertEquals(1, delegate.flushes.get());
+    }
+
+    @Test
+    void failedBatchIsKeptAndWrittenFirst() {
+        repository = open();
+        delegate.failures.set(1);
+
+        repository.save(stats(1));
+        repository.save(stats(2));
+        repository.flush();
+        assertEquals(List.of(), ids(delegate.rows));
+        assertEquals(2, repository.getQueued());
+
+        repository.save(stats(3));
+        repository.flush();
+        assertEquals(List.of(1, 2, 3), ids(delegate.rows));
+        assertEquals(0, repository.getQueued());
+        assertEquals(0, repository.getDropped());
+    }
+
+    @Test
+    void flushGivesUpWaitingOnAHungDatabase() {
+        repository = open();
+        delegate.hang = true;
+        repository.save(stats(1));
+
+        long started = System.currentTimeMillis();
+        repository.flush();
+        long waited = System.currentTimeMillis() - started;
+
+        assertTrue(waited < WriteBehindStatsRepository.FLUSH_TIMEOUT_MILLIS + 1_000, "waited " + waited + " ms");
+    }
+
+    private WriteBehindStatsRepository open() {
+        return new WriteBehindStatsRepository(delegate, 100, 50, 60_000,
+                WriteBehindStatsRepository.OverflowPolicy.BLOCK, 100);
+    }
+
+    private static SystemStats stats(int id) {
+        SystemStats s = new SystemStats();
+        s.setId(id);
+        s.setRecordedAt(LocalDateTime.of(2025, 3, 3, 9, 0).plusMinutes(id));
+        return s;
+    }
+
+    private static List<Integer> ids(List<SystemStats> rows) {
+        return rows.stream().map(SystemStats::getId).toList();
+    }
+
+    private static final class RecordingRepository implements StatsRepository {
+        final List<SystemStats> rows = new ArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean hang;
+
+        @Override public void save(SystemStats s) { saveAll(List.of(s)); }
+
+        @Override
+        public void saveAll(List<SystemStats> batch) {
+            if (hang) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) throw new RuntimeException("connection refused");
+            synchronized (rows) { rows.addAll(batch); }
+        }
+
+        @Override
+        public List<SystemStats> findByUserIdAndRecordedAtBetween(Integer userId, LocalDateTime start, LocalDateTime end) {
+            synchronized (rows) { return new ArrayList<>(rows); }
+        }
+
+        @Override public void deleteById(Integer id) {}
+        @Override public boolean flush() { flushes.incrementAndGet(); return true; }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.repository.spool;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatsRecordCodecTest {
+
+    @Test
+    void roundTripKeepsEveryField() {
+        SystemStats s = stats("Project - IntelliJ IDEA");
+        s.setCpuLoad(new BigDecimal("12.345"));
+        s.setRamUsedMb(new BigDecimal("4096.5"));
+        s.setRamTotalMb(new BigDecimal("16384"));
+        s.setDiskTotalGb(new BigDecimal("512.00"));
+        s.setDiskFreeGb(new BigDecimal("100.25"));
+        s.setDiskUsedGb(new BigDecimal("411.75"));
+        s.setActivityRate(new BigDecimal("1.5"));
+        s.setKeyboardPresses(42);
+        s.setMouseClicks(7);
+        s.setMouseMoves(1_000L);
+        s.setSystemUptimeSeconds(86_400L);
+        s.setIntervalSeconds(60);
+
+        SystemStats d = roundTrip(s);
+
+        assertEquals(7, d.getUser().getId());
+        assertEquals(s.getRecordedAt(), d.getRecordedAt());
+        assertEquals(new BigDecimal("12.35"), d.getCpuLoad());
+        assertEquals(new BigDecimal("4096.50"), d.getRamUsedMb());
+        assertEquals(new BigDecimal("16384.00"), d.getRamTotalMb());
+        assertEquals(new BigDecimal("512.00"), d.getDiskTotalGb());
+        assertEquals(new BigDecimal("100.25"), d.getDiskFreeGb());
+        assertEquals(new BigDecimal("411.75"), d.getDiskUsedGb());
+        assertEquals(new BigDecimal("1.50"), d.getActivityRate());
+        assertEquals(42, d.getKeyboardPresses());
+        assertEquals(7, d.getMouseClicks());
+        assertEquals(1_000L, d.getMouseMoves());
+        assertEquals(86_400L, d.getSystemUptimeSeconds());
+        assertEquals(60, d.getIntervalSeconds());
+        assertEquals("Project - IntelliJ IDEA", d.getActiveWindow());
+    }
+
+    @Test
+    void nullsStayNull() {
+        SystemStats d = roundTrip(stats(null));
+
+        assertNull(d.getCpuLoad());
+        assertNull(d.getRamUsedMb());
+        assertNull(d.getActivityRate());
+        assertNull(d.getKeyboardPresses());
+        assertNull(d.getMouseMoves());
+        assertNull(d.getSystemUptimeSeconds());
+        assertNull(d.getIntervalSeconds());
+        assertNull(d.getActiveWindow());
+    }
+
+    @Test
+    void longTitleIsCutOnACharacterBoundary() {
+        // Two-byte characters after one ASCII byte: byte 1024 is the middle of a character.
+        String cyrillic = "a" + "є".repeat(600);
+        String decoded = roundTrip(stats(cyrillic)).getActiveWindow();
+        assertEquals("a" + "є".repeat(511), decoded);
+
+        // Four-byte characters (surrogate pairs in Java) after two ASCII bytes.
+        String emoji = "ab" + "😀".repeat(300);
+        decoded = roundTrip(stats(emoji)).getActiveWindow();
+        assertEquals("ab" + "😀".repeat(255), decoded);
+
+        assertFalse(decoded.contains("�"));
+        assertTrue(decoded.getBytes(StandardCharsets.UTF_8).length <= 1024);
+    }
+
+    @Test
+    void titleOfExactlyTheLimitIsKept() {
+        String title = "x".repeat(1024);
+        assertEquals(title, roundTrip(stats(title)).getActiveWindow());
+    }
+
+    private static SystemStats roundTrip(SystemStats s) {
+        ByteBuffer buffer = ByteBuffer.allocate(StatsRecordCodec.maxSize());
+        StatsRecordCodec.encode(s, buffer);
+        buffer.flip();
+
+        SystemStats decoded = StatsRecordCodec.decode(buffer);
+        assertEquals(0, buffer.remaining());
+        return decoded;
+    }
+
+    private static SystemStats stats(String window) {
+        User user = new User();
+        user.setId(7);
+
+        SystemStats s = new SystemStats();
+        s.setUser(user);
+        s.setActiveWindow(window);
+        s.setRecordedAt(LocalDateTime.of(2025, 3, 3, 10, 15, 30, 123_000_000));
+        return s;
+    }
+}
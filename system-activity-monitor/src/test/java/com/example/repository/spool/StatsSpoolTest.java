@@ -0,0 +1,133 @@
+package com.example.repository.spool;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatsSpoolTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 3, 10, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackInOrderAcrossSegments() throws IOException {
+        try (StatsSpool spool = new StatsSpool(dir, SEGMENT_BYTES)) {
+            spool.append(rows(0, 100));
+            assertTrue(segments() > 1);
+            assertFalse(spool.isEmpty());
+
+            List<Integer> read = new ArrayList<>();
+            while (true) {
+                StatsSpool.Batch batch = spool.read(30);
+                if (batch.isEmpty()) break;
+                for (SystemStats s : batch.records()) read.add(s.getKeyboardPresses());
+                spool.commit(batch.end());
+            }
+
+            assertEquals(IntStream.range(0, 100).boxed().toList(), read);
+            assertTrue(spool.isEmpty());
+            assertEquals(1, segments());
+        }
+    }
+
+    @Test
+    void uncommittedRecordsAreReadAgainAfterReopening() throws IOException {
+        try (StatsSpool spool = new StatsSpool(dir, SEGMENT_BYTES)) {
+            spool.append(rows(0, 5));
+            spool.commit(spool.read(2).end());
+            spool.read(10);
+        }
+
+        try (StatsSpool spool = new StatsSpool(dir, SEGMENT_BYTES)) {
+            assertEquals(List.of(2, 3, 4), keys(spool.read(10)));
+
+            spool.append(rows(5, 1));
+            assertEquals(List.of(2, 3, 4, 5), keys(spool.read(10)));
+        }
+    }
+
+    @Test
+    void tornTailIsCutOffOnOpen() throws IOException {
+        try (StatsSpool spool = new StatsSpool(dir, SEGMENT_BYTES)) {
+            spool.append(rows(0, 5));
+        }
+
+        // Flip a payload byte of the last record, as if the process died while writing it.
+        int recordBytes = 8 + encodedSize(rows(0, 1).get(0));
+        int lastPayload = 8 + 4 * recordBytes + 8;
+        try (FileChannel ch = FileChannel.open(onlySegment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            ch.read(b, lastPayload);
+            b.put(0, (byte) (b.get(0) ^ 0xFF));
+            b.rewind();
+            ch.write(b, lastPayload);
+        }
+
+        try (StatsSpool spool = new StatsSpool(dir, SEGMENT_BYTES)) {
+            assertEquals(List.of(0, 1, 2, 3), keys(spool.read(10)));
+
+            spool.append(rows(9, 1));
+            assertEquals(List.of(0, 1, 2, 3, 9), keys(spool.read(10)));
+        }
+    }
+
+    private static List<SystemStats> rows(int from, int count) {
+        User user = new User();
+        user.setId(1);
+
+        List<SystemStats> rows = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            SystemStats s = new SystemStats();
+            s.setUser(user);
+            s.setKeyboardPresses(i);
+            s.setActiveWindow("Window " + i % 10);
+            s.setRecordedAt(T0.plusSeconds(i));
+            rows.add(s);
+        }
+        return rows;
+    }
+
+    private static List<Integer> keys(StatsSpool.Batch batch) {
+        return batch.records().stream().map(SystemStats::getKeyboardPresses).toList();
+    }
+
+    private static int encodedSize(SystemStats s) {
+        ByteBuffer buffer = ByteBuffer.allocate(StatsRecordCodec.maxSize());
+        StatsRecordCodec.encode(s, buffer);
+        return buffer.position();
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().endsWith(".seg")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.repository.timeseries;
+
+import com.example.model.SystemStats;
+import com.example.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSeriesStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 3, 9, 0);
+    private static final int BLOCK_ROWS = 4;
+
+    @TempDir
+    Path dir;
+
+    private TimeSeriesStore store;
+
+    @AfterEach
+    void close() throws IOException {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void rowsReadBackAcrossSealedBlocksAndTheHead() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 10));
+
+        List<SystemStats> all = store.query(1, T0, T0.plusMinutes(9));
+        assertEquals(10, all.size());
+        for (int i = 0; i < 10; i++) {
+            SystemStats s = all.get(i);
+            assertEquals(T0.plusMinutes(i), s.getRecordedAt());
+            assertEquals(new BigDecimal(i + ".25"), s.getCpuLoad());
+            assertEquals(i * 3, s.getKeyboardPresses());
+            assertEquals(60, s.getIntervalSeconds());
+            assertEquals(i % 2 == 0 ? "Editor - notes.txt" : null, s.getActiveWindow());
+            assertNull(s.getDiskTotalGb());
+        }
+
+        List<SystemStats> middle = store.query(1, T0.plusMinutes(3), T0.plusMinutes(5));
+        assertEquals(List.of(T0.plusMinutes(3), T0.plusMinutes(4), T0.plusMinutes(5)), times(middle));
+        assertTrue(store.query(2, T0, T0.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void reopenedStoreKeepsRowsAndHandsOutNewIds() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 6));
+        int lastId = store.query(1, T0, T0.plusMinutes(5)).get(5).getId();
+        store.close();
+
+        store = open();
+        assertEquals(6, store.query(1, T0, T0.plusMinutes(5)).size());
+
+        List<SystemStats> more = rows(1, 6, 1);
+        store.append(more);
+        assertTrue(more.get(0).getId() > lastId);
+    }
+
+    @Test
+    void rowsAtAStoredTimestampAreSkipped() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 6));
+        store.append(rows(1, 0, 7));
+
+        assertEquals(7, store.query(1, T0, T0.plusHours(1)).size());
+    }
+
+    @Test
+    void deletedIdsStayHiddenAfterReopen() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 6));
+        int id = store.query(1, T0.plusMinutes(2), T0.plusMinutes(2)).get(0).getId();
+
+        store.delete(id);
+        store.close();
+        store = open();
+
+        assertEquals(5, store.query(1, T0, T0.plusHours(1)).size());
+        assertTrue(store.query(1, T0.plusMinutes(2), T0.plusMinutes(2)).isEmpty());
+    }
+
+    @Test
+    void purgeKeepsOnlyRowsFromTheCutoffOn() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 10));
+        store.append(rows(2, 0, 3));
+
+        assertEquals(6, store.purgeBefore(1, T0.plusMinutes(6)));
+        assertEquals(0, store.purgeBefore(1, T0.plusMinutes(6)));
+
+        assertEquals(List.of(T0.plusMinutes(6), T0.plusMinutes(7), T0.plusMinutes(8), T0.plusMinutes(9)),
+                times(store.query(1, T0, T0.plusHours(1))));
+        assertEquals(3, store.query(2, T0, T0.plusHours(1)).size());
+
+        store.close();
+        store = open();
+        assertEquals(4, store.query(1, T0, T0.plusHours(1)).size());
+        assertFalse(Files.exists(dir.resolve("user-1.tmp")));
+    }
+
+    @Test
+    void unfinishedRewriteIsDiscardedAndFinishedOneSwappedIn() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 10));
+        store.close();
+
+        Files.createDirectories(dir.resolve("user-1.tmp"));
+        Files.writeString(dir.resolve("user-1.tmp").resolve("recorded_at.col"), "partial");
+        store = open();
+        assertEquals(10, store.query(1, T0, T0.plusHours(1)).size());
+        assertFalse(Files.exists(dir.resolve("user-1.tmp")));
+
+        store.purgeBefore(1, T0.plusMinutes(8));
+        store.close();
+
+        // As if the process stopped after the rewrite was complete but before the swap.
+        Files.move(dir.resolve("user-1"), dir.resolve("user-1.tmp"));
+        Files.createFile(dir.resolve("user-1.tmp").resolve("complete"));
+        store = open();
+        assertEquals(2, store.query(1, T0, T0.plusHours(1)).size());
+    }
+
+    @Test
+    void deletedUserLeavesNothingBehind() throws Exception {
+        store = open();
+        store.append(rows(1, 0, 5));
+        store.deleteUser(1);
+
+        assertTrue(store.query(1, T0, T0.plusHours(1)).isEmpty());
+        assertFalse(Files.exists(dir.resolve("user-1")));
+        assertTrue(store.userIds().isEmpty());
+    }
+
+    private TimeSeriesStore open() throws IOException {
+        return new TimeSeriesStore(dir, BLOCK_ROWS);
+    }
+
+    private static List<SystemStats> rows(int userId, int from, int count) {
+        User user = new User();
+        user.setId(userId);
+
+        List<SystemStats> rows = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            SystemStats s = new SystemStats();
+            s.setUser(user);
+            s.setRecordedAt(T0.plusMinutes(i));
+            s.setCpuLoad(new BigDecimal(i + ".25"));
+            s.setRamUsedMb(new BigDecimal("8192.50"));
+            s.setKeyboardPresses(i * 3);
+            s.setMouseClicks(i);
+            s.setMouseMoves((long) i * 10);
+            s.setIntervalSeconds(60);
+            s.setActiveWindow(i % 2 == 0 ? "Editor - notes.txt" : null);
+            rows.add(s);
+        }
+        return rows;
+    }
+
+    private static List<LocalDateTime> times(List<SystemStats> rows) {
+        return rows.stream().map(SystemStats::getRecordedAt).toList();
+    }
+}
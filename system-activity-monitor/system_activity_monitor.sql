@@ -12,7 +12,8 @@ CREATE TABLE IF NOT EXISTS users (
     username VARCHAR(50) NOT NULL UNIQUE,
     password_hash VARCHAR(255) NOT NULL,
     email VARCHAR(100),
-    created_at DATETIME NOT NULL
+    created_at DATETIME NOT NULL,
+    retention_days INT
     );
 
 CREATE TABLE IF NOT EXISTS idle_time (
@@ -24,13 +25,34 @@ CREATE TABLE IF NOT EXISTS idle_time (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
     );
 
+-- Window titles and the applications they normalise to, stored once and
+-- referenced by id from system_stats. Binary collation keeps titles that
+-- differ only in case or trailing spaces apart.
+CREATE TABLE IF NOT EXISTS applications (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) COLLATE utf8mb4_0900_bin NOT NULL,
+    UNIQUE KEY uq_applications_name (name)
+    );
+
+CREATE TABLE IF NOT EXISTS window_titles (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) COLLATE utf8mb4_0900_bin NOT NULL,
+    application_id INT,
+    UNIQUE KEY uq_window_titles_title (title),
+    FOREIGN KEY (application_id) REFERENCES applications(id)
+    );
+
+-- Monthly partitions on recorded_at let retention drop whole months at once.
+-- MySQL does not allow foreign keys on partitioned tables, so rows of a deleted
+-- user are removed by the application, and every unique key includes recorded_at.
+-- RetentionService splits p_future into monthly partitions ahead of time.
 CREATE TABLE IF NOT EXISTS system_stats (
-                                            id INT AUTO_INCREMENT PRIMARY KEY,
+                                            id INT AUTO_INCREMENT,
                                             user_id INT NOT NULL,
                                             cpu_load DECIMAL(6,2),
                                             ram_used_mb DECIMAL(12,2),
                                             ram_total_mb DECIMAL(12,2),
-                                            active_window VARCHAR(255),
+                                            window_title_id INT,
                                             keyboard_presses INT DEFAULT 0,
                                             mouse_clicks INT DEFAULT 0,
                                             mouse_moves BIGINT DEFAULT 0,
@@ -38,8 +60,101 @@ CREATE TABLE IF NOT EXISTS system_stats (
                                             disk_total_gb DECIMAL(12,2),
                                             disk_free_gb DECIMAL(12,2),
                                             disk_used_gb DECIMAL(12,2),
+                                            interval_seconds INT,
+                                            activity_rate DECIMAL(10,2),
                                             recorded_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
-                                            FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+                                            PRIMARY KEY (id, recorded_at),
+                                            UNIQUE KEY uq_system_stats_user_time (user_id, recorded_at)
+    )
+    PARTITION BY RANGE COLUMNS (recorded_at) (
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
+
+CREATE TABLE IF NOT EXISTS app_segments (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    app_name VARCHAR(255) NOT NULL,
+    start_time DATETIME NOT NULL,
+    end_time DATETIME,
+    duration_seconds INT,
+    INDEX idx_app_segments_user_start (user_id, start_time),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    );
+
+-- Rollups of system_stats per minute, hour and day, kept up to date on insert.
+CREATE TABLE IF NOT EXISTS stats_1m (
+    user_id INT NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    sample_count INT NOT NULL,
+    cpu_count INT NOT NULL,
+    cpu_sum DECIMAL(20,2) NOT NULL,
+    cpu_min DECIMAL(6,2),
+    cpu_max DECIMAL(6,2),
+    ram_count INT NOT NULL,
+    ram_sum DECIMAL(24,2) NOT NULL,
+    ram_min DECIMAL(12,2),
+    ram_max DECIMAL(12,2),
+    input_events BIGINT NOT NULL,
+    gap_seconds BIGINT NOT NULL,
+    gap_count INT NOT NULL,
+    cpu_sketch BLOB,
+    ram_sketch BLOB,
+    PRIMARY KEY (user_id, bucket_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    );
+
+CREATE TABLE IF NOT EXISTS stats_1h (
+    user_id INT NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    sample_count INT NOT NULL,
+    cpu_count INT NOT NULL,
+    cpu_sum DECIMAL(20,2) NOT NULL,
+    cpu_min DECIMAL(6,2),
+    cpu_max DECIMAL(6,2),
+    ram_count INT NOT NULL,
+    ram_sum DECIMAL(24,2) NOT NULL,
+    ram_min DECIMAL(12,2),
+    ram_max DECIMAL(12,2),
+    input_events BIGINT NOT NULL,
+    gap_seconds BIGINT NOT NULL,
+    gap_count INT NOT NULL,
+    cpu_sketch BLOB,
+    ram_sketch BLOB,
+    PRIMARY KEY (user_id, bucket_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    );
+
+CREATE TABLE IF NOT EXISTS stats_1d (
+    user_id INT NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    sample_count INT NOT NULL,
+    cpu_count INT NOT NULL,
+    cpu_sum DECIMAL(20,2) NOT NULL,
+    cpu_min DECIMAL(6,2),
+    cpu_max DECIMAL(6,2),
+    ram_count INT NOT NULL,
+    ram_sum DECIMAL(24,2) NOT NULL,
+    ram_min DECIMAL(12,2),
+    ram_max DECIMAL(12,2),
+    input_events BIGINT NOT NULL,
+    gap_seconds BIGINT NOT NULL,
+    gap_count INT NOT NULL,
+    cpu_sketch BLOB,
+    ram_sketch BLOB,
+    updated_at DATETIME,
+    PRIMARY KEY (user_id, bucket_start),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    );
+
+CREATE TABLE IF NOT EXISTS stats_app_counts (
+    user_id INT NOT NULL,
+    resolution CHAR(2) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    app_name VARCHAR(255) COLLATE utf8mb4_0900_bin NOT NULL,
+    sample_count INT NOT NULL,
+    first_seen_at DATETIME,
+    PRIMARY KEY (user_id, resolution, bucket_start, app_name),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
     );
 
 CREATE TABLE reports (
@@ -56,7 +171,65 @@ CREATE TABLE reports (
                          file_path TEXT,
                          created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
                          days_json LONGTEXT,
+                         payload MEDIUMBLOB,
+                         INDEX idx_reports_user_created (user_id, created_at, id),
                          FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+-- Migration for existing databases: index for the paged reports list.
+-- CREATE INDEX idx_reports_user_created ON reports (user_id, created_at, id);
+
+-- Migration for existing databases: binary report payload (see ReportPayloadCodec).
+-- Old rows keep app_usage_json / days_json and are still readable; new and updated rows use payload.
+-- ALTER TABLE reports ADD COLUMN payload MEDIUMBLOB AFTER days_json;
+
+-- Migration for existing databases: CPU/RAM percentile sketches of the rollups (see QuantileSketch).
+-- Days rolled up before this have no sketches and are rebuilt by the next report that covers them.
+-- ALTER TABLE stats_1m ADD COLUMN cpu_sketch BLOB, ADD COLUMN ram_sketch BLOB;
+-- ALTER TABLE stats_1h ADD COLUMN cpu_sketch BLOB, ADD COLUMN ram_sketch BLOB;
+-- ALTER TABLE stats_1d ADD COLUMN cpu_sketch BLOB, ADD COLUMN ram_sketch BLOB;
+
+-- Migration for existing databases: when a day rollup was last written (see findStaleDays).
+-- Days rolled up before this are counted against their raw rows until they are rolled up again.
+-- ALTER TABLE stats_1d ADD COLUMN updated_at DATETIME AFTER ram_sketch;
+
+-- Migration for existing databases: first sample of each application in a bucket, so
+-- reports list applications in the order they were first used, as before rollups.
+-- App counts written before this have no order within their bucket until rebuilt.
+-- ALTER TABLE stats_app_counts ADD COLUMN first_seen_at DATETIME AFTER sample_count;
 
+-- Migration for existing databases: keyboard_presses / mouse_clicks / mouse_moves
+-- now hold per-interval deltas instead of cumulative totals.
+-- ALTER TABLE system_stats
+--     ADD COLUMN interval_seconds INT AFTER disk_used_gb,
+--     ADD COLUMN activity_rate DECIMAL(10,2) AFTER interval_seconds;
+-- Rows written before this keep interval_seconds NULL. Their running totals are not
+-- activity, so reports and rollups count no input events for them. Rollups built
+-- while such rows were still counted are dropped once; reports rebuild them.
+-- DELETE FROM stats_1m; DELETE FROM stats_1h; DELETE FROM stats_1d; DELETE FROM stats_app_counts;
+--
+-- Replay from the local stats spool relies on one row per user and timestamp.
+-- ALTER TABLE system_stats
+--     ADD UNIQUE KEY uq_system_stats_user_time (user_id, recorded_at);
+--
+-- Rollup tables above can be created on an existing database as they are;
+-- report generation fills them for older periods on first use.
+--
+-- Retention: optional per-user override of the global retention period and
+-- monthly partitioning of system_stats. The first REORGANIZE done by
+-- RetentionService copies the existing rows into monthly partitions once.
+-- ALTER TABLE users ADD COLUMN retention_days INT;
+-- ALTER TABLE system_stats DROP FOREIGN KEY <system_stats_ibfk_1>;
+-- ALTER TABLE system_stats DROP PRIMARY KEY, ADD PRIMARY KEY (id, recorded_at);
+-- ALTER TABLE system_stats PARTITION BY RANGE COLUMNS (recorded_at) (
+--     PARTITION p_future VALUES LESS THAN (MAXVALUE)
+-- );
+--
+-- Window title dictionary. Applications of migrated titles are filled in by the
+-- application the first time each title is read.
+-- INSERT IGNORE INTO window_titles (title)
+--     SELECT DISTINCT active_window FROM system_stats WHERE active_window IS NOT NULL;
+-- ALTER TABLE system_stats ADD COLUMN window_title_id INT AFTER ram_total_mb;
+-- UPDATE system_stats s JOIN window_titles wt ON wt.title = s.active_window
+--     SET s.window_title_id = wt.id;
+-- ALTER TABLE system_stats DROP COLUMN active_window;